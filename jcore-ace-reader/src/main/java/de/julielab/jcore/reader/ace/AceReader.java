@@ -33,25 +33,35 @@ import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.util.Progress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.uima.jcas.cas.TOP;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 
 // TODO add query if the data elements (e.g. ArrayLists) are null. Only if it is
 // not so, read those elements to prevent exceptions
 
 public class AceReader extends CollectionReader_ImplBase {
 	public static final String GENERATE_JCORE_TYPES = "generateJcoreTypes";
+	public static final String PARAM_STREAMING = "streaming";
 
 	/*----------------------------------------------------------------------------------------------*/
 	/**
@@ -73,6 +83,22 @@ public class AceReader extends CollectionReader_ImplBase {
 	@ConfigurationParameter(name=GENERATE_JCORE_TYPES, description = "Specifies if JULIE Lab Types (jcore-semantics-ace-types.xml) should be generated in addition to types from jcore-ace-types.xml. Defaults to true.", defaultValue = "true")
 	private boolean generateJcoreTypes = true;
 
+	/**
+	 * The input files are read with StAX instead of DOM if true
+	 */
+	@ConfigurationParameter(name=PARAM_STREAMING, mandatory = false, description = "If set to true, the sgm and apf.xml files are read with a streaming StAX parser instead of being parsed into complete DOM trees. Only a single entity, value, timex2, relation or event element is held in memory at a time. The resulting CASes are the same. Defaults to false.", defaultValue = "false")
+	private boolean streaming = false;
+
+	/**
+	 * Factory for the StAX readers in streaming mode
+	 */
+	private XMLInputFactory inputFactory;
+
+	/**
+	 * The sgm files of the input directory by file name
+	 */
+	private Map<String, File> sgmFiles;
+
 	/**
 	 * mappings between ACE relations and Jules Types Relations in ACESemantics.xml
 	 */
@@ -422,16 +448,28 @@ public class AceReader extends CollectionReader_ImplBase {
 		try {
 			File sgmFile = (File) getSgmFileFromInputDirectory(sgmFileName);
 			logger.info("getNext(CAS) - Reading source file " + sgmFile.getName());
-			Document sgmDomDocument = builder.parse(sgmFile);
-			setDocumentText(jcas, sgmDomDocument);
-			Document apfXmlDomDocument = builder.parse(apfXmlFile);
-			addSourceFileInformation(apfXmlDomDocument, jcas);
+			if (streaming) {
+				try (InputStream sgmIs = new FileInputStream(sgmFile)) {
+					XMLStreamReader sgmReader = inputFactory.createXMLStreamReader(sgmFile.toURI().toString(), sgmIs);
+					setDocumentText(jcas, sgmReader);
+					sgmReader.close();
+				}
+				XMLStreamReader apfXmlReader = inputFactory.createXMLStreamReader(apfXmlFile.toURI().toString(),
+						apfXmlFis);
+				addSourceFileInformation(apfXmlReader, jcas);
+				apfXmlReader.close();
+			} else {
+				Document sgmDomDocument = builder.parse(sgmFile);
+				setDocumentText(jcas, sgmDomDocument);
+				Document apfXmlDomDocument = builder.parse(apfXmlFile);
+				addSourceFileInformation(apfXmlDomDocument, jcas);
+			}
 
 			if (generateJcoreTypes) {
 				generateJulesTypes(jcas);
 			} // of if
 		} // of try
-		catch (SAXException e1) {
+		catch (SAXException | XMLStreamException e1) {
 			logger.error("getNext(CAS): " + e1.getMessage() + "\n" + e1.getStackTrace());
 		} // of catch
 		catch (IndexOutOfBoundsException e2) {
@@ -822,6 +860,41 @@ public class AceReader extends CollectionReader_ImplBase {
 		jcas.setDocumentText(documentText);
 	} // of setDocumentText
 
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to set the document text to the cas in streaming mode. The text is the same as the text
+	 * content of the root element used by {@link #setDocumentText(JCas, Document)}.
+	 * 
+	 * @param jcas
+	 *            JCas which will be updated by adding the document text
+	 * @param sgmReader
+	 *            XMLStreamReader on the sgm file which will be read in order to retrieve the document text
+	 */
+	public void setDocumentText(JCas jcas, XMLStreamReader sgmReader) throws XMLStreamException {
+		StringBuilder sb = new StringBuilder();
+		int depth = 0;
+		while (sgmReader.hasNext()) {
+			switch (sgmReader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				if (depth > 0)
+					sb.append(sgmReader.getText());
+				break;
+			default:
+				break;
+			} // of switch
+		} // of while
+		documentText = replaceWhiteChar(sb.toString());
+		jcas.setDocumentText(documentText);
+	} // of setDocumentText
+
 	/*----------------------------------------------------------------------------------------------*/
 	/**
 	 * 
@@ -2189,6 +2262,197 @@ public class AceReader extends CollectionReader_ImplBase {
 		} // of for
 	} // of addSourceFileInformation
 
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to put the source file information of the XML file into the proper object of the
+	 * AceTypeSystem in streaming mode.
+	 * 
+	 * @param apfXmlReader
+	 *            XMLStreamReader on the apf.xml file which will be read in order to retrieve the information
+	 * @param jcas
+	 *            JCas which will be filled with retrieved information
+	 */
+	public void addSourceFileInformation(XMLStreamReader apfXmlReader, JCas jcas) throws XMLStreamException {
+		Document fragmentDocument = builder.newDocument();
+		while (apfXmlReader.hasNext()) {
+			if (apfXmlReader.next() == XMLStreamConstants.START_ELEMENT
+					&& apfXmlReader.getLocalName().equals(ELEMENT_SOURCE_FILE)) {
+				de.julielab.jcore.types.ace.SourceFile aceSourceFile = new de.julielab.jcore.types.ace.SourceFile(jcas);
+				setSourceFileAttributes(aceSourceFile, createElement(apfXmlReader, fragmentDocument));
+				FSArray documentsFSArray = getDocumentFSArray(apfXmlReader, fragmentDocument, jcas);
+				aceSourceFile.setDocuments(documentsFSArray);
+				aceSourceFile.addToIndexes();
+			} // of if
+		} // of while
+	} // of addSourceFileInformation
+
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to build an FSArray which will contain instances of ace.Documents in streaming mode. The
+	 * reader is expected at the start of a source_file element and is left at its end.
+	 * 
+	 * @param apfXmlReader
+	 *            XMLStreamReader on the apf.xml file
+	 * @param fragmentDocument
+	 *            Document which creates the DOM nodes of the single annotation elements
+	 * @param jcas
+	 *            JCas which will be filled with retrieved information
+	 */
+	public FSArray getDocumentFSArray(XMLStreamReader apfXmlReader, Document fragmentDocument, JCas jcas)
+			throws XMLStreamException {
+		List<TOP> documents = new ArrayList<TOP>();
+		int event;
+		// all child elements are consumed completely, so the next end tag is the end of the source_file element
+		while ((event = apfXmlReader.next()) != XMLStreamConstants.END_ELEMENT) {
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				if (apfXmlReader.getLocalName().equals(ELEMENT_DOCUMENT)) {
+					de.julielab.jcore.types.ace.Document aceDocument = new de.julielab.jcore.types.ace.Document(jcas);
+					addDocumentInformation(apfXmlReader, fragmentDocument, aceDocument, jcas);
+					documents.add(aceDocument);
+				} else {
+					readElement(apfXmlReader, fragmentDocument);
+				} // of if
+			} // of if
+		} // of while
+		return getFSArray(documents, jcas);
+	} // of getDocumentFSArray
+
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to put the document information of the XML file into the proper object of the AceTypeSystem
+	 * in streaming mode. Each entity, value, timex2, relation and event element is read into a DOM node of its own and
+	 * processed like in DOM mode before the next element is read. The reader is expected at the start of a document
+	 * element and is left at its end.
+	 * 
+	 * @param apfXmlReader
+	 *            XMLStreamReader on the apf.xml file
+	 * @param fragmentDocument
+	 *            Document which creates the DOM nodes of the single annotation elements
+	 * @param aceDocument
+	 *            ace.Document which will be updated by adding retrieved document information
+	 * @param jcas
+	 *            JCas which will be filled with retrieved information
+	 */
+	public void addDocumentInformation(XMLStreamReader apfXmlReader, Document fragmentDocument,
+			de.julielab.jcore.types.ace.Document aceDocument, JCas jcas) throws XMLStreamException {
+		String docID = retrieveAttribute(createElement(apfXmlReader, fragmentDocument), ITEM_DOCID);
+		List<TOP> entities = new ArrayList<TOP>();
+		List<TOP> values = new ArrayList<TOP>();
+		List<TOP> timex2s = new ArrayList<TOP>();
+		List<TOP> relations = new ArrayList<TOP>();
+		List<TOP> events = new ArrayList<TOP>();
+		boolean failed = false;
+		int event;
+		while ((event = apfXmlReader.next()) != XMLStreamConstants.END_ELEMENT) {
+			if (event != XMLStreamConstants.START_ELEMENT)
+				continue;
+			// the element is read completely before processing it, so that the reader stays consistent on errors
+			Node node = readElement(apfXmlReader, fragmentDocument);
+			if (failed)
+				continue;
+			try {
+				String name = node.getNodeName();
+				if (name.equals(ELEMENT_ENTITY)) {
+					de.julielab.jcore.types.ace.Entity aceEntity = new de.julielab.jcore.types.ace.Entity(jcas);
+					addEntityInformation(node, aceEntity, jcas);
+					entities.add(aceEntity);
+				} else if (name.equals(ELEMENT_VALUE)) {
+					de.julielab.jcore.types.ace.Value aceValue = new de.julielab.jcore.types.ace.Value(jcas);
+					addValueInformation(node, aceValue, jcas);
+					values.add(aceValue);
+				} else if (name.equals(ELEMENT_TIMEX2)) {
+					de.julielab.jcore.types.ace.Timex2 aceTimex2 = new de.julielab.jcore.types.ace.Timex2(jcas);
+					addTimex2Information(node, aceTimex2, jcas);
+					timex2s.add(aceTimex2);
+				} else if (name.equals(ELEMENT_RELATION)) {
+					de.julielab.jcore.types.ace.Relation aceRelation = new de.julielab.jcore.types.ace.Relation(jcas);
+					addRelationInformation(node, aceRelation, jcas);
+					relations.add(aceRelation);
+				} else if (name.equals(ELEMENT_EVENT)) {
+					de.julielab.jcore.types.ace.Event aceEvent = new de.julielab.jcore.types.ace.Event(jcas);
+					addEventInformation(node, aceEvent, jcas);
+					aceEvent.addToIndexes();
+					events.add(aceEvent);
+				} // of if
+			} // of try
+			catch (Exception e) {
+				logger.error("addDocumentInformation(XMLStreamReader, Document, ace.Document, JCas): " + e.getMessage()
+						+ "\nATTENTION! Document information couldn't be retrieved!\n" + e.getStackTrace());
+				failed = true;
+			} // of catch
+		} // of while
+		if (!failed) {
+			aceDocument.setDocid(docID);
+			aceDocument.setEntities(getFSArray(entities, jcas));
+			aceDocument.setValues(getFSArray(values, jcas));
+			aceDocument.setTimex2(getFSArray(timex2s, jcas));
+			aceDocument.setRelations(getFSArray(relations, jcas));
+			aceDocument.setEvents(getFSArray(events, jcas));
+			aceDocument.addToIndexes();
+		} // of if
+	} // of addDocumentInformation
+
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to build an indexed FSArray from a list of feature structures
+	 */
+	private FSArray getFSArray(List<TOP> featureStructures, JCas jcas) {
+		FSArray fsArray = new FSArray(jcas, featureStructures.size());
+		for (int i = 0; i < featureStructures.size(); i++) {
+			fsArray.set(i, featureStructures.get(i));
+		} // of for
+		fsArray.addToIndexes();
+		return fsArray;
+	} // of getFSArray
+
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * This method is used to read the element at the current START_ELEMENT position of the reader together with all
+	 * its descendants into a DOM element. Afterwards, the reader is positioned at the END_ELEMENT of the element.
+	 * 
+	 * @param reader
+	 *            XMLStreamReader positioned at the element
+	 * @param document
+	 *            Document which creates the DOM nodes
+	 * @return element Element which contains the read element
+	 */
+	private Element readElement(XMLStreamReader reader, Document document) throws XMLStreamException {
+		Element element = createElement(reader, document);
+		Node current = element;
+		while (current != null) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				current = current.appendChild(createElement(reader, document));
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				current = current.getParentNode();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				Node last = current.getLastChild();
+				if (last instanceof Text) {
+					((Text) last).appendData(reader.getText());
+				} else {
+					current.appendChild(document.createTextNode(reader.getText()));
+				} // of if
+				break;
+			default:
+				break;
+			} // of switch
+		} // of while
+		return element;
+	} // of readElement
+
+	/*----------------------------------------------------------------------------------------------*/
+	private Element createElement(XMLStreamReader reader, Document document) {
+		Element element = document.createElement(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		} // of for
+		return element;
+	} // of createElement
+
 	/*----------------------------------------------------------------------------------------------*/
 	/**
 	 * This method is used to build an FSArray which will contain instances of ace.Documents
@@ -2234,6 +2498,13 @@ public class AceReader extends CollectionReader_ImplBase {
 		if ((Boolean) aContext.getConfigParameterValue(GENERATE_JCORE_TYPES) != null) {
 			generateJcoreTypes = (Boolean) aContext.getConfigParameterValue(GENERATE_JCORE_TYPES);
 		} // of if
+		if ((Boolean) aContext.getConfigParameterValue(PARAM_STREAMING) != null) {
+			streaming = (Boolean) aContext.getConfigParameterValue(PARAM_STREAMING);
+		} // of if
+		if (streaming) {
+			inputFactory = XMLInputFactory.newInstance();
+			inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		} // of if
 		generateMappings();
 
 //		logger = getUimaContext().getLogger();
@@ -2325,20 +2596,22 @@ public class AceReader extends CollectionReader_ImplBase {
 	 * @return sgmFile File which is specified by the sgmFileName
 	 */
 	private File getSgmFileFromInputDirectory(String sgmFileName) {
-		File sgmFile = null;
-		File directory = new File(((String) getConfigParameterValue(PARAM_INPUTDIR)).trim());
-		if (!directory.exists() || !directory.isDirectory()) {
-			logger.error("getSgmFileFromInputDirectory(): ERROR! Input directory doesn't exist or is not a directory.");
-			return null;
-		} // of if
-		File[] dirFiles = directory.listFiles();
-		for (int i = 0; i < dirFiles.length; i++) {
-			if (!dirFiles[i].isDirectory() && dirFiles[i].getAbsolutePath().endsWith(sgmFileName)) {
-				sgmFile = dirFiles[i];
-				break;
+		if (sgmFiles == null) {
+			File directory = new File(((String) getConfigParameterValue(PARAM_INPUTDIR)).trim());
+			if (!directory.exists() || !directory.isDirectory()) {
+				logger.error("getSgmFileFromInputDirectory(): ERROR! Input directory doesn't exist or is not a directory.");
+				return null;
 			} // of if
-		} // of for
-		return sgmFile;
+			// list the directory only once instead of once per document
+			sgmFiles = new HashMap<String, File>();
+			File[] dirFiles = directory.listFiles();
+			for (int i = 0; i < dirFiles.length; i++) {
+				if (!dirFiles[i].isDirectory() && dirFiles[i].getName().endsWith("sgm")) {
+					sgmFiles.put(dirFiles[i].getName(), dirFiles[i]);
+				} // of if
+			} // of for
+		} // of if
+		return sgmFiles.get(sgmFileName);
 	} // getSgmFileFromInputDirectory
 
 	/*----------------------------------------------------------------------------------------------*/
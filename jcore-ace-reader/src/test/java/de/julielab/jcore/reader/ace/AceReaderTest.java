@@ -26,6 +26,8 @@ import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.impl.XmiCasSerializer;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.collection.CollectionReader;
@@ -49,6 +51,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class AceReaderTest extends TestCase {
 	/**
@@ -2186,6 +2189,67 @@ public class AceReaderTest extends TestCase {
 
 	} // of testGetNextCas
 
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * Test if the streaming mode produces the same CASes as the DOM mode
+	 */
+	public void testStreamingMode() throws Exception {
+		CollectionReaderDescription readerDescription = (CollectionReaderDescription) UIMAFramework.getXMLParser()
+				.parseCollectionReaderDescription(new XMLInputSource(ACE_READER_DESCRIPTOR));
+		readerDescription.getMetaData().getConfigurationParameterSettings().setParameterValue(AceReader.PARAM_INPUTDIR, "src/test/resources/de/julielab/jcore/reader/ace/data");
+		readerDescription.getMetaData().getConfigurationParameterSettings().setParameterValue(AceReader.PARAM_STREAMING, true);
+		CollectionReader streamingReader = UIMAFramework.produceCollectionReader(readerDescription);
+		List<String> streamingDumps = new ArrayList<String>();
+		while (streamingReader.hasNext()) {
+			CAS cas = CasCreationUtils.createCas((AnalysisEngineMetaData) streamingReader.getMetaData());
+			streamingReader.getNext(cas);
+			streamingDumps.add(dumpCas(cas));
+		} // of while
+
+		List<String> expectedDumps = new ArrayList<String>();
+		for (CAS cas : casArrayList)
+			expectedDumps.add(dumpCas(cas));
+		assertFalse(expectedDumps.isEmpty());
+		assertEquals(expectedDumps, streamingDumps);
+	} // of testStreamingMode
+
+	/*----------------------------------------------------------------------------------------------*/
+	/**
+	 * Returns the document text and all annotations with their features. Annotation valued features are given by
+	 * their offsets.
+	 */
+	private String dumpCas(CAS cas) throws CASException {
+		StringBuilder sb = new StringBuilder(cas.getDocumentText()).append("\n");
+		for (org.apache.uima.jcas.tcas.Annotation annotation : cas.getJCas().getAnnotationIndex()) {
+			sb.append(annotation.getType().getName()).append(" ").append(annotation.getBegin()).append("-")
+					.append(annotation.getEnd());
+			for (Feature feature : annotation.getType().getFeatures()) {
+				sb.append(" ").append(feature.getShortName()).append("=");
+				if (feature.getRange().isPrimitive()) {
+					sb.append(annotation.getFeatureValueAsString(feature));
+				} else {
+					FeatureStructure value = annotation.getFeatureValue(feature);
+					if (value instanceof FSArray) {
+						FSArray array = (FSArray) value;
+						for (int i = 0; i < array.size(); i++)
+							sb.append(dumpReference(array.get(i))).append(",");
+					} else if (!feature.getShortName().equals("sofa")) {
+						sb.append(dumpReference(value));
+					} // of if
+				} // of if
+			} // of for
+			sb.append("\n");
+		} // of for
+		return sb.toString();
+	} // of dumpCas
+
+	private String dumpReference(FeatureStructure fs) {
+		if (fs instanceof org.apache.uima.jcas.tcas.Annotation)
+			return fs.getType().getShortName() + ":" + ((org.apache.uima.jcas.tcas.Annotation) fs).getBegin() + "-"
+					+ ((org.apache.uima.jcas.tcas.Annotation) fs).getEnd();
+		return fs == null ? "null" : fs.getType().getShortName();
+	} // of dumpReference
+
 	/*----------------------------------------------------------------------------------------------*/
 	/**
 	 * Test if the CAS returned by the collectionReader has a non-empty document text returns
@@ -0,0 +1,128 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.Sentence;
+import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.index.Comparators;
+import de.julielab.jcore.utility.index.JCoReCoverIndex;
+import de.julielab.jcore.utility.index.JCoReMapAnnotationIndex;
+import de.julielab.jcore.utility.index.JCoReOffsetIndex;
+import de.julielab.jcore.utility.index.JCoReOverlapAnnotationIndex;
+import de.julielab.jcore.utility.index.JCoReSetAnnotationIndex;
+import de.julielab.jcore.utility.index.JCoReTreeMapAnnotationIndex;
+import de.julielab.jcore.utility.index.TermGenerators;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and searching the annotation indexes of <tt>jcore-utilities</tt>. The build benchmarks index all tokens
+ * of a synthetic document. The search benchmarks look up the tokens of each sentence or the tokens overlapping each
+ * entity in an index built once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationIndexBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int sentences;
+
+    private JCas jCas;
+    private List<Sentence> sentenceList;
+    private List<EntityMention> entities;
+    private JCoReOverlapAnnotationIndex<Token> overlapIndex;
+    private JCoReSetAnnotationIndex<Annotation> setIndex;
+    private JCoReMapAnnotationIndex<Long, Token> mapIndex;
+    private JCoReCoverIndex<Token> coverIndex;
+    private JCoReOffsetIndex<Token> offsetIndex;
+
+    @Setup
+    public void setup() throws Exception {
+        jCas = SyntheticCasGenerator.newJCas();
+        new SyntheticCasGenerator(42).generate(jCas, sentences);
+        sentenceList = new ArrayList<>(JCasUtil.select(jCas, Sentence.class));
+        entities = new ArrayList<>(JCasUtil.select(jCas, EntityMention.class));
+        overlapIndex = new JCoReOverlapAnnotationIndex<>(jCas, Token.type);
+        setIndex = new JCoReSetAnnotationIndex<>(Comparators.overlapComparator(), jCas, Token.type);
+        mapIndex = newMapIndex();
+        mapIndex.index(jCas, Token.type);
+        coverIndex = new JCoReCoverIndex<>(jCas, Token.type);
+        offsetIndex = new JCoReOffsetIndex<>(jCas, Token.type);
+    }
+
+    private static JCoReMapAnnotationIndex<Long, Token> newMapIndex() {
+        return new JCoReTreeMapAnnotationIndex<>(Comparators.longOverlapComparator(),
+                TermGenerators.longOffsetTermGenerator(), TermGenerators.longOffsetTermGenerator());
+    }
+
+    @Benchmark
+    public JCoReOverlapAnnotationIndex<Token> buildOverlapIndex() {
+        return new JCoReOverlapAnnotationIndex<>(jCas, Token.type);
+    }
+
+    @Benchmark
+    public JCoReSetAnnotationIndex<Annotation> buildSetIndex() {
+        return new JCoReSetAnnotationIndex<>(Comparators.overlapComparator(), jCas, Token.type);
+    }
+
+    @Benchmark
+    public JCoReMapAnnotationIndex<Long, Token> buildMapIndex() {
+        JCoReMapAnnotationIndex<Long, Token> index = newMapIndex();
+        index.index(jCas, Token.type);
+        return index;
+    }
+
+    @Benchmark
+    public JCoReCoverIndex<Token> buildCoverIndex() {
+        return new JCoReCoverIndex<>(jCas, Token.type);
+    }
+
+    @Benchmark
+    public JCoReOffsetIndex<Token> buildOffsetIndex() {
+        return new JCoReOffsetIndex<>(jCas, Token.type);
+    }
+
+    @Benchmark
+    public void searchOverlapIndex(Blackhole bh) {
+        for (EntityMention entity : entities)
+            overlapIndex.search(entity).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void searchSetIndex(Blackhole bh) {
+        for (EntityMention entity : entities)
+            setIndex.search(entity).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void searchMapIndex(Blackhole bh) {
+        for (EntityMention entity : entities)
+            mapIndex.search(entity).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void searchCoverIndex(Blackhole bh) {
+        for (Sentence sentence : sentenceList)
+            coverIndex.search(sentence).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void searchOffsetIndex(Blackhole bh) {
+        for (Sentence sentence : sentenceList) {
+            int end = sentence.getEnd();
+            for (int i = offsetIndex.firstBeginningAtOrAfter(sentence.getBegin()); i < offsetIndex.size()
+                    && offsetIndex.getEnd(i) <= end; i++)
+                bh.consume(offsetIndex.get(i));
+        }
+    }
+}
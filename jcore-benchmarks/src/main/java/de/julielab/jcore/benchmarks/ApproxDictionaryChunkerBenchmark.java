@@ -0,0 +1,168 @@
+package de.julielab.jcore.benchmarks;
+
+import com.aliasi.chunk.Chunker;
+import com.aliasi.dict.ApproxDictionaryChunker;
+import com.aliasi.dict.DictionaryEntry;
+import com.aliasi.dict.TrieDictionary;
+import com.aliasi.spell.WeightedEditDistance;
+import com.aliasi.tokenizer.IndoEuropeanTokenizerFactory;
+import de.julielab.jcore.ae.lingpipegazetteer.chunking.CompiledApproxDictionaryChunker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approximate dictionary matching of the <tt>jcore-lingpipe-gazetteer-ae</tt> with LingPipe's
+ * {@link ApproxDictionaryChunker} and the {@link CompiledApproxDictionaryChunker} on a synthetic gene name dictionary.
+ * The documents contain writing variants of the gene names and use the edit distance of the gazetteer's chunker
+ * providers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ApproxDictionaryChunkerBenchmark {
+
+    /**
+     * The edit distance employed by the chunker providers for approximate matching.
+     */
+    private static final WeightedEditDistance GAZETTEER_DISTANCE = new WeightedEditDistance() {
+        @Override
+        public double deleteWeight(char cDeleted) {
+            if (cDeleted == '-')
+                return -5.0;
+            if (cDeleted == ' ')
+                return -10.0;
+            return -110.0;
+        }
+
+        @Override
+        public double insertWeight(char cInserted) {
+            return deleteWeight(cInserted);
+        }
+
+        @Override
+        public double matchWeight(char cMatched) {
+            return 0.0;
+        }
+
+        @Override
+        public double substituteWeight(char cDeleted, char cInserted) {
+            if (cDeleted == ' ' && cInserted == '-')
+                return -2.0;
+            if (cDeleted == '-' && cInserted == ' ')
+                return -2.0;
+            return -110.0;
+        }
+
+        @Override
+        public double transposeWeight(char c1, char c2) {
+            return Double.NEGATIVE_INFINITY;
+        }
+    };
+
+    @Param({"50000"})
+    public int dictionaryEntries;
+
+    private Chunker lingPipeChunker;
+    private Chunker compiledChunker;
+    private List<String> documents;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> geneNames = generateGeneNames(random, dictionaryEntries);
+        TrieDictionary<String> dict = new TrieDictionary<>();
+        for (String name : geneNames)
+            dict.addEntry(new DictionaryEntry<>(name, "GENE"));
+        documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            documents.add(generateText(random, geneNames, 100));
+        lingPipeChunker = new ApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE,
+                GAZETTEER_DISTANCE, 100);
+        compiledChunker = new CompiledApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE,
+                GAZETTEER_DISTANCE, 100);
+    }
+
+    @Benchmark
+    public void lingPipeChunker(Blackhole bh) {
+        for (String document : documents)
+            bh.consume(lingPipeChunker.chunk(document));
+    }
+
+    @Benchmark
+    public void compiledChunker(Blackhole bh) {
+        for (String document : documents)
+            bh.consume(compiledChunker.chunk(document));
+    }
+
+    /**
+     * Generates symbols like <tt>KLRG1</tt>, <tt>SHP-1</tt> or <tt>IL 6</tt> and long forms like <tt>tumor necrosis
+     * factor alpha 3</tt>.
+     */
+    private static List<String> generateGeneNames(Random random, int count) {
+        String[] words = {"receptor", "kinase", "factor", "protein", "binding", "growth", "interleukin", "alpha",
+                "beta", "domain", "associated", "tumor", "necrosis", "cell", "lectin-like", "killer"};
+        List<String> names = new ArrayList<>(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            if (random.nextBoolean()) {
+                int letters = 2 + random.nextInt(3);
+                for (int j = 0; j < letters; j++)
+                    sb.append((char) ('A' + random.nextInt(26)));
+                int separator = random.nextInt(3);
+                if (separator == 1)
+                    sb.append('-');
+                else if (separator == 2)
+                    sb.append(' ');
+                sb.append(random.nextInt(20));
+            } else {
+                int wordCount = 2 + random.nextInt(3);
+                for (int j = 0; j < wordCount; j++) {
+                    if (j > 0)
+                        sb.append(' ');
+                    sb.append(words[random.nextInt(words.length)]);
+                }
+                sb.append(' ').append(random.nextInt(10));
+            }
+            names.add(sb.toString());
+        }
+        return names;
+    }
+
+    private static String generateText(Random random, List<String> geneNames, int sentences) {
+        String[] fillers = {"The", "expression", "of", "was", "increased", "in", "mice", "and", "we", "observed",
+                "that", "binds", "to", "with", "high", "affinity", "whereas", "did", "not"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            int length = 8 + random.nextInt(15);
+            for (int j = 0; j < length; j++) {
+                if (random.nextInt(5) == 0) {
+                    String name = geneNames.get(random.nextInt(geneNames.size()));
+                    // writing variants
+                    int variant = random.nextInt(4);
+                    if (variant == 1)
+                        name = name.replace(' ', '-');
+                    else if (variant == 2)
+                        name = name.replace("-", "");
+                    else if (variant == 3)
+                        name = name.replace('-', ' ');
+                    sb.append(name);
+                } else {
+                    sb.append(fillers[random.nextInt(fillers.length)]);
+                }
+                sb.append(' ');
+            }
+            sb.setLength(sb.length() - 1);
+            sb.append(". ");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package de.julielab.jcore.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import de.julielab.jcore.consumer.es.FeaturePathSet;
+import de.julielab.jcore.consumer.es.FeaturePathSets;
+import de.julielab.jcore.consumer.es.FieldGenerationException;
+import de.julielab.jcore.consumer.es.FieldGenerator;
+import de.julielab.jcore.consumer.es.filter.Filter;
+import de.julielab.jcore.consumer.es.filter.FilterChain;
+import de.julielab.jcore.consumer.es.filter.LowerCaseFilter;
+import de.julielab.jcore.consumer.es.filter.LuceneStandardTokenizerFilter;
+import de.julielab.jcore.consumer.es.filter.SnowballFilter;
+import de.julielab.jcore.consumer.es.filter.UniqueFilter;
+import de.julielab.jcore.consumer.es.preanalyzed.Document;
+import de.julielab.jcore.consumer.es.preanalyzed.PreanalyzedFieldValue;
+import de.julielab.jcore.consumer.es.preanalyzed.PreanalyzedToken;
+import de.julielab.jcore.consumer.es.preanalyzed.RawToken;
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.Token;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field generation of the <tt>jcore-elasticsearch-consumer</tt> for a synthetic document: a pre-analyzed text field
+ * from the tokens and entities, a raw entity type field and the JSON serialization as done by the consumer. The
+ * filter benchmark applies a typical text filter chain to each token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElasticSearchFieldBenchmark {
+
+    @Param({"10", "100"})
+    public int sentences;
+
+    private JCas jCas;
+    private String[] tokenTexts;
+    private BenchmarkFieldGenerator fieldGenerator;
+    private Filter filter;
+    private Gson gson;
+    private Document document;
+
+    @Setup
+    public void setup() throws Exception {
+        jCas = SyntheticCasGenerator.newJCas();
+        new SyntheticCasGenerator(42).generate(jCas, sentences);
+        tokenTexts = JCasUtil.select(jCas, Token.class).stream().map(Token::getCoveredText).toArray(String[]::new);
+        fieldGenerator = new BenchmarkFieldGenerator();
+        filter = newFilterChain();
+        GsonBuilder builder = new GsonBuilder();
+        builder.registerTypeAdapter(RawToken.class, new RawToken.RawTokenGsonAdapter());
+        builder.registerTypeAdapter(PreanalyzedFieldValue.class,
+                new PreanalyzedFieldValue.PreanalyzedFieldValueGsonAdapter());
+        gson = builder.create();
+        document = fieldGenerator.addFields(jCas, new Document());
+    }
+
+    private static Filter newFilterChain() {
+        return new FilterChain(new LuceneStandardTokenizerFilter(), new LowerCaseFilter(), new SnowballFilter(),
+                new UniqueFilter());
+    }
+
+    @Benchmark
+    public Document generateFields() throws Exception {
+        return fieldGenerator.addFields(jCas, new Document());
+    }
+
+    @Benchmark
+    public String serializeDocument() {
+        return gson.toJson(document);
+    }
+
+    @Benchmark
+    public void filterTokens(Blackhole bh) {
+        filter.reset();
+        for (String tokenText : tokenTexts)
+            bh.consume(filter.filter(tokenText));
+    }
+
+    /**
+     * Creates a pre-analyzed field of the covered texts of the tokens and the types of the entities and an array
+     * field of the entity types.
+     */
+    private static class BenchmarkFieldGenerator extends FieldGenerator {
+        private final FeaturePathSets textFeaturePathSets;
+        private final Filter textFilter;
+
+        BenchmarkFieldGenerator() {
+            textFeaturePathSets = new FeaturePathSets();
+            textFeaturePathSets.add(new FeaturePathSet(Token.type, Arrays.asList("/:coveredText()")));
+            textFeaturePathSets.add(new FeaturePathSet(EntityMention.type, Arrays.asList("/specificType")));
+            textFilter = newFilterChain();
+        }
+
+        @Override
+        public Document addFields(JCas aJCas, Document doc) throws CASException, FieldGenerationException {
+            textFilter.reset();
+            List<PreanalyzedToken> tokens = getTokensForAnnotationIndexes(textFeaturePathSets, textFilter, true,
+                    PreanalyzedToken.class, null, null, aJCas);
+            doc.addField("text", createPreanalyzedFieldValue(aJCas.getDocumentText(), tokens));
+            FeatureStructure[] entities = JCasUtil.select(aJCas, EntityMention.class).toArray(new FeatureStructure[0]);
+            doc.addField("entities", createRawFieldValueForAnnotations(entities, "/specificType"));
+            return doc;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.ae.jemas.Emotion;
+import de.julielab.jcore.ae.jemas.EmotionLexicon;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lexicon lookup of the <tt>jcore-jemas-ae</tt> on a batch of synthetic documents given as lemma sequences. The
+ * {@link EmotionLexicon} automaton is compared to the lookup of each lemma in a <tt>HashMap</tt> of {@link Emotion}
+ * objects as done by the former lexicon. The documents are drawn from the Warriner lexicon shipped with JEmAS and
+ * contain unknown words and multi-word entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmotionLexiconBenchmark {
+
+    private static final String WARRINER = "/de/julielab/jcore/ae/jemas/lexicons/warriner.vad";
+
+    @Param({"100", "1000"})
+    public int documents;
+
+    private EmotionLexicon lexicon;
+    private Map<String, Emotion> lexiconMap;
+    private List<String[]> batch;
+
+    @Setup
+    public void setup() throws Exception {
+        List<String> lines;
+        try (InputStream is = EmotionLexiconBenchmark.class.getResourceAsStream(WARRINER)) {
+            lines = IOUtils.readLines(is, StandardCharsets.UTF_8);
+        }
+        Path file = Files.createTempFile("warriner", ".vad");
+        try {
+            Files.write(file, lines);
+            lexicon = new EmotionLexicon(file.toString());
+        } finally {
+            Files.delete(file);
+        }
+        lexiconMap = new HashMap<>();
+        for (String line : lines) {
+            if (!line.startsWith("//")) {
+                String[] parts = line.split("\\t");
+                lexiconMap.put(parts[0], new Emotion(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                        Double.parseDouble(parts[3])));
+            }
+        }
+        batch = generateDocuments(new Random(42), new ArrayList<>(new TreeSet<>(lexiconMap.keySet())));
+    }
+
+    /**
+     * Generates lemma sequences of 100 to 500 lemmas. A third are unknown words; the others are drawn from the lexicon
+     * entries with a Zipf-like preference and added lemma by lemma.
+     */
+    private List<String[]> generateDocuments(Random random, List<String> entries) {
+        List<String[]> batch = new ArrayList<>(documents);
+        for (int d = 0; d < documents; d++) {
+            List<String> document = new ArrayList<>();
+            for (int length = 100 + random.nextInt(400); document.size() < length; ) {
+                if (random.nextInt(3) == 0) {
+                    document.add("unknown" + random.nextInt(1000));
+                } else {
+                    String entry = entries.get((int) Math.pow(entries.size(), random.nextDouble()) - 1);
+                    // the lemmas of a CAS are not the instances of the lexicon
+                    for (String lemma : entry.split(" "))
+                        document.add(new String(lemma));
+                }
+            }
+            batch.add(document.toArray(new String[0]));
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public double[] emotionLexicon() {
+        double[] result = new double[4];
+        for (String[] document : batch) {
+            double[] sums = new double[3];
+            int count = 0;
+            int state = EmotionLexicon.ROOT;
+            for (String lemma : document) {
+                state = lexicon.next(state, lemma);
+                count += lexicon.addEmotions(state, sums);
+            }
+            Emotion docEmo = new Emotion(sums[0], sums[1], sums[2]);
+            docEmo.normalize(count);
+            add(result, docEmo, count);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] hashMapLookup() {
+        double[] result = new double[4];
+        for (String[] document : batch) {
+            Emotion docEmo = new Emotion(0, 0, 0);
+            int count = 0;
+            for (String lemma : document) {
+                Emotion emotion = lexiconMap.get(lemma);
+                if (emotion != null) {
+                    docEmo.add(emotion);
+                    ++count;
+                }
+            }
+            docEmo.normalize(count);
+            add(result, docEmo, count);
+        }
+        return result;
+    }
+
+    private static void add(double[] result, Emotion docEmo, int count) {
+        result[0] += docEmo.getValence();
+        result[1] += docEmo.getArousal();
+        result[2] += docEmo.getDominance();
+        result[3] += count;
+    }
+}
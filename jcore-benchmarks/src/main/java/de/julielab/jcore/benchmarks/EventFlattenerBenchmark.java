@@ -0,0 +1,93 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.ae.eventflattener.EventFlattener;
+import de.julielab.jcore.types.ArgumentMention;
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.EventMention;
+import de.julielab.jcore.types.Header;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flattening of nested events by the <tt>jcore-event-flattener-ae</tt> on synthetic documents with event trees of
+ * random depth and width. Each event has one to three arguments, which are entities or, with decreasing probability
+ * in deeper levels, other events. The flattener adds to the CAS, so the document is recreated before each invocation;
+ * this is not part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventFlattenerBenchmark {
+
+    private static final String[] TYPES = {"Regulation", "Positive_regulation", "Negative_regulation",
+            "Gene_expression", "Binding"};
+    private static final String[] ROLES = {"Theme", "Cause"};
+
+    @Param({"30", "300"})
+    public int events;
+
+    private AnalysisEngine engine;
+    private JCas jCas;
+
+    @Setup(Level.Trial)
+    public void createEngine() throws Exception {
+        engine = AnalysisEngineFactory.createEngine(EventFlattener.class);
+        jCas = SyntheticCasGenerator.newJCas();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCas() {
+        jCas.reset();
+        Random random = new Random(42);
+        int length = 100000;
+        char[] text = new char[length];
+        Arrays.fill(text, 'x');
+        jCas.setDocumentText(new String(text));
+        Header header = new Header(jCas);
+        header.setDocId("synthetic-events-" + events);
+        header.addToIndexes();
+        for (int i = 0; i < events; i++)
+            createEvent(random, random.nextInt(length - 10), 0);
+    }
+
+    private EventMention createEvent(Random random, int begin, int depth) {
+        EventMention event = new EventMention(jCas, begin, begin + 5);
+        event.setSpecificType(TYPES[random.nextInt(TYPES.length)]);
+        int numArgs = 1 + random.nextInt(3);
+        FSArray args = new FSArray(jCas, numArgs);
+        for (int i = 0; i < numArgs; i++) {
+            ArgumentMention arg = new ArgumentMention(jCas, begin, begin + 5);
+            arg.setRole(ROLES[random.nextInt(ROLES.length)]);
+            if (depth < 5 && random.nextInt(depth + 2) == 0)
+                arg.setRef(createEvent(random, begin, depth + 1));
+            else
+                arg.setRef(new EntityMention(jCas, begin, begin + 5));
+            args.set(i, arg);
+        }
+        event.setArguments(args);
+        event.addToIndexes();
+        return event;
+    }
+
+    @TearDown(Level.Trial)
+    public void destroyEngine() {
+        engine.destroy();
+    }
+
+    @Benchmark
+    public JCas flattenEvents() throws AnalysisEngineProcessException {
+        engine.process(jCas);
+        return jCas;
+    }
+}
@@ -0,0 +1,69 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReFeaturePath;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value retrieval with {@link JCoReFeaturePath} on all tokens or entities of a synthetic document of 100 sentences.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeaturePathBenchmark {
+
+    private List<Token> tokens;
+    private List<EntityMention> entities;
+    private JCoReFeaturePath posTagPath;
+    private JCoReFeaturePath coveredTextPath;
+    private JCoReFeaturePath specificTypePath;
+
+    @Setup
+    public void setup() throws Exception {
+        JCas jCas = SyntheticCasGenerator.newJCas();
+        new SyntheticCasGenerator(42).generate(jCas, 100);
+        tokens = new ArrayList<>(JCasUtil.select(jCas, Token.class));
+        entities = new ArrayList<>(JCasUtil.select(jCas, EntityMention.class));
+        posTagPath = new JCoReFeaturePath();
+        posTagPath.initialize("/posTag[0]/value");
+        coveredTextPath = new JCoReFeaturePath();
+        coveredTextPath.initialize("/:coveredText()");
+        specificTypePath = new JCoReFeaturePath();
+        specificTypePath.initialize("/specificType");
+    }
+
+    @Benchmark
+    public void getPosTagValue(Blackhole bh) {
+        for (Token token : tokens)
+            bh.consume(posTagPath.getValue(token, 0));
+    }
+
+    @Benchmark
+    public void getPosTagValueAsString(Blackhole bh) {
+        for (Token token : tokens)
+            bh.consume(posTagPath.getValueAsString(token));
+    }
+
+    @Benchmark
+    public void getCoveredText(Blackhole bh) {
+        for (Token token : tokens)
+            bh.consume(coveredTextPath.getValue(token, 0));
+    }
+
+    @Benchmark
+    public void getEntitySpecificType(Blackhole bh) {
+        for (EntityMention entity : entities)
+            bh.consume(specificTypePath.getValue(entity, 0));
+    }
+}
@@ -0,0 +1,88 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReTools;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCoReTools#deserializeXmi(org.apache.uima.cas.CAS, java.io.InputStream, int)} of synthetic documents and
+ * growing an <tt>FSArray</tt> element by element with {@link JCoReTools#addToFSArray(FSArray,
+ * org.apache.uima.cas.FeatureStructure)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JCoReToolsBenchmark {
+
+    @Benchmark
+    public JCas deserializeXmi(XmiState state) throws Exception {
+        JCoReTools.deserializeXmi(state.jCas.getCas(), new ByteArrayInputStream(state.xmi), 0);
+        return state.jCas;
+    }
+
+    @Benchmark
+    public FSArray addToFSArray(ArrayState state) {
+        FSArray array = null;
+        for (Token token : state.elementsToAdd)
+            array = JCoReTools.addToFSArray(array, token);
+        return array;
+    }
+
+    @State(Scope.Thread)
+    public static class XmiState {
+        @Param({"10", "100", "1000"})
+        public int sentences;
+
+        private JCas jCas;
+        private byte[] xmi;
+
+        @Setup(Level.Trial)
+        public void serialize() throws Exception {
+            jCas = SyntheticCasGenerator.newJCas();
+            new SyntheticCasGenerator(42).generate(jCas, sentences);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            XmiCasSerializer.serialize(jCas.getCas(), baos);
+            xmi = baos.toByteArray();
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            jCas.reset();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ArrayState {
+        @Param({"10", "100", "1000"})
+        public int elements;
+
+        private JCas jCas;
+        private Token[] elementsToAdd;
+
+        @Setup(Level.Trial)
+        public void createCas() throws Exception {
+            jCas = SyntheticCasGenerator.newJCas();
+        }
+
+        /**
+         * The arrays created by the benchmark live in the CAS heap. It is reset for each invocation so that it does
+         * not grow over the whole measurement.
+         */
+        @Setup(Level.Invocation)
+        public void createElements() {
+            jCas.reset();
+            elementsToAdd = new Token[elements];
+            for (int i = 0; i < elements; i++)
+                elementsToAdd[i] = new Token(jCas, i, i + 1);
+        }
+    }
+}
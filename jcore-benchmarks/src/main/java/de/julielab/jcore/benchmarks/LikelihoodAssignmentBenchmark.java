@@ -0,0 +1,79 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.ae.likelihoodassignment.LikelihoodAssignmentAnnotator;
+import de.julielab.jcore.types.ConceptMention;
+import de.julielab.jcore.types.LikelihoodIndicator;
+import de.julielab.jcore.types.Sentence;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The assignment of likelihood indicators to concepts by the <tt>jcore-likelihood-assignment-ae</tt> on synthetic
+ * documents with many sentences, concepts and likelihood indicators. The annotator adds to the CAS, so the document
+ * is recreated before each invocation; this is not part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LikelihoodAssignmentBenchmark {
+
+    private static final String[] CATEGORIES = {"negation", "low", "investigation", "moderate", "high"};
+
+    @Param({"200", "2000"})
+    public int sentences;
+
+    private AnalysisEngine engine;
+    private JCas jCas;
+
+    @Setup(Level.Trial)
+    public void createEngine() throws Exception {
+        engine = AnalysisEngineFactory.createEngine(LikelihoodAssignmentAnnotator.class);
+        jCas = SyntheticCasGenerator.newJCas();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCas() {
+        jCas.reset();
+        Random random = new Random(42);
+        int length = 0;
+        for (int i = 0; i < sentences; i++) {
+            int sentLength = 50 + random.nextInt(150);
+            new Sentence(jCas, length, length + sentLength).addToIndexes();
+            for (int j = random.nextInt(10); j > 0; j--) {
+                int begin = length + random.nextInt(sentLength);
+                new ConceptMention(jCas, begin, Math.min(length + sentLength, begin + 5)).addToIndexes();
+            }
+            for (int j = random.nextInt(3); j > 0; j--) {
+                int begin = length + random.nextInt(sentLength);
+                LikelihoodIndicator lh = new LikelihoodIndicator(jCas, begin, Math.min(length + sentLength, begin + 3));
+                lh.setLikelihood(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                lh.addToIndexes();
+            }
+            length += sentLength + 1;
+        }
+        char[] text = new char[length];
+        Arrays.fill(text, 'x');
+        jCas.setDocumentText(new String(text));
+    }
+
+    @TearDown(Level.Trial)
+    public void destroyEngine() {
+        engine.destroy();
+    }
+
+    @Benchmark
+    public JCas assignLikelihoods() throws AnalysisEngineProcessException {
+        engine.process(jCas);
+        return jCas;
+    }
+}
@@ -0,0 +1,108 @@
+package de.julielab.jcore.benchmarks;
+
+import edu.uchsc.ccp.nlp.ei.mutation.MutationException;
+import edu.uchsc.ccp.nlp.ei.mutation.MutationExtractor;
+import edu.uchsc.ccp.nlp.ei.mutation.MutationFinder;
+import edu.uchsc.ccp.nlp.ei.mutation.SinglePassMutationFinder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point mutation extraction of the <tt>jcore-mutationfinder-ae</tt> on a synthetic corpus with the original
+ * {@link MutationFinder}, which scans the text once per regular expression, and the {@link SinglePassMutationFinder}.
+ * The corpus mixes filler words with mutation mentions in the formats covered by the MutationFinder regular
+ * expressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MutationFinderBenchmark {
+
+    private static final String REGEX = "/regex.txt";
+
+    @Param({"50"})
+    public int documents;
+
+    private MutationFinder mutationFinder;
+    private SinglePassMutationFinder singlePassMutationFinder;
+    private List<String> corpus;
+
+    @Setup
+    public void setup() throws Exception {
+        try (InputStream is = MutationFinderBenchmark.class.getResourceAsStream(REGEX)) {
+            mutationFinder = new MutationFinder(is);
+        }
+        try (InputStream is = MutationFinderBenchmark.class.getResourceAsStream(REGEX)) {
+            singlePassMutationFinder = new SinglePassMutationFinder(is);
+        }
+        corpus = generateCorpus(new Random(42), documents);
+    }
+
+    @Benchmark
+    public void mutationFinder(Blackhole bh) {
+        extract(mutationFinder, bh);
+    }
+
+    @Benchmark
+    public void singlePassMutationFinder(Blackhole bh) {
+        extract(singlePassMutationFinder, bh);
+    }
+
+    private void extract(MutationExtractor extractor, Blackhole bh) {
+        for (String text : corpus) {
+            try {
+                bh.consume(extractor.extractMutations(text));
+            } catch (MutationException e) {
+                // some texts cause a MutationException in both implementations
+                bh.consume(e);
+            }
+        }
+    }
+
+    private static List<String> generateCorpus(Random random, int documents) {
+        String[] oneLetter = {"A", "G", "L", "M", "F", "W", "K", "Q", "E", "S", "P", "V", "I", "C", "Y", "H", "R", "N", "D", "T", "X"};
+        String[] threeLetter = {"Ala", "Gly", "Leu", "Met", "Phe", "Trp", "Lys", "Gln", "Glu", "Ser", "Pro", "Val", "Ile", "Cys", "Tyr", "His", "Arg", "Asn", "Asp", "Thr"};
+        String[] names = {"alanine", "glycine", "leucine", "methionine", "tryptophan", "glutamic acid", "serine", "proline", "valine", "tyrosine"};
+        String[] formats = {"%1$s%2$d%3$s", "%1$s-%2$d-%3$s", "%1$s%2$d-->%3$s", "%1$s %2$d to %3$s", "%1$s(%2$d)%3$s",
+                "%3$s for %1$s at position %2$d", "%2$d %1$s-->%3$s", "%1$s%2$d by %3$s", "%1$s-%2$d with %3$s",
+                "%1$s to %3$s at position %2$d", "%3$s for %1$s%2$d", "%1$s%2$d----%3$s", "%1$s %2$d %3$s"};
+        String[] words = {"The", "mutation", "of", "was", "shown", "to", "reduce", "binding", "in", "the", "protein",
+                "(", ")", "and", "[", "]", ",", ".", "for", "at", "position", "residue", "42", "by", "with", "-->"};
+        String[] separators = {" ", " ", " ", ", ", "; ", "\n", "\t", "/", " ", "-"};
+        List<String> corpus = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int d = 0; d < documents; d++) {
+            sb.setLength(0);
+            int length = 100 + random.nextInt(300);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(12) == 0) {
+                    String[] residues = random.nextBoolean() ? oneLetter : random.nextInt(3) == 0 ? names : threeLetter;
+                    String wt = residues[random.nextInt(residues.length)];
+                    String mut = residues[random.nextInt(residues.length)];
+                    int position = random.nextInt(5) == 0 ? random.nextInt(Integer.MAX_VALUE) : 1 + random.nextInt(999);
+                    String mention = String.format(formats[random.nextInt(formats.length)], wt, position, mut);
+                    int casing = random.nextInt(4);
+                    if (casing == 1)
+                        mention = mention.toLowerCase();
+                    else if (casing == 2)
+                        mention = mention.toUpperCase();
+                    sb.append(mention);
+                } else {
+                    sb.append(words[random.nextInt(words.length)]);
+                }
+                sb.append(separators[random.nextInt(separators.length)]);
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+}
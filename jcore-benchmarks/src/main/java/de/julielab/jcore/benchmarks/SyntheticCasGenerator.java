@@ -0,0 +1,174 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.Header;
+import de.julielab.jcore.types.PennBioIEPOSTag;
+import de.julielab.jcore.types.Sentence;
+import de.julielab.jcore.types.Token;
+import org.apache.commons.io.IOUtils;
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSArray;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Fills CASes with synthetic, reproducible documents for the benchmarks. A document consists of sentences of random
+ * words drawn from a fixed vocabulary. Each word is annotated as a {@link Token} with a {@link PennBioIEPOSTag}, each
+ * sentence as a {@link Sentence}, and every tenth token starts an {@link EntityMention} spanning one to three tokens.
+ * The same seed always produces the same document.
+ */
+public class SyntheticCasGenerator {
+    /**
+     * The type system containing all JCoRe types.
+     */
+    public static final String ALL_TYPES = "de.julielab.jcore.types.jcore-all-types";
+    /**
+     * The real abstract distributed with the JSBD tests, for the components that need natural text.
+     */
+    public static final String ABSTRACT_RESOURCE = "/test-abstract.txt";
+
+    private static final String[] VOCABULARY = {"the", "of", "and", "in", "protein", "expression", "cells", "gene",
+            "was", "were", "is", "activation", "receptor", "binding", "human", "mice", "levels", "induced", "IL-2",
+            "p53", "NF-kappaB", "kinase", "transcription", "factor", "increased", "reduced", "patients", "with",
+            "by", "to", "a", "inhibition", "signaling", "pathway", "mRNA", "T-cell", "response", "domain"};
+    private static final String[] POS_TAGS = {"DT", "IN", "CC", "IN", "NN", "NN", "NNS", "NN", "VBD", "VBD", "VBZ",
+            "NN", "NN", "NN", "JJ", "NNS", "NNS", "VBN", "NN", "NN", "NN", "NN", "NN", "NN", "VBN", "VBN", "NNS",
+            "IN", "IN", "TO", "DT", "NN", "NN", "NN", "NN", "NN", "NN", "NN"};
+    private static final String[] ENTITY_TYPES = {"gene", "protein", "cell-type"};
+
+    private final long seed;
+    private final int minSentenceLength;
+    private final int maxSentenceLength;
+
+    /**
+     * Creates a generator for sentences of 5 to 40 tokens.
+     *
+     * @param seed The seed of the random word choice.
+     */
+    public SyntheticCasGenerator(long seed) {
+        this(seed, 5, 40);
+    }
+
+    public SyntheticCasGenerator(long seed, int minSentenceLength, int maxSentenceLength) {
+        this.seed = seed;
+        this.minSentenceLength = minSentenceLength;
+        this.maxSentenceLength = maxSentenceLength;
+    }
+
+    /**
+     * @return A new JCas with the complete JCoRe type system.
+     */
+    public static JCas newJCas() throws UIMAException {
+        return JCasFactory.createJCas(ALL_TYPES);
+    }
+
+    /**
+     * @return The text of {@link #ABSTRACT_RESOURCE}.
+     */
+    public static String readAbstract() throws IOException {
+        try (InputStream is = SyntheticCasGenerator.class.getResourceAsStream(ABSTRACT_RESOURCE)) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates the document text of <tt>numSentences</tt> sentences without adding any annotations.
+     *
+     * @param numSentences The number of sentences to generate.
+     * @return The synthetic document text.
+     */
+    public String generateText(int numSentences) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numSentences; i++) {
+            if (i > 0)
+                sb.append(' ');
+            int length = nextSentenceLength(random);
+            for (int j = 0; j < length; j++) {
+                if (j > 0)
+                    sb.append(' ');
+                sb.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+            }
+            sb.append('.');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Resets <tt>jCas</tt> and fills it with a synthetic document of <tt>numSentences</tt> sentences including the
+     * header, sentence, token, part of speech and entity annotations.
+     *
+     * @param jCas         The CAS to fill.
+     * @param numSentences The number of sentences to generate.
+     */
+    public void generate(JCas jCas, int numSentences) {
+        jCas.reset();
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        // Token offsets and vocabulary indices, created before the document text is set
+        int[] tokenBegins = new int[numSentences * maxSentenceLength];
+        int[] tokenWords = new int[tokenBegins.length];
+        int[] sentenceEnds = new int[numSentences];
+        int numTokens = 0;
+        for (int i = 0; i < numSentences; i++) {
+            if (i > 0)
+                sb.append(' ');
+            int length = nextSentenceLength(random);
+            for (int j = 0; j < length; j++) {
+                if (j > 0)
+                    sb.append(' ');
+                int word = random.nextInt(VOCABULARY.length);
+                tokenBegins[numTokens] = sb.length();
+                tokenWords[numTokens] = word;
+                ++numTokens;
+                sb.append(VOCABULARY[word]);
+            }
+            sb.append('.');
+            sentenceEnds[i] = numTokens;
+        }
+        jCas.setDocumentText(sb.toString());
+
+        Header header = new Header(jCas);
+        header.setDocId("synthetic-" + seed + "-" + numSentences);
+        header.addToIndexes();
+
+        int sentenceBegin = 0;
+        int sentenceStartToken = 0;
+        for (int i = 0; i < numSentences; i++) {
+            int sentenceEndToken = sentenceEnds[i];
+            for (int t = sentenceStartToken; t < sentenceEndToken; t++) {
+                int begin = tokenBegins[t];
+                int end = begin + VOCABULARY[tokenWords[t]].length();
+                Token token = new Token(jCas, begin, end);
+                PennBioIEPOSTag posTag = new PennBioIEPOSTag(jCas, begin, end);
+                posTag.setValue(POS_TAGS[tokenWords[t]]);
+                FSArray posTags = new FSArray(jCas, 1);
+                posTags.set(0, posTag);
+                token.setPosTag(posTags);
+                token.addToIndexes();
+                if (t % 10 == 0) {
+                    int lastToken = Math.min(t + random.nextInt(3), sentenceEndToken - 1);
+                    int entityEnd = tokenBegins[lastToken] + VOCABULARY[tokenWords[lastToken]].length();
+                    EntityMention entity = new EntityMention(jCas, begin, entityEnd);
+                    entity.setSpecificType(ENTITY_TYPES[random.nextInt(ENTITY_TYPES.length)]);
+                    entity.addToIndexes();
+                }
+            }
+            // the sentence includes the final period
+            int lastToken = sentenceEndToken - 1;
+            int sentenceEnd = tokenBegins[lastToken] + VOCABULARY[tokenWords[lastToken]].length() + 1;
+            new Sentence(jCas, sentenceBegin, sentenceEnd).addToIndexes();
+            sentenceBegin = sentenceEnd + 1;
+            sentenceStartToken = sentenceEndToken;
+        }
+    }
+
+    private int nextSentenceLength(Random random) {
+        return minSentenceLength + random.nextInt(maxSentenceLength - minSentenceLength + 1);
+    }
+}
@@ -0,0 +1,177 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.ae.jpos.postagger.POSAnnotator;
+import de.julielab.jcore.ae.jpos.postagger.POSTaggerProviderImpl;
+import de.julielab.jcore.ae.jsbd.main.SentenceAnnotator;
+import de.julielab.jcore.ae.jtbd.main.TokenAnnotator;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the sentence splitter, tokenizer, POS tagger and entity tagger in documents per second on the real
+ * abstract distributed with the JSBD tests. The components use the small test models of their modules, so the
+ * numbers are meant for comparisons between revisions, not as absolute figures. The annotations each component
+ * depends on are created by its predecessors before each invocation and are not part of the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaggerBenchmark {
+
+    private static final String JSBD_MODEL = "de/julielab/jcore/ae/jsbd/model/test-model.gz";
+    private static final String JTBD_MODEL = "de/julielab/jcore/ae/jtbd/model/test-model.gz";
+    private static final String JPOS_MODEL = "/testModel";
+    private static final String JNET_MODEL = "de/julielab/jcore/ae/jnet/uima/testModel";
+
+    private static AnalysisEngine createSentenceSplitter() throws ResourceInitializationException {
+        return AnalysisEngineFactory.createEngine(SentenceAnnotator.class,
+                SentenceAnnotator.PARAM_MODEL_FILE, JSBD_MODEL,
+                SentenceAnnotator.PARAM_POSTPROCESSING, "biomed");
+    }
+
+    private static AnalysisEngine createTokenizer() throws ResourceInitializationException {
+        return AnalysisEngineFactory.createEngine(TokenAnnotator.class, TokenAnnotator.PARAM_MODEL, JTBD_MODEL);
+    }
+
+    private static AnalysisEngine createPosTagger() throws Exception {
+        AnalysisEngineDescription desc = AnalysisEngineFactory.createEngineDescription(
+                "de.julielab.jcore.ae.jpos.desc.jcore-jpos", "tagset", "de.julielab.jcore.types.PennBioIEPOSTag");
+        ExternalResourceFactory.bindResource(desc, POSAnnotator.RESOURCE_MODEL, POSTaggerProviderImpl.class,
+                TaggerBenchmark.class.getResource(JPOS_MODEL).toString());
+        return AnalysisEngineFactory.createEngine(desc);
+    }
+
+    private static AnalysisEngine createEntityTagger() throws Exception {
+        return AnalysisEngineFactory.createEngine("de.julielab.jcore.ae.jnet.desc.jcore-jnet-ae",
+                "ModelFilename", JNET_MODEL,
+                "EntityTypes", new String[]{"variation-event=de.julielab.jcore.types.EntityMention",
+                        "variation-location=de.julielab.jcore.types.EntityMention",
+                        "variation-state-altered=de.julielab.jcore.types.EntityMention",
+                        "variation-state-generic=de.julielab.jcore.types.EntityMention",
+                        "variation-state-original=de.julielab.jcore.types.EntityMention",
+                        "variation-type=de.julielab.jcore.types.EntityMention"},
+                "ExpandAbbreviations", false,
+                "ShowSegmentConfidence", false);
+    }
+
+    @Benchmark
+    public JCas sentenceSplitter(SentenceSplitterState state) throws AnalysisEngineProcessException {
+        state.engine.process(state.jCas);
+        return state.jCas;
+    }
+
+    @Benchmark
+    public JCas tokenizer(TokenizerState state) throws AnalysisEngineProcessException {
+        state.engine.process(state.jCas);
+        return state.jCas;
+    }
+
+    @Benchmark
+    public JCas posTagger(PosTaggerState state) throws AnalysisEngineProcessException {
+        state.engine.process(state.jCas);
+        return state.jCas;
+    }
+
+    @Benchmark
+    public JCas entityTagger(EntityTaggerState state) throws AnalysisEngineProcessException {
+        state.engine.process(state.jCas);
+        return state.jCas;
+    }
+
+    /**
+     * Holds the engine under test, the CAS and the engines that create the input annotations of the engine under
+     * test. Before each invocation, the CAS is reset to the abstract text and the preceding engines are run.
+     */
+    @State(Scope.Thread)
+    public abstract static class TaggerState {
+        AnalysisEngine engine;
+        JCas jCas;
+        private AnalysisEngine[] preprocessing;
+        private String text;
+
+        @Setup(Level.Trial)
+        public void createEngines() throws Exception {
+            text = SyntheticCasGenerator.readAbstract();
+            jCas = SyntheticCasGenerator.newJCas();
+            engine = createEngine();
+            preprocessing = createPreprocessing();
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareCas() throws AnalysisEngineProcessException {
+            jCas.reset();
+            jCas.setDocumentText(text);
+            for (AnalysisEngine ae : preprocessing)
+                ae.process(jCas);
+        }
+
+        @TearDown(Level.Trial)
+        public void destroyEngines() {
+            engine.destroy();
+            for (AnalysisEngine ae : preprocessing)
+                ae.destroy();
+        }
+
+        abstract AnalysisEngine createEngine() throws Exception;
+
+        abstract AnalysisEngine[] createPreprocessing() throws Exception;
+    }
+
+    public static class SentenceSplitterState extends TaggerState {
+        @Override
+        AnalysisEngine createEngine() throws Exception {
+            return createSentenceSplitter();
+        }
+
+        @Override
+        AnalysisEngine[] createPreprocessing() {
+            return new AnalysisEngine[0];
+        }
+    }
+
+    public static class TokenizerState extends TaggerState {
+        @Override
+        AnalysisEngine createEngine() throws Exception {
+            return createTokenizer();
+        }
+
+        @Override
+        AnalysisEngine[] createPreprocessing() throws Exception {
+            return new AnalysisEngine[]{createSentenceSplitter()};
+        }
+    }
+
+    public static class PosTaggerState extends TaggerState {
+        @Override
+        AnalysisEngine createEngine() throws Exception {
+            return createPosTagger();
+        }
+
+        @Override
+        AnalysisEngine[] createPreprocessing() throws Exception {
+            return new AnalysisEngine[]{createSentenceSplitter(), createTokenizer()};
+        }
+    }
+
+    public static class EntityTaggerState extends TaggerState {
+        @Override
+        AnalysisEngine createEngine() throws Exception {
+            return createEntityTagger();
+        }
+
+        @Override
+        AnalysisEngine[] createPreprocessing() throws Exception {
+            return new AnalysisEngine[]{createSentenceSplitter(), createTokenizer(), createPosTagger()};
+        }
+    }
+}
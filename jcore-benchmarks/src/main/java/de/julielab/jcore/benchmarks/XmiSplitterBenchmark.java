@@ -0,0 +1,92 @@
+package de.julielab.jcore.benchmarks;
+
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.Header;
+import de.julielab.jcore.types.Sentence;
+import de.julielab.jcore.types.Token;
+import de.julielab.xml.StaxXmiSplitter;
+import de.julielab.xml.XmiSplitter;
+import de.julielab.xml.XmiSplitterResult;
+import de.julielab.xml.binary.BinaryJeDISNodeEncoder;
+import de.julielab.xml.binary.BinaryStorageAnalysisResult;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The XMI writer path of the <tt>jcore-xmi-db-writer</tt>: splitting the XMI of a synthetic document into the base
+ * document and annotation modules and encoding the annotation modules into the binary format. The binary mapping is
+ * created once per trial, as the XMI writer does it once per missing value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XmiSplitterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int sentences;
+
+    private TypeSystem typeSystem;
+    private byte[] xmi;
+    private XmiSplitter splitter;
+    private BinaryJeDISNodeEncoder encoder;
+    private XmiSplitterResult splitterResult;
+    private Map<String, Integer> binaryMapping;
+    private Map<String, Boolean> binaryMappedFeatures;
+
+    @Setup
+    public void setup() throws Exception {
+        JCas jCas = SyntheticCasGenerator.newJCas();
+        new SyntheticCasGenerator(42).generate(jCas, sentences);
+        typeSystem = jCas.getTypeSystem();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        XmiCasSerializer.serialize(jCas.getCas(), baos);
+        xmi = baos.toByteArray();
+
+        Set<String> annotationModules = new HashSet<>();
+        annotationModules.add(Token.class.getCanonicalName());
+        annotationModules.add(Sentence.class.getCanonicalName());
+        annotationModules.add(EntityMention.class.getCanonicalName());
+        Set<String> baseDocumentAnnotations = Collections.singleton(Header.class.getCanonicalName());
+        splitter = new StaxXmiSplitter(annotationModules, true, true, baseDocumentAnnotations);
+        encoder = new BinaryJeDISNodeEncoder();
+        splitterResult = splitter.process(xmi, typeSystem, 0, Collections.emptyMap());
+
+        binaryMapping = new HashMap<>();
+        binaryMappedFeatures = new HashMap<>();
+        BinaryStorageAnalysisResult analysisResult = encoder.findMissingItemsForMapping(
+                splitterResult.jedisNodesInAnnotationModules, typeSystem, binaryMapping, binaryMappedFeatures, false);
+        for (String value : analysisResult.getMissingValuesToMap())
+            binaryMapping.put(value, binaryMapping.size());
+        binaryMappedFeatures.putAll(analysisResult.getMissingFeaturesToMap());
+    }
+
+    @Benchmark
+    public XmiSplitterResult split() throws Exception {
+        return splitter.process(xmi, typeSystem, 0, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public BinaryStorageAnalysisResult findMissingBinaryMappings() {
+        return encoder.findMissingItemsForMapping(splitterResult.jedisNodesInAnnotationModules, typeSystem,
+                binaryMapping, binaryMappedFeatures, false);
+    }
+
+    @Benchmark
+    public Map<String, ByteArrayOutputStream> encodeBinary() throws Exception {
+        return encoder.encode(splitterResult.jedisNodesInAnnotationModules, typeSystem, binaryMapping,
+                binaryMappedFeatures);
+    }
+}
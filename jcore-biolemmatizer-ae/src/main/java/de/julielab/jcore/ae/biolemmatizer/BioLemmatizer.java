@@ -3,6 +3,7 @@ package de.julielab.jcore.ae.biolemmatizer;
 import de.julielab.jcore.types.Lemma;
 import de.julielab.jcore.types.POSTag;
 import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReLemmaCache;
 import edu.ucdenver.ccp.nlp.biolemmatizer.LemmataEntry;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
@@ -11,24 +12,62 @@ import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
 
 //import org.slf4j.Logger;
 //import org.slf4j.LoggerFactory;
 
 public class BioLemmatizer extends JCasAnnotator_ImplBase {
     private final static Logger log = LoggerFactory.getLogger(BioLemmatizer.class);
+    public static final String PARAM_CACHE_SIZE = "CacheSize";
+    public static final String RESOURCE_LEXICON = "BioLemmatizerLexicon";
     public static edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer bioLemm;
+    /**
+     * The (word, POS tag) to lemma caches, one per lemmatizer. Annotator instances sharing a lexicon, e.g. through
+     * the {@link #RESOURCE_LEXICON} resource, share the cache, sized to the largest configured cache size.
+     */
+    private static final Map<edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer, JCoReLemmaCache> CACHES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * The lemmatizer with the default lexicon, used when no lexicon resource is bound.
+     */
+    private static edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer defaultLemmatizer;
 
 //	private final static Logger log = LoggerFactory.getLogger(BioLemmatizer.class);
 
+    private edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer lemmatizer;
+    private JCoReLemmaCache cache;
+    private int cacheSize;
+
     @Override
     public void initialize(final UimaContext aContext) throws ResourceInitializationException {
-        bioLemm = new edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer();
+        super.initialize(aContext);
+        cacheSize = (Integer) Optional.ofNullable(aContext.getConfigParameterValue(PARAM_CACHE_SIZE)).orElse(100000);
+        BioLemmatizerProvider provider = null;
+        try {
+            provider = (BioLemmatizerProvider) aContext.getResourceObject(RESOURCE_LEXICON);
+        } catch (ResourceAccessException e) {
+            throw new ResourceInitializationException(e);
+        }
+        lemmatizer = provider != null ? provider.getLemmatizer() : getDefaultLemmatizer();
+        bioLemm = lemmatizer;
+        cache = getCache(lemmatizer);
+        cache.ensureMaxSize(cacheSize);
+    }
+
+    static synchronized edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer getDefaultLemmatizer() {
+        if (defaultLemmatizer == null)
+            defaultLemmatizer = new edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer();
+        return defaultLemmatizer;
     }
 
     @Override
@@ -41,31 +80,15 @@ public class BioLemmatizer extends JCasAnnotator_ImplBase {
             while (tokenIterator.hasNext()) {
                 Token token = (Token) tokenIterator.get();
                 tokenString = token.getCoveredText();
-                LemmataEntry lemmaEntry = null;
-                try {
-                    if (token.getPosTag() != null) {
-                        POSTag posTag = token.getPosTag(0);
-                        tag = posTag.getValue();
-                        lemmaEntry = bioLemm.lemmatizeByLexiconAndRules(tokenString, tag);
-                    } else {
-                        lemmaEntry = bioLemm.lemmatizeByLexiconAndRules(tokenString, "");
-                    }
-                } catch (java.lang.IllegalStateException | java.lang.IndexOutOfBoundsException e) {
-                    // These two exceptions happen all the time due to internal stuff of the lemmatizer; log and ignore
-                    log.debug("BioLemmatizer-internal exception: ", e);
-                }
-                if (lemmaEntry != null) {
-                    Collection<LemmataEntry.Lemma> lemmaCollection = lemmaEntry.getLemmas();
-                    LemmataEntry.Lemma lemma = lemmaCollection.iterator().next();
-                    String lem = lemma.getLemma();
-                    Lemma jcoreLemma = new Lemma(aJCas, token.getBegin(), token.getEnd());
-                    jcoreLemma.setValue(lem);
-                    token.setLemma(jcoreLemma);
+                if (token.getPosTag() != null) {
+                    POSTag posTag = token.getPosTag(0);
+                    tag = posTag.getValue();
                 } else {
-                    Lemma jcoreLemma = new Lemma(aJCas, token.getBegin(), token.getEnd());
-                    jcoreLemma.setValue(tokenString);
-                    token.setLemma(jcoreLemma);
+                    tag = "";
                 }
+                Lemma jcoreLemma = new Lemma(aJCas, token.getBegin(), token.getEnd());
+                jcoreLemma.setValue(lemmatize(tokenString, tag));
+                token.setLemma(jcoreLemma);
                 tokenIterator.next();
             }
         } catch (Exception e) {
@@ -73,4 +96,46 @@ public class BioLemmatizer extends JCasAnnotator_ImplBase {
         }
     }
 
+    /**
+     * Returns the lemma of the given word as assigned by the BioLemmatizer or the word itself if there is no lemma.
+     */
+    private String lemmatize(String word, String tag) {
+        if (cacheSize <= 0 || tag == null)
+            return lemmatizeByLexiconAndRules(word, tag);
+        String lemma = cache.get(word, tag);
+        if (lemma == null) {
+            lemma = lemmatizeByLexiconAndRules(word, tag);
+            cache.put(word, tag, lemma);
+        }
+        return lemma;
+    }
+
+    private String lemmatizeByLexiconAndRules(String word, String tag) {
+        LemmataEntry lemmaEntry = null;
+        // the lemmatizer is shared by all annotator instances but is not known to be thread-safe
+        synchronized (lemmatizer) {
+            try {
+                lemmaEntry = lemmatizer.lemmatizeByLexiconAndRules(word, tag);
+            } catch (java.lang.IllegalStateException | java.lang.IndexOutOfBoundsException e) {
+                // These two exceptions happen all the time due to internal stuff of the lemmatizer; log and ignore
+                log.debug("BioLemmatizer-internal exception: ", e);
+            }
+        }
+        if (lemmaEntry == null)
+            return word;
+        Collection<LemmataEntry.Lemma> lemmaCollection = lemmaEntry.getLemmas();
+        return lemmaCollection.iterator().next().getLemma();
+    }
+
+    @Override
+    public void collectionProcessComplete() throws AnalysisEngineProcessException {
+        super.collectionProcessComplete();
+        if (cacheSize > 0)
+            log.info("Lemma cache: {}", cache);
+    }
+
+    static JCoReLemmaCache getCache(edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer lemmatizer) {
+        return CACHES.computeIfAbsent(lemmatizer, l -> new JCoReLemmaCache());
+    }
+
 }
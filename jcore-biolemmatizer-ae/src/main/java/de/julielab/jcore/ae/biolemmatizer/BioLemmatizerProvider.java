@@ -0,0 +1,9 @@
+package de.julielab.jcore.ae.biolemmatizer;
+
+/**
+ * Provides a BioLemmatizer whose lexicon has been loaded a single time for all {@link BioLemmatizer} annotator
+ * instances sharing the resource.
+ */
+public interface BioLemmatizerProvider {
+    edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer getLemmatizer();
+}
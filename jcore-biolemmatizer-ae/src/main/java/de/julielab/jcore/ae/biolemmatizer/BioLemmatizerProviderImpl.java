@@ -0,0 +1,35 @@
+package de.julielab.jcore.ae.biolemmatizer;
+
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Loads the BioLemmatizer lexicon given by the resource URL a single time so that it can be shared by all
+ * {@link BioLemmatizer} annotator instances, e.g. all processing threads of a CPE.
+ */
+public class BioLemmatizerProviderImpl implements BioLemmatizerProvider, SharedResourceObject {
+    private final static Logger log = LoggerFactory.getLogger(BioLemmatizerProviderImpl.class);
+
+    private edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer lemmatizer;
+
+    @Override
+    public void load(DataResource aData) throws ResourceInitializationException {
+        log.info("Loading shared BioLemmatizer lexicon from {}", aData.getUri());
+        try {
+            lemmatizer = new edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer(new File(aData.getUri()));
+        } catch (Exception e) {
+            log.error("Could not load the BioLemmatizer lexicon from " + aData.getUri(), e);
+            throw new ResourceInitializationException(e);
+        }
+    }
+
+    @Override
+    public edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer getLemmatizer() {
+        return lemmatizer;
+    }
+}
@@ -3,6 +3,7 @@ package de.julielab.jcore.ae.biolemmatizer;
 
 import de.julielab.jcore.types.POSTag;
 import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReLemmaCache;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
@@ -14,6 +15,9 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 /**
  * Unit tests for jcore-de.julielab.jcore.ae.biolemmatizer-ae.
  * @author 
@@ -223,4 +227,47 @@ public class BioLemmatizerTest{
 		}
 	}
 
+	@Test
+	public void testLemmaCache() throws Exception {
+		JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		AnalysisEngine bioLemmatizer = AnalysisEngineFactory.createEngine(BioLemmatizer.class);
+		String text = "horses were going around bushes";
+		String[] tags = { "NNS", "VBD", "VBG", "IN", "NNS" };
+		String[] expectedLemmas = { "horse", "be", "go", "around", "bush" };
+		JCoReLemmaCache cache = BioLemmatizer.getCache(BioLemmatizer.getDefaultLemmatizer());
+		for (int run = 0; run < 2; run++) {
+			jCas.reset();
+			jCas.setDocumentText(text);
+			int begin = 0;
+			for (String tag : tags) {
+				int end = text.indexOf(' ', begin) < 0 ? text.length() : text.indexOf(' ', begin);
+				Token t = new Token(jCas, begin, end);
+				FSArray posTagArray = new FSArray(jCas, 1);
+				POSTag pos = new POSTag(jCas, begin, end);
+				pos.setValue(tag);
+				posTagArray.set(0, pos);
+				t.setPosTag(posTagArray);
+				t.addToIndexes();
+				begin = end + 1;
+			}
+			long hits = cache.getHits();
+			bioLemmatizer.process(jCas);
+			// in the second run, all (word, POS tag) pairs are served by the cache with the same result
+			if (run == 1)
+				assertEquals(hits + tags.length, cache.getHits());
+			FSIterator<Annotation> iterator = jCas.getAnnotationIndex(Token.type).iterator();
+			for (int i = 0; iterator.hasNext(); i++)
+				assertEquals(expectedLemmas[i], ((Token) iterator.next()).getLemma().getValue());
+		}
+		assertTrue(cache.size() > 0);
+	}
+
+	@Test
+	public void testLemmaCachePerLexicon() {
+		edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer defaultLemmatizer = BioLemmatizer.getDefaultLemmatizer();
+		edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer otherLemmatizer = new edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer();
+		assertSame(BioLemmatizer.getCache(defaultLemmatizer), BioLemmatizer.getCache(defaultLemmatizer));
+		// lemmatizers with possibly different lexicons must not share cached lemmas
+		assertNotSame(BioLemmatizer.getCache(defaultLemmatizer), BioLemmatizer.getCache(otherLemmatizer));
+	}
 }
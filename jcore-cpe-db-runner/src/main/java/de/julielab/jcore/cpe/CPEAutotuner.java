@@ -0,0 +1,280 @@
+/**
+ * CPEAutotuner.java
+ *
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are protected. Please contact JULIE Lab for further information.
+ *
+ * Determines the processing unit thread count, CAS pool size and DB reader
+ * batch size of a CPE from a series of short warm-up runs.
+ **/
+
+package de.julielab.jcore.cpe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Searches a CPE configuration with a high throughput by running a sequence of
+ * warm-up trials with a fixed number of documents each.
+ * <p>
+ * The thread count of a CPE is fixed once the CPE has been created. Thus, each
+ * trial is a complete, short CPE run. Starting with the lower bound, the
+ * thread count is doubled as long as the throughput rises noticeably, the
+ * garbage collection overhead stays moderate and enough heap remains free.
+ * Afterwards, if the processing threads were idle for a considerable fraction
+ * of the time, i.e. they were waiting for CASes from the CAS pool or the
+ * reader, the DB reader batch size and the CAS pool are enlarged as long as
+ * this pays off.
+ * </p>
+ */
+public class CPEAutotuner {
+
+	/**
+	 * Runs the CPE with a given configuration on a given number of documents.
+	 */
+	public interface Trial {
+		TrialResult run(Configuration configuration, int numDocuments) throws Exception;
+
+		/**
+		 * Releases the CPE of the last run. Called after each run, when its
+		 * measurement is complete, also if the run failed.
+		 */
+		default void release() throws Exception {
+		}
+	}
+
+	public static class Configuration {
+		private final int threads;
+		private final int casPoolSize;
+		private final int readerBatchSize;
+
+		public Configuration(int threads, int casPoolSize, int readerBatchSize) {
+			this.threads = threads;
+			this.casPoolSize = casPoolSize;
+			this.readerBatchSize = readerBatchSize;
+		}
+
+		public int getThreads() {
+			return threads;
+		}
+
+		public int getCasPoolSize() {
+			return casPoolSize;
+		}
+
+		public int getReaderBatchSize() {
+			return readerBatchSize;
+		}
+
+		/**
+		 * @return The command line options of the {@link DBCPERunner} that
+		 *         pin this configuration.
+		 */
+		@Override
+		public String toString() {
+			return "-t " + threads + " -a " + casPoolSize + " -r " + readerBatchSize;
+		}
+	}
+
+	/**
+	 * The outcome of a trial as reported by the {@link Trial}.
+	 */
+	public static class TrialResult {
+		private final long numDocuments;
+		private final long time;
+		private final long busyTime;
+
+		/**
+		 * @param numDocuments
+		 *            The number of processed documents.
+		 * @param time
+		 *            The wall clock time of the processing in milliseconds.
+		 * @param busyTime
+		 *            The time in milliseconds the CAS processors were busy,
+		 *            summed over all threads, or a negative number if
+		 *            unknown.
+		 */
+		public TrialResult(long numDocuments, long time, long busyTime) {
+			this.numDocuments = numDocuments;
+			this.time = time;
+			this.busyTime = busyTime;
+		}
+	}
+
+	/**
+	 * The measurements of a trial.
+	 */
+	private static class Measurement {
+		private final Configuration configuration;
+		private final double throughput;
+		private final double gcOverhead;
+		private final double heapHeadroom;
+		private final double idleFraction;
+
+		private Measurement(Configuration configuration, double throughput, double gcOverhead,
+				double heapHeadroom, double idleFraction) {
+			this.configuration = configuration;
+			this.throughput = throughput;
+			this.gcOverhead = gcOverhead;
+			this.heapHeadroom = heapHeadroom;
+			this.idleFraction = idleFraction;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"%s: %.1f documents/s, GC overhead %.1f%%, heap headroom %.1f%%, idle threads %.1f%%",
+					configuration, throughput, 100 * gcOverhead, 100 * heapHeadroom, 100 * idleFraction);
+		}
+	}
+
+	/**
+	 * A throughput increase by less than this factor does not justify more
+	 * resources.
+	 */
+	private static final double MIN_GAIN = 1.1;
+	private static final double MAX_GC_OVERHEAD = 0.15;
+	private static final double MIN_HEAP_HEADROOM = 0.2;
+	private static final double MAX_IDLE_FRACTION = 0.25;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(CPEAutotuner.class);
+
+	private final Trial trial;
+	private final int minThreads;
+	private final int maxThreads;
+	private final int casPoolFactor;
+	private final int minReaderBatchSize;
+	private final int maxReaderBatchSize;
+	private final int documentsPerTrial;
+	private long processedDocuments;
+
+	/**
+	 * @param trial
+	 *            Runs a CPE trial.
+	 * @param minThreads
+	 *            The lower bound of the processing unit thread count.
+	 * @param maxThreads
+	 *            The upper bound of the processing unit thread count.
+	 * @param casPoolFactor
+	 *            The CAS pool size as a multiple of the thread count.
+	 * @param minReaderBatchSize
+	 *            The initial DB reader batch size.
+	 * @param maxReaderBatchSize
+	 *            The upper bound of the DB reader batch size.
+	 * @param documentsPerTrial
+	 *            The number of documents to process in each trial.
+	 */
+	public CPEAutotuner(Trial trial, int minThreads, int maxThreads, int casPoolFactor, int minReaderBatchSize,
+			int maxReaderBatchSize, int documentsPerTrial) {
+		this.trial = trial;
+		this.minThreads = Math.max(1, minThreads);
+		this.maxThreads = Math.max(this.minThreads, maxThreads);
+		this.casPoolFactor = Math.max(1, casPoolFactor);
+		this.minReaderBatchSize = Math.max(1, minReaderBatchSize);
+		this.maxReaderBatchSize = Math.max(this.minReaderBatchSize, maxReaderBatchSize);
+		this.documentsPerTrial = documentsPerTrial;
+	}
+
+	/**
+	 * Runs the warm-up trials and returns the best configuration found. The
+	 * trials stop early when the documents to process are exhausted.
+	 *
+	 * @return The chosen configuration.
+	 * @throws Exception
+	 *             If a trial fails.
+	 */
+	public Configuration tune() throws Exception {
+		int threads = minThreads;
+		int readerBatchSize = minReaderBatchSize;
+		Measurement best = measure(new Configuration(threads, casPoolFactor * threads, readerBatchSize));
+		if (best == null)
+			return new Configuration(threads, casPoolFactor * threads, readerBatchSize);
+
+		while (threads < maxThreads) {
+			threads = Math.min(maxThreads, 2 * threads);
+			Measurement m = measure(new Configuration(threads, casPoolFactor * threads, readerBatchSize));
+			if (m == null || !isAffordable(m) || m.throughput < MIN_GAIN * best.throughput)
+				break;
+			best = m;
+		}
+
+		threads = best.configuration.threads;
+		int casPoolSize = best.configuration.casPoolSize;
+		while (best.idleFraction > MAX_IDLE_FRACTION && readerBatchSize < maxReaderBatchSize) {
+			readerBatchSize = Math.min(maxReaderBatchSize, 2 * readerBatchSize);
+			casPoolSize += threads;
+			Measurement m = measure(new Configuration(threads, casPoolSize, readerBatchSize));
+			if (m == null || !isAffordable(m) || m.throughput < MIN_GAIN * best.throughput)
+				break;
+			best = m;
+		}
+
+		LOGGER.info("Autotuning finished after {} documents. Chosen configuration: {}", processedDocuments, best);
+		LOGGER.info("To pin this configuration for later runs, use the options {}", best.configuration);
+		return best.configuration;
+	}
+
+	/**
+	 * @return The number of documents processed by all trials.
+	 */
+	public long getProcessedDocuments() {
+		return processedDocuments;
+	}
+
+	private boolean isAffordable(Measurement m) {
+		if (m.gcOverhead > MAX_GC_OVERHEAD || m.heapHeadroom < MIN_HEAP_HEADROOM) {
+			LOGGER.info("Configuration {} is too memory intensive", m.configuration);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Runs a trial and measures throughput, GC overhead and heap usage.
+	 *
+	 * @return The measurement or <tt>null</tt> if there were no more
+	 *         documents to process.
+	 */
+	private Measurement measure(Configuration configuration) throws Exception {
+		LOGGER.info("Autotuning: running {} documents with configuration {}", documentsPerTrial, configuration);
+		long gcTime = getGcTime();
+		double heapHeadroom;
+		TrialResult result;
+		try {
+			result = trial.run(configuration, documentsPerTrial);
+			gcTime = getGcTime() - gcTime;
+			processedDocuments += result.numDocuments;
+			if (result.numDocuments == 0)
+				return null;
+			// Until the trial is released, the components of the CPE are still
+			// referenced. A full collection thus reveals the memory the
+			// pipeline really needs.
+			System.gc();
+			Runtime runtime = Runtime.getRuntime();
+			heapHeadroom = 1 - (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+		} finally {
+			trial.release();
+		}
+		long time = Math.max(1, result.time);
+		double idleFraction = result.busyTime < 0 ? 0
+				: Math.max(0, 1 - (double) result.busyTime / (time * configuration.threads));
+		Measurement m = new Measurement(configuration, 1000d * result.numDocuments / time,
+				(double) gcTime / time, heapHeadroom, idleFraction);
+		LOGGER.info("Autotuning: {}", m);
+		// A trial that ran out of documents does not give a reliable number.
+		if (result.numDocuments < documentsPerTrial)
+			return null;
+		return m;
+	}
+
+	private static long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			time += Math.max(0, gc.getCollectionTime());
+		return time;
+	}
+}
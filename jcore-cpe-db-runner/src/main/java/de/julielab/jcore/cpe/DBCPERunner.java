@@ -18,14 +18,26 @@
 package de.julielab.jcore.cpe;
 
 import de.julielab.jcore.reader.db.DBReader;
+import de.julielab.jcore.reader.db.TableReaderConstants;
+import de.julielab.jcore.utility.instrumentation.MetricsStatusCallbackListener;
+import de.julielab.jcore.utility.instrumentation.PipelineMetrics;
 import de.julielab.xmlData.dataBase.DataBaseConnector;
+import org.apache.commons.cli.*;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.collection.CollectionProcessingEngine;
+import org.apache.uima.collection.base_cpm.BaseCollectionReader;
+import org.apache.uima.collection.base_cpm.CasProcessor;
+import org.apache.uima.collection.impl.metadata.cpe.CpeDescriptorFactory;
+import org.apache.uima.collection.metadata.CasProcessorConfigurationParameterSettings;
+import org.apache.uima.collection.metadata.CpeCollectionReaderIterator;
 import org.apache.uima.collection.metadata.CpeDescription;
 import org.apache.uima.collection.metadata.CpeDescriptorException;
+import org.apache.uima.resource.Resource;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.metadata.ConfigurationParameterSettings;
 import org.apache.uima.util.InvalidXMLException;
+import org.apache.uima.util.ProcessTrace;
+import org.apache.uima.util.ProcessTraceEvent;
 import org.apache.uima.util.XMLInputSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,7 +75,27 @@ public class DBCPERunner {
 	protected Integer casPoolSize;
 	protected Integer numbersOfDocuments;
 	protected Integer batchSize;
+	protected Integer readerBatchSize;
+	protected boolean autotune;
+	protected Integer warmUpDocuments;
+	protected Integer metricsInterval;
+	protected String metricsFile;
+	/**
+	 * the metrics of the current CPE, if requested
+	 */
+	protected PipelineMetrics metrics;
 	protected boolean error;
+	/**
+	 * The default of the DB reader batch size parameter
+	 */
+	private final static int DEFAULT_READER_BATCH_SIZE = 100;
+	private final static int DEFAULT_WARM_UP_DOCUMENTS = 1000;
+	private final static int DEFAULT_METRICS_INTERVAL = 60;
+	/**
+	 * The CAS pool size as a multiple of the thread count when autotuning
+	 * without explicit CAS pool size
+	 */
+	private final static int DEFAULT_CAS_POOL_FACTOR = 3;
 	private final static Logger LOGGER = LoggerFactory
 			.getLogger(DBCPERunner.class);
 
@@ -80,6 +112,16 @@ public class DBCPERunner {
 		options.addOption("t", true, "processing unit thread count (optional)");
 		options.addOption("a", true, "CAS pool size (optional)");
 		options.addOption("b", true, "batch size (optional)");
+		options.addOption("r", true,
+				"DB reader batch size (optional); the upper bound for autotuning");
+		options.addOption("u", false,
+				"autotune the thread count, CAS pool size and DB reader batch size in a warm-up phase; -t is the upper bound of the thread count (optional)");
+		options.addOption("w", true,
+				"number of documents in each warm-up run of the autotuning, default " + DEFAULT_WARM_UP_DOCUMENTS + " (optional)");
+		options.addOption("m", true,
+				"interval in seconds to log the timings of the CAS processors and the throughput (optional)");
+		options.addOption("mo", true,
+				"file to export the timings of the CAS processors and the throughput to, as CSV if the name ends with .csv, as JSON otherwise; implies -m " + DEFAULT_METRICS_INTERVAL + " if -m is not given (optional)");
 	}
 
 	public void parseArguments(String[] args) {
@@ -119,6 +161,28 @@ public class DBCPERunner {
 		if (batchSizeString != null) {
 			batchSize = new Integer(batchSizeString);
 		}
+
+		String readerBatchSizeString = cmd.getOptionValue("r");
+		if (readerBatchSizeString != null) {
+			readerBatchSize = new Integer(readerBatchSizeString);
+		}
+
+		autotune = cmd.hasOption("u");
+
+		String warmUpDocumentsString = cmd.getOptionValue("w");
+		if (warmUpDocumentsString != null) {
+			warmUpDocuments = new Integer(warmUpDocumentsString);
+		}
+
+		String metricsIntervalString = cmd.getOptionValue("m");
+		if (metricsIntervalString != null) {
+			metricsInterval = new Integer(metricsIntervalString);
+		}
+
+		metricsFile = cmd.getOptionValue("mo");
+		if (metricsFile != null && metricsInterval == null) {
+			metricsInterval = DEFAULT_METRICS_INTERVAL;
+		}
 	}
 
 	/**
@@ -150,6 +214,11 @@ public class DBCPERunner {
 			cpeDescription.setNumToProcess(numbersOfDocuments);
 		}
 
+		if (readerBatchSize != null) {
+			LOGGER.info("Setting DB reader batch size to " + readerBatchSize);
+			setReaderParameter(DBReader.PARAM_BATCH_SIZE, readerBatchSize);
+		}
+
 		if (batchSize != null) {
 			LOGGER.info("Setting CPE checkpoint batch size to " + batchSize);
 		} else {
@@ -166,6 +235,41 @@ public class DBCPERunner {
 		}
 	}
 
+	/**
+	 * Overrides a configuration parameter of the collection reader in the CPE
+	 * description.
+	 * 
+	 * @param name
+	 *            the parameter name
+	 * @param value
+	 *            the parameter value
+	 */
+	protected void setReaderParameter(String name, Object value)
+			throws CpeDescriptorException {
+		CpeCollectionReaderIterator iterator = cpeDescription
+				.getAllCollectionCollectionReaders()[0].getCollectionIterator();
+		CasProcessorConfigurationParameterSettings settings = iterator
+				.getConfigurationParameterSettings();
+		if (settings == null) {
+			settings = CpeDescriptorFactory
+					.produceCasProcessorConfigurationParameterSettings();
+			iterator.setConfigurationParameterSettings(settings);
+		}
+		settings.setParameterValue(name, value);
+	}
+
+	/**
+	 * @return the value of the collection reader parameter as set in the CPE
+	 *         description or <tt>null</tt> if it is not set there
+	 */
+	protected Object getReaderParameter(String name)
+			throws CpeDescriptorException {
+		CasProcessorConfigurationParameterSettings settings = cpeDescription
+				.getAllCollectionCollectionReaders()[0].getCollectionIterator()
+				.getConfigurationParameterSettings();
+		return settings != null ? settings.getParameterValue(name) : null;
+	}
+
 	/**
 	 * @throws InvalidXMLException
 	 * @throws IOException
@@ -199,6 +303,15 @@ public class DBCPERunner {
 				.getParameterValue(DBReader.PARAM_TABLE);
 		LOGGER.info("Subset name: " + subset);
 
+		// the metrics listener must come first because the DB status
+		// listener ends the JVM on completion
+		if (metricsInterval != null) {
+			metrics = new PipelineMetrics();
+			metrics.startReporting(metricsInterval, metricsFile != null ? new File(metricsFile) : null);
+			cpe.addStatusCallbackListener(new MetricsStatusCallbackListener(cpe, metrics,
+					cpeDescription.getCpeCasProcessors().getConcurrentPUCount()));
+		}
+
 		statusCallbackListener = new DBStatusCallbackListener(cpe, dbc, subset,
 				batchSize);
 		cpe.addStatusCallbackListener(statusCallbackListener);
@@ -238,6 +351,20 @@ public class DBCPERunner {
 	 * 
 	 */
 	protected void runCPE() {
+		if (autotune) {
+			try {
+				autotune();
+			} catch (Throwable e) {
+				LOGGER.error("Error during autotuning:", e);
+				System.err.println("Error during autotuning: " + e);
+				System.exit(1);
+			}
+			if (numbersOfDocuments != null && numbersOfDocuments <= 0) {
+				LOGGER.info("All documents have been processed during autotuning.");
+				System.exit(0);
+			}
+		}
+
 		try {
 			createCPEDescription();
 		} catch (Throwable e) {
@@ -263,6 +390,121 @@ public class DBCPERunner {
 		}
 	}
 
+	/**
+	 * Determines the processing unit thread count, the CAS pool size and the DB
+	 * reader batch size by a series of warm-up runs of the CPE, each processing
+	 * a part of the documents. The documents of the warm-up runs are marked as
+	 * processed just like in the main run. The chosen configuration is set to
+	 * the respective fields and logged so that it can be pinned for later runs.
+	 * 
+	 * @see CPEAutotuner
+	 */
+	protected void autotune() throws Exception {
+		createCPEDescription();
+		int maxThreads = processingUnitThreadCount != null ? processingUnitThreadCount
+				: Runtime.getRuntime().availableProcessors();
+		int casPoolFactor = casPoolSize != null && processingUnitThreadCount != null
+				? Math.max(1, casPoolSize / processingUnitThreadCount)
+				: DEFAULT_CAS_POOL_FACTOR;
+		Object descReaderBatchSize = getReaderParameter(DBReader.PARAM_BATCH_SIZE);
+		int minReaderBatchSize = descReaderBatchSize != null ? (Integer) descReaderBatchSize
+				: DEFAULT_READER_BATCH_SIZE;
+		int maxReaderBatchSize = readerBatchSize != null ? readerBatchSize
+				: 8 * minReaderBatchSize;
+		minReaderBatchSize = Math.min(minReaderBatchSize, maxReaderBatchSize);
+		int documentsPerTrial = warmUpDocuments != null ? warmUpDocuments
+				: DEFAULT_WARM_UP_DOCUMENTS;
+		LOGGER.info("Autotuning with thread counts from 1 to " + maxThreads
+				+ ", DB reader batch sizes from " + minReaderBatchSize + " to "
+				+ maxReaderBatchSize + " and " + documentsPerTrial
+				+ " documents per warm-up run");
+
+		final Integer maxDocuments = numbersOfDocuments;
+		final long[] trialDocuments = new long[1];
+		CPEAutotuner tuner = new CPEAutotuner(new CPEAutotuner.Trial() {
+			@Override
+			public CPEAutotuner.TrialResult run(CPEAutotuner.Configuration configuration, int numDocuments)
+					throws Exception {
+				int limit = numDocuments;
+				if (maxDocuments != null)
+					limit = (int) Math.min(limit, maxDocuments - trialDocuments[0]);
+				if (limit <= 0)
+					return new CPEAutotuner.TrialResult(0, 0, -1);
+				processingUnitThreadCount = configuration.getThreads();
+				casPoolSize = configuration.getCasPoolSize();
+				readerBatchSize = configuration.getReaderBatchSize();
+				numbersOfDocuments = null;
+				createCPEDescription();
+				setReaderParameter(TableReaderConstants.PARAM_LIMIT, limit);
+				createCPE();
+				statusCallbackListener.setExitOnCompletion(false);
+				DBCPERunner.this.run();
+				statusCallbackListener.awaitCompletion();
+				if (statusCallbackListener.isAborted())
+					throw new IllegalStateException("The warm-up run with the options "
+							+ configuration + " has been aborted.");
+				trialDocuments[0] += statusCallbackListener.getEntityCount();
+				return new CPEAutotuner.TrialResult(statusCallbackListener.getEntityCount(),
+						statusCallbackListener.getProcessingTime(), getBusyTime());
+			}
+
+			@Override
+			public void release() {
+				releaseCPE();
+			}
+		}, 1, maxThreads, casPoolFactor, minReaderBatchSize, maxReaderBatchSize, documentsPerTrial);
+		CPEAutotuner.Configuration configuration = tuner.tune();
+
+		processingUnitThreadCount = configuration.getThreads();
+		casPoolSize = configuration.getCasPoolSize();
+		readerBatchSize = configuration.getReaderBatchSize();
+		numbersOfDocuments = maxDocuments != null ? (int) (maxDocuments - trialDocuments[0]) : null;
+	}
+
+	/**
+	 * Destroys the CAS processors and the collection reader of the current CPE
+	 * and closes its database connector and metrics reporting. Used for the
+	 * CPEs of the warm-up runs which would otherwise keep their models, threads
+	 * and database connections until the end of the main run.
+	 */
+	protected void releaseCPE() {
+		if (cpe == null)
+			return;
+		for (CasProcessor processor : cpe.getCasProcessors()) {
+			if (processor instanceof Resource)
+				((Resource) processor).destroy();
+		}
+		BaseCollectionReader reader = cpe.getCollectionReader();
+		if (reader instanceof Resource)
+			((Resource) reader).destroy();
+		if (metrics != null) {
+			metrics.close();
+			metrics = null;
+		}
+		dbc.close();
+		cpe = null;
+		statusCallbackListener = null;
+	}
+
+	/**
+	 * @return the time the CAS processors of the CPE were busy according to the
+	 *         performance report, summed over all threads, or -1 if the report
+	 *         does not contain the processors
+	 */
+	private long getBusyTime() {
+		ProcessTrace trace = cpe.getPerformanceReport();
+		long busyTime = 0;
+		boolean found = false;
+		for (CasProcessor processor : cpe.getCasProcessors()) {
+			String name = processor.getProcessingResourceMetaData().getName();
+			for (ProcessTraceEvent event : trace.getEventsByComponentName(name, false)) {
+				busyTime += event.getDuration();
+				found = true;
+			}
+		}
+		return found ? busyTime : -1;
+	}
+
 	public String getDescriptorFile() {
 		return descriptorFile;
 	}
@@ -306,4 +548,8 @@ public class DBCPERunner {
 	public Integer getNumbersOfDocuments() {
 		return numbersOfDocuments;
 	}
+
+	public Integer getReaderBatchSize() {
+		return readerBatchSize;
+	}
 }
\ No newline at end of file
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 public class DBStatusCallbackListener implements StatusCallbackListener {
 
@@ -66,7 +67,15 @@ public class DBStatusCallbackListener implements StatusCallbackListener {
 	 */
 	private long mInitCompleteTime;
 	private long mBatchTime;
+	private long mCompleteTime;
 	private Integer batchSize;
+	/**
+	 * Whether to quit the JVM when the processing is complete or aborted. Is
+	 * switched off for the warm-up runs of the autotuning.
+	 */
+	private boolean exitOnCompletion = true;
+	private volatile boolean aborted;
+	private final CountDownLatch completion = new CountDownLatch(1);
 	private final static Logger LOGGER = LoggerFactory.getLogger(DBStatusCallbackListener.class);
 
 	public DBStatusCallbackListener(CollectionProcessingEngine cpe, DataBaseConnector dbc,
@@ -117,7 +126,10 @@ public class DBStatusCallbackListener implements StatusCallbackListener {
 		LOGGER.info("Processing Time: " + processingTime + " ms");
 		LOGGER.info("\n\n ------------------ PERFORMANCE REPORT ------------------\n");
 		LOGGER.info(cpe.getPerformanceReport().toString());
-		System.exit(0);
+		mCompleteTime = time;
+		completion.countDown();
+		if (exitOnCompletion)
+			System.exit(0);
 	}
 
 	/**
@@ -144,8 +156,13 @@ public class DBStatusCallbackListener implements StatusCallbackListener {
 	 * @see org.apache.uima.collection.processing.StatusCallbackListener#aborted()
 	 */
 	public void aborted() {
-		LOGGER.info("The CPE has been aborted by the framework. The JVM ist forcibly quit to avoid the application getting stuck on some threads that could not be stopped.");
-		System.exit(1);
+		aborted = true;
+		completion.countDown();
+		if (exitOnCompletion) {
+			LOGGER.info("The CPE has been aborted by the framework. The JVM ist forcibly quit to avoid the application getting stuck on some threads that could not be stopped.");
+			System.exit(1);
+		}
+		LOGGER.info("The CPE has been aborted by the framework.");
 	}
 
 	/**
@@ -302,6 +319,35 @@ public class DBStatusCallbackListener implements StatusCallbackListener {
 		return builder.toString();
 	}
 
+	/**
+	 * Blocks until the collection processing is complete or has been aborted.
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void awaitCompletion() throws InterruptedException {
+		completion.await();
+	}
+
+	public void setExitOnCompletion(boolean exitOnCompletion) {
+		this.exitOnCompletion = exitOnCompletion;
+	}
+
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	public synchronized int getEntityCount() {
+		return entityCount;
+	}
+
+	/**
+	 * @return The time in milliseconds from the completed initialization to
+	 *         the completion of the collection processing.
+	 */
+	public long getProcessingTime() {
+		return mCompleteTime - mInitCompleteTime;
+	}
+
 	public CollectionProcessingEngine getCpe() {
 		return cpe;
 	}
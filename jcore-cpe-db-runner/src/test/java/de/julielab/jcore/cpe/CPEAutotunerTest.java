@@ -0,0 +1,111 @@
+package de.julielab.jcore.cpe;
+
+import de.julielab.jcore.cpe.CPEAutotuner.Configuration;
+import de.julielab.jcore.cpe.CPEAutotuner.TrialResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CPEAutotunerTest {
+
+	/**
+	 * A trial without a CPE. The processing time of the documents is computed
+	 * from the configuration: the throughput rises with the thread count up to
+	 * <tt>saturatingThreads</tt> and with the reader batch size up to
+	 * <tt>saturatingBatchSize</tt>.
+	 */
+	private static class FakeTrial implements CPEAutotuner.Trial {
+		private final int saturatingThreads;
+		private final int saturatingBatchSize;
+		private final double idleFraction;
+		private long remainingDocuments;
+		private final List<Configuration> runs = new ArrayList<>();
+		private int releases;
+
+		private FakeTrial(int saturatingThreads, int saturatingBatchSize, double idleFraction,
+				long availableDocuments) {
+			this.saturatingThreads = saturatingThreads;
+			this.saturatingBatchSize = saturatingBatchSize;
+			this.idleFraction = idleFraction;
+			this.remainingDocuments = availableDocuments;
+		}
+
+		@Override
+		public TrialResult run(Configuration configuration, int numDocuments) {
+			assertEquals("The previous trial has not been released", runs.size(), releases);
+			runs.add(configuration);
+			long documents = Math.min(numDocuments, remainingDocuments);
+			remainingDocuments -= documents;
+			double speed = Math.min(configuration.getThreads(), saturatingThreads)
+					* Math.min(configuration.getReaderBatchSize(), saturatingBatchSize);
+			long time = (long) (documents * 100000 / speed);
+			long busyTime = (long) (time * configuration.getThreads() * (1 - idleFraction));
+			return new TrialResult(documents, time, busyTime);
+		}
+
+		@Override
+		public void release() {
+			++releases;
+		}
+	}
+
+	@Test
+	public void testTuneThreads() throws Exception {
+		FakeTrial trial = new FakeTrial(4, 100, 0, Long.MAX_VALUE);
+		CPEAutotuner tuner = new CPEAutotuner(trial, 1, 16, 3, 50, 400, 100);
+		Configuration configuration = tuner.tune();
+		assertEquals(4, configuration.getThreads());
+		assertEquals(12, configuration.getCasPoolSize());
+		// the threads are not idle, so the batch size is not changed
+		assertEquals(50, configuration.getReaderBatchSize());
+		// 1, 2, 4 and 8 threads have been tried
+		assertEquals(4, trial.runs.size());
+		assertEquals(trial.runs.size(), trial.releases);
+		assertEquals(400, tuner.getProcessedDocuments());
+	}
+
+	@Test
+	public void testTuneReaderBatchSize() throws Exception {
+		FakeTrial trial = new FakeTrial(2, 200, 0.5, Long.MAX_VALUE);
+		Configuration configuration = new CPEAutotuner(trial, 1, 8, 2, 50, 1000, 100).tune();
+		assertEquals(2, configuration.getThreads());
+		// 100 and 200 pay off, 400 does not
+		assertEquals(200, configuration.getReaderBatchSize());
+		// the CAS pool grows by the thread count with each batch size increase
+		assertEquals(4 + 2 + 2, configuration.getCasPoolSize());
+		assertEquals(trial.runs.size(), trial.releases);
+	}
+
+	@Test
+	public void testTuneExhaustedDocuments() throws Exception {
+		FakeTrial trial = new FakeTrial(4, 100, 0, 150);
+		CPEAutotuner tuner = new CPEAutotuner(trial, 1, 16, 3, 50, 400, 100);
+		Configuration configuration = tuner.tune();
+		// the second trial ran out of documents and does not count
+		assertEquals(1, configuration.getThreads());
+		assertEquals(2, trial.runs.size());
+		assertEquals(150, tuner.getProcessedDocuments());
+		assertEquals(trial.runs.size(), trial.releases);
+	}
+
+	@Test
+	public void testReleaseFailedTrial() throws Exception {
+		FakeTrial trial = new FakeTrial(4, 100, 0, Long.MAX_VALUE) {
+			@Override
+			public TrialResult run(Configuration configuration, int numDocuments) {
+				super.run(configuration, numDocuments);
+				throw new IllegalStateException("The warm-up run has been aborted.");
+			}
+		};
+		try {
+			new CPEAutotuner(trial, 1, 16, 3, 50, 400, 100).tune();
+			fail("The failure of the trial should have been passed on");
+		} catch (IllegalStateException e) {
+			assertEquals(1, trial.releases);
+		}
+	}
+}
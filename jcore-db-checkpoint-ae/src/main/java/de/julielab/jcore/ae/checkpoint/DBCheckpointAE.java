@@ -24,6 +24,10 @@ import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ResourceMetaData(name = "JCoRe Database Checkpoint AE", description = "This component can be used when using a JCoRe database reader that reads from a CoStoSys/JeDIS subset. Enters the configured component name in the 'last component' column. Can also mark documents as being completely processed.")
 public class DBCheckpointAE extends JCasAnnotator_ImplBase {
@@ -32,6 +36,7 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
     public static final String PARAM_INDICATE_FINISHED = "IndicateFinished";
     public static final String PARAM_COSTOSYS_CONFIG = "CostosysConfigFile";
     public static final String PARAM_WRITE_BATCH_SIZE = "WriteBatchSize";
+    public static final String PARAM_WRITE_INTERVAL = "WriteInterval";
     private final static Logger log = LoggerFactory.getLogger(DBCheckpointAE.class);
     private DataBaseConnector dbc;
 
@@ -53,16 +58,35 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
             "The number of processed CASes after which the checkpoint should be written into the database. Defaults to 50.")
     private int writeBatchSize;
 
+    @ConfigurationParameter(name = PARAM_WRITE_INTERVAL, mandatory = false, defaultValue = "0", description =
+            "If set to a positive number of milliseconds, the checkpoints are written into the database by a background " +
+            "thread instead of the annotator thread. The background thread writes whenever 'WriteBatchSize' documents " +
+            "have been collected and, independently of that, at the given interval. The latter also marks documents " +
+            "as processed that have been released late by other synchronized components. Defaults to 0 which writes " +
+            "synchronously from the annotator thread.")
+    private int writeInterval;
+
     @ConfigurationParameter(name = DocumentReleaseCheckpoint.PARAM_JEDIS_SYNCHRONIZATION_KEY, mandatory = false, description = DocumentReleaseCheckpoint.SYNC_PARAM_DESC)
     private String jedisSyncKey;
 
 
-    private String subsetTable;
+    private volatile String subsetTable;
 
     private Set<DocumentId> docIds;
 
     private DocumentReleaseCheckpoint docReleaseCheckpoint;
 
+    /**
+     * The fields below are only used when writing in the background, i.e. {@link #writeInterval} is positive.
+     * The annotator thread only adds document IDs to the lock-free {@link #pendingDocIds} queue. All database
+     * writes happen in the single thread of {@link #writer}.
+     */
+    private ScheduledExecutorService writer;
+    private Queue<DocumentId> pendingDocIds;
+    private AtomicInteger numPendingDocIds;
+    private AtomicBoolean writeScheduled;
+    private AtomicReference<Throwable> writerError;
+
     /**
      * This method is called a single time by the framework at component
      * creation. Here, descriptor parameters are read and initial setup is done.
@@ -73,6 +97,7 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
         dbcConfigPath = (String) aContext.getConfigParameterValue(PARAM_COSTOSYS_CONFIG);
         indicateFinished = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_INDICATE_FINISHED)).orElse(false);
         writeBatchSize = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_WRITE_BATCH_SIZE)).orElse(50);
+        writeInterval = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_WRITE_INTERVAL)).orElse(0);
         try {
             dbc = new DataBaseConnector(dbcConfigPath);
         } catch (FileNotFoundException e) {
@@ -87,34 +112,63 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
             docReleaseCheckpoint.register(jedisSyncKey);
         }
 
+        if (writeInterval > 0) {
+            pendingDocIds = new ConcurrentLinkedQueue<>();
+            numPendingDocIds = new AtomicInteger();
+            writeScheduled = new AtomicBoolean();
+            writerError = new AtomicReference<>();
+            writer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "DBCheckpointAE-writer-" + componentDbName);
+                t.setDaemon(true);
+                return t;
+            });
+            writer.scheduleWithFixedDelay(this::writePendingDocuments, writeInterval, writeInterval, TimeUnit.MILLISECONDS);
+        }
+
         log.info("{}: {}", PARAM_CHECKPOINT_NAME, componentDbName);
         log.info("{}: {}", PARAM_INDICATE_FINISHED, indicateFinished);
         log.info("{}: {}", PARAM_CHECKPOINT_NAME, componentDbName);
         log.info("{}: {}", PARAM_WRITE_BATCH_SIZE, writeBatchSize);
+        log.info("{}: {}", PARAM_WRITE_INTERVAL, writeInterval);
     }
 
     @Override
     public void batchProcessComplete() throws AnalysisEngineProcessException {
         super.batchProcessComplete();
-        log.debug("BatchProcessComplete called, stashing {} documents to be ready for marked as being finished", docIds.size());
-        if (indicateFinished)
-            docReleaseCheckpoint.release(jedisSyncKey, docIds.stream());
-        try (CoStoSysConnection conn = dbc.obtainOrReserveConnection()) {
-            setLastComponent(conn, subsetTable, indicateFinished, dbc.getActiveTableFieldConfiguration());
+        if (writer != null) {
+            checkWriterError();
+            scheduleWrite();
+            return;
         }
-        docIds.clear();
+        log.debug("BatchProcessComplete called, stashing {} documents to be ready for marked as being finished", docIds.size());
+        customBatchProcessingComplete();
     }
 
     @Override
     public void collectionProcessComplete() throws AnalysisEngineProcessException {
         super.collectionProcessComplete();
-        log.debug("BatchProcessComplete called, stashing {} documents to be ready for marked as being finished", docIds.size());
-        if (indicateFinished)
-            docReleaseCheckpoint.release(jedisSyncKey, docIds.stream());
-        try (CoStoSysConnection conn = dbc.obtainOrReserveConnection()) {
-            setLastComponent(conn, subsetTable, indicateFinished, dbc.getActiveTableFieldConfiguration());
+        if (writer != null) {
+            // Stop the background writing and write the remaining documents from this thread.
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.warn("The background checkpoint writer did not finish within one minute, interrupting it.");
+                    writer.shutdownNow();
+                    // The document IDs are not thread-safe and must not be written while the writer might still use them.
+                    if (!writer.awaitTermination(1, TimeUnit.MINUTES))
+                        throw new AnalysisEngineProcessException(new IllegalStateException("The background checkpoint writer of component " + componentDbName + " could not be stopped. The remaining checkpoints are not written."));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AnalysisEngineProcessException(e);
+            }
+            checkWriterError();
+            drainPendingDocuments();
         }
-        docIds.clear();
+        log.debug("CollectionProcessComplete called, stashing {} documents to be ready for marked as being finished", docIds.size());
+        customBatchProcessingComplete();
+        if (indicateFinished)
+            log.info("Documents were marked as processed {} ms on average and at most {} ms after their first release. {} documents have not been released by all synchronized components.", String.format("%.1f", docReleaseCheckpoint.getMeanReleaseLag()), docReleaseCheckpoint.getMaxReleaseLag(), docReleaseCheckpoint.getNumberOfPendingDocuments());
         log.info("Closing database connector.");
         dbc.close();
     }
@@ -125,9 +179,52 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
         try (CoStoSysConnection conn = dbc.obtainOrReserveConnection()) {
             setLastComponent(conn, subsetTable, indicateFinished, dbc.getActiveTableFieldConfiguration());
         }
+        if (indicateFinished && log.isDebugEnabled())
+            log.debug("{} documents have not yet been released by all synchronized components, the oldest for {} ms.", docReleaseCheckpoint.getNumberOfPendingDocuments(), docReleaseCheckpoint.getOldestPendingReleaseAge());
         docIds.clear();
     }
 
+    /**
+     * Submits a write of the pending documents to the background writer unless one is already waiting.
+     */
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true))
+            writer.execute(this::writePendingDocuments);
+    }
+
+    /**
+     * Runs in the writer thread. Writes the pending documents like {@link #customBatchProcessingComplete()} would
+     * do synchronously. Errors are stored and thrown from the annotator thread by {@link #checkWriterError()}.
+     */
+    private void writePendingDocuments() {
+        writeScheduled.set(false);
+        // Before the first document has arrived, the subset table is unknown and documents released by other
+        // components could not be marked.
+        if (writerError.get() != null || subsetTable == null)
+            return;
+        try {
+            drainPendingDocuments();
+            customBatchProcessingComplete();
+        } catch (Throwable t) {
+            log.error("Exception while writing checkpoints to the database in the background", t);
+            writerError.set(t);
+        }
+    }
+
+    private void drainPendingDocuments() {
+        DocumentId documentId;
+        while ((documentId = pendingDocIds.poll()) != null) {
+            numPendingDocIds.decrementAndGet();
+            docIds.add(documentId);
+        }
+    }
+
+    private void checkWriterError() throws AnalysisEngineProcessException {
+        Throwable t = writerError.get();
+        if (t != null)
+            throw new AnalysisEngineProcessException(t);
+    }
+
     /**
      * This method is called for each document going through the component. This
      * is where the actual work happens.
@@ -148,8 +245,15 @@ public class DBCheckpointAE extends JCasAnnotator_ImplBase {
                     }
                     subsetTable = dbProcessingMetaData.getSubsetTable();
                 }
-                docIds.add(documentId);
                 log.trace("Adding document ID {} for subset table {} for checkpoint marking", documentId, subsetTable);
+                if (writer != null) {
+                    checkWriterError();
+                    pendingDocIds.add(documentId);
+                    if (numPendingDocIds.incrementAndGet() >= writeBatchSize)
+                        scheduleWrite();
+                    return;
+                }
+                docIds.add(documentId);
                 if (docIds.size() >= writeBatchSize) {
                     log.debug("Cached documents have reached the configured batch size of {}, sending to database.", writeBatchSize);
                     customBatchProcessingComplete();
@@ -1,13 +1,15 @@
 package de.julielab.jcore.ae.checkpoint;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 /**
@@ -38,18 +40,29 @@ public class DocumentReleaseCheckpoint {
             "Synchronized components are those that disclose this parameter and have a value set to it.";
     public static final String PARAM_JEDIS_SYNCHRONIZATION_KEY = "JedisSynchronizationKey";
     private final static Logger log = LoggerFactory.getLogger(DocumentReleaseCheckpoint.class);
-    private static DocumentReleaseCheckpoint checkpoint;
-    private Multiset<DocumentId> releasedDocuments;
-    private Set<String> registeredComponents;
+    private static volatile DocumentReleaseCheckpoint checkpoint;
+    /**
+     * The release state of the documents that have not yet been released by all registered components. The map is
+     * accessed without a global lock; the release count of a document is updated atomically per key.
+     */
+    private final ConcurrentMap<DocumentId, ReleaseState> releasedDocuments;
+    private final Set<String> registeredComponents;
+    private final LongAdder completelyReleasedDocuments = new LongAdder();
+    private final LongAdder totalReleaseLag = new LongAdder();
+    private final LongAccumulator maxReleaseLag = new LongAccumulator(Long::max, 0);
 
-    private DocumentReleaseCheckpoint() {
-        releasedDocuments = HashMultiset.create();
-        registeredComponents = new HashSet<>();
+    DocumentReleaseCheckpoint() {
+        releasedDocuments = new ConcurrentHashMap<>();
+        registeredComponents = ConcurrentHashMap.newKeySet();
     }
 
     public static DocumentReleaseCheckpoint get() {
-        if (checkpoint == null)
-            checkpoint = new DocumentReleaseCheckpoint();
+        if (checkpoint == null) {
+            synchronized (DocumentReleaseCheckpoint.class) {
+                if (checkpoint == null)
+                    checkpoint = new DocumentReleaseCheckpoint();
+            }
+        }
         return checkpoint;
     }
 
@@ -74,6 +87,8 @@ public class DocumentReleaseCheckpoint {
 
     /**
      * <p>To be called from synchronizing components. They send their registration key and the document IDs they are positively finished with.</p>
+     * <p>This method may be called concurrently by multiple components and pipeline threads without blocking each
+     * other except when they release the same document at the same time.</p>
      *
      * @param componentKey        The canonical identifier provided in {@link #register(String)} earlier.
      * @param releasedDocumentIds The document IDs to be released.
@@ -81,34 +96,75 @@ public class DocumentReleaseCheckpoint {
     public void release(String componentKey, Stream<DocumentId> releasedDocumentIds) {
         if (!registeredComponents.contains(componentKey))
             throw new IllegalArgumentException("No component is registered for key " + componentKey);
-        synchronized (releasedDocuments) {
-            releasedDocumentIds.forEach(d -> releasedDocuments.add(d));
-        }
+        long time = System.currentTimeMillis();
+        releasedDocumentIds.forEach(d -> releasedDocuments.compute(d, (id, state) -> state == null ? new ReleaseState(time) : state.increment()));
     }
 
     /**
      * <p>Used by the {@link DBCheckpointAE} to determine documents that can safely be marked as being finished with processing.</p>
-     * <p>Gets all the document IDs from all synchronizing components that those components have released. The returned list will
-     * contain duplicates of document IDs when multiple components have released that document. The {@link DBCheckpointAE}
-     * will only mark those documents as processed that have been released as often as synchronizing components have been
-     * registered with {@link #register(String)}.</p>
+     * <p>Gets all the document IDs that have been released by all synchronizing components, i.e. that have been released
+     * as often as synchronizing components have been registered with {@link #register(String)}. The returned documents
+     * are removed from the checkpoint so that each document is returned once.</p>
      *
      * @return The currently released document IDs.
      */
     public Set<DocumentId> getReleasedDocumentIds() {
-        // Get all documents released by all components
-        Set<DocumentId> returnedIds;
-        synchronized (releasedDocuments) {
-            returnedIds = this.releasedDocuments.entrySet().stream().filter(e -> e.getCount() == getNumberOfRegisteredComponents()).map(Multiset.Entry::getElement).collect(Collectors.toSet());
-            // Remove the completely released documents from the pool of potentially not yet completely released documents.
-            returnedIds.forEach(id -> this.releasedDocuments.remove(id, Integer.MAX_VALUE));
+        int numberOfRegisteredComponents = getNumberOfRegisteredComponents();
+        long time = System.currentTimeMillis();
+        Set<DocumentId> returnedIds = new HashSet<>();
+        for (Map.Entry<DocumentId, ReleaseState> entry : releasedDocuments.entrySet()) {
+            ReleaseState state = entry.getValue();
+            // Removes the completely released document from the pool of potentially not yet completely released
+            // documents. The removal only succeeds for the state we have seen, making sure that concurrent callers
+            // don't both return the document.
+            if (state.count == numberOfRegisteredComponents && releasedDocuments.remove(entry.getKey(), state)) {
+                returnedIds.add(entry.getKey());
+                long lag = time - state.firstReleaseTime;
+                completelyReleasedDocuments.increment();
+                totalReleaseLag.add(lag);
+                maxReleaseLag.accumulate(lag);
+            }
         }
-        log.debug("Returning {} documents released by all registered components. {} document IDs remain that have not yet been released by all registered components.", returnedIds.size(), this.releasedDocuments.size());
-        if (this.releasedDocuments.size() > 1000)
-            log.warn("The number of document IDs that have not been released by all registered components has grown to {}. If it does not increase again, there is likely an errorneous component which does not release its documents.", releasedDocuments.size());
+        int numberOfPendingDocuments = releasedDocuments.size();
+        log.debug("Returning {} documents released by all registered components. {} document IDs remain that have not yet been released by all registered components.", returnedIds.size(), numberOfPendingDocuments);
+        if (numberOfPendingDocuments > 1000)
+            log.warn("The number of document IDs that have not been released by all registered components has grown to {}. If it does not increase again, there is likely an errorneous component which does not release its documents.", numberOfPendingDocuments);
         return returnedIds;
     }
 
+    /**
+     * @return The number of documents that have been released by some but not yet by all registered components or
+     * that have not yet been retrieved by {@link #getReleasedDocumentIds()}.
+     */
+    public int getNumberOfPendingDocuments() {
+        return releasedDocuments.size();
+    }
+
+    /**
+     * @return The time in milliseconds since the first release of the oldest pending document, 0 if there is none.
+     */
+    public long getOldestPendingReleaseAge() {
+        long time = System.currentTimeMillis();
+        return releasedDocuments.values().stream().mapToLong(s -> time - s.firstReleaseTime).max().orElse(0);
+    }
+
+    /**
+     * @return The mean time in milliseconds between the first release of a document and its retrieval by
+     * {@link #getReleasedDocumentIds()}, i.e. how long the documents waited for the slowest component.
+     */
+    public double getMeanReleaseLag() {
+        long documents = completelyReleasedDocuments.sum();
+        return documents == 0 ? 0 : totalReleaseLag.sum() / (double) documents;
+    }
+
+    /**
+     * @return The maximum time in milliseconds between the first release of a document and its retrieval by
+     * {@link #getReleasedDocumentIds()}.
+     */
+    public long getMaxReleaseLag() {
+        return maxReleaseLag.get();
+    }
+
     /**
      * <p>Returns the number of currently registered components.</p>
      *
@@ -118,4 +174,25 @@ public class DocumentReleaseCheckpoint {
         return registeredComponents.size();
     }
 
+    /**
+     * The number of releases of a document and the time of the first release. Instances are immutable so that
+     * {@link ConcurrentMap#remove(Object, Object)} only removes the exact state that has been checked.
+     */
+    private static class ReleaseState {
+        private final int count;
+        private final long firstReleaseTime;
+
+        private ReleaseState(long firstReleaseTime) {
+            this(1, firstReleaseTime);
+        }
+
+        private ReleaseState(int count, long firstReleaseTime) {
+            this.count = count;
+            this.firstReleaseTime = firstReleaseTime;
+        }
+
+        private ReleaseState increment() {
+            return new ReleaseState(count + 1, firstReleaseTime);
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package de.julielab.jcore.ae.checkpoint;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class DocumentReleaseCheckpointTest {
+
+    @Test
+    public void testReleaseByAllComponents() {
+        DocumentReleaseCheckpoint checkpoint = new DocumentReleaseCheckpoint();
+        checkpoint.register("writer");
+        checkpoint.register("checkpoint");
+        checkpoint.release("writer", Stream.of(new DocumentId("1"), new DocumentId("2")));
+        checkpoint.release("checkpoint", Stream.of(new DocumentId("1")));
+        assertEquals(checkpoint.getReleasedDocumentIds(), Collections.singleton(new DocumentId("1")));
+        assertEquals(checkpoint.getNumberOfPendingDocuments(), 1);
+        checkpoint.release("checkpoint", Stream.of(new DocumentId("2")));
+        assertEquals(checkpoint.getReleasedDocumentIds(), Collections.singleton(new DocumentId("2")));
+        assertEquals(checkpoint.getNumberOfPendingDocuments(), 0);
+        assertTrue(checkpoint.getReleasedDocumentIds().isEmpty());
+        assertTrue(checkpoint.getMaxReleaseLag() >= 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnregisteredComponent() {
+        new DocumentReleaseCheckpoint().release("unknown", Stream.of(new DocumentId("1")));
+    }
+
+    @Test(timeOut = 60000)
+    public void testConcurrentRelease() throws Exception {
+        DocumentReleaseCheckpoint checkpoint = new DocumentReleaseCheckpoint();
+        int numComponents = 4;
+        int numDocuments = 10000;
+        for (int i = 0; i < numComponents; i++)
+            checkpoint.register("component" + i);
+        ExecutorService executor = Executors.newFixedThreadPool(numComponents + 1);
+        // a lost release must fail the test instead of letting the collector wait forever
+        long deadline = System.currentTimeMillis() + 30000;
+        Future<Set<DocumentId>> collector = executor.submit(() -> {
+            Set<DocumentId> collected = new HashSet<>();
+            while (collected.size() < numDocuments && System.currentTimeMillis() < deadline) {
+                for (DocumentId id : checkpoint.getReleasedDocumentIds())
+                    assertTrue(collected.add(id), "Document " + id + " was returned twice");
+            }
+            return collected;
+        });
+        List<Future<?>> releasers = new ArrayList<>();
+        for (int i = 0; i < numComponents; i++) {
+            String component = "component" + i;
+            releasers.add(executor.submit(() -> {
+                for (int j = 0; j < numDocuments; j += 100)
+                    checkpoint.release(component, IntStream.range(j, j + 100).mapToObj(String::valueOf).map(DocumentId::new));
+            }));
+        }
+        Set<DocumentId> collected;
+        try {
+            for (Future<?> releaser : releasers)
+                releaser.get(30, TimeUnit.SECONDS);
+            collected = collector.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(collected, IntStream.range(0, numDocuments).mapToObj(String::valueOf).map(DocumentId::new).collect(Collectors.toSet()));
+        assertEquals(checkpoint.getNumberOfPendingDocuments(), 0);
+    }
+}
@@ -7,6 +7,7 @@ import de.julielab.jcore.types.ext.FlattenedRelation;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.impl.LowLevelCAS;
 import org.apache.uima.fit.descriptor.TypeCapability;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
@@ -15,9 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Creates {@link FlattenedRelation} instances according to {@link EventMention}
@@ -52,35 +52,64 @@ public class EventFlattener extends JCasAnnotator_ImplBase {
 	private static final Logger log = LoggerFactory
 			.getLogger(EventFlattener.class);
 
+	/**
+	 * The buffers below are reused for all events and documents to avoid
+	 * allocations on event-dense documents.
+	 */
+	private final List<EventMention> topEvents = new ArrayList<>();
+	private final List<EventMention> events = new ArrayList<>();
+	private final List<ArgumentMention> arguments = new ArrayList<>();
+	private final List<ArgumentMention> agentArguments = new ArrayList<>();
+	private final List<ArgumentMention> patientArguments = new ArrayList<>();
+	/**
+	 * The sorted CAS addresses of the events that are arguments of other
+	 * events.
+	 */
+	private int[] nonTopEvents = new int[64];
+	/**
+	 * The stack of the iterative depth-first traversal of an event tree: the
+	 * arguments of the events and, in parallel, their number and the position
+	 * of the next argument to visit.
+	 */
+	private FSArray[] stackArguments = new FSArray[16];
+	private int[] stackSizes = new int[16];
+	private int[] stackPositions = new int[16];
+	/**
+	 * The number of events in the current document, including referenced
+	 * events that are not in the annotation index. A deeper event tree must
+	 * contain a cycle.
+	 */
+	private int maxDepth;
+
 	@Override
 	public void process(JCas aJCas) throws AnalysisEngineProcessException {
 		try {
 			int flatEventCounter = 0;
-			List<EventMention> topEvents = determineTopEvents(aJCas);
+			determineTopEvents(aJCas);
 			for (EventMention topEvent : topEvents) {
-				List<EventMention> events = collectEventsInTree(topEvent,
-						new ArrayList<EventMention>());
-				List<ArgumentMention> arguments = collectPrimitiveArguments(
-						topEvent, new ArrayList<ArgumentMention>());
-				List<ArgumentMention> agentArguments = null;
-				List<ArgumentMention> patientArguments = null;
+				events.clear();
+				arguments.clear();
+				collectEventsAndPrimitiveArguments(topEvent, events, arguments);
+				boolean isRegulation;
 				switch (topEvent.getSpecificType()) {
 				case "Regulation":
 				case "Positive_regulation":
 				case "Negative_regulation":
-					agentArguments = collectAgentArguments(topEvent,
-							new ArrayList<ArgumentMention>());
-					patientArguments = collectPatientArguments(topEvent,
-							new ArrayList<ArgumentMention>());
+					isRegulation = true;
+					agentArguments.clear();
+					collectArgumentsWithRole(topEvent, "Cause", agentArguments);
+					patientArguments.clear();
+					collectArgumentsWithRole(topEvent, "Theme", patientArguments);
 					break;
 				default:
+					isRegulation = false;
 					break;
 				}
 
 				FSArray flatArgs = createFSArrayForList(aJCas, arguments);
-				FSArray agentArgs = null != agentArguments ? createFSArrayForList(
+				FSArray agentArgs = isRegulation ? createFSArrayForList(
 						aJCas, agentArguments) : null;
-				FSArray patientArgs = null != patientArguments ? createFSArrayForList(
+				FSArray patientArgs = isRegulation ? createFSArrayForList(
 						aJCas, patientArguments) : null;
 				FSArray flatEvents = createFSArrayForList(aJCas, events);
 
@@ -101,6 +130,12 @@ public class EventFlattener extends JCasAnnotator_ImplBase {
 			log.error("Exception occurred in document {}: {}",
 					header.getDocId(), e);
 			throw new AnalysisEngineProcessException(e);
+		} finally {
+			topEvents.clear();
+			events.clear();
+			arguments.clear();
+			agentArguments.clear();
+			patientArguments.clear();
 		}
 	}
 
@@ -113,97 +148,121 @@ public class EventFlattener extends JCasAnnotator_ImplBase {
 	}
 
 	/**
-	 * Collects all events that are descendants of <tt>event</tt> via argument
-	 * connections in <tt>collector</tt> and returns it.
+	 * Collects <tt>event</tt> and all events that are descendants of
+	 * <tt>event</tt> via argument connections in <tt>eventCollector</tt> and
+	 * the arguments of these events that are not events themselves in
+	 * <tt>argumentCollector</tt>, both in depth-first pre-order.
 	 * 
 	 * @param event
-	 * @param collector
-	 * @return
+	 * @param eventCollector
+	 *            The event collector or <tt>null</tt> if only the arguments
+	 *            are required.
+	 * @param argumentCollector
 	 */
-	private List<EventMention> collectEventsInTree(EventMention event,
-			ArrayList<EventMention> collector) {
-		collector.add(event);
-		for (int i = 0; i < event.getArguments().size(); ++i) {
-			ArgumentMention arg = event.getArguments(i);
-			if (arg.getRef() instanceof EventMention)
-				collectEventsInTree((EventMention) arg.getRef(), collector);
-		}
-		return collector;
-	}
-
-	private List<ArgumentMention> collectPatientArguments(
-			EventMention topEvent, ArrayList<ArgumentMention> collector) {
-		for (int i = 0; i < topEvent.getArguments().size(); ++i) {
-			ArgumentMention arg = topEvent.getArguments(i);
-			if (arg.getRole().equals("Theme")) {
-				if (arg.getRef() instanceof EventMention)
-					collectPrimitiveArguments((EventMention) arg.getRef(),
-							collector);
-				else
-					collector.add(arg);
+	private void collectEventsAndPrimitiveArguments(EventMention event,
+			List<EventMention> eventCollector,
+			List<ArgumentMention> argumentCollector) {
+		if (eventCollector != null)
+			eventCollector.add(event);
+		int depth = push(event, 0);
+		while (depth > 0) {
+			int top = depth - 1;
+			int position = stackPositions[top];
+			if (position == stackSizes[top]) {
+				stackArguments[top] = null;
+				--depth;
+				continue;
+			}
+			stackPositions[top] = position + 1;
+			ArgumentMention arg = (ArgumentMention) stackArguments[top]
+					.get(position);
+			Annotation ref = arg.getRef();
+			if (ref instanceof EventMention) {
+				if (eventCollector != null)
+					eventCollector.add((EventMention) ref);
+				depth = push((EventMention) ref, depth);
+			} else {
+				argumentCollector.add(arg);
 			}
 		}
-		return collector;
 	}
 
-	private List<ArgumentMention> collectAgentArguments(EventMention topEvent,
-			ArrayList<ArgumentMention> collector) {
+	/**
+	 * For each argument of <tt>topEvent</tt> with the given role, adds the
+	 * argument to <tt>collector</tt> or, if the argument is an event, its
+	 * primitive arguments.
+	 */
+	private void collectArgumentsWithRole(EventMention topEvent, String role,
+			List<ArgumentMention> collector) {
 		for (int i = 0; i < topEvent.getArguments().size(); ++i) {
 			ArgumentMention arg = topEvent.getArguments(i);
-			if (arg.getRole().equals("Cause")) {
+			if (arg.getRole().equals(role)) {
 				if (arg.getRef() instanceof EventMention)
-					collectPrimitiveArguments((EventMention) arg.getRef(),
-							collector);
+					collectEventsAndPrimitiveArguments(
+							(EventMention) arg.getRef(), null, collector);
 				else
 					collector.add(arg);
 			}
 		}
-		return collector;
 	}
 
-	private List<ArgumentMention> collectPrimitiveArguments(
-			EventMention topEvent, List<ArgumentMention> collector) {
-		for (int i = 0; i < topEvent.getArguments().size(); ++i) {
-			ArgumentMention arg = topEvent.getArguments(i);
-			if (arg.getRef() instanceof EventMention)
-				collectPrimitiveArguments((EventMention) arg.getRef(),
-						collector);
-			else
-				collector.add(arg);
+	/**
+	 * Pushes <tt>event</tt> onto the traversal stack of the given depth.
+	 * 
+	 * @return The new depth of the stack.
+	 */
+	private int push(EventMention event, int depth) {
+		if (depth > maxDepth)
+			throw new IllegalStateException(
+					"The arguments of the event " + event
+							+ " form a cycle.");
+		if (depth == stackArguments.length) {
+			stackArguments = Arrays.copyOf(stackArguments, 2 * depth);
+			stackSizes = Arrays.copyOf(stackSizes, 2 * depth);
+			stackPositions = Arrays.copyOf(stackPositions, 2 * depth);
 		}
-		return collector;
+		FSArray args = event.getArguments();
+		stackArguments[depth] = args;
+		stackSizes[depth] = args.size();
+		stackPositions[depth] = 0;
+		return depth + 1;
 	}
 
 	/**
-	 * Returns the <tt>EventMention</tt>s in the CAS that are not the argument
-	 * of another event.
+	 * Determines the <tt>EventMention</tt>s in the CAS that are not the
+	 * argument of another event and stores them in {@link #topEvents}.
 	 * 
-	 * @param events
-	 * @return
+	 * @param aJCas
 	 */
-	private List<EventMention> determineTopEvents(JCas aJCas) {
-		List<EventMention> topEvents = new ArrayList<>();
-		Set<EventMention> nonTopEvents = new HashSet<>();
-
+	private void determineTopEvents(JCas aJCas) {
+		LowLevelCAS llCas = aJCas.getLowLevelCas();
+		int numNonTopEvents = 0;
+		int numEvents = 0;
 		FSIterator<Annotation> eventit = aJCas.getAnnotationIndex(
 				EventMention.type).iterator();
 		while (eventit.hasNext()) {
 			EventMention em = (EventMention) eventit.next();
+			++numEvents;
 			for (int i = 0; i < em.getArguments().size(); ++i) {
 				ArgumentMention arg = em.getArguments(i);
 				if (arg.getRef() instanceof EventMention) {
-					nonTopEvents.add((EventMention) arg.getRef());
+					if (numNonTopEvents == nonTopEvents.length)
+						nonTopEvents = Arrays.copyOf(nonTopEvents,
+								2 * numNonTopEvents);
+					nonTopEvents[numNonTopEvents++] = llCas.ll_getFSRef(arg
+							.getRef());
 				}
 			}
-
 		}
+		Arrays.sort(nonTopEvents, 0, numNonTopEvents);
+		maxDepth = numEvents + numNonTopEvents;
 
-		eventit = aJCas.getAnnotationIndex(EventMention.type).iterator();
+		eventit.moveToFirst();
 		while (eventit.hasNext()) {
 			EventMention em = (EventMention) eventit.next();
-			if (!nonTopEvents.contains(em))
+			if (Arrays.binarySearch(nonTopEvents, 0, numNonTopEvents,
+					llCas.ll_getFSRef(em)) < 0)
 				topEvents.add(em);
 		}
-		return topEvents;
 	}
 }
@@ -2,23 +2,29 @@ package de.julielab.jules.ae;
 
 import com.google.common.collect.Sets;
 import de.julielab.jcore.ae.eventflattener.EventFlattener;
+import de.julielab.jcore.types.ArgumentMention;
+import de.julielab.jcore.types.EntityMention;
+import de.julielab.jcore.types.EventMention;
+import de.julielab.jcore.types.Header;
 import de.julielab.jcore.types.Sentence;
 import de.julielab.jcore.types.ext.FlattenedRelation;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.cas.CASException;
 import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileInputStream;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -117,4 +123,171 @@ public class EventFlattenerTest {
 		}
 		return count;
 	}
+
+	/**
+	 * The flattened relations must be the same as those of the former
+	 * recursive implementation, see {@link #flattenRecursively(JCas)}, on
+	 * synthetic documents with deeply nested events.
+	 */
+	@Test
+	public void testMatchesFormerImplementation() throws Exception {
+		JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		AnalysisEngine flattener = AnalysisEngineFactory
+				.createEngine(EventFlattener.class);
+		for (int doc = 0; doc < 10; doc++) {
+			// the same seed creates the same feature structures at the
+			// same addresses, so the outputs can be compared by address
+			initDenseCas(jCas, new Random(doc));
+			flattenRecursively(jCas);
+			List<String> expected = describeFlattenedRelations(jCas);
+
+			initDenseCas(jCas, new Random(doc));
+			flattener.process(jCas);
+			assertEquals(expected, describeFlattenedRelations(jCas));
+		}
+	}
+
+	private List<String> describeFlattenedRelations(JCas jCas) {
+		List<String> descriptions = new ArrayList<>();
+		FSIterator<Annotation> it = jCas.getAnnotationIndex(FlattenedRelation.type).iterator();
+		while (it.hasNext()) {
+			FlattenedRelation fr = (FlattenedRelation) it.next();
+			descriptions.add(fr.getId() + " " + address(fr.getRootRelation()) + " " + addresses(fr.getArguments())
+					+ " " + addresses(fr.getRelations()) + " " + addresses(fr.getAgents()) + " "
+					+ addresses(fr.getPatients()));
+		}
+		return descriptions;
+	}
+
+	private String addresses(FSArray array) {
+		if (array == null)
+			return "null";
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < array.size(); i++)
+			sb.append(address(array.get(i))).append(',');
+		return sb.toString();
+	}
+
+	private int address(FeatureStructure fs) {
+		return fs.getCAS().getLowLevelCAS().ll_getFSRef(fs);
+	}
+
+	/**
+	 * Creates a document with event trees of random depth and width. Each
+	 * event has one to three arguments, which are proteins or, with
+	 * decreasing probability in deeper levels, other events.
+	 */
+	private void initDenseCas(JCas jCas, Random random) {
+		jCas.reset();
+		String[] types = { "Regulation", "Positive_regulation", "Negative_regulation", "Gene_expression", "Binding" };
+		String[] roles = { "Theme", "Cause" };
+		int length = 100000;
+		char[] text = new char[length];
+		Arrays.fill(text, 'x');
+		jCas.setDocumentText(new String(text));
+		Header header = new Header(jCas);
+		header.setDocId("dense");
+		header.addToIndexes();
+		for (int i = 0; i < 300; i++)
+			createEvent(jCas, random, types, roles, random.nextInt(length - 10), 0);
+	}
+
+	private EventMention createEvent(JCas jCas, Random random, String[] types, String[] roles, int begin,
+			int depth) {
+		EventMention event = new EventMention(jCas, begin, begin + 5);
+		event.setSpecificType(types[random.nextInt(types.length)]);
+		int numArgs = 1 + random.nextInt(3);
+		FSArray args = new FSArray(jCas, numArgs);
+		for (int i = 0; i < numArgs; i++) {
+			ArgumentMention arg = new ArgumentMention(jCas, begin, begin + 5);
+			arg.setRole(roles[random.nextInt(roles.length)]);
+			if (depth < 5 && random.nextInt(depth + 2) == 0)
+				arg.setRef(createEvent(jCas, random, types, roles, begin, depth + 1));
+			else
+				arg.setRef(new EntityMention(jCas, begin, begin + 5));
+			args.set(i, arg);
+		}
+		event.setArguments(args);
+		event.addToIndexes();
+		return event;
+	}
+
+	/**
+	 * The former recursive implementation of the flattening, kept as
+	 * reference.
+	 */
+	private void flattenRecursively(JCas aJCas) {
+		Set<EventMention> nonTopEvents = new HashSet<>();
+		FSIterator<Annotation> eventit = aJCas.getAnnotationIndex(EventMention.type).iterator();
+		while (eventit.hasNext()) {
+			EventMention em = (EventMention) eventit.next();
+			for (int i = 0; i < em.getArguments().size(); ++i) {
+				if (em.getArguments(i).getRef() instanceof EventMention)
+					nonTopEvents.add((EventMention) em.getArguments(i).getRef());
+			}
+		}
+		int flatEventCounter = 0;
+		eventit = aJCas.getAnnotationIndex(EventMention.type).iterator();
+		while (eventit.hasNext()) {
+			EventMention topEvent = (EventMention) eventit.next();
+			if (nonTopEvents.contains(topEvent))
+				continue;
+			List<EventMention> events = collectEventsRecursively(topEvent, new ArrayList<>());
+			List<ArgumentMention> arguments = collectArgumentsRecursively(topEvent, null, new ArrayList<>());
+			List<ArgumentMention> agents = null;
+			List<ArgumentMention> patients = null;
+			switch (topEvent.getSpecificType()) {
+			case "Regulation":
+			case "Positive_regulation":
+			case "Negative_regulation":
+				agents = collectArgumentsRecursively(topEvent, "Cause", new ArrayList<>());
+				patients = collectArgumentsRecursively(topEvent, "Theme", new ArrayList<>());
+				break;
+			default:
+				break;
+			}
+			FlattenedRelation fr = new FlattenedRelation(aJCas, topEvent.getBegin(), topEvent.getEnd());
+			fr.setRootRelation(topEvent);
+			fr.setArguments(toFSArray(aJCas, arguments));
+			fr.setAgents(agents != null ? toFSArray(aJCas, agents) : null);
+			fr.setPatients(patients != null ? toFSArray(aJCas, patients) : null);
+			fr.setRelations(toFSArray(aJCas, events));
+			fr.setId("FE" + flatEventCounter++);
+			fr.addToIndexes();
+		}
+	}
+
+	private List<EventMention> collectEventsRecursively(EventMention event, List<EventMention> collector) {
+		collector.add(event);
+		for (int i = 0; i < event.getArguments().size(); ++i) {
+			if (event.getArguments(i).getRef() instanceof EventMention)
+				collectEventsRecursively((EventMention) event.getArguments(i).getRef(), collector);
+		}
+		return collector;
+	}
+
+	/**
+	 * Collects the primitive arguments of <tt>event</tt>; if <tt>role</tt> is
+	 * given, only the direct arguments with this role are considered.
+	 */
+	private List<ArgumentMention> collectArgumentsRecursively(EventMention event, String role,
+			List<ArgumentMention> collector) {
+		for (int i = 0; i < event.getArguments().size(); ++i) {
+			ArgumentMention arg = event.getArguments(i);
+			if (role != null && !arg.getRole().equals(role))
+				continue;
+			if (arg.getRef() instanceof EventMention)
+				collectArgumentsRecursively((EventMention) arg.getRef(), null, collector);
+			else
+				collector.add(arg);
+		}
+		return collector;
+	}
+
+	private FSArray toFSArray(JCas aJCas, List<? extends Annotation> annotations) {
+		FSArray array = new FSArray(aJCas, annotations.size());
+		for (int i = 0; i < annotations.size(); ++i)
+			array.set(i, annotations.get(i));
+		return array;
+	}
 }
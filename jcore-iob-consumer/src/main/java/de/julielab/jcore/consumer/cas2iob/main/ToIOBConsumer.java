@@ -33,6 +33,7 @@ import de.julielab.segmentationEvaluator.IOBToken;
 import de.julielab.segmentationEvaluator.IOToken;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.Type;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ResourceMetaData;
@@ -42,17 +43,16 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author weigel, faessler
@@ -70,6 +70,10 @@ public class ToIOBConsumer extends JCasAnnotator_ImplBase {
     public static final String PARAM_ADD_POS = "addPos";
     public static final String PARAM_COLUMN_SEPARATOR = "columnSeparator";
     public static final String PARAM_IOB_MARK_SEPARATOR = "iobMarkSeparator";
+    public static final String PARAM_SHARDED_OUTPUT = "shardedOutput";
+    public static final String PARAM_DOCUMENTS_PER_SHARD = "documentsPerShard";
+    public static final String PARAM_GZIP_SHARDS = "gzipShards";
+    public static final String PARAM_DOCUMENT_SEPARATOR = "documentSeparator";
     private static final Logger LOGGER = LoggerFactory.getLogger(ToIOBConsumer.class);
     private final String SENTENCE_END_MARK = "SENTENCE_END_MARKER"; // there will be an empty line for each sentence marker
     private final String PARAGRAPH_END_MARK = "PARAGRAPH_END_MARKER"; // there will be 2 empty lines for each sentence marker
@@ -94,6 +98,23 @@ public class ToIOBConsumer extends JCasAnnotator_ImplBase {
     private String separator;
     @ConfigurationParameter(name = PARAM_IOB_MARK_SEPARATOR, mandatory = false, description = "This string will be used to separate the IO(B) mark - i. e. I or B - from the entity or chunk label in the output file. Defaults to an underscore character.")
     private String iobMarkSeparator;
+    @ConfigurationParameter(name = PARAM_SHARDED_OUTPUT, mandatory = false, description = "If set to true, the IOB output of all documents is not written into one file per document but appended to shard files in the output folder. Each instance of this component writes its own shard files, named iob-<instance id>-<shard number>.iob where the instance id is a random UUID so that existing shard files of other instances, processes or earlier runs are never overwritten. This avoids a huge number of small files when writing large corpora. Defaults to false.")
+    private boolean shardedOutput;
+    @ConfigurationParameter(name = PARAM_DOCUMENTS_PER_SHARD, mandatory = false, description = "Only used for sharded output. The number of documents after which the current shard file is closed and a new one is begun. Defaults to 10000.")
+    private int documentsPerShard;
+    @ConfigurationParameter(name = PARAM_GZIP_SHARDS, mandatory = false, description = "Only used for sharded output. Whether the shard files should be GZIP compressed. Defaults to false.")
+    private boolean gzipShards;
+    @ConfigurationParameter(name = PARAM_DOCUMENT_SEPARATOR, mandatory = false, description = "Only used for sharded output. A line that is written before the IOB lines of each document, followed by the column separator and the document ID. The IOB lines are separated from the separator line by an empty line. Defaults to -DOCSTART-.")
+    private String documentSeparator;
+
+    /**
+     * Gives each consumer instance - and thus, each pipeline thread - its own set of shard files.
+     */
+    private String shardWriterId;
+    private int shardNumber;
+    private int documentsInShard;
+    private Writer shardWriter;
+    private final StringBuilder lineBuffer = new StringBuilder();
 
     public void initialize(UimaContext aContext) throws ResourceInitializationException {
         super.initialize(aContext);
@@ -121,6 +142,22 @@ public class ToIOBConsumer extends JCasAnnotator_ImplBase {
 
         iobMarkSeparator = Optional.ofNullable((String) aContext.getConfigParameterValue(PARAM_IOB_MARK_SEPARATOR)).orElse("_");
 
+        shardedOutput = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_SHARDED_OUTPUT)).orElse(false);
+        documentsPerShard = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_DOCUMENTS_PER_SHARD)).orElse(10000);
+        gzipShards = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_GZIP_SHARDS)).orElse(false);
+        documentSeparator = Optional.ofNullable((String) aContext.getConfigParameterValue(PARAM_DOCUMENT_SEPARATOR)).orElse("-DOCSTART-");
+        if (shardedOutput) {
+            shardWriterId = UUID.randomUUID().toString();
+            LOGGER.info("Writing IOB output into shards of {} documents each, GZIP compressed: {}", documentsPerShard, gzipShards);
+        }
+
+        try {
+            Files.createDirectories(Paths.get(outFolder));
+        } catch (IOException e) {
+            LOGGER.error("Could not create the output directory {}", outFolder, e);
+            throw new ResourceInitializationException(e);
+        }
+
         mode = (String) aContext.getConfigParameterValue(PARAM_MODE);
         if (mode.equals("IOB") || mode.equals("iob")) {
             mode = "IOB";
@@ -160,7 +197,7 @@ public class ToIOBConsumer extends JCasAnnotator_ImplBase {
 
     }
 
-    public void process(JCas jCas) {
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
 
         LOGGER.trace("Converting CAS to IO(B)Tokens...");
 
@@ -168,38 +205,119 @@ public class ToIOBConsumer extends JCasAnnotator_ImplBase {
 
         LOGGER.trace("Writing IO(B) file...");
 
-        BufferedWriter bw;
-        String outPathName = Paths.get(outFolder, getDocumentId(jCas)).toString() + ".iob";
-        if (Files.notExists(Paths.get(outFolder))) {
-            (new File(outFolder)).mkdirs();
-        }
+        String docId = getDocumentId(jCas);
         try {
-            bw = new BufferedWriter(new FileWriter(outPathName));
-            for (IOToken token : ioTokens) {
-                if (token.getText().equals("") || token.getText().equals(SENTENCE_END_MARK)) {
-                    // empty line for sentence break
-                    bw.newLine();
-                } else if (token.getText().equals("") || token.getText().equals(PARAGRAPH_END_MARK)) {
-                    bw.newLine();
-                    bw.newLine();
-                } else {
-                    final Stream.Builder<String> sb = Stream.builder();
-                    sb.accept(token.getText());
-                    sb.accept(token.getPos());
-                    sb.accept(token.getIobMark().equals("O") ? token.getIobMark() : token.getIobMark() + iobMarkSeparator + token.getLabel());
-                    String line = sb.build().filter(Objects::nonNull).collect(Collectors.joining(separator));
-                    bw.write(line);
-                    bw.newLine();
+            if (shardedOutput) {
+                Writer writer = getShardWriter();
+                lineBuffer.setLength(0);
+                lineBuffer.append(documentSeparator).append(separator).append(docId);
+                writer.append(lineBuffer).append(System.lineSeparator()).append(System.lineSeparator());
+                writeTokens(writer, ioTokens);
+                writer.append(System.lineSeparator());
+                ++documentsInShard;
+                LOGGER.trace("The IO(B) lines of document {} were written to shard {}", docId, shardNumber);
+            } else {
+                String outPathName = Paths.get(outFolder, docId).toString() + ".iob";
+                try (Writer bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outPathName), StandardCharsets.UTF_8))) {
+                    writeTokens(bw, ioTokens);
                 }
+                LOGGER.trace("The IO(B) file was written to " + outPathName);
             }
+        } catch (IOException e) {
+            LOGGER.error("Could not write the IO(B) output for document {}", docId, e);
+            throw new AnalysisEngineProcessException(e);
+        }
+    }
 
-            if (bw != null) {
-                bw.close();
+    private void writeTokens(Writer writer, IOToken[] ioTokens) throws IOException {
+        for (IOToken token : ioTokens) {
+            if (token.getText().equals("") || token.getText().equals(SENTENCE_END_MARK)) {
+                // empty line for sentence break
+                writer.write(System.lineSeparator());
+            } else if (token.getText().equals("") || token.getText().equals(PARAGRAPH_END_MARK)) {
+                writer.write(System.lineSeparator());
+                writer.write(System.lineSeparator());
+            } else {
+                lineBuffer.setLength(0);
+                lineBuffer.append(token.getText());
+                if (token.getPos() != null)
+                    lineBuffer.append(separator).append(token.getPos());
+                lineBuffer.append(separator);
+                if (token.getIobMark().equals("O"))
+                    lineBuffer.append(token.getIobMark());
+                else
+                    lineBuffer.append(token.getIobMark()).append(iobMarkSeparator).append(token.getLabel());
+                lineBuffer.append(System.lineSeparator());
+                writer.append(lineBuffer);
             }
+        }
+    }
+
+    /**
+     * Returns the writer for the current shard file, rotating to a new shard if the current one has reached the
+     * configured number of documents.
+     */
+    private Writer getShardWriter() throws IOException {
+        if (shardWriter != null && documentsInShard >= documentsPerShard)
+            closeShardWriter();
+        if (shardWriter == null) {
+            Path shardPath = Paths.get(outFolder, "iob-" + shardWriterId + "-" + shardNumber + ".iob" + (gzipShards ? ".gz" : ""));
+            // never overwrite existing output
+            OutputStream os = Files.newOutputStream(shardPath, StandardOpenOption.CREATE_NEW);
+            if (gzipShards)
+                os = new GZIPOutputStream(os);
+            shardWriter = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            documentsInShard = 0;
+            LOGGER.debug("Opened new IO(B) shard file {}", shardPath);
+        }
+        return shardWriter;
+    }
+
+    @Override
+    public void batchProcessComplete() throws AnalysisEngineProcessException {
+        super.batchProcessComplete();
+        try {
+            if (shardWriter != null)
+                shardWriter.flush();
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new AnalysisEngineProcessException(e);
+        }
+    }
+
+    @Override
+    public void collectionProcessComplete() throws AnalysisEngineProcessException {
+        super.collectionProcessComplete();
+        try {
+            closeShardWriter();
+        } catch (IOException e) {
+            LOGGER.error("Could not close the IO(B) shard file", e);
+            throw new AnalysisEngineProcessException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            closeShardWriter();
+        } catch (IOException e) {
+            LOGGER.error("Could not close the IO(B) shard file", e);
+        }
+        super.destroy();
+    }
+
+    /**
+     * Closes the current shard file, if any. The next document is written into a new shard file, also when the
+     * engine is used again after {@link #collectionProcessComplete()}.
+     */
+    private void closeShardWriter() throws IOException {
+        if (shardWriter != null) {
+            try {
+                shardWriter.close();
+            } finally {
+                shardWriter = null;
+                ++shardNumber;
+            }
         }
-        LOGGER.trace("The IO(B) file was written to " + outPathName);
     }
 
     /**
@@ -21,10 +21,12 @@
 package de.julielab.jcore.consumer.cas2iob.main;
 
 import de.julielab.jcore.types.Gene;
+import de.julielab.jcore.types.Header;
 import de.julielab.jcore.types.PennBioIEPOSTag;
 import de.julielab.jcore.types.Sentence;
 import de.julielab.jcore.types.Token;
 import de.julielab.jcore.utility.JCoReTools;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
@@ -35,6 +37,8 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 /**
@@ -118,4 +122,113 @@ public class ToIOBConsumerTest {
                 ".	.	O");
 
     }
+
+    @Test
+    public void testWriteShards() throws Exception {
+        final JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-morpho-syntax-types",
+                "de.julielab.jcore.types.jcore-semantics-biology-types"
+                , "de.julielab.jcore.types.jcore-document-meta-types");
+        final String outputDir = "target/iob-shard-output";
+        FileUtils.deleteQuietly(new File(outputDir));
+        final AnalysisEngine iobwriter = AnalysisEngineFactory.createEngine("de.julielab.jcore.consumer.cas2iob.desc.jcore-iob-consumer",
+                ToIOBConsumer.PARAM_OUTFOLDER, outputDir,
+                ToIOBConsumer.PARAM_LABEL_METHODS, new String[]{"Gene"},
+                ToIOBConsumer.PARAM_IOB_LABEL_NAMES, new String[]{"de.julielab.jcore.types.Gene=Gene"},
+                ToIOBConsumer.PARAM_TYPE_PATH, "de.julielab.jcore.types.",
+                ToIOBConsumer.PARAM_SHARDED_OUTPUT, true,
+                ToIOBConsumer.PARAM_DOCUMENTS_PER_SHARD, 2,
+                ToIOBConsumer.PARAM_GZIP_SHARDS, true);
+        for (int i = 0; i < 3; i++) {
+            jCas.reset();
+            jCas.setDocumentText("BRCA influences cancer.");
+            final Header header = new Header(jCas);
+            header.setDocId("doc" + i);
+            header.addToIndexes();
+            new Sentence(jCas, 0, jCas.getDocumentText().length()).addToIndexes();
+            new Gene(jCas, 0, 4).addToIndexes();
+            new Token(jCas, 0, 4).addToIndexes();
+            new Token(jCas, 5, 15).addToIndexes();
+            new Token(jCas, 16, 22).addToIndexes();
+            new Token(jCas, 22, 23).addToIndexes();
+            iobwriter.process(jCas);
+        }
+        iobwriter.collectionProcessComplete();
+
+        final File[] shards = new File(outputDir).listFiles();
+        assertThat(shards).hasSize(2);
+        final File firstShard = Arrays.stream(shards).filter(f -> f.getName().endsWith("-0.iob.gz")).findAny().get();
+        final File secondShard = Arrays.stream(shards).filter(f -> f.getName().endsWith("-1.iob.gz")).findAny().get();
+        assertThat(IOUtils.readLines(new GZIPInputStream(new FileInputStream(firstShard)), "UTF-8")).containsExactly(
+                "-DOCSTART-	doc0",
+                "",
+                "BRCA	B_Gene",
+                "influences	O",
+                "cancer	O",
+                ".	O",
+                "",
+                "-DOCSTART-	doc1",
+                "",
+                "BRCA	B_Gene",
+                "influences	O",
+                "cancer	O",
+                ".	O",
+                "");
+        assertThat(IOUtils.readLines(new GZIPInputStream(new FileInputStream(secondShard)), "UTF-8")).startsWith(
+                "-DOCSTART-	doc2");
+        iobwriter.destroy();
+
+        // a second run into the same folder must not overwrite the shards of the first run
+        final AnalysisEngine secondRunWriter = AnalysisEngineFactory.createEngine("de.julielab.jcore.consumer.cas2iob.desc.jcore-iob-consumer",
+                ToIOBConsumer.PARAM_OUTFOLDER, outputDir,
+                ToIOBConsumer.PARAM_LABEL_METHODS, new String[]{"Gene"},
+                ToIOBConsumer.PARAM_IOB_LABEL_NAMES, new String[]{"de.julielab.jcore.types.Gene=Gene"},
+                ToIOBConsumer.PARAM_TYPE_PATH, "de.julielab.jcore.types.",
+                ToIOBConsumer.PARAM_SHARDED_OUTPUT, true,
+                ToIOBConsumer.PARAM_GZIP_SHARDS, true);
+        secondRunWriter.process(jCas);
+        secondRunWriter.collectionProcessComplete();
+        secondRunWriter.destroy();
+        assertThat(new File(outputDir).listFiles()).hasSize(3);
+        assertThat(IOUtils.readLines(new GZIPInputStream(new FileInputStream(firstShard)), "UTF-8")).startsWith(
+                "-DOCSTART-	doc0");
+    }
+
+    @Test
+    public void testWriteShardsTwice() throws Exception {
+        final JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-morpho-syntax-types",
+                "de.julielab.jcore.types.jcore-semantics-biology-types"
+                , "de.julielab.jcore.types.jcore-document-meta-types");
+        final String outputDir = "target/iob-shard-output-twice";
+        FileUtils.deleteQuietly(new File(outputDir));
+        final AnalysisEngine iobwriter = AnalysisEngineFactory.createEngine("de.julielab.jcore.consumer.cas2iob.desc.jcore-iob-consumer",
+                ToIOBConsumer.PARAM_OUTFOLDER, outputDir,
+                ToIOBConsumer.PARAM_LABEL_METHODS, new String[]{"Gene"},
+                ToIOBConsumer.PARAM_IOB_LABEL_NAMES, new String[]{"de.julielab.jcore.types.Gene=Gene"},
+                ToIOBConsumer.PARAM_TYPE_PATH, "de.julielab.jcore.types.",
+                ToIOBConsumer.PARAM_SHARDED_OUTPUT, true);
+        // the engine is reused for a second collection after the first one has been completed
+        for (int run = 0; run < 2; run++) {
+            jCas.reset();
+            jCas.setDocumentText("BRCA influences cancer.");
+            final Header header = new Header(jCas);
+            header.setDocId("run" + run);
+            header.addToIndexes();
+            new Sentence(jCas, 0, jCas.getDocumentText().length()).addToIndexes();
+            new Gene(jCas, 0, 4).addToIndexes();
+            new Token(jCas, 0, 4).addToIndexes();
+            new Token(jCas, 5, 15).addToIndexes();
+            new Token(jCas, 16, 22).addToIndexes();
+            new Token(jCas, 22, 23).addToIndexes();
+            iobwriter.process(jCas);
+            iobwriter.collectionProcessComplete();
+        }
+        iobwriter.destroy();
+
+        final File[] shards = new File(outputDir).listFiles();
+        assertThat(shards).hasSize(2);
+        final File firstShard = Arrays.stream(shards).filter(f -> f.getName().endsWith("-0.iob")).findAny().get();
+        final File secondShard = Arrays.stream(shards).filter(f -> f.getName().endsWith("-1.iob")).findAny().get();
+        assertThat(FileUtils.readLines(firstShard, "UTF-8")).startsWith("-DOCSTART-	run0");
+        assertThat(FileUtils.readLines(secondShard, "UTF-8")).startsWith("-DOCSTART-	run1");
+    }
 }
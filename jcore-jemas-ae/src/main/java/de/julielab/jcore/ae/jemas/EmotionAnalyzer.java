@@ -7,6 +7,7 @@ import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,12 +15,23 @@ import org.slf4j.LoggerFactory;
 public class EmotionAnalyzer extends JCasAnnotator_ImplBase {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(EmotionAnalyzer.class);
+	public static final String PARAM_LEXICON_PATH = "lexiconPath";
+	public static final String RESOURCE_LEXICON = "EmotionLexicon";
 	private EmotionLexicon lexicon;
 
 	@Override
 	public void initialize(UimaContext aContext) throws ResourceInitializationException {
 		super.initialize(aContext);
-		String lexiconPath = (String) getContext().getConfigParameterValue("lexiconPath");
+		try {
+			Object sharedLexicon = aContext.getResourceObject(RESOURCE_LEXICON);
+			if (sharedLexicon instanceof EmotionLexicon) {
+				lexicon = (EmotionLexicon) sharedLexicon;
+				return;
+			}
+		} catch (ResourceAccessException e) {
+			throw new ResourceInitializationException(e);
+		}
+		String lexiconPath = (String) getContext().getConfigParameterValue(PARAM_LEXICON_PATH);
 		// System.err.println();
 		// System.err.println(lexiconPath);
 		// System.err.println();
@@ -30,25 +42,19 @@ public class EmotionAnalyzer extends JCasAnnotator_ImplBase {
 	@Override
 	public void process(JCas aJCas) throws AnalysisEngineProcessException {
 		LOGGER.debug("[JCoRe JEmAS] processing document ...");
-		Emotion docEmo = new Emotion(0.0, 0.0, 0.0);
+		double[] sums = new double[3];
 		FSIterator tokenIterator = aJCas.getAnnotationIndex(Token.type).iterator();
 		int count = 0; // counts how many words could have been found in lexicon
+		int state = EmotionLexicon.ROOT;
 
 		while (tokenIterator.hasNext()) {
 			Token token = (Token) tokenIterator.next();
 
 			String lemma = token.getLemma().getValue();
-			Emotion lemmaEmo = lexicon.get(lemma);
-			if (lemmaEmo != null) {
-				count++;
-//				// debug
-//				System.err.println(count);
-				docEmo.add(lemmaEmo);
-//				// debug
-//				System.err.println(lemma);
-//				System.err.println(lemmaEmo.toString());
-			}
+			state = lexicon.next(state, lemma);
+			count += lexicon.addEmotions(state, sums);
 		}
+		Emotion docEmo = new Emotion(sums[0], sums[1], sums[2]);
 		docEmo.normalize(count);
 		LexicalDocumentEmotion documentEmotion = new LexicalDocumentEmotion(aJCas);
 		documentEmotion.setValence(docEmo.getValence());
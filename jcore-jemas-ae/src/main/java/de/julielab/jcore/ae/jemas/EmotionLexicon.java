@@ -1,49 +1,318 @@
 package de.julielab.jcore.ae.jemas;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.util.HashMap;
-
-public class EmotionLexicon {
-	
-	HashMap<String,Emotion> map = new HashMap<String, Emotion>();
-
-	public EmotionLexicon (String path) {
-		File f = new File(path);
-		try {
-			BufferedReader br = new BufferedReader(new FileReader(f));
-			String line;
-			while ((line = br.readLine()) != null){		
-				if (!line.startsWith("//")) {
-					String[] parts = line.split("\\t");
-					Emotion emo = new Emotion(Double.parseDouble(parts[1]),
-							Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
-					map.put(parts[0], emo);
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An emotion lexicon mapping lemmas to their Valence-Arousal-Dominance scores. Entries may consist of multiple
+ * whitespace separated lemmas, e.g. <tt>alarm clock</tt>.
+ * <p>
+ * The entries are compiled into an Aho-Corasick automaton over lemma IDs. A document is scanned in a single pass by
+ * feeding its lemmas to {@link #next(int, String)} and adding the scores of all entries ending at the reached state
+ * via {@link #addEmotions(int, double[])}. Overlapping entries are all counted; thus, for a lexicon without
+ * multi-word entries, each token whose lemma is in the lexicon is counted once. The transitions and scores are stored
+ * in primitive arrays and lookups do not create any objects.
+ * </p>
+ * <p>
+ * The lexicon is immutable after loading. When bound as the implementation of the <tt>EmotionLexicon</tt> resource,
+ * all {@link EmotionAnalyzer} instances of a pipeline share a single lexicon.
+ * </p>
+ */
+public class EmotionLexicon implements SharedResourceObject {
+
+	/**
+	 * The start state of the automaton.
+	 */
+	public static final int ROOT = 0;
+
+	private static final int NONE = -1;
+
+	// lemma to lemma ID, open addressing with linear probing; for each lemma, its hash code, its ID and the root
+	// transition on the lemma are stored next to each other
+	private static final int LEMMA_STRIDE = 3;
+	private String[] lemmas;
+	private int[] lemmaTable;
+	// (state, lemma ID) to state for all states but the root, open addressing with linear probing
+	private long[] transitionKeys;
+	private int[] transitionTargets;
+	// for each state, the following links are stored next to each other:
+	// the failure link;
+	// the state itself if it has transitions, otherwise the nearest state on the failure chain that does or ROOT;
+	// the state itself if it completes an entry, otherwise the nearest state on the failure chain that does or NONE;
+	// the nearest proper suffix state on the failure chain completing an entry or NONE
+	private static final int STATE_STRIDE = 4;
+	private static final int FAILURE = 0;
+	private static final int RESUME = 1;
+	private static final int FIRST_OUTPUT = 2;
+	private static final int NEXT_OUTPUT = 3;
+	private int[] states;
+	// valence, arousal and dominance of the entry completed by each state
+	private double[] vad;
+
+	/**
+	 * Constructor for the use as shared resource; the lexicon is read in {@link #load(DataResource)}.
+	 */
+	public EmotionLexicon() {
+		compile(Collections.<String, double[]> emptyMap());
+	}
+
+	public EmotionLexicon(String path) {
+		Map<String, double[]> entries = new LinkedHashMap<>();
+		try (InputStream is = new FileInputStream(path)) {
+			readEntries(is, entries);
+		} catch (Exception e) {
+			System.err.println(e.getMessage());
+		}
+		compile(entries);
+	}
+
+	@Override
+	public void load(DataResource aData) throws ResourceInitializationException {
+		Map<String, double[]> entries = new LinkedHashMap<>();
+		try (InputStream is = aData.getInputStream()) {
+			readEntries(is, entries);
+		} catch (IOException | RuntimeException e) {
+			throw new ResourceInitializationException(e);
+		}
+		compile(entries);
+	}
+
+	/**
+	 * Reads the tab separated lines <tt>lemma valence arousal dominance</tt> of a lexicon. Lines starting with
+	 * <tt>//</tt> are comments. Later entries replace earlier ones.
+	 */
+	private static void readEntries(InputStream is, Map<String, double[]> entries) throws IOException {
+		BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+		String line;
+		while ((line = br.readLine()) != null) {
+			if (!line.startsWith("//")) {
+				String[] parts = line.split("\\t");
+				entries.put(parts[0], new double[] { Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+						Double.parseDouble(parts[3]) });
+			}
+		}
+	}
+
+	private void compile(Map<String, double[]> entries) {
+		// lemma IDs
+		Map<String, Integer> ids = new HashMap<>();
+		List<int[]> keys = new ArrayList<>(entries.size());
+		for (String entry : entries.keySet()) {
+			String[] entryLemmas = entry.trim().split(" +");
+			int[] key = new int[entryLemmas.length];
+			for (int i = 0; i < entryLemmas.length; i++) {
+				Integer id = ids.get(entryLemmas[i]);
+				if (id == null) {
+					id = ids.size();
+					ids.put(entryLemmas[i], id);
 				}
+				key[i] = id;
 			}
-			br.close();
+			keys.add(key);
 		}
-		catch (Exception e) {
-			System.err.println(e.getMessage()); 
+
+		// the trie
+		List<Map<Integer, Integer>> children = new ArrayList<>();
+		children.add(new HashMap<Integer, Integer>());
+		List<double[]> stateVad = new ArrayList<>();
+		stateVad.add(null);
+		Iterator<double[]> values = entries.values().iterator();
+		int numTransitions = 0;
+		for (int[] key : keys) {
+			int state = ROOT;
+			for (int lemmaId : key) {
+				Integer child = children.get(state).get(lemmaId);
+				if (child == null) {
+					child = children.size();
+					children.get(state).put(lemmaId, child);
+					children.add(new HashMap<Integer, Integer>());
+					stateVad.add(null);
+					++numTransitions;
+				}
+				state = child;
+			}
+			stateVad.set(state, values.next());
+		}
+		int numStates = children.size();
+		transitionKeys = new long[tableSize(numTransitions)];
+		Arrays.fill(transitionKeys, NONE);
+		transitionTargets = new int[transitionKeys.length];
+		vad = new double[3 * numStates];
+		int[] rootTransitions = new int[ids.size()];
+		Arrays.fill(rootTransitions, NONE);
+		for (Map.Entry<Integer, Integer> child : children.get(ROOT).entrySet())
+			rootTransitions[child.getKey()] = child.getValue();
+		lemmas = new String[tableSize(ids.size())];
+		lemmaTable = new int[LEMMA_STRIDE * lemmas.length];
+		for (Map.Entry<String, Integer> id : ids.entrySet()) {
+			int hash = id.getKey().hashCode();
+			int slot = slot(hash, lemmas.length);
+			while (lemmas[slot] != null)
+				slot = (slot + 1) & (lemmas.length - 1);
+			lemmas[slot] = id.getKey();
+			lemmaTable[LEMMA_STRIDE * slot] = hash;
+			lemmaTable[LEMMA_STRIDE * slot + 1] = id.getValue();
+			lemmaTable[LEMMA_STRIDE * slot + 2] = rootTransitions[id.getValue()];
+		}
+		for (int state = 1; state < numStates; state++) {
+			for (Map.Entry<Integer, Integer> child : children.get(state).entrySet()) {
+				long transition = transitionKey(state, child.getKey());
+				int slot = slot(hash(transition), transitionKeys.length);
+				while (transitionKeys[slot] != NONE)
+					slot = (slot + 1) & (transitionKeys.length - 1);
+				transitionKeys[slot] = transition;
+				transitionTargets[slot] = child.getValue();
+			}
+			if (stateVad.get(state) != null)
+				System.arraycopy(stateVad.get(state), 0, vad, 3 * state, 3);
+		}
+
+		// failure and output links in breadth-first order
+		states = new int[STATE_STRIDE * numStates];
+		states[STATE_STRIDE * ROOT + FIRST_OUTPUT] = NONE;
+		states[STATE_STRIDE * ROOT + NEXT_OUTPUT] = NONE;
+		Deque<Integer> queue = new ArrayDeque<>();
+		queue.add(ROOT);
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			for (Map.Entry<Integer, Integer> child : children.get(state).entrySet()) {
+				int target = child.getValue();
+				int fail = state == ROOT ? ROOT
+						: next(states[STATE_STRIDE * state + FAILURE], child.getKey(), rootTransitions[child.getKey()]);
+				int t = STATE_STRIDE * target;
+				int f = STATE_STRIDE * fail;
+				states[t + FAILURE] = fail;
+				states[t + RESUME] = children.get(target).isEmpty() ? states[f + RESUME] : target;
+				states[t + NEXT_OUTPUT] = states[f + FIRST_OUTPUT];
+				states[t + FIRST_OUTPUT] = stateVad.get(target) != null ? target : states[t + NEXT_OUTPUT];
+				queue.add(target);
+			}
 		}
-//		//debug
-//		this.printLexcion();
 	}
-		
-	public Emotion get (String entry) {
-		return map.get(entry);
+
+	/**
+	 * Returns the state reached from <tt>state</tt> by reading <tt>lemma</tt>.
+	 *
+	 * @param state The current state, {@link #ROOT} at the beginning of a document.
+	 * @param lemma The next lemma of the document.
+	 * @return The next state.
+	 */
+	public int next(int state, String lemma) {
+		if (lemma == null)
+			return ROOT;
+		int hash = lemma.hashCode();
+		for (int slot = slot(hash, lemmas.length); lemmas[slot] != null; slot = (slot + 1) & (lemmas.length - 1)) {
+			int i = LEMMA_STRIDE * slot;
+			if (lemmaTable[i] == hash && lemmas[slot].equals(lemma))
+				return next(state, lemmaTable[i + 1], lemmaTable[i + 2]);
+		}
+		// a lemma that does not occur in the lexicon ends all partial matches
+		return ROOT;
 	}
-	
+
+	private int next(int state, int lemmaId, int rootTarget) {
+		// most states complete a single-word entry and have no transitions; they resume at the root directly
+		for (int s = states[STATE_STRIDE * state + RESUME]; s != ROOT; s = states[STATE_STRIDE
+				* states[STATE_STRIDE * s + FAILURE] + RESUME]) {
+			int target = getTransition(s, lemmaId);
+			if (target != NONE)
+				return target;
+		}
+		return rootTarget == NONE ? ROOT : rootTarget;
+	}
+
+	/**
+	 * Adds the valence, arousal and dominance scores of all entries ending in <tt>state</tt> to <tt>sums</tt>.
+	 *
+	 * @param state A state returned by {@link #next(int, String)}.
+	 * @param sums  An array of length three receiving the valence, arousal and dominance sums.
+	 * @return The number of entries ending in <tt>state</tt>.
+	 */
+	public int addEmotions(int state, double[] sums) {
+		int matches = 0;
+		for (int s = states[STATE_STRIDE * state + FIRST_OUTPUT]; s != NONE; s = states[STATE_STRIDE * s + NEXT_OUTPUT]) {
+			sums[0] += vad[3 * s];
+			sums[1] += vad[3 * s + 1];
+			sums[2] += vad[3 * s + 2];
+			++matches;
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the emotion of the given, possibly multi-word, entry.
+	 *
+	 * @param entry A lexicon entry; the lemmas of multi-word entries are separated by single spaces.
+	 * @return The emotion of the entry or <tt>null</tt> if it is not contained in the lexicon.
+	 */
+	public Emotion get(String entry) {
+		int state = ROOT;
+		for (String lemma : entry.split(" ")) {
+			int i = LEMMA_STRIDE * getLemmaSlot(lemma);
+			if (i < 0)
+				return null;
+			state = state == ROOT ? lemmaTable[i + 2] : getTransition(state, lemmaTable[i + 1]);
+			if (state == NONE)
+				return null;
+		}
+		if (state == ROOT || states[STATE_STRIDE * state + FIRST_OUTPUT] != state)
+			return null;
+		return new Emotion(vad[3 * state], vad[3 * state + 1], vad[3 * state + 2]);
+	}
+
 	public void printLexcion() {
-		for (String key:map.keySet()) {
-			Emotion emo = map.get(key);
-			System.err.println(key +  ": "+ emo.getValence() + ", "+ emo.getArousal()+ ", " + emo.getDominance());
+		for (String lemma : lemmas) {
+			if (lemma != null) {
+				Emotion emo = get(lemma);
+				if (emo != null)
+					System.err.println(lemma + ": " + emo.getValence() + ", " + emo.getArousal() + ", " + emo.getDominance());
+			}
 		}
 	}
 
-			
-		
-		
-	
+	private int getLemmaSlot(String lemma) {
+		int hash = lemma.hashCode();
+		for (int slot = slot(hash, lemmas.length); lemmas[slot] != null; slot = (slot + 1) & (lemmas.length - 1)) {
+			if (lemmaTable[LEMMA_STRIDE * slot] == hash && lemmas[slot].equals(lemma))
+				return slot;
+		}
+		return NONE;
+	}
+
+	private int getTransition(int state, int lemmaId) {
+		long transition = transitionKey(state, lemmaId);
+		for (int slot = slot(hash(transition), transitionKeys.length); transitionKeys[slot] != NONE; slot = (slot
+				+ 1) & (transitionKeys.length - 1)) {
+			if (transitionKeys[slot] == transition)
+				return transitionTargets[slot];
+		}
+		return NONE;
+	}
+
+	private static long transitionKey(int state, int lemmaId) {
+		return ((long) state << 32) | lemmaId;
+	}
+
+	/**
+	 * Equivalent to <tt>Long.hashCode(long)</tt> which is not available in Java 7.
+	 */
+	private static int hash(long value) {
+		return (int) (value ^ (value >>> 32));
+	}
+
+	/**
+	 * @return A power of two that leaves a table with <tt>size</tt> entries at most half full.
+	 */
+	private static int tableSize(int size) {
+		return Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+	}
+
+	private static int slot(int hash, int tableSize) {
+		return (hash ^ (hash >>> 16)) * 0x9E3779B9 >>> 1 & (tableSize - 1);
+	}
 }
@@ -0,0 +1,149 @@
+package de.julielab.jcore.ae.jemas;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EmotionLexiconTest {
+
+	private static final String WARRINER = "src/main/resources/de/julielab/jcore/ae/jemas/lexicons/warriner.vad";
+	private static final double DELTA = 0.000001;
+
+	private static EmotionLexicon lexicon;
+	private static Map<String, Emotion> lexiconMap;
+	private static List<String> entries;
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		lexicon = new EmotionLexicon(WARRINER);
+		// the former HashMap based lexicon as reference
+		lexiconMap = new HashMap<>();
+		try (BufferedReader br = new BufferedReader(new FileReader(WARRINER))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (!line.startsWith("//")) {
+					String[] parts = line.split("\\t");
+					lexiconMap.put(parts[0], new Emotion(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+							Double.parseDouble(parts[3])));
+				}
+			}
+		}
+		entries = new ArrayList<>(lexiconMap.keySet());
+		Collections.sort(entries);
+	}
+
+	@Test
+	public void testGet() {
+		for (String entry : entries)
+			assertEquals(entry, lexiconMap.get(entry).toString(), lexicon.get(entry).toString());
+		assertNull(lexicon.get("plectranthus"));
+		// an extension of a multi-word entry
+		assertNull(lexicon.get("alarm clock radio"));
+	}
+
+	@Test
+	public void testSingleWordEntries() throws Exception {
+		Path file = Files.createTempFile("single-word", ".vad");
+		try {
+			List<String> lines = new ArrayList<>();
+			for (String entry : entries) {
+				if (!entry.contains(" ")) {
+					Emotion emotion = lexiconMap.get(entry);
+					lines.add(entry + "\t" + emotion.toString());
+				}
+			}
+			Files.write(file, lines);
+			EmotionLexicon singleWordLexicon = new EmotionLexicon(file.toString());
+			for (List<String> document : generateDocuments(new Random(1), 20)) {
+				Emotion expected = new Emotion(0, 0, 0);
+				int expectedCount = 0;
+				for (String lemma : document) {
+					if (!lemma.contains(" ") && lexiconMap.containsKey(lemma)) {
+						expected.add(lexiconMap.get(lemma));
+						++expectedCount;
+					}
+				}
+				double[] sums = new double[3];
+				assertEquals(expectedCount, scan(singleWordLexicon, document, sums));
+				assertEquals(expected.getValence(), sums[0], 0);
+				assertEquals(expected.getArousal(), sums[1], 0);
+				assertEquals(expected.getDominance(), sums[2], 0);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testMultiWordEntries() throws Exception {
+		Path file = Files.createTempFile("multi-word", ".vad");
+		try {
+			Files.write(file, Arrays.asList("//comment", "b\t1\t0\t0", "a b\t10\t0\t0", "b c\t100\t0\t0",
+					"a b c d\t1000\t0\t0", "c\t0\t1\t0", "x y\t0\t0\t1"));
+			EmotionLexicon multiWordLexicon = new EmotionLexicon(file.toString());
+			double[] sums = new double[3];
+			// b and a b end at b, b c and c end at c; x ends the partial match of a b c d
+			assertEquals(4, scan(multiWordLexicon, Arrays.asList("a", "b", "c", "x"), sums));
+			assertEquals(111, sums[0], DELTA);
+			assertEquals(1, sums[1], DELTA);
+			assertEquals(0, sums[2], DELTA);
+
+			sums = new double[3];
+			assertEquals(6, scan(multiWordLexicon, Arrays.asList("a", "b", "c", "d", "x", "y"), sums));
+			assertEquals(1111, sums[0], DELTA);
+			assertEquals(1, sums[1], DELTA);
+			assertEquals(1, sums[2], DELTA);
+
+			// an unknown lemma interrupts multi-word entries
+			sums = new double[3];
+			assertEquals(1, scan(multiWordLexicon, Arrays.asList("a", "unknown", "b", "x", "unknown", "y"), sums));
+			assertEquals(1, sums[0], DELTA);
+			assertEquals(0, sums[2], DELTA);
+			assertEquals(10, multiWordLexicon.get("a b").getValence(), DELTA);
+			assertNull(multiWordLexicon.get("a b c"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private int scan(EmotionLexicon lexicon, List<String> lemmas, double[] sums) {
+		int count = 0;
+		int state = EmotionLexicon.ROOT;
+		for (String lemma : lemmas) {
+			state = lexicon.next(state, lemma);
+			count += lexicon.addEmotions(state, sums);
+		}
+		return count;
+	}
+
+	/**
+	 * Generates documents as lemma sequences, drawing words from the lexicon, partly as whole multi-word entries,
+	 * and unknown words.
+	 */
+	private List<List<String>> generateDocuments(Random random, int numDocuments) {
+		List<List<String>> documents = new ArrayList<>();
+		for (int d = 0; d < numDocuments; d++) {
+			List<String> document = new ArrayList<>();
+			for (int length = 100 + random.nextInt(400); document.size() < length; ) {
+				if (random.nextInt(3) == 0) {
+					document.add("unknown" + random.nextInt(1000));
+				} else {
+					// a Zipf-like preference of the first entries
+					String entry = entries.get((int) Math.pow(entries.size(), random.nextDouble()) - 1);
+					// the lemmas of a CAS are not the instances of the lexicon
+					for (String lemma : entry.split(" "))
+						document.add(new String(lemma));
+				}
+			}
+			documents.add(document);
+		}
+		return documents;
+	}
+}
@@ -247,6 +247,9 @@ class BasePipe extends Pipe {
         private static final long serialVersionUID = 666999L;
         private UEALite UEAstemmer = null;
         private SnowballProgram snowStemmer = null;
+        // Snowball stemmers keep the current word as state. Since one pipe may be shared by multiple threads, each
+        // thread gets its own stemmer instance. Created lazily because it is not serialized with the model.
+        private transient volatile ThreadLocal<SnowballProgram> threadSnowStemmer;
 
         Stemmer(final UEALite stemmer) {
             UEAstemmer = stemmer;
@@ -265,6 +268,7 @@ class BasePipe extends Pipe {
             if (UEAstemmer != null) {
                 return UEAstemmer.stem(word).getWord();
             } else if (snowStemmer != null) {
+                final SnowballProgram snowStemmer = getThreadSnowStemmer();
                 snowStemmer.setCurrent(word);
                 snowStemmer.stem();
                 return snowStemmer.getCurrent();
@@ -272,5 +276,26 @@ class BasePipe extends Pipe {
                 return null;
             }
         }
+
+        private SnowballProgram getThreadSnowStemmer() {
+            ThreadLocal<SnowballProgram> stemmers = threadSnowStemmer;
+            if (stemmers == null) {
+                synchronized (this) {
+                    stemmers = threadSnowStemmer;
+                    if (stemmers == null) {
+                        final Class<? extends SnowballProgram> stemClass = snowStemmer.getClass();
+                        stemmers = ThreadLocal.withInitial(() -> {
+                            try {
+                                return stemClass.newInstance();
+                            } catch (final Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+                        threadSnowStemmer = stemmers;
+                    }
+                }
+            }
+            return stemmers.get();
+        }
     }
 }
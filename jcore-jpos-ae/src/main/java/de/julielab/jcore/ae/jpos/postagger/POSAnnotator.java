@@ -42,6 +42,7 @@ import org.apache.uima.analysis_engine.annotator.AnnotatorInitializationExceptio
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,12 +53,20 @@ import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 
 public class POSAnnotator extends JCasAnnotator_ImplBase {
 
     private static final String COMPONENT_ID = "de.julielab.jcore.ae.jpos.postagger.POSAnnotator";
 
+    /**
+     * Key of the optional external resource of type {@link POSTaggerProvider}. When given, the model of the resource
+     * is used instead of loading the model given by the <tt>ModelFilename</tt> parameter. This allows all instances
+     * of this annotator in a pipeline to share a single model.
+     */
+    public static final String RESOURCE_MODEL = "JPOSModel";
+
     /**
      * Logger for this class
      */
@@ -73,6 +82,8 @@ public class POSAnnotator extends JCasAnnotator_ImplBase {
 
     private String postagset;
 
+    private Constructor<? extends POSTag> posTagConstructor;
+
     /**
      * Initialisiation of UIMA-JNET. Reads in and checks descriptor's parameters.
      *
@@ -89,9 +100,22 @@ public class POSAnnotator extends JCasAnnotator_ImplBase {
         try {
 
             // compulsory params
-            setModel(aContext);
+            final Object sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+            if (sharedModel != null) {
+                LOGGER.debug("initialize() - using shared JPOS model resource");
+                tagger = ((POSTaggerProvider) sharedModel).getTagger();
+            } else {
+                setModel(aContext);
+            }
             postagset = (String) aContext.getConfigParameterValue("tagset");
-
+            posTagConstructor = Class.forName(postagset).asSubclass(POSTag.class).getConstructor(JCas.class);
+
+        } catch (final ResourceAccessException e) {
+            LOGGER.error("initialize() - could not access the shared JPOS model resource", e);
+            throw new ResourceInitializationException(e);
+        } catch (final ClassNotFoundException | NoSuchMethodException e) {
+            LOGGER.error("initialize() - could not find the POS tag type given by the tagset parameter", e);
+            throw new ResourceInitializationException(e);
         } catch (final AnnotatorContextException e) {
             e.printStackTrace();
             throw new ResourceInitializationException();
@@ -158,7 +182,9 @@ public class POSAnnotator extends JCasAnnotator_ImplBase {
         final Iterator<org.apache.uima.jcas.tcas.Annotation> sentenceIter = indexes.getAnnotationIndex(Sentence.type)
                 .iterator();
 
-        // do entity recognition over single sentences
+        // collect all sentences of the document to tag them in one pass
+        final List<ArrayList<Token>> tokenLists = new ArrayList<>();
+        final List<de.julielab.jcore.ae.jpos.tagger.Sentence> unitSentences = new ArrayList<>();
         while (sentenceIter.hasNext()) {
             final Sentence sentence = (Sentence) sentenceIter.next();
 
@@ -170,26 +196,29 @@ public class POSAnnotator extends JCasAnnotator_ImplBase {
             // make the Sentence object
             final de.julielab.jcore.ae.jpos.tagger.Sentence unitSentence = createUnitSentence(tokenList, aJCas);
 
-            LOGGER.debug("process() - original sentence: " + sentence.getCoveredText());
-            final StringBuffer unitS = new StringBuffer();
-            for (final Unit unit : unitSentence.getUnits()) {
-                unitS.append(unit.getRep() + " ");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("process() - original sentence: " + sentence.getCoveredText());
+                LOGGER.debug("process() - sentence for prediction: " + unitSentence.toString());
             }
-            LOGGER.debug("process() - sentence for prediction: " + unitSentence.toString());
 
-            // predict with JPOS
-            try {
-                tagger.predictForUIMA(unitSentence);
-            } catch (final IllegalStateException e) {
-                LOGGER.error("process() - predicting with JPOS failed: " + e.getMessage());
-                throw new AnalysisEngineProcessException();
-            }
+            tokenLists.add(tokenList);
+            unitSentences.add(unitSentence);
+        }
 
+        // predict with JPOS
+        try {
+            tagger.predictForUIMA(unitSentences);
+        } catch (final IllegalStateException e) {
+            LOGGER.error("process() - predicting with JPOS failed: " + e.getMessage());
+            throw new AnalysisEngineProcessException();
+        }
+
+        for (int i = 0; i < unitSentences.size(); i++) {
+            final de.julielab.jcore.ae.jpos.tagger.Sentence unitSentence = unitSentences.get(i);
             LOGGER.debug("process() - sentence with labels: " + unitSentence.toString());
 
             // write predicted labels to CAS
-            writeToCAS(unitSentence, aJCas, tokenList);
-
+            writeToCAS(unitSentence, aJCas, tokenLists.get(i));
         }
 
     }
@@ -251,10 +280,7 @@ public class POSAnnotator extends JCasAnnotator_ImplBase {
 
         for (int i = 0; i < unitSentence.size(); i++) {
             try {
-                final Class<?>[] parameterTypes = new Class[] { JCas.class };
-                final Class<?> myNewClass = Class.forName(postagset);
-                final Constructor<?> myConstructor = myNewClass.getConstructor(parameterTypes);
-                final POSTag pos = (POSTag) myConstructor.newInstance(aJCas);
+                final POSTag pos = posTagConstructor.newInstance(aJCas);
                 pos.setBegin(unitSentence.get(i).begin);
                 pos.setEnd(unitSentence.get(i).end);
                 pos.setValue(unitSentence.get(i).getLabel());
@@ -0,0 +1,16 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.jpos.postagger;
+
+import de.julielab.jcore.ae.jpos.tagger.POSTagger;
+
+/**
+ * Interface for the shared resource that provides a loaded JPOS model to all annotator instances of a pipeline.
+ */
+public interface POSTaggerProvider {
+	POSTagger getTagger();
+}
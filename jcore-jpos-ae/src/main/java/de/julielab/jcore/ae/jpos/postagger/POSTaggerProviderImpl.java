@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.jpos.postagger;
+
+import de.julielab.jcore.ae.jpos.tagger.POSTagger;
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+
+/**
+ * Loads a JPOS model a single time so that it can be shared by all {@link POSAnnotator} instances, e.g. all
+ * processing threads of a CPE. The model itself is read-only during prediction; the tagging of a document via
+ * {@link POSTagger#predictForUIMA(java.util.List)} only uses per-call and per-thread state.
+ */
+public class POSTaggerProviderImpl implements POSTaggerProvider, SharedResourceObject {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(POSTaggerProviderImpl.class);
+
+	private POSTagger tagger;
+
+	@Override
+	public void load(final DataResource aData) throws ResourceInitializationException {
+		LOGGER.info("Loading shared JPOS model from {}", aData.getUri());
+		try (InputStream is = aData.getInputStream()) {
+			tagger = POSTagger.readModel(is);
+		} catch (final Exception e) {
+			LOGGER.error("Could not load JPOS model from " + aData.getUri(), e);
+			throw new ResourceInitializationException(e);
+		}
+	}
+
+	@Override
+	public POSTagger getTagger() {
+		return tagger;
+	}
+}
@@ -21,6 +21,7 @@ import cc.mallet.classify.Classification;
 import cc.mallet.classify.Classifier;
 import cc.mallet.classify.MaxEntTrainer;
 import cc.mallet.pipe.Pipe;
+import cc.mallet.types.FeatureVectorSequence;
 import cc.mallet.types.Instance;
 import cc.mallet.types.InstanceList;
 import de.julielab.jcore.ae.jpos.pipes.FeatureGenerator;
@@ -30,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -181,6 +184,53 @@ public class POSTagger implements Serializable {
 		predictSentence(sentence, classifier);
 	}
 
+	/**
+	 * Predicts the labels of all given sentences, e.g. all sentences of a
+	 * document. In contrast to calling {@link #predictForUIMA(Sentence)} for
+	 * each sentence, the sentences are sent through the feature pipe in a
+	 * single pass and the classification does not require intermediate
+	 * instance lists. This method does not change the state of the tagger
+	 * and can thus be called concurrently from multiple threads sharing the
+	 * same tagger.
+	 *
+	 * @param sentences
+	 *            the Sentence objects to assign labels to
+	 */
+	public void predictForUIMA(final List<Sentence> sentences) {
+		if ((trained == false) || (model == null)) {
+			final RuntimeException e = new IllegalStateException(
+					"No model available. Train or load trained model first.");
+			LOGGER.error("", e);
+			throw (e);
+		}
+		final Classifier classifier = (Classifier) model;
+		final List<Instance> instances = new ArrayList<>(sentences.size());
+		for (final Sentence sentence : sentences) {
+			// default label prevents errors
+			for (int i = 0; i < sentence.size(); ++i)
+				sentence.get(i).setLabel(defaultLabel);
+			instances.add(new Instance(sentence, "", "", ""));
+		}
+		final Iterator<Instance> pipedInstances = generalPipe
+				.newIteratorFrom(instances.iterator());
+		for (final Sentence sentence : sentences) {
+			final Instance inst = pipedInstances.next();
+			final FeatureVectorSequence fvs = (FeatureVectorSequence) inst
+					.getData();
+			if (fvs.size() != sentence.size())
+				throw new IllegalStateException(
+						"Feature generation yielded " + fvs.size()
+								+ " feature vectors for a sentence of "
+								+ sentence.size() + " units.");
+			for (int j = 0; j < fvs.size(); j++) {
+				final Classification c = classifier.classify(new Instance(
+						fvs.getFeatureVector(j), null, null, null));
+				sentence.get(j).setLabel(
+						c.getLabeling().getBestLabel().toString());
+			}
+		}
+	}
+
 	void predictSentence(final Sentence sentence, final Classifier classifier) {
 
 		// dummyPipe = new SerialPipes(new Pipe[] { new METrainerDummyPipe(
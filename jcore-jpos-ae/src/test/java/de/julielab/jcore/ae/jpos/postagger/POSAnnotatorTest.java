@@ -11,14 +11,26 @@ import de.julielab.jcore.types.Sentence;
 import de.julielab.jcore.types.Token;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.cas.FSIterator;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.XMLInputSource;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
 
 public class POSAnnotatorTest {
@@ -112,4 +124,35 @@ public class POSAnnotatorTest {
 		assertEquals(postags, predictedPOSTags);
 
 	}
+
+	@Test
+	public void testSharedModelResource() throws Exception {
+		final AnalysisEngineDescription desc = AnalysisEngineFactory.createEngineDescription(
+				"de.julielab.jcore.ae.jpos.desc.jcore-jpos", "tagset", "de.julielab.jcore.types.STTSMedPOSTag");
+		ExternalResourceFactory.bindResource(desc, POSAnnotator.RESOURCE_MODEL, POSTaggerProviderImpl.class,
+				new File("src/test/resources/testModel").toURI().toString());
+		// all engines created with the same resource manager share the model
+		final ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		final int numThreads = 4;
+		final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		final List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			final AnalysisEngine posAnnotator = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+			results.add(executor.submit(() -> {
+				final JCas jcas = posAnnotator.newJCas();
+				String predictedPOSTags = "";
+				for (int j = 0; j < 20; j++) {
+					initCas(jcas);
+					posAnnotator.process(jcas);
+					predictedPOSTags = "";
+					for (final STTSMedPOSTag tag : JCasUtil.select(jcas, STTSMedPOSTag.class))
+						predictedPOSTags = predictedPOSTags + tag.getValue() + ";";
+				}
+				return predictedPOSTags;
+			}));
+		}
+		for (final Future<String> result : results)
+			assertEquals(postags, result.get());
+		executor.shutdown();
+	}
 }
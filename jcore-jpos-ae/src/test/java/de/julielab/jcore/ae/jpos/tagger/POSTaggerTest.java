@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.jpos.tagger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class POSTaggerTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	/**
+	 * The snowball stemmer is not part of the serialized model and must be
+	 * recreated for models loaded from disk.
+	 */
+	@Test
+	public void testTagWithSnowballStemmerAfterReadModel() throws Exception {
+		final POSTagger tagger = new POSTagger();
+		tagger.getFeatureConfig().setProperty("SnowballStemmerLanguage", "German");
+		tagger.set_Number_Iterations(1);
+		final ArrayList<Sentence> trainingData = new ArrayList<>();
+		trainingData.add(tagger.PPDtoUnits("Der|ART kleine|ADJA Baum|NN"));
+		tagger.train(trainingData);
+
+		final File modelFile = new File(tmp.getRoot(), "snowballModel.gz");
+		tagger.writeModel(modelFile.getAbsolutePath());
+		final POSTagger loadedTagger = POSTagger.readModel(modelFile);
+
+		final Sentence sentence = loadedTagger.textToUnits("Der kleine Baum");
+		loadedTagger.predictForUIMA(Collections.singletonList(sentence));
+		String labels = "";
+		for (final Unit unit : sentence.getUnits())
+			labels = labels + unit.getLabel() + ";";
+		assertEquals("ART;ADJA;NN;", labels);
+	}
+}
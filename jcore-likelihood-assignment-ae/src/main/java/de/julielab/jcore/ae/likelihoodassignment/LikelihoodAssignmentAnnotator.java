@@ -4,10 +4,10 @@ package de.julielab.jcore.ae.likelihoodassignment;
 import de.julielab.jcore.types.ConceptMention;
 import de.julielab.jcore.types.LikelihoodIndicator;
 import de.julielab.jcore.types.Sentence;
+import de.julielab.jcore.utility.index.JCoReOffsetIndex;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.cas.FSIterator;
 import org.apache.uima.fit.descriptor.ResourceMetaData;
 import org.apache.uima.fit.descriptor.TypeCapability;
 import org.apache.uima.jcas.JCas;
@@ -15,10 +15,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 
 @ResourceMetaData(name="JCoRe Likelihood Assignment AE", description = "Analysis Engine to assign likelihood indicators to their corresponding entities and events.")
 @TypeCapability(inputs="de.julielab.jcore.types.LikelihoodIndicator")
@@ -28,17 +25,18 @@ public class LikelihoodAssignmentAnnotator extends JCasAnnotator_ImplBase {
 			.getLogger(LikelihoodAssignmentAnnotator.class);
 
 	/**
-	 * Maps sentence ends to sentence begins.
+	 * The sentences of the current document, sorted by begin offset.
 	 */
-	private TreeMap<Integer, Integer> sentMap;
+	private JCoReOffsetIndex<Sentence> sentenceIndex = new JCoReOffsetIndex<>();
 	/**
-	 * Maps concept mentions to their begins.
+	 * The concept mentions of the current document, sorted by begin offset.
 	 */
-	private TreeMap<Integer, ArrayList<ConceptMention>> conceptMap;
+	private JCoReOffsetIndex<ConceptMention> conceptIndex = new JCoReOffsetIndex<>();
 	/**
-	 * Maps likelihood indicators to their begins.
+	 * The likelihood indicators of the current document, sorted by begin
+	 * offset.
 	 */
-	private TreeMap<Integer, LikelihoodIndicator> likelihoodMap;
+	private JCoReOffsetIndex<LikelihoodIndicator> likelihoodIndex = new JCoReOffsetIndex<>();
 
 	/**
 	 * Quantifies likelihood values.
@@ -76,7 +74,7 @@ public class LikelihoodAssignmentAnnotator extends JCasAnnotator_ImplBase {
 	 * @param aJCas
 	 */
 	private void assignLikelihood(JCas aJCas) {
-		buildTreeMaps(aJCas);
+		buildIndexes(aJCas);
 
 		// create default likelihood indicator for assertions (has begin = 0 and
 		// end = 0)
@@ -85,125 +83,63 @@ public class LikelihoodAssignmentAnnotator extends JCasAnnotator_ImplBase {
 		assertionIndicator.setComponentId(this.getClass().getName());
 		assertionIndicator.addToIndexes();
 
-		// iterate over sentences
-		for (int sentBegin : sentMap.keySet()) {
-			int sentEnd = sentMap.get(sentBegin);
-			boolean sentHasLikelihood = false;
-			boolean multipleLikelihood = false;
-			Integer firstLikelihoodBegin = 0;
-			Integer lastLikelihoodBegin = 0;
-
-			// determine whether the sentence contains a likelihood indicator at
-			// all and whether it even contains multiple likelihood indicators
-			firstLikelihoodBegin = likelihoodMap.ceilingKey(sentBegin);
-			if (firstLikelihoodBegin != null) {
-				if (firstLikelihoodBegin > sentEnd) {
-					sentHasLikelihood = false;
-				} else {
-					sentHasLikelihood = true;
-				}
-			}
-			if (sentHasLikelihood == true) {
-				lastLikelihoodBegin = likelihoodMap.floorKey(sentEnd);
-				if (firstLikelihoodBegin == lastLikelihoodBegin) {
-					multipleLikelihood = false;
-				} else {
-					multipleLikelihood = true;
-				}
-			}
-
-			// determine which likelihood category to assign to concept mentions
-			// in the sentence and create the corresponding likelihood indicator
+		// iterate over sentences; of multiple sentences with the same begin,
+		// only the last one in index order is used
+		for (int s = 0; s < sentenceIndex.size(); s++) {
+			int sentBegin = sentenceIndex.getBegin(s);
+			if (s + 1 < sentenceIndex.size()
+					&& sentenceIndex.getBegin(s + 1) == sentBegin)
+				continue;
+			int sentEnd = sentenceIndex.getEnd(s);
+
+			// determine the lowest likelihood category of the indicators
+			// beginning in the sentence; of multiple indicators with the same
+			// begin, only the last one in index order is used
 			LikelihoodIndicator assignedLikelihood = null;
-			if (sentHasLikelihood == true) {
-				if (multipleLikelihood = true) {
-					// determine the lowest likelihood category in the sentence
-					NavigableMap<Integer, LikelihoodIndicator> likelihoodSubMap = likelihoodMap
-							.subMap(firstLikelihoodBegin, true,
-									lastLikelihoodBegin, true);
-					int currentLikelihoodValue = 100;
-					for (int i : likelihoodSubMap.keySet()) {
-						LikelihoodIndicator likelihood = likelihoodSubMap
-								.get(i);
-						String likelihoodCat = likelihood.getLikelihood();
-						int likelihoodValue = likelihoodValueMap
-								.get(likelihoodCat);
-						if (likelihoodValue < currentLikelihoodValue) {
-							assignedLikelihood = likelihood;
-							currentLikelihoodValue = likelihoodValue;
-						}
-					}
-				} else {
-					LikelihoodIndicator likelihood = likelihoodMap
-							.get(firstLikelihoodBegin);
+			int currentLikelihoodValue = 100;
+			int likelihoodEnd = likelihoodIndex.firstBeginningAfter(sentEnd);
+			for (int i = likelihoodIndex.firstBeginningAtOrAfter(sentBegin); i < likelihoodEnd; i++) {
+				if (i + 1 < likelihoodEnd
+						&& likelihoodIndex.getBegin(i + 1) == likelihoodIndex.getBegin(i))
+					continue;
+				LikelihoodIndicator likelihood = likelihoodIndex.get(i);
+				int likelihoodValue = likelihoodValueMap.get(likelihood
+						.getLikelihood());
+				if (likelihoodValue < currentLikelihoodValue) {
 					assignedLikelihood = likelihood;
+					currentLikelihoodValue = likelihoodValue;
 				}
-			} else {
-				assignedLikelihood = assertionIndicator;
 			}
+			if (assignedLikelihood == null)
+				assignedLikelihood = assertionIndicator;
 
-			// get all events in the sentence and assign the corresponding
+			// get all concepts in the sentence and assign the corresponding
 			// likelihood indicator
-			if (conceptMap.ceilingKey(sentBegin) != null) {
-				int firstConceptBegin = conceptMap.ceilingKey(sentBegin);
-				if (firstConceptBegin > sentEnd) {
-					continue;
-				} else {
-					int lastConceptBegin = conceptMap.floorKey(sentEnd);
-					NavigableMap<Integer, ArrayList<ConceptMention>> conceptSubMap = conceptMap
-							.subMap(firstConceptBegin, true, lastConceptBegin,
-									true);
-					for (int i : conceptSubMap.keySet()) {
-						ArrayList<ConceptMention> conceptList = conceptSubMap
-								.get(i);
-						for (ConceptMention concept : conceptList) {
-							concept.setLikelihood(assignedLikelihood);
-						}
-					}
-				}
-			}
+			int conceptEnd = conceptIndex.firstBeginningAfter(sentEnd);
+			for (int i = conceptIndex.firstBeginningAtOrAfter(sentBegin); i < conceptEnd; i++)
+				conceptIndex.get(i).setLikelihood(assignedLikelihood);
 		}
 	}
 
-	@SuppressWarnings("rawtypes")
-	public void buildTreeMaps(JCas aJCas) {
-		FSIterator sentIt = aJCas.getAnnotationIndex(Sentence.type).iterator();
-		FSIterator conceptIt = aJCas.getAnnotationIndex(ConceptMention.type)
-				.iterator();
-		FSIterator likelihoodIt = aJCas.getAnnotationIndex(
-				LikelihoodIndicator.type).iterator();
-
-		sentMap = new TreeMap<Integer, Integer>();
-		while (sentIt.hasNext()) {
-			Sentence sent = (Sentence) sentIt.next();
-			int sentBegin = sent.getBegin();
-			int sentEnd = sent.getEnd();
-			sentMap.put(sentBegin, sentEnd);
-		}
-
-		conceptMap = new TreeMap<Integer, ArrayList<ConceptMention>>();
-		while (conceptIt.hasNext()) {
-			ConceptMention concept = (ConceptMention) conceptIt.next();
-			int conceptBegin = concept.getBegin();
-			if (conceptMap.containsKey(conceptBegin)) {
-				ArrayList<ConceptMention> conceptList = conceptMap
-						.get(conceptBegin);
-				conceptList.add(concept);
-				conceptMap.put(conceptBegin, conceptList);
-			} else {
-				ArrayList<ConceptMention> conceptList = new ArrayList<ConceptMention>();
-				conceptList.add(concept);
-				conceptMap.put(conceptBegin, conceptList);
-			}
-		}
-
-		likelihoodMap = new TreeMap<Integer, LikelihoodIndicator>();
-		while (likelihoodIt.hasNext()) {
-			LikelihoodIndicator likelihood = (LikelihoodIndicator) likelihoodIt
-					.next();
-			int likelihoodBegin = likelihood.getBegin();
-			likelihoodMap.put(likelihoodBegin, likelihood);
-		}
+	/**
+	 * Fills the offset indexes with the sentences, concept mentions and
+	 * likelihood indicators of the CAS. The indexes are reused for all
+	 * documents to avoid new allocations.
+	 * 
+	 * @param aJCas
+	 */
+	public void buildIndexes(JCas aJCas) {
+		sentenceIndex.clear();
+		sentenceIndex.index(aJCas, Sentence.type);
+		sentenceIndex.freeze();
+
+		conceptIndex.clear();
+		conceptIndex.index(aJCas, ConceptMention.type);
+		conceptIndex.freeze();
+
+		likelihoodIndex.clear();
+		likelihoodIndex.index(aJCas, LikelihoodIndicator.type);
+		likelihoodIndex.freeze();
 	}
 
 }
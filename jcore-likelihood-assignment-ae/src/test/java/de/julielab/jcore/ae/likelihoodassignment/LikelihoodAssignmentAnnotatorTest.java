@@ -17,9 +17,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 
 /**
@@ -119,4 +120,126 @@ public class LikelihoodAssignmentAnnotatorTest{
 
         return conceptLikelihood;
     }
+
+    /**
+     * The annotator must assign the same likelihood indicators as the former
+     * implementation based on <tt>TreeMap</tt>s, see
+     * {@link #assignWithTreeMaps(JCas)}. The synthetic documents contain many
+     * sentences, concepts and likelihood indicators and a few sentences with
+     * the same begin.
+     */
+    @Test
+    public void testMatchesFormerImplementation() throws Exception {
+        AnalysisEngine assignmentAnnotator = AnalysisEngineFactory.createEngine(DESCRIPTOR);
+        JCas jCas = assignmentAnnotator.newJCas();
+        for (int doc = 0; doc < 10; doc++) {
+            initDenseCas(jCas, new Random(doc));
+            assignmentAnnotator.process(jCas);
+            List<ConceptMention> concepts = new ArrayList<>();
+            List<LikelihoodIndicator> annotatorAssignments = new ArrayList<>();
+            for (Iterator<?> it = jCas.getAnnotationIndex(ConceptMention.type).iterator(); it.hasNext(); ) {
+                ConceptMention concept = (ConceptMention) it.next();
+                concepts.add(concept);
+                annotatorAssignments.add(concept.getLikelihood());
+                concept.setLikelihood(null);
+            }
+
+            LikelihoodIndicator assertionIndicator = assignWithTreeMaps(jCas);
+            for (int i = 0; i < concepts.size(); i++) {
+                LikelihoodIndicator expected = concepts.get(i).getLikelihood();
+                LikelihoodIndicator actual = annotatorAssignments.get(i);
+                // both implementations create their own assertion indicator
+                if (expected == assertionIndicator)
+                    assertEquals("assertion", actual.getLikelihood());
+                else
+                    assertSame(expected, actual);
+            }
+        }
+    }
+
+    private void initDenseCas(JCas aJCas, Random random) {
+        String[] categories = {"negation", "low", "investigation", "moderate", "high"};
+        aJCas.reset();
+        int length = 0;
+        for (int i = 0; i < 200; i++) {
+            int sentLength = 50 + random.nextInt(150);
+            new Sentence(aJCas, length, length + sentLength).addToIndexes();
+            // a few duplicate sentences with the same begin
+            if (random.nextInt(20) == 0)
+                new Sentence(aJCas, length, length + sentLength / 2).addToIndexes();
+            for (int j = random.nextInt(10); j > 0; j--) {
+                int begin = length + random.nextInt(sentLength);
+                new ConceptMention(aJCas, begin, Math.min(length + sentLength, begin + 5)).addToIndexes();
+            }
+            for (int j = random.nextInt(3); j > 0; j--) {
+                int begin = length + random.nextInt(sentLength);
+                LikelihoodIndicator lh = new LikelihoodIndicator(aJCas, begin, Math.min(length + sentLength, begin + 3));
+                lh.setLikelihood(categories[random.nextInt(categories.length)]);
+                lh.addToIndexes();
+            }
+            length += sentLength + 1;
+        }
+        char[] text = new char[length];
+        Arrays.fill(text, 'x');
+        aJCas.setDocumentText(new String(text));
+    }
+
+    /**
+     * The former implementation of the likelihood assignment, kept as
+     * reference.
+     *
+     * @return The assertion indicator assigned to concepts in sentences without
+     * likelihood indicators.
+     */
+    private LikelihoodIndicator assignWithTreeMaps(JCas aJCas) {
+        Map<String, Integer> likelihoodValueMap = new HashMap<>();
+        likelihoodValueMap.put("negation", 1);
+        likelihoodValueMap.put("low", 2);
+        likelihoodValueMap.put("investigation", 3);
+        likelihoodValueMap.put("moderate", 4);
+        likelihoodValueMap.put("high", 5);
+        TreeMap<Integer, Integer> sentMap = new TreeMap<>();
+        for (Iterator<?> it = aJCas.getAnnotationIndex(Sentence.type).iterator(); it.hasNext(); ) {
+            Sentence sent = (Sentence) it.next();
+            sentMap.put(sent.getBegin(), sent.getEnd());
+        }
+        TreeMap<Integer, ArrayList<ConceptMention>> conceptMap = new TreeMap<>();
+        for (Iterator<?> it = aJCas.getAnnotationIndex(ConceptMention.type).iterator(); it.hasNext(); ) {
+            ConceptMention concept = (ConceptMention) it.next();
+            conceptMap.computeIfAbsent(concept.getBegin(), k -> new ArrayList<>()).add(concept);
+        }
+        TreeMap<Integer, LikelihoodIndicator> likelihoodMap = new TreeMap<>();
+        for (Iterator<?> it = aJCas.getAnnotationIndex(LikelihoodIndicator.type).iterator(); it.hasNext(); ) {
+            LikelihoodIndicator likelihood = (LikelihoodIndicator) it.next();
+            // skip the assertion indicator of the annotator
+            if (likelihood.getEnd() > 0)
+                likelihoodMap.put(likelihood.getBegin(), likelihood);
+        }
+        LikelihoodIndicator assertionIndicator = new LikelihoodIndicator(aJCas);
+        assertionIndicator.setLikelihood("assertion");
+        for (int sentBegin : sentMap.keySet()) {
+            int sentEnd = sentMap.get(sentBegin);
+            LikelihoodIndicator assignedLikelihood = assertionIndicator;
+            Integer firstLikelihoodBegin = likelihoodMap.ceilingKey(sentBegin);
+            if (firstLikelihoodBegin != null && firstLikelihoodBegin <= sentEnd) {
+                int currentLikelihoodValue = 100;
+                for (LikelihoodIndicator likelihood : likelihoodMap.subMap(firstLikelihoodBegin, true,
+                        likelihoodMap.floorKey(sentEnd), true).values()) {
+                    int likelihoodValue = likelihoodValueMap.get(likelihood.getLikelihood());
+                    if (likelihoodValue < currentLikelihoodValue) {
+                        assignedLikelihood = likelihood;
+                        currentLikelihoodValue = likelihoodValue;
+                    }
+                }
+            }
+            Integer firstConceptBegin = conceptMap.ceilingKey(sentBegin);
+            if (firstConceptBegin != null && firstConceptBegin <= sentEnd) {
+                for (List<ConceptMention> conceptList : conceptMap.subMap(firstConceptBegin, true,
+                        conceptMap.floorKey(sentEnd), true).values())
+                    for (ConceptMention concept : conceptList)
+                        concept.setLikelihood(assignedLikelihood);
+            }
+        }
+        return assertionIndicator;
+    }
 }
@@ -1,30 +1,50 @@
 package de.julielab.jcore.multiplier.line;
 
 import de.julielab.jcore.types.Header;
+import de.julielab.jcore.types.casmultiplier.JCoReURI;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasMultiplier_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.AbstractCas;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ResourceMetaData;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
-import java.util.Arrays;
 import java.util.Deque;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
 
-@ResourceMetaData(name = "JCoRe Line Multiplier", description = "Splits incoming CAS document texts on line breaks and returns one CAS for each non-blank line.")
+/**
+ * Splits the document text of incoming CASes into lines and returns a new CAS for each <tt>NumberLinesPerCAS</tt>
+ * non-blank lines. If <tt>ReadURIs</tt> is enabled and the incoming CAS contains {@link JCoReURI} annotations, the lines
+ * are read from the referenced files instead of the document text. In both cases, the lines are read lazily while the new CASes are created, so
+ * only the lines of the current output CAS are held in memory, independently of the size of the input.
+ */
+@ResourceMetaData(name = "JCoRe Line Multiplier", description = "Splits incoming CAS document texts on line breaks and returns one CAS for each non-blank line. If enabled and the incoming CAS contains JCoReURI annotations, the lines of the referenced files are read instead. Lines are read lazily so that arbitrarily large inputs can be processed with constant memory.")
 public class LineMultiplier extends JCasMultiplier_ImplBase {
     public static final String PARAM_NUM_LINES = "NumberLinesPerCAS";
+    public static final String PARAM_READ_URIS = "ReadURIs";
     private final static Logger log = LoggerFactory.getLogger(LineMultiplier.class);
     @ConfigurationParameter(name = PARAM_NUM_LINES, mandatory = false, defaultValue = "1", description = "The number of lines that should be put into one cas. Defaults to 1.")
     private int numLinesPerCas;
-    private Deque<String> lines = new ArrayDeque<>();
+    @ConfigurationParameter(name = PARAM_READ_URIS, mandatory = false, defaultValue = "false", description = "If set to true, the lines are read from the files referenced by the de.julielab.jcore.types.casmultiplier.JCoReURI annotations of the incoming CAS instead of its document text. This requires the JCoReURI type in the type system. Defaults to false.")
+    private boolean readUris;
+    private final String ls = System.getProperty("line.separator");
+    private final Deque<String> uris = new ArrayDeque<>();
+    private BufferedReader lineReader;
+    /**
+     * The next non-blank line or <tt>null</tt> if there are no more lines.
+     */
+    private String nextLine;
     private int numLines = 0;
     private int numCases = 0;
 
@@ -32,6 +52,7 @@ public class LineMultiplier extends JCasMultiplier_ImplBase {
     public void initialize(UimaContext aContext) throws ResourceInitializationException {
         super.initialize(aContext);
         numLinesPerCas = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_NUM_LINES)).orElse(1);
+        readUris = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_READ_URIS)).orElse(false);
     }
 
     /**
@@ -40,32 +61,105 @@ public class LineMultiplier extends JCasMultiplier_ImplBase {
      */
     @Override
     public void process(final JCas aJCas) throws AnalysisEngineProcessException {
-        Arrays.stream(aJCas.getDocumentText().split(System.getProperty("line.separator"))).filter(Predicate.not(String::isBlank)).forEach(lines::add);
-        log.info("Got {} lines", lines.size());
+        closeLineReader();
+        uris.clear();
+        if (readUris) {
+            if (aJCas.getTypeSystem().getType(JCoReURI.class.getCanonicalName()) == null)
+                throw new AnalysisEngineProcessException(new IllegalArgumentException("The parameter " + PARAM_READ_URIS + " is set to true but the type system does not contain the type " + JCoReURI.class.getCanonicalName() + "."));
+            for (JCoReURI uri : JCasUtil.select(aJCas, JCoReURI.class))
+                uris.add(uri.getUri());
+        }
+        if (uris.isEmpty()) {
+            String text = aJCas.getDocumentText();
+            if (text != null)
+                lineReader = new BufferedReader(new StringReader(text));
+            log.debug("Reading lines from the document text of length {}", text != null ? text.length() : 0);
+        } else {
+            log.info("Reading lines from {} referenced files", uris.size());
+        }
+        nextLine = readNextLine();
     }
 
     @Override
-    public AbstractCas next() {
+    public AbstractCas next() throws AnalysisEngineProcessException {
         JCas cas = getEmptyJCas();
         StringBuilder sb = new StringBuilder();
-        String ls = System.getProperty("line.separator");
-        for (int i = 0; i < numLinesPerCas && !lines.isEmpty(); i++) {
-            sb.append(lines.removeFirst() + ls);
+        for (int i = 0; i < numLinesPerCas && nextLine != null; i++) {
+            if (i > 0)
+                sb.append(ls);
+            sb.append(nextLine);
             ++numLines;
+            nextLine = readNextLine();
         }
-        sb.delete(sb.length() - ls.length(), sb.length());
         cas.setDocumentText(sb.toString());
         Header h = new Header(cas);
         h.setDocId("line" + numCases++);
         if (numLines % 1000 == 0)
-            log.info("Batch checkpoint: {} lines left", lines.size());
+            log.info("Batch checkpoint: {} lines read", numLines);
         return cas;
     }
 
 
     @Override
     public boolean hasNext() throws AnalysisEngineProcessException {
-        return !lines.isEmpty();
+        return nextLine != null;
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            closeLineReader();
+        } catch (AnalysisEngineProcessException e) {
+            log.warn("Could not close the line input", e);
+        }
+        super.destroy();
+    }
+
+    /**
+     * Reads the next non-blank line, opening the next referenced file when the current input is exhausted.
+     *
+     * @return The next non-blank line or <tt>null</tt> if all input has been read.
+     */
+    private String readNextLine() throws AnalysisEngineProcessException {
+        try {
+            while (true) {
+                if (lineReader == null) {
+                    if (uris.isEmpty())
+                        return null;
+                    lineReader = openUri(uris.removeFirst());
+                }
+                String line;
+                while ((line = lineReader.readLine()) != null) {
+                    if (!line.isBlank())
+                        return line;
+                }
+                closeLineReader();
+            }
+        } catch (IOException | URISyntaxException e) {
+            closeLineReader();
+            throw new AnalysisEngineProcessException(e);
+        }
+    }
+
+    private BufferedReader openUri(String uriString) throws IOException, URISyntaxException {
+        URI uri = new URI(uriString);
+        InputStream is = uri.getScheme() == null ? new FileInputStream(uriString) : uri.toURL().openStream();
+        if (uriString.endsWith(".gz") || uriString.endsWith(".gzip"))
+            is = new GZIPInputStream(is, 1 << 16);
+        log.debug("Reading lines from {}", uriString);
+        return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private void closeLineReader() throws AnalysisEngineProcessException {
+        if (lineReader != null) {
+            try {
+                lineReader.close();
+            } catch (IOException e) {
+                throw new AnalysisEngineProcessException(e);
+            } finally {
+                lineReader = null;
+            }
+        }
     }
 
 }
@@ -1,14 +1,25 @@
 package de.julielab.jcore.multiplier.line;
 
+import de.julielab.jcore.types.casmultiplier.JCoReURI;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.JCasIterator;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -16,6 +27,9 @@ import static org.junit.Assert.assertTrue;
  * Unit tests for jcore-line-multiplier.
  */
 public class LineMultiplierTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void process() throws Exception {
         JCas jCas = JCasFactory.createJCas();
@@ -33,4 +47,48 @@ public class LineMultiplierTest {
         assertThat(casTexts).hasSize(3);
         assertThat(casTexts).containsExactly("line1", "line2", "line3");
     }
+
+    @Test
+    public void processUris() throws Exception {
+        String ls = System.getProperty("line.separator");
+        File plainFile = folder.newFile("lines.txt");
+        Files.write(plainFile.toPath(), Arrays.asList("line1", "", "line2", "line3"));
+        File gzipFile = folder.newFile("lines.txt.gz");
+        try (Writer w = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(gzipFile)), StandardCharsets.UTF_8)) {
+            w.write("line4\r\n  \r\nline5\n");
+        }
+        JCas jCas = JCasFactory.createJCas();
+        jCas.setDocumentText("this text is not split");
+        for (File file : Arrays.asList(plainFile, gzipFile)) {
+            JCoReURI uri = new JCoReURI(jCas);
+            uri.setUri(file.toURI().toString());
+            uri.addToIndexes();
+        }
+        AnalysisEngine multiplier = AnalysisEngineFactory.createEngine(LineMultiplier.class, LineMultiplier.PARAM_NUM_LINES, 2, LineMultiplier.PARAM_READ_URIS, true);
+        JCasIterator jCasIterator = multiplier.processAndOutputNewCASes(jCas);
+        List<String> casTexts = new ArrayList<>();
+        while (jCasIterator.hasNext()) {
+            JCas newCas = jCasIterator.next();
+            casTexts.add(newCas.getDocumentText());
+            newCas.release();
+        }
+        assertThat(casTexts).containsExactly("line1" + ls + "line2", "line3" + ls + "line4", "line5");
+    }
+
+    @Test
+    public void processWithoutUriType() throws Exception {
+        // the JCoReURI type is only required when reading URIs is enabled
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-document-meta-types");
+        String ls = System.getProperty("line.separator");
+        jCas.setDocumentText("line1" + ls + "line2");
+        AnalysisEngine multiplier = AnalysisEngineFactory.createEngine(LineMultiplier.class);
+        JCasIterator jCasIterator = multiplier.processAndOutputNewCASes(jCas);
+        List<String> casTexts = new ArrayList<>();
+        while (jCasIterator.hasNext()) {
+            JCas newCas = jCasIterator.next();
+            casTexts.add(newCas.getDocumentText());
+            newCas.release();
+        }
+        assertThat(casTexts).containsExactly("line1", "line2");
+    }
 }
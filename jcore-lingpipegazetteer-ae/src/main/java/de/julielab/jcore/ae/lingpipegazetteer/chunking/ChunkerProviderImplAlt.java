@@ -48,10 +48,17 @@ public class ChunkerProviderImplAlt implements ChunkerProvider, SharedResourceOb
 	 * on in the descriptor of the annotator itself!
 	 */
 	public final static String PARAM_TRANSLITERATE_TEXT = "TransliterateText";
+	/**
+	 * Parameter to indicate whether approximate matching should be performed by the
+	 * {@link CompiledApproxDictionaryChunker} instead of LingPipe's ApproxDictionaryChunker. Both find the same chunks
+	 * but the former is considerably faster.
+	 */
+	public final static String PARAM_USE_COMPILED_APPROXIMATE_CHUNKER = "UseCompiledApproximateChunker";
 
 	private boolean generateVariants;
 	private boolean caseSensitive;
 	private boolean useApproximateMatching;
+	private boolean useCompiledApproximateChunker;
 	private boolean transliterate;
 	private boolean normalize;
 	private InputStream dictFile;
@@ -139,6 +146,12 @@ public class ChunkerProviderImplAlt implements ChunkerProvider, SharedResourceOb
 			useApproximateMatching = new Boolean(useApproximateMatchingString);
 		LOGGER.info("Use approximate matching: {}", useApproximateMatching);
 
+		String useCompiledApproximateChunkerString = properties.getProperty(PARAM_USE_COMPILED_APPROXIMATE_CHUNKER);
+		useCompiledApproximateChunker = false;
+		if (useCompiledApproximateChunkerString != null)
+			useCompiledApproximateChunker = new Boolean(useCompiledApproximateChunkerString);
+		LOGGER.info("Use compiled approximate chunker: {}", useCompiledApproximateChunker);
+
 		if (normalize && generateVariants)
 			throw new ResourceInitializationException(
 					new IllegalStateException(
@@ -227,9 +240,14 @@ public class ChunkerProviderImplAlt implements ChunkerProvider, SharedResourceOb
 					}
 				};
 
-				dictChunker =
-						new ApproxDictionaryChunker((TrieDictionary<String>) dict,
-								IndoEuropeanTokenizerFactory.INSTANCE, editDistance, APPROX_MATCH_THRESHOLD_SCORE);
+				if (useCompiledApproximateChunker)
+					dictChunker =
+							new CompiledApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE,
+									editDistance, APPROX_MATCH_THRESHOLD_SCORE);
+				else
+					dictChunker =
+							new ApproxDictionaryChunker((TrieDictionary<String>) dict,
+									IndoEuropeanTokenizerFactory.INSTANCE, editDistance, APPROX_MATCH_THRESHOLD_SCORE);
 			} else {
 				dictChunker =
 						new ExactDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE, false, caseSensitive);
@@ -0,0 +1,391 @@
+package de.julielab.jcore.ae.lingpipegazetteer.chunking;
+
+import com.aliasi.chunk.Chunk;
+import com.aliasi.chunk.ChunkFactory;
+import com.aliasi.chunk.Chunker;
+import com.aliasi.chunk.Chunking;
+import com.aliasi.chunk.ChunkingImpl;
+import com.aliasi.dict.ApproxDictionaryChunker;
+import com.aliasi.dict.Dictionary;
+import com.aliasi.dict.DictionaryEntry;
+import com.aliasi.spell.WeightedEditDistance;
+import com.aliasi.tokenizer.Tokenizer;
+import com.aliasi.tokenizer.TokenizerFactory;
+
+import java.util.*;
+
+/**
+ * <p>
+ * An approximate dictionary chunker that finds exactly the same chunks as LingPipe's {@link ApproxDictionaryChunker}
+ * for the same dictionary, tokenizer factory, weighted edit distance and distance threshold.
+ * </p>
+ * <p>
+ * Like the LingPipe implementation, the chunker walks the text character by character and keeps the set of active
+ * trie search states, started at token beginnings and emitting chunks at token ends. The differences lie in the
+ * representation: The dictionary is compiled into an immutable, array-based trie, the active states are kept in
+ * reused primitive hash tables instead of a new <tt>HashMap</tt> of state objects per character, and the edit costs
+ * are precomputed per character. Most importantly, substitutions and insertions whose cost alone already exceeds the
+ * distance threshold are never tried. With the edit distances used in this component, where only whitespace and
+ * hyphen edits are cheap, this removes the iteration over all trie daughters for every active state and character.
+ * </p>
+ * <p>
+ * The pruning requires all edit costs, i.e. the negated weights of the {@link WeightedEditDistance}, to be
+ * non-negative. This is the case for all sensible edit distances since the weights are meant to be log
+ * probabilities.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public class CompiledApproxDictionaryChunker implements Chunker {
+
+	private static final int ROOT = 0;
+
+	private final TokenizerFactory tokenizerFactory;
+	private final WeightedEditDistance editDistance;
+	private final double distanceThreshold;
+
+	/**
+	 * The daughters of node <tt>n</tt> are found at the indices
+	 * <tt>[dtrOffsets[n], dtrOffsets[n+1])</tt> of <tt>dtrChars</tt> and <tt>dtrNodes</tt>, sorted by character.
+	 */
+	private final int[] dtrOffsets;
+	private final char[] dtrChars;
+	private final int[] dtrNodes;
+	/**
+	 * The cost to insert the respective daughter character into the text, parallel to <tt>dtrChars</tt>.
+	 */
+	private final double[] dtrInsertCosts;
+	/**
+	 * The categories of the dictionary entries ending at the respective node, <tt>null</tt> for nodes without entries.
+	 */
+	private final String[][] nodeCategories;
+	/**
+	 * All characters occurring in dictionary entries, sorted.
+	 */
+	private final char[] alphabet;
+	/**
+	 * Lazily computed edit costs for text characters. Concurrent initialization is harmless since the profiles are
+	 * immutable and deterministic.
+	 */
+	private final CharProfile[] charProfiles = new CharProfile[Character.MAX_VALUE + 1];
+
+	public CompiledApproxDictionaryChunker(Dictionary<String> dictionary, TokenizerFactory tokenizerFactory,
+			WeightedEditDistance editDistance, double distanceThreshold) {
+		this.tokenizerFactory = tokenizerFactory;
+		this.editDistance = editDistance;
+		this.distanceThreshold = distanceThreshold;
+
+		TrieBuilderNode root = new TrieBuilderNode();
+		int nodeCount = 1;
+		int edgeCount = 0;
+		Set<Character> alphabetSet = new TreeSet<>();
+		for (DictionaryEntry<String> entry : dictionary) {
+			TrieBuilderNode node = root;
+			String phrase = entry.phrase();
+			for (int i = 0; i < phrase.length(); i++) {
+				char c = phrase.charAt(i);
+				alphabetSet.add(c);
+				TrieBuilderNode dtr = node.dtrs.get(c);
+				if (dtr == null) {
+					dtr = new TrieBuilderNode();
+					node.dtrs.put(c, dtr);
+					++nodeCount;
+					++edgeCount;
+				}
+				node = dtr;
+			}
+			node.categories.add(entry.category());
+		}
+
+		alphabet = new char[alphabetSet.size()];
+		int a = 0;
+		for (Character c : alphabetSet)
+			alphabet[a++] = c;
+
+		dtrOffsets = new int[nodeCount + 1];
+		dtrChars = new char[edgeCount];
+		dtrNodes = new int[edgeCount];
+		dtrInsertCosts = new double[edgeCount];
+		nodeCategories = new String[nodeCount][];
+		// breadth first numbering so that the daughters of each node are stored contiguously
+		Deque<TrieBuilderNode> queue = new ArrayDeque<>();
+		List<TrieBuilderNode> nodes = new ArrayList<>(nodeCount);
+		root.id = ROOT;
+		nodes.add(root);
+		queue.add(root);
+		int edge = 0;
+		while (!queue.isEmpty()) {
+			TrieBuilderNode node = queue.poll();
+			dtrOffsets[node.id] = edge;
+			if (!node.categories.isEmpty())
+				nodeCategories[node.id] = node.categories.toArray(new String[0]);
+			for (Map.Entry<Character, TrieBuilderNode> dtrEntry : node.dtrs.entrySet()) {
+				TrieBuilderNode dtr = dtrEntry.getValue();
+				dtr.id = nodes.size();
+				nodes.add(dtr);
+				queue.add(dtr);
+				dtrChars[edge] = dtrEntry.getKey();
+				dtrNodes[edge] = dtr.id;
+				dtrInsertCosts[edge] = checkCost(-editDistance.insertWeight(dtrEntry.getKey()));
+				++edge;
+			}
+		}
+		dtrOffsets[nodeCount] = edge;
+	}
+
+	@Override
+	public Chunking chunk(CharSequence cSeq) {
+		char[] cs = new char[cSeq.length()];
+		for (int i = 0; i < cs.length; i++)
+			cs[i] = cSeq.charAt(i);
+		return chunk(cs, 0, cs.length);
+	}
+
+	@Override
+	public Chunking chunk(char[] cs, int start, int end) {
+		int length = end - start;
+		boolean[] tokenStarts = new boolean[length];
+		boolean[] tokenEnds = new boolean[length + 1];
+		Tokenizer tokenizer = tokenizerFactory.tokenizer(cs, start, length);
+		String token;
+		while ((token = tokenizer.nextToken()) != null) {
+			int tokenStart = tokenizer.lastTokenStartPosition();
+			tokenStarts[tokenStart] = true;
+			tokenEnds[tokenStart + token.length()] = true;
+		}
+
+		Map<ChunkKey, Chunk> chunks = new HashMap<>();
+		StateTable current = new StateTable();
+		StateTable next = new StateTable();
+		for (int i = 0; i < length; ++i) {
+			int position = start + i;
+			if (tokenStarts[i])
+				add(current, ROOT, position, 0d, false, chunks, position);
+			next.clear();
+			CharProfile profile = getProfile(cs[position]);
+			boolean tokenEnd = tokenEnds[i + 1];
+			for (int s = 0; s < current.size; ++s) {
+				int node = current.nodes[s];
+				int stateStart = current.starts[s];
+				double score = current.scores[s];
+				// deletion of the text character
+				add(next, node, stateStart, score + profile.deleteCost, tokenEnd, chunks, position);
+				// match
+				int dtr = findDaughter(node, cs[position]);
+				if (dtr >= 0)
+					add(next, dtrNodes[dtr], stateStart, score + profile.matchCost, tokenEnd, chunks, position);
+				// substitutions that might stay below the threshold
+				for (int k = 0; k < profile.substitutionChars.length; ++k) {
+					dtr = findDaughter(node, profile.substitutionChars[k]);
+					if (dtr >= 0)
+						add(next, dtrNodes[dtr], stateStart, score + profile.substitutionCosts[k], tokenEnd, chunks,
+								position);
+				}
+			}
+			StateTable tmp = current;
+			current = next;
+			next = tmp;
+		}
+
+		List<Chunk> chunkList = new ArrayList<>(chunks.values());
+		chunkList.sort(Comparator.comparingInt(Chunk::start).thenComparingInt(Chunk::end).thenComparing(Chunk::type));
+		ChunkingImpl chunking = new ChunkingImpl(cs, start, end);
+		for (Chunk chunk : chunkList)
+			chunking.add(chunk);
+		return chunking;
+	}
+
+	private void add(StateTable states, int node, int stateStart, double score, boolean tokenEnd,
+			Map<ChunkKey, Chunk> chunks, int position) {
+		if (score > distanceThreshold)
+			return;
+		// an existing state with the same or a better score has already been explored with the same outcome
+		if (!states.put(node, stateStart, score))
+			return;
+		if (tokenEnd && nodeCategories[node] != null) {
+			for (String category : nodeCategories[node]) {
+				ChunkKey key = new ChunkKey(stateStart, position + 1, category);
+				Chunk existing = chunks.get(key);
+				if (existing == null || existing.score() > score)
+					chunks.put(key, ChunkFactory.createChunk(stateStart, position + 1, category, score));
+			}
+		}
+		// insertions of dictionary characters into the text
+		for (int dtr = dtrOffsets[node]; dtr < dtrOffsets[node + 1]; ++dtr) {
+			double insertCost = dtrInsertCosts[dtr];
+			if (insertCost <= distanceThreshold)
+				add(states, dtrNodes[dtr], stateStart, score + insertCost, tokenEnd, chunks, position);
+		}
+	}
+
+	private int findDaughter(int node, char c) {
+		int low = dtrOffsets[node];
+		int high = dtrOffsets[node + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char midChar = dtrChars[mid];
+			if (midChar < c)
+				low = mid + 1;
+			else if (midChar > c)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	private CharProfile getProfile(char c) {
+		CharProfile profile = charProfiles[c];
+		if (profile == null) {
+			double deleteCost = checkCost(-editDistance.deleteWeight(c));
+			double matchCost = checkCost(-editDistance.matchWeight(c));
+			int count = 0;
+			char[] substitutionChars = new char[alphabet.length];
+			double[] substitutionCosts = new double[alphabet.length];
+			for (char dictChar : alphabet) {
+				if (dictChar == c)
+					continue;
+				double substitutionCost = checkCost(-editDistance.substituteWeight(dictChar, c));
+				if (substitutionCost <= distanceThreshold) {
+					substitutionChars[count] = dictChar;
+					substitutionCosts[count] = substitutionCost;
+					++count;
+				}
+			}
+			profile = new CharProfile(deleteCost, matchCost, Arrays.copyOf(substitutionChars, count),
+					Arrays.copyOf(substitutionCosts, count));
+			charProfiles[c] = profile;
+		}
+		return profile;
+	}
+
+	private static double checkCost(double cost) {
+		if (cost < 0)
+			throw new IllegalArgumentException(
+					"The weighted edit distance yields a positive weight which is not supported by this chunker. All edit weights must be non-positive.");
+		return cost;
+	}
+
+	/**
+	 * The edit costs for a single text character.
+	 */
+	private static final class CharProfile {
+		private final double deleteCost;
+		private final double matchCost;
+		private final char[] substitutionChars;
+		private final double[] substitutionCosts;
+
+		private CharProfile(double deleteCost, double matchCost, char[] substitutionChars,
+				double[] substitutionCosts) {
+			this.deleteCost = deleteCost;
+			this.matchCost = matchCost;
+			this.substitutionChars = substitutionChars;
+			this.substitutionCosts = substitutionCosts;
+		}
+	}
+
+	/**
+	 * The set of active search states for one text position. A state is a trie node together with the text position
+	 * the match started at. Only the best score for each state is kept. The table is cleared and reused for each
+	 * character.
+	 */
+	private static final class StateTable {
+		private int[] nodes = new int[64];
+		private int[] starts = new int[64];
+		private double[] scores = new double[64];
+		private int size;
+		/**
+		 * Open addressing hash table mapping states to their index plus one; 0 marks an empty slot.
+		 */
+		private int[] slots = new int[128];
+
+		/**
+		 * @return <tt>true</tt> if the state was added or its score improved.
+		 */
+		private boolean put(int node, int start, double score) {
+			int mask = slots.length - 1;
+			int slot = hash(node, start) & mask;
+			int index;
+			while ((index = slots[slot]) != 0) {
+				--index;
+				if (nodes[index] == node && starts[index] == start) {
+					if (scores[index] <= score)
+						return false;
+					scores[index] = score;
+					return true;
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, size * 2);
+				starts = Arrays.copyOf(starts, size * 2);
+				scores = Arrays.copyOf(scores, size * 2);
+			}
+			nodes[size] = node;
+			starts[size] = start;
+			scores[size] = score;
+			++size;
+			slots[slot] = size;
+			if (size * 2 > slots.length)
+				rehash();
+			return true;
+		}
+
+		private void rehash() {
+			slots = new int[slots.length * 2];
+			int mask = slots.length - 1;
+			for (int index = 0; index < size; ++index) {
+				int slot = hash(nodes[index], starts[index]) & mask;
+				while (slots[slot] != 0)
+					slot = (slot + 1) & mask;
+				slots[slot] = index + 1;
+			}
+		}
+
+		private void clear() {
+			if (size > 0) {
+				Arrays.fill(slots, 0);
+				size = 0;
+			}
+		}
+
+		private static int hash(int node, int start) {
+			int h = node * 31 + start;
+			return h ^ (h >>> 16);
+		}
+	}
+
+	private static final class ChunkKey {
+		private final int start;
+		private final int end;
+		private final String type;
+
+		private ChunkKey(int start, int end, String type) {
+			this.start = start;
+			this.end = end;
+			this.type = type;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof ChunkKey))
+				return false;
+			ChunkKey other = (ChunkKey) o;
+			return start == other.start && end == other.end && type.equals(other.type);
+		}
+
+		@Override
+		public int hashCode() {
+			return (start * 31 + end) * 31 + type.hashCode();
+		}
+	}
+
+	private static final class TrieBuilderNode {
+		private final TreeMap<Character, TrieBuilderNode> dtrs = new TreeMap<>();
+		private final Set<String> categories = new LinkedHashSet<>();
+		private int id;
+	}
+}
@@ -53,10 +53,17 @@ public class ConfigurableChunkerProviderImplAlt implements ChunkerProvider, Shar
 	 * on in the descriptor of the annotator itself!
 	 */
 	public final static String PARAM_TRANSLITERATE_TEXT = "TransliterateText";
+	/**
+	 * Parameter to indicate whether approximate matching should be performed by the
+	 * {@link CompiledApproxDictionaryChunker} instead of LingPipe's ApproxDictionaryChunker. Both find the same chunks
+	 * but the former is considerably faster.
+	 */
+	public final static String PARAM_USE_COMPILED_APPROXIMATE_CHUNKER = "UseCompiledApproximateChunker";
 
 	private Boolean generateVariants;
 	private Boolean caseSensitive;
 	private Boolean useApproximateMatching;
+	private boolean useCompiledApproximateChunker;
 	private Boolean transliterate;
 	private Boolean normalize;
 	private InputStream dictFile;
@@ -103,6 +110,10 @@ public class ConfigurableChunkerProviderImplAlt implements ChunkerProvider, Shar
 		useApproximateMatching = (Boolean) settings.getParameterValue(PARAM_USE_APPROXIMATE_MATCHING);
 		LOGGER.info("Use approximate matching: {}", useApproximateMatching);
 
+		Boolean useCompiledApproximateChunkerBoolean = (Boolean) settings.getParameterValue(PARAM_USE_COMPILED_APPROXIMATE_CHUNKER);
+		useCompiledApproximateChunker = useCompiledApproximateChunkerBoolean != null && useCompiledApproximateChunkerBoolean;
+		LOGGER.info("Use compiled approximate chunker: {}", useCompiledApproximateChunker);
+
 		if (normalize && generateVariants)
 			throw new ResourceInitializationException(
 					new IllegalStateException(
@@ -196,9 +207,14 @@ public class ConfigurableChunkerProviderImplAlt implements ChunkerProvider, Shar
 					}
 				};
 
-				dictChunker =
-						new ApproxDictionaryChunker((TrieDictionary<String>) dict,
-								IndoEuropeanTokenizerFactory.INSTANCE, editDistance, APPROX_MATCH_THRESHOLD_SCORE);
+				if (useCompiledApproximateChunker)
+					dictChunker =
+							new CompiledApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE,
+									editDistance, APPROX_MATCH_THRESHOLD_SCORE);
+				else
+					dictChunker =
+							new ApproxDictionaryChunker((TrieDictionary<String>) dict,
+									IndoEuropeanTokenizerFactory.INSTANCE, editDistance, APPROX_MATCH_THRESHOLD_SCORE);
 			} else {
 				dictChunker =
 						new ExactDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE, false, caseSensitive);
@@ -21,6 +21,7 @@
 package de.julielab.jcore.ae.lingpipegazetteer.uima;
 
 import com.aliasi.chunk.Chunk;
+import com.aliasi.chunk.ChunkFactory;
 import com.aliasi.chunk.Chunker;
 import com.aliasi.chunk.Chunking;
 import com.aliasi.tokenizer.IndoEuropeanTokenizerFactory;
@@ -33,6 +34,7 @@ import de.julielab.jcore.ae.lingpipegazetteer.utils.StringNormalizerForChunking.
 import de.julielab.jcore.types.Abbreviation;
 import de.julielab.jcore.types.AbbreviationLongform;
 import de.julielab.jcore.types.ConceptMention;
+import de.julielab.jcore.types.Sentence;
 import de.julielab.jcore.types.mantra.Entity;
 import de.julielab.jcore.utility.JCoReAnnotationTools;
 import de.julielab.jcore.utility.index.IndexTermGenerator;
@@ -54,6 +56,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 
@@ -71,6 +75,32 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 	 */
 	// public final static String PARAM_CASE_SENSITIVE = "CaseSensitive";
 	private static final String PARAM_USE_MANTRA_MODE = "MantraMode";
+	/**
+	 * Determines over which text spans the chunker is run. <tt>DOCUMENT</tt> (the
+	 * default) chunks the whole document text at once, <tt>SENTENCE</tt> chunks
+	 * each {@link Sentence} annotation separately and <tt>WINDOW</tt> chunks
+	 * overlapping text windows of size {@link #PARAM_WINDOW_SIZE}. The latter two
+	 * bound the text length handed to the chunker at once which is of particular
+	 * importance for approximate matching on full texts.
+	 */
+	public final static String PARAM_CHUNKING_MODE = "ChunkingMode";
+	/**
+	 * The maximum number of characters of a text window in <tt>WINDOW</tt>
+	 * chunking mode. Defaults to 10000.
+	 */
+	public final static String PARAM_WINDOW_SIZE = "WindowSize";
+	/**
+	 * The number of characters two adjacent text windows overlap in
+	 * <tt>WINDOW</tt> chunking mode. Matches longer than half the overlap might be
+	 * missed at window borders. Defaults to 200.
+	 */
+	public final static String PARAM_WINDOW_OVERLAP = "WindowOverlap";
+	/**
+	 * Whether the sentences or windows of a document should be chunked in parallel
+	 * on the common fork-join pool. Only has an effect for the <tt>SENTENCE</tt>
+	 * and <tt>WINDOW</tt> chunking modes.
+	 */
+	public final static String PARAM_PARALLEL_CHUNKING = "ParallelChunking";
 	/**
 	 * Parameter to indicate whether text - CAS document text for this class -
 	 * should be normalized by completely removing dashes, parenthesis, genitive 's
@@ -100,6 +130,15 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 	@ConfigurationParameter(name = PARAM_OUTPUT_TYPE)
 	private String outputType = null;
 
+	@ConfigurationParameter(name = PARAM_CHUNKING_MODE, mandatory = false, defaultValue = "DOCUMENT", description = "Determines over which text spans the chunker is run. DOCUMENT chunks the whole document text at once, SENTENCE chunks each Sentence annotation separately and WINDOW chunks overlapping text windows of size WindowSize.")
+	private ChunkingMode chunkingMode = ChunkingMode.DOCUMENT;
+	@ConfigurationParameter(name = PARAM_WINDOW_SIZE, mandatory = false, defaultValue = "10000", description = "The maximum number of characters of a text window in WINDOW chunking mode.")
+	private int windowSize = 10000;
+	@ConfigurationParameter(name = PARAM_WINDOW_OVERLAP, mandatory = false, defaultValue = "200", description = "The number of characters two adjacent text windows overlap in WINDOW chunking mode. Matches longer than half the overlap might be missed at window borders.")
+	private int windowOverlap = 200;
+	@ConfigurationParameter(name = PARAM_PARALLEL_CHUNKING, mandatory = false, defaultValue = "false", description = "Whether the sentences or windows of a document should be chunked in parallel on the common fork-join pool.")
+	private boolean parallelChunking = false;
+
 	@ExternalResource(key = CHUNKER_RESOURCE_NAME, mandatory = true)
 	private ChunkerProvider provider;
 	/**
@@ -193,6 +232,27 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 		mantraMode = aContext.getConfigParameterValue(PARAM_USE_MANTRA_MODE) != null
 				? (Boolean) aContext.getConfigParameterValue(PARAM_USE_MANTRA_MODE)
 				: false;
+
+		String chunkingModeString = (String) aContext.getConfigParameterValue(PARAM_CHUNKING_MODE);
+		chunkingMode = chunkingModeString != null ? ChunkingMode.valueOf(chunkingModeString.toUpperCase())
+				: ChunkingMode.DOCUMENT;
+		windowSize = aContext.getConfigParameterValue(PARAM_WINDOW_SIZE) != null
+				? (Integer) aContext.getConfigParameterValue(PARAM_WINDOW_SIZE)
+				: 10000;
+		windowOverlap = aContext.getConfigParameterValue(PARAM_WINDOW_OVERLAP) != null
+				? (Integer) aContext.getConfigParameterValue(PARAM_WINDOW_OVERLAP)
+				: 200;
+		parallelChunking = aContext.getConfigParameterValue(PARAM_PARALLEL_CHUNKING) != null
+				? (Boolean) aContext.getConfigParameterValue(PARAM_PARALLEL_CHUNKING)
+				: false;
+		if (chunkingMode == ChunkingMode.WINDOW && (windowOverlap < 0 || windowOverlap * 2 > windowSize)) {
+			LOGGER.error("initialize() - the window overlap must be non-negative and at most half the window size but window size is {} and overlap is {}.",
+					windowSize, windowOverlap);
+			throw new ResourceInitializationException(new IllegalArgumentException(
+					"Invalid window configuration: size " + windowSize + ", overlap " + windowOverlap));
+		}
+		LOGGER.info("Chunking mode: {}, window size: {}, window overlap: {}, parallel chunking: {}", chunkingMode,
+				windowSize, windowOverlap, parallelChunking);
 	}
 
 	/**
@@ -207,11 +267,6 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 			return;
 		if (provider.getUseApproximateMatching() && !provider.getTransliterate() && !provider.getCaseSensitive())
 			docText = docText.toLowerCase();
-		NormalizedString normalizedDocText = null;
-		if (provider.getNormalize()) {
-			normalizedDocText = StringNormalizerForChunking.normalizeString(docText, normalizationTokenFactory,
-					transliterator);
-		}
 
 		IndexTermGenerator<Long> longOffsetTermGenerator = TermGenerators.longOffsetTermGenerator();
 		JCoReHashMapAnnotationIndex<Long, ConceptMention> conceptMentionIndex = new JCoReHashMapAnnotationIndex<>(
@@ -219,6 +274,29 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 		JCoReHashMapAnnotationIndex<Long, Abbreviation> abbreviationIndex = new JCoReHashMapAnnotationIndex<>(
 				longOffsetTermGenerator, longOffsetTermGenerator, aJCas, Abbreviation.type);
 
+		if (chunkingMode == ChunkingMode.DOCUMENT)
+			processDocument(aJCas, docText, conceptMentionIndex, abbreviationIndex);
+		else
+			processSegments(aJCas, docText, conceptMentionIndex, abbreviationIndex);
+
+		if (checkAcronyms && !mantraMode) {
+			LOGGER.debug("process() - checking acronyms");
+			annotateAcronymsWithFullFormEntity(aJCas, conceptMentionIndex);
+		}
+	}
+
+	/**
+	 * Chunks the complete document text at once.
+	 */
+	private void processDocument(JCas aJCas, String docText,
+			JCoReHashMapAnnotationIndex<Long, ConceptMention> conceptMentionIndex,
+			JCoReHashMapAnnotationIndex<Long, Abbreviation> abbreviationIndex) throws AnalysisEngineProcessException {
+		NormalizedString normalizedDocText = null;
+		if (provider.getNormalize()) {
+			normalizedDocText = StringNormalizerForChunking.normalizeString(docText, normalizationTokenFactory,
+					transliterator);
+		}
+
 		LOGGER.debug("Performing actual Gazetteer annotation...");
 		Chunking chunking;
 		if (provider.getNormalize())
@@ -269,10 +347,130 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 				add2Cas(aJCas, chunk, normalizedDocText, conceptMentionIndex, abbreviationIndex);
 			}
 		}
-		if (checkAcronyms && !mantraMode) {
-			LOGGER.debug("process() - checking acronyms");
-			annotateAcronymsWithFullFormEntity(aJCas, conceptMentionIndex);
+	}
+
+	/**
+	 * Chunks the sentences or text windows of the document separately, possibly
+	 * in parallel. The chunks of all segments are mapped back to document offsets
+	 * and merged, removing duplicates found in overlapping segments.
+	 */
+	private void processSegments(JCas aJCas, String docText,
+			JCoReHashMapAnnotationIndex<Long, ConceptMention> conceptMentionIndex,
+			JCoReHashMapAnnotationIndex<Long, Abbreviation> abbreviationIndex) throws AnalysisEngineProcessException {
+		List<int[]> segments = chunkingMode == ChunkingMode.SENTENCE ? getSentenceSegments(aJCas, docText)
+				: getWindowSegments(docText);
+		LOGGER.debug("Performing Gazetteer annotation on {} text segments...", segments.size());
+		IntStream segmentIndexes = IntStream.range(0, segments.size());
+		if (parallelChunking)
+			segmentIndexes = segmentIndexes.parallel();
+		List<List<Chunk>> segmentChunks = segmentIndexes.mapToObj(i -> chunkSegment(docText, segments.get(i)))
+				.collect(Collectors.toList());
+		LOGGER.debug("Gazetteer annotation done.");
+
+		// chunks of overlapping segments may be found multiple times
+		Set<Chunk> mergedChunks = new TreeSet<>(Comparator.comparingInt(Chunk::start).thenComparingInt(Chunk::end)
+				.thenComparing(Chunk::type).thenComparingDouble(Chunk::score));
+		for (List<Chunk> chunks : segmentChunks)
+			mergedChunks.addAll(chunks);
+
+		if (provider.getUseApproximateMatching()) {
+			List<OverlappingChunk> overlappingChunks = groupOverlappingChunks(new ArrayList<>(mergedChunks), docText);
+			for (OverlappingChunk overlappingChunk : overlappingChunks) {
+				LOGGER.debug(overlappingChunk.toStringAll());
+				for (Chunk bestChunk : overlappingChunk.getBestChunks())
+					add2Cas(aJCas, bestChunk, null, conceptMentionIndex, abbreviationIndex);
+			}
+		} else {
+			for (Chunk chunk : mergedChunks)
+				add2Cas(aJCas, chunk, null, conceptMentionIndex, abbreviationIndex);
+		}
+	}
+
+	/**
+	 * Chunks a single text segment. The segment is given as an array of the form
+	 * <tt>{begin, end, acceptBegin, acceptEnd}</tt> where only chunks starting in
+	 * the acceptance span are returned. This way, chunks found in the overlap of
+	 * two windows are only accepted from one of them. The returned chunks have
+	 * document offsets.
+	 */
+	private List<Chunk> chunkSegment(String docText, int[] segment) {
+		int segmentBegin = segment[0];
+		String segmentText = docText.substring(segmentBegin, segment[1]);
+		NormalizedString normalizedSegmentText = null;
+		Chunking chunking;
+		if (provider.getNormalize()) {
+			normalizedSegmentText = StringNormalizerForChunking.normalizeString(segmentText,
+					normalizationTokenFactory, transliterator);
+			chunking = gazetteer.chunk(normalizedSegmentText.string);
+		} else {
+			chunking = gazetteer.chunk(segmentText);
+		}
+		Collection<Chunk> chunks = provider.getUseApproximateMatching() ? filterChunking(chunking)
+				: chunking.chunkSet();
+		List<Chunk> documentChunks = new ArrayList<>(chunks.size());
+		for (Chunk chunk : chunks) {
+			int start = segmentBegin + (normalizedSegmentText != null
+					? normalizedSegmentText.getOriginalOffset(chunk.start()) : chunk.start());
+			int end = segmentBegin + (normalizedSegmentText != null
+					? normalizedSegmentText.getOriginalOffset(chunk.end()) : chunk.end());
+			if (start < segment[2] || start >= segment[3])
+				continue;
+			documentChunks.add(ChunkFactory.createChunk(start, end, chunk.type(), chunk.score()));
 		}
+		return documentChunks;
+	}
+
+	private List<int[]> getSentenceSegments(JCas aJCas, String docText) {
+		List<int[]> segments = new ArrayList<>();
+		FSIterator<Annotation> sentenceIt = aJCas.getAnnotationIndex(Sentence.type).iterator();
+		while (sentenceIt.hasNext()) {
+			Annotation sentence = sentenceIt.next();
+			segments.add(new int[] { sentence.getBegin(), sentence.getEnd(), sentence.getBegin(), sentence.getEnd() });
+		}
+		if (segments.isEmpty()) {
+			LOGGER.debug("There are no sentences in the CAS, chunking the whole document text.");
+			segments.add(new int[] { 0, docText.length(), 0, docText.length() });
+		}
+		return segments;
+	}
+
+	/**
+	 * Splits the document text into windows of at most {@link #windowSize}
+	 * characters that overlap by approximately {@link #windowOverlap} characters.
+	 * Window borders are moved to whitespace positions where possible in order not
+	 * to cut tokens. The acceptance span of each window ends in the middle of its
+	 * overlap with the next window.
+	 */
+	List<int[]> getWindowSegments(String docText) {
+		int length = docText.length();
+		List<int[]> segments = new ArrayList<>();
+		int begin = 0;
+		int acceptanceBegin = 0;
+		while (true) {
+			int end = Math.min(length, begin + windowSize);
+			if (end < length) {
+				int whitespace = end;
+				while (whitespace > begin + windowSize / 2 && !Character.isWhitespace(docText.charAt(whitespace)))
+					--whitespace;
+				if (Character.isWhitespace(docText.charAt(whitespace)))
+					end = whitespace;
+			}
+			if (end == length) {
+				segments.add(new int[] { begin, end, acceptanceBegin, length });
+				break;
+			}
+			int nextBegin = Math.max(begin + 1, end - windowOverlap);
+			int tokenBegin = nextBegin;
+			while (tokenBegin < end && !Character.isWhitespace(docText.charAt(tokenBegin - 1)))
+				++tokenBegin;
+			if (tokenBegin < end)
+				nextBegin = tokenBegin;
+			int acceptanceEnd = nextBegin + (end - nextBegin) / 2;
+			segments.add(new int[] { begin, end, acceptanceBegin, acceptanceEnd });
+			begin = nextBegin;
+			acceptanceBegin = acceptanceEnd;
+		}
+		return segments;
 	}
 
 	private List<Chunk> filterChunking(Chunking chunking) {
@@ -397,6 +595,10 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 		ROUND, BRACKET, CURLY, NONE
 	}
 
+	enum ChunkingMode {
+		DOCUMENT, SENTENCE, WINDOW
+	}
+
 	static ParenthesisType getParenthesisType(char current) {
 		switch (current) {
 		case '(':
@@ -497,7 +699,7 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 		// Annotation anno;
 		int start;
 		int end;
-		if (provider.getNormalize()) {
+		if (normalizedDocText != null) {
 			try {
 				start = normalizedDocText.getOriginalOffset(chunk.start());
 				end = normalizedDocText.getOriginalOffset(chunk.end());
@@ -571,8 +773,8 @@ public class GazetteerAnnotator extends JCasAnnotator_ImplBase {
 			return;
 		}
 
-		int start = provider.getNormalize() ? normalizedDocText.getOriginalOffset(chunk.start()) : chunk.start();
-		int end = provider.getNormalize() ? normalizedDocText.getOriginalOffset(chunk.end()) : chunk.end();
+		int start = normalizedDocText != null ? normalizedDocText.getOriginalOffset(chunk.start()) : chunk.start();
+		int end = normalizedDocText != null ? normalizedDocText.getOriginalOffset(chunk.end()) : chunk.end();
 
 		try {
 			if (mantraMode) {
@@ -0,0 +1,163 @@
+package de.julielab.jcore.ae.lingpipegazetteer.chunking;
+
+import com.aliasi.chunk.Chunk;
+import com.aliasi.chunk.Chunker;
+import com.aliasi.chunk.Chunking;
+import com.aliasi.dict.ApproxDictionaryChunker;
+import com.aliasi.dict.DictionaryEntry;
+import com.aliasi.dict.TrieDictionary;
+import com.aliasi.spell.WeightedEditDistance;
+import com.aliasi.tokenizer.IndoEuropeanTokenizerFactory;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CompiledApproxDictionaryChunkerTest {
+	/**
+	 * The edit distance employed by the ChunkerProviderImplAlt for approximate matching.
+	 */
+	private static final WeightedEditDistance GAZETTEER_DISTANCE = new WeightedEditDistance() {
+		@Override
+		public double deleteWeight(char cDeleted) {
+			if (cDeleted == '-')
+				return -5.0;
+			if (cDeleted == ' ')
+				return -10.0;
+			return -110.0;
+		}
+
+		@Override
+		public double insertWeight(char cInserted) {
+			return deleteWeight(cInserted);
+		}
+
+		@Override
+		public double matchWeight(char cMatched) {
+			return 0.0;
+		}
+
+		@Override
+		public double substituteWeight(char cDeleted, char cInserted) {
+			if (cDeleted == ' ' && cInserted == '-')
+				return -2.0;
+			if (cDeleted == '-' && cInserted == ' ')
+				return -2.0;
+			return -110.0;
+		}
+
+		@Override
+		public double transposeWeight(char c1, char c2) {
+			return Double.NEGATIVE_INFINITY;
+		}
+	};
+
+	@Test
+	public void testSameChunksAsLingPipeSmall() {
+		TrieDictionary<String> dict = new TrieDictionary<>();
+		dict.addEntry(new DictionaryEntry<>("killer cell lectin-like receptor G1", "KLRG1"));
+		dict.addEntry(new DictionaryEntry<>("KLRG1", "KLRG1"));
+		dict.addEntry(new DictionaryEntry<>("SHP-1", "SHP1"));
+		dict.addEntry(new DictionaryEntry<>("SHP1", "SHP1"));
+		dict.addEntry(new DictionaryEntry<>("IL 6", "IL6"));
+		String text = "The killer cell lectin like receptor G1 (KLRG1) and SHP 1 as well as IL-6 and IL6 or SHP1.";
+		assertSameChunks(dict, GAZETTEER_DISTANCE, 100, text, true);
+		// the LingPipe default distance makes all characters cheap to edit
+		assertSameChunks(dict, ApproxDictionaryChunker.TT_DISTANCE, 2, text, true);
+	}
+
+	@Test
+	public void testSameChunksAsLingPipeOnSyntheticGeneNames() {
+		Random random = new Random(42);
+		List<String> geneNames = generateGeneNames(random, 20000);
+		TrieDictionary<String> dict = new TrieDictionary<>();
+		for (String name : geneNames)
+			dict.addEntry(new DictionaryEntry<>(name, "GENE"));
+		String text = generateText(random, geneNames, 300);
+		assertSameChunks(dict, GAZETTEER_DISTANCE, 100, text, false);
+	}
+
+	private void assertSameChunks(TrieDictionary<String> dict, WeightedEditDistance distance, double threshold,
+			String text, boolean expectChunks) {
+		Chunker lingpipe = new ApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE, distance,
+				threshold);
+		Chunker compiled = new CompiledApproxDictionaryChunker(dict, IndoEuropeanTokenizerFactory.INSTANCE, distance,
+				threshold);
+		Set<String> expected = toStrings(lingpipe.chunk(text));
+		Set<String> actual = toStrings(compiled.chunk(text));
+		if (expectChunks)
+			assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+	}
+
+	private Set<String> toStrings(Chunking chunking) {
+		Set<String> chunks = new TreeSet<>();
+		for (Chunk chunk : chunking.chunkSet())
+			chunks.add(chunk.start() + "-" + chunk.end() + ":" + chunk.type() + ":" + chunk.score());
+		return chunks;
+	}
+
+	private List<String> generateGeneNames(Random random, int count) {
+		String[] words = { "receptor", "kinase", "factor", "protein", "binding", "growth", "interleukin", "alpha",
+				"beta", "domain", "associated", "tumor", "necrosis", "cell", "lectin-like", "killer" };
+		List<String> names = new ArrayList<>(count);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.setLength(0);
+			if (random.nextBoolean()) {
+				// symbols like "KLRG1", "SHP-1" or "IL 6"
+				int letters = 2 + random.nextInt(3);
+				for (int j = 0; j < letters; j++)
+					sb.append((char) ('A' + random.nextInt(26)));
+				int separator = random.nextInt(3);
+				if (separator == 1)
+					sb.append('-');
+				else if (separator == 2)
+					sb.append(' ');
+				sb.append(random.nextInt(20));
+			} else {
+				// long forms like "tumor necrosis factor alpha 3"
+				int wordCount = 2 + random.nextInt(3);
+				for (int j = 0; j < wordCount; j++) {
+					if (j > 0)
+						sb.append(' ');
+					sb.append(words[random.nextInt(words.length)]);
+				}
+				sb.append(' ').append(random.nextInt(10));
+			}
+			names.add(sb.toString());
+		}
+		return names;
+	}
+
+	private String generateText(Random random, List<String> geneNames, int sentences) {
+		String[] fillers = { "The", "expression", "of", "was", "increased", "in", "mice", "and", "we", "observed",
+				"that", "binds", "to", "with", "high", "affinity", "whereas", "did", "not" };
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < sentences; i++) {
+			int length = 8 + random.nextInt(15);
+			for (int j = 0; j < length; j++) {
+				if (random.nextInt(5) == 0) {
+					String name = geneNames.get(random.nextInt(geneNames.size()));
+					// create writing variants
+					int variant = random.nextInt(4);
+					if (variant == 1)
+						name = name.replace(' ', '-');
+					else if (variant == 2)
+						name = name.replace("-", "");
+					else if (variant == 3)
+						name = name.replace('-', ' ');
+					sb.append(name);
+				} else {
+					sb.append(fillers[random.nextInt(fillers.length)]);
+				}
+				sb.append(' ');
+			}
+			sb.setLength(sb.length() - 1);
+			sb.append(". ");
+		}
+		return sb.toString();
+	}
+}
@@ -654,4 +654,50 @@ while (it.hasNext()) {
 		assertEquals(1, counter);
 	}
 
+	@Test
+	public void testSegmentedChunking() throws Exception {
+		Set<String> documentEntities = getEntitiesForChunkingMode("DOCUMENT", false);
+		assertFalse(documentEntities.isEmpty());
+		assertEquals(documentEntities, getEntitiesForChunkingMode("SENTENCE", false));
+		assertEquals(documentEntities, getEntitiesForChunkingMode("SENTENCE", true));
+		assertEquals(documentEntities, getEntitiesForChunkingMode("WINDOW", false));
+		assertEquals(documentEntities, getEntitiesForChunkingMode("WINDOW", true));
+	}
+
+	private Set<String> getEntitiesForChunkingMode(String chunkingMode, boolean parallel) throws Exception {
+		ExternalResourceDescription extDesc = ExternalResourceFactory.createExternalResourceDescription(
+				ChunkerProviderImplAlt.class, new File("src/test/resources/normalizegazetteer.properties"));
+		TypeSystemDescription tsDesc = TypeSystemDescriptionFactory.createTypeSystemDescription(
+				"de.julielab.jcore.types.jcore-semantics-mention-types",
+				"de.julielab.jcore.types.jcore-morpho-syntax-types");
+
+		AnalysisEngine gazetteerAnnotator = AnalysisEngineFactory.createPrimitive(GazetteerAnnotator.class, tsDesc,
+				GazetteerAnnotator.PARAM_CHECK_ACRONYMS, false, GazetteerAnnotator.PARAM_OUTPUT_TYPE,
+				"de.julielab.jcore.types.OntClassMention", GazetteerAnnotator.PARAM_CHUNKING_MODE, chunkingMode,
+				GazetteerAnnotator.PARAM_WINDOW_SIZE, 150, GazetteerAnnotator.PARAM_WINDOW_OVERLAP, 75,
+				GazetteerAnnotator.PARAM_PARALLEL_CHUNKING, parallel, GazetteerAnnotator.CHUNKER_RESOURCE_NAME,
+				extDesc);
+
+		JCas myCAS = gazetteerAnnotator.newJCas();
+		String text = readFile2String(new File(TEXT_PLAIN));
+		myCAS.setDocumentText(text);
+		int sentenceBegin = 0;
+		int sentenceEnd;
+		while ((sentenceEnd = text.indexOf(". ", sentenceBegin)) >= 0) {
+			new Sentence(myCAS, sentenceBegin, sentenceEnd + 1).addToIndexes();
+			sentenceBegin = sentenceEnd + 2;
+		}
+		new Sentence(myCAS, sentenceBegin, text.length()).addToIndexes();
+		gazetteerAnnotator.process(myCAS);
+
+		Set<String> entities = new HashSet<>();
+		FSIterator<org.apache.uima.jcas.tcas.Annotation> entityIter = myCAS.getAnnotationIndex(OntClassMention.type)
+				.iterator();
+		while (entityIter.hasNext()) {
+			OntClassMention e = (OntClassMention) entityIter.next();
+			entities.add(e.getBegin() + "-" + e.getEnd() + ":" + e.getSpecificType());
+		}
+		return entities;
+	}
+
 }
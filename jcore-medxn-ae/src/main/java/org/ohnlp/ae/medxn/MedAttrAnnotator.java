@@ -31,13 +31,10 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.*;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 
@@ -58,16 +55,22 @@ public class MedAttrAnnotator extends JCasAnnotator_ImplBase {
 		int end;
 	}
 	
-	private Map< String, List<String> > regExPat;
+	private List<MedXNRuleSet.Rule> rules;
 	private Boolean multAnno = false;
 	
 	public void initialize(UimaContext uimaContext) throws ResourceInitializationException {
 		super.initialize(uimaContext);
-		regExPat = new HashMap< String, List<String> >();
+		rules = Collections.emptyList();
 		
 		try {
-			InputStream in = getContext().getResourceAsStream(REGEX_FILE);
-			regExPat = getRegEx(in);
+			// the rules are compiled once and shared if the resource is bound to the MedXNRuleSet implementation
+			Object ruleSet = getContext().getResourceObject(REGEX_FILE);
+			if (ruleSet instanceof MedXNRuleSet) {
+				rules = ((MedXNRuleSet) ruleSet).getRules();
+			} else {
+				InputStream in = getContext().getResourceAsStream(REGEX_FILE);
+				rules = MedXNRuleSet.compile(getRegEx(in));
+			}
 		} catch (ResourceAccessException e) {
 			e.printStackTrace();
 		}
@@ -101,30 +104,21 @@ public class MedAttrAnnotator extends JCasAnnotator_ImplBase {
 	protected List<Attribute> getAttribute2(String text) {
 		List<Attribute> ret = new ArrayList<Attribute>();
 			
-		for(String tag : regExPat.keySet()) {
-			int gnum = 0; //group number in regex
-			String aTag = tag;
-			if(tag.contains("%")) {
-				String [] toks = tag.split("%");
-				aTag = toks[0];
-				gnum = Integer.parseInt(toks[1]);
-			}
-			for(String regex : regExPat.get(tag)) {
-				Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
-				Matcher m = p.matcher(text);
-				while(m.find()) {
-					Attribute attr = new Attribute();
-					attr.tag = aTag; //w/o group number
-					String tText = m.group(gnum);
-					if (tText.length() == 0) continue;
-					boolean hasEndSpace = Character.isWhitespace(tText.charAt(tText.length() - 1));
-					if (hasEndSpace) tText = tText.substring(0, tText.length()-1);
-					attr.text = tText;
-					attr.begin = m.start(gnum);
-					attr.end = m.end(gnum);
-					if (hasEndSpace) attr.end -= 1;
-					ret.add(attr);
-				}
+		for(MedXNRuleSet.Rule rule : rules) {
+			int gnum = rule.getGroup(); //group number in regex
+			Matcher m = rule.getPattern().matcher(text);
+			while(m.find()) {
+				Attribute attr = new Attribute();
+				attr.tag = rule.getTag(); //w/o group number
+				String tText = m.group(gnum);
+				if (tText.length() == 0) continue;
+				boolean hasEndSpace = Character.isWhitespace(tText.charAt(tText.length() - 1));
+				if (hasEndSpace) tText = tText.substring(0, tText.length()-1);
+				attr.text = tText;
+				attr.begin = m.start(gnum);
+				attr.end = m.end(gnum);
+				if (hasEndSpace) attr.end -= 1;
+				ret.add(attr);
 			}
 		}
 		return ret;
@@ -151,24 +145,65 @@ public class MedAttrAnnotator extends JCasAnnotator_ImplBase {
 		//if one is subsumed by another, use a longer one 
 		//(CAUSION: duplicated instances will be removed all)
 		//duplicates must be removed before this step
-		boolean isOverlap;
+		Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();
 		for(int i=0; i<tmp.size(); i++) {
-			isOverlap = false;
-			for(int j=0; j<tmp.size(); j++) {
-				if(i==j) continue; 
-				if( (multAnno ? (tmp.get(i).tag.equals(tmp.get(j).tag)) : true) &&
-						tmp.get(i).begin>=tmp.get(j).begin &&
-						tmp.get(i).end<=tmp.get(j).end) {
-					isOverlap = true;
-					break;
-				}				
+			String group = multAnno ? tmp.get(i).tag : "";
+			List<Integer> members = groups.get(group);
+			if(members==null) {
+				members = new ArrayList<Integer>();
+				groups.put(group, members);
 			}
-			if(!isOverlap) ret.add(tmp.get(i));
+			members.add(i);
+		}
+		boolean[] isOverlap = new boolean[tmp.size()];
+		for(List<Integer> members : groups.values())
+			markSubsumed(tmp, members, isOverlap);
+		for(int i=0; i<tmp.size(); i++) {
+			if(!isOverlap[i]) ret.add(tmp.get(i));
 		}
 		
 		return ret;
 	}
 	
+	/**
+	 * Marks each of the given attributes that is subsumed by another one of them. The attributes are sorted by
+	 * their begin offsets; an attribute is subsumed if the largest end offset of all other attributes that begin
+	 * at or before it reaches its own end.
+	 * @param attr List of Attribute class
+	 * @param members indices of the attributes to compare with each other
+	 * @param isOverlap receives the subsumption flags at the attribute indices
+	 */
+	private void markSubsumed(List<Attribute> attr, List<Integer> members, boolean[] isOverlap) {
+		members.sort(Comparator.comparingInt(i -> attr.get(i).begin));
+		// the largest and second largest end offset seen so far, together with the index of the largest
+		int maxEnd = Integer.MIN_VALUE;
+		int maxEndIndex = -1;
+		int secondMaxEnd = Integer.MIN_VALUE;
+		int groupStart = 0;
+		while(groupStart < members.size()) {
+			int begin = attr.get(members.get(groupStart)).begin;
+			int groupEnd = groupStart;
+			while(groupEnd < members.size() && attr.get(members.get(groupEnd)).begin == begin) {
+				int i = members.get(groupEnd);
+				int end = attr.get(i).end;
+				if(end > maxEnd) {
+					secondMaxEnd = maxEnd;
+					maxEnd = end;
+					maxEndIndex = i;
+				} else if(end > secondMaxEnd) {
+					secondMaxEnd = end;
+				}
+				groupEnd++;
+			}
+			for(int k=groupStart; k<groupEnd; k++) {
+				int i = members.get(k);
+				int otherMaxEnd = i == maxEndIndex ? secondMaxEnd : maxEnd;
+				isOverlap[i] = otherMaxEnd >= attr.get(i).end;
+			}
+			groupStart = groupEnd;
+		}
+	}
+	
 	/**
 	 * Return regular expression patterns for med attributes
 	 * @param input file name of the regEx file
@@ -177,46 +212,10 @@ public class MedAttrAnnotator extends JCasAnnotator_ImplBase {
 	protected Map< String, List<String> > getRegEx(InputStream input) {
 		//key:tag, val:List of regular expression patterns
 		Map< String, List<String> > regexMap = new HashMap< String, List<String> >();
-		if(input!=null) {
-			try {
-				BufferedReader fin = new BufferedReader(new InputStreamReader(input));
-				String line = "";
-				List<String> regexList; //regular expression patterns for attributes
-				Map<String,String> varMap = new HashMap<String,String>();
-				while((line = fin.readLine())!= null) {
-					if( line.startsWith("#") 
-							|| line.length()==0 
-							|| Character.isWhitespace(line.charAt(0)) ) 
-						continue;		
-					
-					//get variable definitions (MUST BE before regEx patterns in the file) 
-					//eg) @STRENGTH_UNIT::mg/dl|mg/ml|g/l|milligrams
-					if(line.startsWith("@")) {
-						String [] toks = line.split("::");
-						String var = toks[0].trim();
-						String val = toks[1].trim();
-						varMap.put(var, val);
-					}
-					//get regEx patterns
-					//eg) strength::\b(@DECIMAL_NUM/)?(@DECIMAL_NUM)(\s|-)?(@STRENGTH_UNIT)\b
-					else {					
-						String [] strs = line.split("::");
-						String tag = strs[0].trim();
-						String patStr = strs[1].trim();
-
-						for(String s : varMap.keySet()) {
-							patStr = patStr.replaceAll(s,varMap.get(s));
-						}
-
-						regexList = regexMap.get(tag);
-						if(regexList==null) regexList = new ArrayList<String>();
-						regexList.add(patStr);
-						regexMap.put(tag, regexList);
-					}
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+		try {
+			regexMap = MedXNRuleSet.readRegEx(input);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 		
 		return regexMap;
@@ -32,6 +32,7 @@ import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -40,6 +41,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.regex.Pattern;
 
 //import de.julielab.jcore.types.ohnlp.ConceptMention;
 //import de.julielab.jcore.types.ohnlp.Drug;
@@ -54,6 +56,7 @@ import java.util.*;
 public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 	public final static int SENT_WINDOW_SPAN = 3;
 	public final static int SENT_WINDOW_SPAN_DUR = 1;
+	private final static Pattern NON_WORD = Pattern.compile("\\W");
 	
 	class MedDesc {
 //		ConceptMention med;
@@ -155,6 +158,22 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 		Integer attr_id = 1;
 		int prevDrugEnd = 0;
 		Map<GeneralAttributeMention, Boolean> usedAttributes = new HashMap<GeneralAttributeMention, Boolean>();
+		
+		//offset indexes of the attributes and sentences sorted by their begin offsets, 
+		//each drug only looks up the attributes and sentences in its window
+		List<GeneralAttributeMention> attrList = new ArrayList<GeneralAttributeMention>();
+		List<GeneralAttributeMention> durList = new ArrayList<GeneralAttributeMention>();
+		Iterator<?> gamItr = indexes.getAnnotationIndex(GeneralAttributeMention.type).iterator();
+		while(gamItr.hasNext()) {
+			GeneralAttributeMention gam = (GeneralAttributeMention) gamItr.next();
+			// duration uses a smaller window
+			if (gam.getTag().equals("duration")) durList.add(gam);
+			else attrList.add(gam);
+		}
+		OffsetIndex<GeneralAttributeMention> attrIndex = new OffsetIndex<GeneralAttributeMention>(attrList);
+		OffsetIndex<GeneralAttributeMention> durIndex = new OffsetIndex<GeneralAttributeMention>(durList);
+		OffsetIndex<Sentence> sentenceIndex = getSentenceIndex(jcas);
+		
 		for(int i=0; i<drugs.size(); i++) {
 //			MedDesc md = new MedDesc();
 //			md.med = drugs.get(i);
@@ -169,41 +188,22 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 				nextDrug = drugs.get(i+1);
 				nextDrugBegin = nextDrug.getBegin();
 			}
-			int[] span = setWindow(jcas, actMed, nextDrugBegin, prevDrugEnd, SENT_WINDOW_SPAN);
+			int[] span = setWindow(sentenceIndex, actMed, nextDrugBegin, prevDrugEnd, SENT_WINDOW_SPAN);
 			prevDrugEnd = actMed.getEnd();
 			
-			Iterator<?> gamItr = indexes.getAnnotationIndex(GeneralAttributeMention.type).iterator();
-			GeneralAttributeMention beforeMedAttr = null; //attribute right before medication
 			Map<String, ArrayList<GeneralAttributeMention>> attrMap = new HashMap<String, ArrayList<GeneralAttributeMention>>();
-			List<GeneralAttributeMention> durList = new ArrayList<GeneralAttributeMention>();
 			
-			int cnt=0;
-			while(gamItr.hasNext()) {
-				GeneralAttributeMention gam = (GeneralAttributeMention) gamItr.next();
-				if (gam.getTag().equals("duration")) {
-					// adds duration and skips setup for now to use smaller window for duration.
-					durList.add(gam);
-					continue;
-				}
-				if(gam.getBegin()>=span[0] && gam.getEnd()<=span[1]) {
+			for(int j=attrIndex.firstBeginAtOrAfter(span[0]); j<attrIndex.size() && attrIndex.getBegin(j)<=span[1]; j++) {
+				GeneralAttributeMention gam = attrIndex.get(j);
+				if(gam.getEnd()<=span[1]) 
 					assignAttribute(gam, attrMap, usedAttributes);
-//					md.attrs.add(ma);
-					cnt++;
-				}
-				if(cnt==0) { 
-					beforeMedAttr = gam;
-				}
 			}
 			
-			span = setWindow(jcas, actMed, nextDrugBegin, prevDrugEnd, SENT_WINDOW_SPAN_DUR);
-			for (GeneralAttributeMention dur : durList) {
-				if(dur.getBegin()>=span[0] && dur.getEnd()<=span[1]) {
+			span = setWindow(sentenceIndex, actMed, nextDrugBegin, prevDrugEnd, SENT_WINDOW_SPAN_DUR);
+			for(int j=durIndex.firstBeginAtOrAfter(span[0]); j<durIndex.size() && durIndex.getBegin(j)<=span[1]; j++) {
+				GeneralAttributeMention dur = durIndex.get(j);
+				if(dur.getEnd()<=span[1]) 
 					assignAttribute(dur, attrMap, usedAttributes);
-					cnt++;
-				}
-				if(cnt==0) { 
-					beforeMedAttr = dur;
-				}
 			}
 			
 			//remove time or volume that might belong to next drug
@@ -369,11 +369,17 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 	 * @return
 	 */
 	protected int[] setWindow(JCas jcas, Medication drug, int nextDrugBegin, int prevDrugEnd, int windowSpan) {
-		JFSIndexRepository indexes = jcas.getJFSIndexRepository();
-		Iterator<?> senItr= indexes.getAnnotationIndex(Sentence.type).iterator();		
+		return setWindow(getSentenceIndex(jcas), drug, nextDrugBegin, prevDrugEnd, windowSpan);
+	}
+	
+	/**
+	 * Same as {@link #setWindow(JCas, Medication, int, int, int)} but looks up the sentences in the
+	 * given offset index of the document sentences.
+	 */
+	protected int[] setWindow(OffsetIndex<Sentence> sentences, Medication drug, int nextDrugBegin, int prevDrugEnd, int windowSpan) {
 //		String[] str = drug.getSentence().split("::");
 //		Sentence drugsen=(Sentence) drug.getSentence();
-		Sentence drugsen = (Sentence) JCoReAnnotationTools.getIncludingAnnotation(jcas, drug, Sentence.class);
+		Sentence drugsen = sentences.getIncluding(drug);
 		int drugSenBegin = drugsen.getBegin();  
 		int drugSenEnd = drugsen.getEnd();
 		
@@ -383,21 +389,11 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 		ret[0] = drugSenBegin; // drug.getBegin();
 		ret[1] = drugSenEnd;
 
-		int InstructionBegin = -1;
-		int IndicationBegin = -1;
-		int cnt=0;
-		while(senItr.hasNext() && cnt < windowSpan) {
-			Sentence sen = (Sentence) senItr.next();
-			if(sen.getBegin()>drug.getEnd()) {
-				cnt++;
-				ret[1] = sen.getEnd();
-				//TODO: to german
-				if(sen.getCoveredText().startsWith("Instruction"))
-					InstructionBegin = sen.getBegin();
-				else if(sen.getCoveredText().startsWith("Indication"))
-					IndicationBegin = sen.getBegin();
-			}				
-		}
+		//the window ends with the last of the next windowSpan sentences after the drug
+		//TODO: to german - check for sentences starting with "Instruction" or "Indication"
+		int next = sentences.firstBeginAtOrAfter(drug.getEnd() + 1);
+		if(next < sentences.size()) 
+			ret[1] = sentences.get(Math.min(next + windowSpan, sentences.size()) - 1).getEnd();
 		
 		ret[0] = ret[0]<prevDrugEnd ? prevDrugEnd : ret[0];
 		ret[1] = ret[1]>nextDrugBegin ? nextDrugBegin : ret[1];
@@ -438,7 +434,7 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 	 * @return true if potentially false medication
 	 */
 	protected boolean isFalseMed1(String med) {		
-		if(bogusMed.contains(med.toLowerCase().replaceAll("\\W", " "))) {
+		if(bogusMed.contains(NON_WORD.matcher(med.toLowerCase()).replaceAll(" "))) {
 			//starts with a lower case
 			if(Character.isLowerCase(med.charAt(0))) 
 				return true;			
@@ -468,6 +464,78 @@ public class MedExtAnnotator extends JCasAnnotator_ImplBase {
 //		return false;
 //	}
 
+	private OffsetIndex<Sentence> getSentenceIndex(JCas jcas) {
+		List<Sentence> sentences = new ArrayList<Sentence>();
+		Iterator<?> senItr = jcas.getJFSIndexRepository().getAnnotationIndex(Sentence.type).iterator();
+		while(senItr.hasNext())
+			sentences.add((Sentence) senItr.next());
+		return new OffsetIndex<Sentence>(sentences);
+	}
+	
+	/**
+	 * Annotations in index order, i.e. sorted by their begin offsets, with binary search over the offsets.
+	 */
+	protected static class OffsetIndex<T extends Annotation> {
+		private final List<T> annotations;
+		private final int[] begins;
+		/** maxEnds[i] is the largest end offset of the annotations 0 to i */
+		private final int[] maxEnds;
+		
+		OffsetIndex(List<T> annotations) {
+			this.annotations = annotations;
+			begins = new int[annotations.size()];
+			maxEnds = new int[annotations.size()];
+			for(int i=0; i<annotations.size(); i++) {
+				begins[i] = annotations.get(i).getBegin();
+				maxEnds[i] = Math.max(annotations.get(i).getEnd(), i > 0 ? maxEnds[i-1] : Integer.MIN_VALUE);
+			}
+		}
+		
+		int size() {
+			return begins.length;
+		}
+		
+		T get(int i) {
+			return annotations.get(i);
+		}
+		
+		int getBegin(int i) {
+			return begins[i];
+		}
+		
+		/**
+		 * @return the position of the first annotation that begins at or after the given offset 
+		 * or the size of the index if there is none
+		 */
+		int firstBeginAtOrAfter(int offset) {
+			return lowerBound(begins, offset);
+		}
+		
+		/**
+		 * Returns the annotation that includes the given one as 
+		 * {@link JCoReAnnotationTools#getIncludingAnnotation(JCas, Annotation, Class)} does:
+		 * the first annotation in index order that ends at or after the given annotation, 
+		 * if it also includes it; null otherwise.
+		 */
+		T getIncluding(Annotation focus) {
+			int i = lowerBound(maxEnds, focus.getEnd());
+			if(i < size() && begins[i] <= focus.getBegin())
+				return annotations.get(i);
+			return null;
+		}
+		
+		private static int lowerBound(int[] values, int key) {
+			int low = 0;
+			int high = values.length;
+			while(low < high) {
+				int mid = (low + high) >>> 1;
+				if(values[mid] < key) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+	}
+	
 	/**
 	 * Returns 1 if 1 contains or equal to 2
 	 * Returns 2 if 2 contains or equal to 1
@@ -31,6 +31,7 @@ import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
 
 import java.util.Iterator;
+import java.util.regex.Pattern;
 
 //import de.julielab.jcore.types.ohnlp.ConceptMention;
 //import de.julielab.jcore.types.ohnlp.Drug;
@@ -42,6 +43,14 @@ import java.util.Iterator;
  * @author Sunghwan Sohn
  */
 public class MedNormAnnotator extends JCasAnnotator_ImplBase {	
+	//the normalization patterns are compiled once instead of for each drug
+	private final static Pattern PERIOD = Pattern.compile("\\.");
+	private final static Pattern TABS = Pattern.compile("tabs");
+	private final static Pattern CAPS = Pattern.compile("caps");
+	private final static Pattern NUMBER = Pattern.compile("(\\d+,)?\\d+(\\.\\d+)?");
+	private final static Pattern HYPHEN = Pattern.compile("-");
+	private final static Pattern MULTI_SPACE = Pattern.compile("\\s{2,}");
+	
 	public void process(JCas jcas) throws AnalysisEngineProcessException {
 		JFSIndexRepository indexes = jcas.getJFSIndexRepository();
 		Iterator<?> drugItr= indexes.getAnnotationIndex(Medication.type).iterator(); //all drugs		
@@ -94,7 +103,7 @@ public class MedNormAnnotator extends JCasAnnotator_ImplBase {
 					doseForm.toLowerCase().startsWith("cap")) &&
 					(route.toLowerCase().equals("mouth") ||
 							route.toLowerCase().equals("oral") ||
-							route.toLowerCase().replaceAll("\\.","").equals("po")) ) {
+							PERIOD.matcher(route.toLowerCase()).replaceAll("").equals("po")) ) {
 				doseForm = "oral " + doseForm;
 			}
 			
@@ -102,11 +111,11 @@ public class MedNormAnnotator extends JCasAnnotator_ImplBase {
 			if(doseForm.toLowerCase().endsWith("tab"))
 				doseForm += "let";
 			else if(doseForm.toLowerCase().endsWith("tabs"))
-				doseForm = doseForm.replaceAll("tabs", "tablet"); 
+				doseForm = TABS.matcher(doseForm).replaceAll("tablet"); 
 			else if(doseForm.toLowerCase().endsWith("cap"))
 				doseForm += "sule";	
 			else if(doseForm.toLowerCase().endsWith("caps")) 
-				doseForm = doseForm.replaceAll("caps", "capsule");
+				doseForm = CAPS.matcher(doseForm).replaceAll("capsule");
 		}
 		
 		//normalize to RxNorm format		
@@ -139,8 +148,7 @@ public class MedNormAnnotator extends JCasAnnotator_ImplBase {
 		String normDrug="";
 		if(isMerged) {
 			normDrug = in + "<"+inRxType+">"
-				+ strength.replaceAll("(\\d+,)?\\d+(\\.\\d+)?", "$0 ")
-					.replaceAll("-", "") + "<st>"
+				+ HYPHEN.matcher(NUMBER.matcher(strength).replaceAll("$0 ")).replaceAll("") + "<st>"
 				+ doseForm + "<df>"
 				+ bn + "<bn>";
 		}
@@ -158,7 +166,7 @@ public class MedNormAnnotator extends JCasAnnotator_ImplBase {
 //				+ doseForm + "<df>";
 //		}
 		
-		normDrug = normDrug.toLowerCase().replaceAll("\\s{2,}", " ");
+		normDrug = MULTI_SPACE.matcher(normDrug.toLowerCase()).replaceAll(" ");
 		
 		return normDrug;		
 	}
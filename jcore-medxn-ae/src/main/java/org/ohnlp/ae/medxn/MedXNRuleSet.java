@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+package org.ohnlp.ae.medxn;
+
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The MedXN attribute rules of a regExPatterns file, compiled a single time into an immutable list of
+ * {@link Pattern}s. When bound as the implementation of the <tt>regExPatterns</tt> resource, all
+ * {@link MedAttrAnnotator} instances of a pipeline share one rule set instead of compiling each rule for each
+ * document.
+ */
+public class MedXNRuleSet implements SharedResourceObject {
+
+	/**
+	 * A single compiled rule: the attribute tag, the regex group that makes up the attribute and the pattern.
+	 */
+	public static class Rule {
+		private final String tag;
+		private final int group;
+		private final Pattern pattern;
+
+		Rule(String tag, int group, Pattern pattern) {
+			this.tag = tag;
+			this.group = group;
+			this.pattern = pattern;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+		public int getGroup() {
+			return group;
+		}
+
+		public Pattern getPattern() {
+			return pattern;
+		}
+	}
+
+	private List<Rule> rules = Collections.emptyList();
+
+	@Override
+	public void load(DataResource aData) throws ResourceInitializationException {
+		try (InputStream in = aData.getInputStream()) {
+			rules = compile(readRegEx(in));
+		} catch (IOException e) {
+			throw new ResourceInitializationException(e);
+		}
+	}
+
+	/**
+	 * @return the compiled rules in the order in which they are applied
+	 */
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Compiles the rules of the given map from (possibly group numbered) tags to regular expressions. The rules are
+	 * ordered by the iteration order of the map and the order of the expressions of each tag.
+	 * @param regexMap Map of attribute regular expression (key:tag, val:List of regular expression patterns)
+	 * @return the immutable list of compiled rules
+	 */
+	public static List<Rule> compile(Map<String, List<String>> regexMap) {
+		List<Rule> rules = new ArrayList<Rule>();
+		for (String tag : regexMap.keySet()) {
+			int gnum = 0; //group number in regex
+			String aTag = tag;
+			if (tag.contains("%")) {
+				String[] toks = tag.split("%");
+				aTag = toks[0];
+				gnum = Integer.parseInt(toks[1]);
+			}
+			for (String regex : regexMap.get(tag))
+				rules.add(new Rule(aTag, gnum, Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS)));
+		}
+		return Collections.unmodifiableList(rules);
+	}
+
+	/**
+	 * Return regular expression patterns for med attributes
+	 * @param input the regEx file contents
+	 * @return Map of attribute regular expression (key:tag, val:List of regular expression patterns)
+	 */
+	public static Map<String, List<String>> readRegEx(InputStream input) throws IOException {
+		//key:tag, val:List of regular expression patterns
+		Map<String, List<String>> regexMap = new HashMap<String, List<String>>();
+		if (input == null)
+			return regexMap;
+		BufferedReader fin = new BufferedReader(new InputStreamReader(input));
+		String line = "";
+		List<String> regexList; //regular expression patterns for attributes
+		Map<String, String> varMap = new HashMap<String, String>();
+		while ((line = fin.readLine()) != null) {
+			if (line.startsWith("#")
+					|| line.length() == 0
+					|| Character.isWhitespace(line.charAt(0)))
+				continue;
+
+			//get variable definitions (MUST BE before regEx patterns in the file)
+			//eg) @STRENGTH_UNIT::mg/dl|mg/ml|g/l|milligrams
+			if (line.startsWith("@")) {
+				String[] toks = line.split("::");
+				String var = toks[0].trim();
+				String val = toks[1].trim();
+				varMap.put(var, val);
+			}
+			//get regEx patterns
+			//eg) strength::\b(@DECIMAL_NUM/)?(@DECIMAL_NUM)(\s|-)?(@STRENGTH_UNIT)\b
+			else {
+				String[] strs = line.split("::");
+				String tag = strs[0].trim();
+				String patStr = strs[1].trim();
+
+				for (String s : varMap.keySet()) {
+					patStr = patStr.replaceAll(s, varMap.get(s));
+				}
+
+				regexList = regexMap.get(tag);
+				if (regexList == null) regexList = new ArrayList<String>();
+				regexList.add(patStr);
+				regexMap.put(tag, regexList);
+			}
+		}
+		return regexMap;
+	}
+}
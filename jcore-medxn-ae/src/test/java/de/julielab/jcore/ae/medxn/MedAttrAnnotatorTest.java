@@ -13,22 +13,29 @@ package de.julielab.jcore.ae.medxn;
 import de.julielab.jcore.types.medical.GeneralAttributeMention;
 import org.apache.commons.io.FileUtils;
 import org.apache.uima.UIMAException;
+import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceManager;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.ohnlp.ae.medxn.MedAttrAnnotator;
+import org.ohnlp.ae.medxn.MedXNRuleSet;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class MedAttrAnnotatorTest {
@@ -181,4 +188,30 @@ public class MedAttrAnnotatorTest {
 				e.printStackTrace();
 			}
 	}
+	
+	@Test
+	public void testSharedRuleSet() throws Exception {
+		AnalysisEngineDescription desc = AnalysisEngineFactory.createEngineDescription(AE_DESCRIPTOR);
+		ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		AnalysisEngine engine1 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		AnalysisEngine engine2 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		Object ruleSet = engine1.getUimaContext().getResourceObject(MedAttrAnnotator.REGEX_FILE);
+		Assert.assertTrue(ruleSet instanceof MedXNRuleSet);
+		Assert.assertFalse(((MedXNRuleSet) ruleSet).getRules().isEmpty());
+		Assert.assertSame(ruleSet, engine2.getUimaContext().getResourceObject(MedAttrAnnotator.REGEX_FILE));
+
+		String text = loadTestExpression(TEST_FILES_ROOT + "dose");
+		List<List<String>> attributes = new ArrayList<>();
+		for (AnalysisEngine engine : Arrays.asList(engine1, engine2)) {
+			JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+			jcas.setDocumentText(text);
+			engine.process(jcas);
+			List<String> found = new ArrayList<>();
+			for (GeneralAttributeMention gam : JCasUtil.select(jcas, GeneralAttributeMention.class))
+				found.add(gam.getBegin() + "-" + gam.getEnd() + ":" + gam.getTag());
+			attributes.add(found);
+		}
+		Assert.assertFalse(attributes.get(0).isEmpty());
+		Assert.assertEquals(attributes.get(0), attributes.get(1));
+	}
 }
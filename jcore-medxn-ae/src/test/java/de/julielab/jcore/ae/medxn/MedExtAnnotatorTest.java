@@ -0,0 +1,93 @@
+/**
+ *
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ *
+ **/
+package de.julielab.jcore.ae.medxn;
+
+import de.julielab.jcore.types.EventMention;
+import de.julielab.jcore.types.Sentence;
+import de.julielab.jcore.types.medical.Medication;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSArray;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MedExtAnnotatorTest {
+
+	private static final String ATTR_DESCRIPTOR = "de.julielab.jcore.ae.medxn.desc.jcore-medxn-ae-attributes-german";
+	private static final String EXT_DESCRIPTOR = "de.julielab.jcore.ae.medxn.desc.jcore-medxn-ae-extractor-german";
+
+	@Test
+	public void testAssignAttributes() throws Exception {
+		AnalysisEngine attrExtractor = AnalysisEngineFactory.createEngine(ATTR_DESCRIPTOR);
+		AnalysisEngine medExtractor = AnalysisEngineFactory.createEngine(EXT_DESCRIPTOR);
+		JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		String[] sentences = {
+				"Aspirin 100 mg oral 1 x tgl. für 10 Tage.",
+				"Zusätzlich Ramipril 5 mg morgens und abends seit 06/2009 bis 2/2010.",
+				"Metformin 500 mg und Insulin 10 I.E. subkutan.",
+				"Die Gabe erfolgte bei Bedarf.",
+				"Keine weiteren Angaben.",
+				"Heparin i.v. über insgesamt 3 tage und Ibuprofen 400 mg 3 x täglich nach 4 w beendet.",
+				"Ibuprofen 400 mg alle 3 Monate." };
+		String[] medications = { "Aspirin", "Ramipril", "Metformin", "Insulin", "Heparin", "Ibuprofen" };
+		StringBuilder sb = new StringBuilder();
+		for (String sentence : sentences) {
+			Sentence s = new Sentence(jcas, sb.length(), sb.length() + sentence.length());
+			s.addToIndexes();
+			sb.append(sentence).append(' ');
+		}
+		String text = sb.toString();
+		jcas.setDocumentText(text);
+		for (String medication : medications) {
+			int index = -1;
+			while ((index = text.indexOf(medication, index + 1)) >= 0)
+				new Medication(jcas, index, index + medication.length()).addToIndexes();
+		}
+		attrExtractor.process(jcas);
+		medExtractor.process(jcas);
+
+		StringBuilder actual = new StringBuilder();
+		for (Medication medication : JCasUtil.select(jcas, Medication.class)) {
+			actual.append(medication.getId()).append(' ').append(medication.getCoveredText());
+			append(actual, "dose", medication.getDose());
+			append(actual, "modus", medication.getModus());
+			append(actual, "frequency", medication.getFrequency());
+			append(actual, "duration", medication.getDuration());
+			actual.append('\n');
+		}
+		assertEquals(EXPECTED, actual.toString());
+	}
+
+	private void append(StringBuilder sb, String name, FSArray attributes) {
+		if (attributes == null)
+			return;
+		sb.append(" ").append(name).append("=[");
+		for (int i = 0; i < attributes.size(); i++) {
+			EventMention a = (EventMention) attributes.get(i);
+			if (i > 0)
+				sb.append("|");
+			sb.append(a.getId()).append(":").append(a.getCoveredText());
+		}
+		sb.append("]");
+	}
+
+	/**
+	 * The expected assignment of the German attribute rules to the test medications.
+	 */
+	private static final String EXPECTED = "T1 Aspirin dose=[T12:100 mg] modus=[T13:oral] frequency=[T14:1 x] duration=[T11:10 Tage]\n"
+			+ "T2 Ramipril dose=[T26:5 mg] duration=[T25:seit 06/2009 bis 2/2010]\n"
+			+ "T3 Metformin dose=[T37:500 mg]\n"
+			+ "T4 Insulin dose=[T48:10 I.E.] modus=[T49:subkutan]\n"
+			+ "T5 Heparin modus=[T511:i.v.] duration=[T510:3 tage]\n"
+			+ "T6 Ibuprofen dose=[T614:400 mg] frequency=[T615:3 x] duration=[T612:nach 4 w|T613:beendet]\n"
+			+ "T7 Ibuprofen dose=[T717:400 mg] duration=[T716:3 Monate]\n";
+}
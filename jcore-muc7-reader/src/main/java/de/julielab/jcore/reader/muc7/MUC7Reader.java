@@ -31,15 +31,23 @@ import org.apache.uima.util.Level;
 import org.apache.uima.util.Logger;
 import org.apache.uima.util.Progress;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 public class MUC7Reader extends CollectionReader_ImplBase {
@@ -154,6 +162,30 @@ public class MUC7Reader extends CollectionReader_ImplBase {
 	 * files.
 	 */
 	public static final String PARAM_INPUTDIR = "InputDirectory";
+	/**
+	 * Name of the optional configuration parameter that switches to streaming mode. In streaming mode, the input
+	 * files are not parsed into DOM trees as a whole. Instead, only the document IDs are collected in advance and
+	 * the documents are read one at a time when they are requested. The documents are then returned in the order
+	 * in which they first appear in the input files.
+	 */
+	public static final String PARAM_STREAMING = "Streaming";
+	/**
+	 * Whether the reader is in streaming mode
+	 */
+	private boolean streaming;
+	/**
+	 * In streaming mode: for each document ID the input file indices and the positions of the respective DOC
+	 * elements within these files
+	 */
+	private LinkedHashMap<String, List<int[]>> docIDLocationHash;
+	/**
+	 * In streaming mode: one open reader per input file, positioned behind the last DOC element read from it
+	 */
+	private DocCursor[] docCursors;
+	/**
+	 * In streaming mode: the factory for the StAX readers of the input files
+	 */
+	private XMLInputFactory inputFactory;
 
 	private HashMap<String, ArrayList<Node>> buildDocIDDocNodeHash(List<File> files) {
 		HashMap<String, ArrayList<Node>> docIDDocNodeHash = new HashMap<String, ArrayList<Node>>();
@@ -187,6 +219,157 @@ public class MUC7Reader extends CollectionReader_ImplBase {
 		return docIDDocNodeHash;
 	}
 
+	/**
+	 * Streams through the given files and collects the ID of each document together with the index of the file and
+	 * the position of the DOC element within the file. Only the document IDs are kept in memory.
+	 * 
+	 * @param files
+	 *            (the input files)
+	 * @return the locations of the DOC elements of each document ID, in the order of their first occurrence
+	 */
+	private LinkedHashMap<String, List<int[]>> buildDocIDLocationHash(List<File> files) throws IOException,
+					XMLStreamException {
+		LinkedHashMap<String, List<int[]>> docIDLocationHash = new LinkedHashMap<String, List<int[]>>();
+		for (int fileIndex = 0; fileIndex < files.size(); fileIndex++) {
+			File file = files.get(fileIndex);
+			logger.log(Level.INFO, "buildDocIDLocationHash() -- Indexing file " + file.getName());
+			try (InputStream is = new FileInputStream(file)) {
+				XMLStreamReader reader = inputFactory.createXMLStreamReader(file.toURI().toString(), is);
+				int docPosition = -1;
+				boolean docIDFound = true;
+				StringBuilder docID = null;
+				while (reader.hasNext()) {
+					int event = reader.next();
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						if (reader.getLocalName().equals(ELEMENT_DOCS)) {
+							docPosition++;
+							docIDFound = false;
+						} else if (!docIDFound && reader.getLocalName().equals(ELEMENT_DOCID)) {
+							docID = new StringBuilder();
+						}
+					} else if (docID != null && (event == XMLStreamConstants.CHARACTERS
+									|| event == XMLStreamConstants.SPACE)) {
+						docID.append(reader.getText());
+					} else if (docID != null && event == XMLStreamConstants.END_ELEMENT
+									&& reader.getLocalName().equals(ELEMENT_DOCID)) {
+						// like getChildrenNodes(), ignore DOCID elements without text
+						if (docID.length() > 0) {
+							List<int[]> locations = docIDLocationHash.get(docID.toString());
+							if (locations == null) {
+								locations = new ArrayList<int[]>();
+								docIDLocationHash.put(docID.toString(), locations);
+							}
+							locations.add(new int[] { fileIndex, docPosition });
+							docIDFound = true;
+						}
+						docID = null;
+					}
+				}
+				reader.close();
+			}
+		}
+		return docIDLocationHash;
+	}
+
+	/**
+	 * Reads the element at the current START_ELEMENT position of the reader together with all its descendants into
+	 * a DOM element of the given document. Afterwards, the reader is positioned at the END_ELEMENT of the element.
+	 * 
+	 * @param reader
+	 *            (the reader positioned at the element)
+	 * @param document
+	 *            (the document that creates the nodes)
+	 * @return the DOM element
+	 */
+	private Element readElement(XMLStreamReader reader, Document document) throws XMLStreamException {
+		Element element = createElement(reader, document);
+		Node current = element;
+		while (current != null) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				current = current.appendChild(createElement(reader, document));
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				current = current.getParentNode();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				Node last = current.getLastChild();
+				if (last instanceof Text) {
+					((Text) last).appendData(reader.getText());
+				} else {
+					current.appendChild(document.createTextNode(reader.getText()));
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return element;
+	}
+
+	private Element createElement(XMLStreamReader reader, Document document) {
+		Element element = document.createElement(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	/**
+	 * A StAX reader on an input file that reads the DOC elements of the file one at a time. As long as the
+	 * documents are requested in file order, each file is read only once.
+	 */
+	private class DocCursor {
+		private final File file;
+		private InputStream is;
+		private XMLStreamReader reader;
+		/**
+		 * the position of the last DOC element read
+		 */
+		private int position;
+
+		private DocCursor(File file) {
+			this.file = file;
+		}
+
+		private Node read(int docPosition) throws IOException, XMLStreamException {
+			if (reader == null || docPosition <= position) {
+				close();
+				is = new FileInputStream(file);
+				reader = inputFactory.createXMLStreamReader(file.toURI().toString(), is);
+				position = -1;
+			}
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals(ELEMENT_DOCS)) {
+					position++;
+					if (position == docPosition) {
+						return readElement(reader, builder.newDocument());
+					}
+				}
+			}
+			throw new IllegalStateException("The file " + file + " does not have a " + ELEMENT_DOCS
+							+ " element at position " + docPosition + ".");
+		}
+
+		private void close() throws IOException {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+			} catch (XMLStreamException e) {
+				throw new IOException(e);
+			} finally {
+				reader = null;
+				if (is != null) {
+					is.close();
+				}
+				is = null;
+			}
+		}
+	}
+
 	/**
 	 * the text to be processed (to be stored as document text in the CAS)
 	 * 
@@ -973,17 +1156,49 @@ public class MUC7Reader extends CollectionReader_ImplBase {
 		} catch (ParserConfigurationException e) {
 			logger.log(Level.SEVERE, "initialize() " + e.getMessage());
 		}
+		Boolean streamingParameter = (Boolean) getConfigParameterValue(PARAM_STREAMING);
+		streaming = streamingParameter != null && streamingParameter;
 		files = getFilesFromInputDirectory();
 		if (files != null && files.size() > 0) {
-			docIDDocNodeHash = buildDocIDDocNodeHash(files);
-			keyIter = docIDDocNodeHash.keySet().iterator();
+			if (streaming) {
+				inputFactory = XMLInputFactory.newInstance();
+				inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+				try {
+					docIDLocationHash = buildDocIDLocationHash(files);
+				} catch (IOException | XMLStreamException e) {
+					logger.log(Level.SEVERE, "initialize() " + e.getMessage());
+					throw new ResourceInitializationException(e);
+				}
+				docCursors = new DocCursor[files.size()];
+				keyIter = docIDLocationHash.keySet().iterator();
+			} else {
+				docIDDocNodeHash = buildDocIDDocNodeHash(files);
+				keyIter = docIDDocNodeHash.keySet().iterator();
+			}
 		}
 	}
 
 	public void getNext(CAS cas) throws IOException, CollectionException {
 		String key = keyIter.next();
-		ArrayList<Node> docNodes;
-		docNodes = docIDDocNodeHash.get(key);
+		List<Node> docNodes;
+		if (streaming) {
+			docNodes = new ArrayList<Node>();
+			try {
+				for (int[] location : docIDLocationHash.get(key)) {
+					if (docCursors[location[0]] == null) {
+						docCursors[location[0]] = new DocCursor(files.get(location[0]));
+					}
+					docNodes.add(docCursors[location[0]].read(location[1]));
+				}
+			} catch (XMLStreamException e) {
+				throw new CollectionException(e);
+			}
+			if (!keyIter.hasNext()) {
+				close();
+			}
+		} else {
+			docNodes = docIDDocNodeHash.get(key);
+		}
 		try {
 			jcas = cas.getJCas();
 			jcas.reset();
@@ -1008,7 +1223,14 @@ public class MUC7Reader extends CollectionReader_ImplBase {
 	}
 
 	public void close() throws IOException {
-		// TODO Auto-generated method stub
+		if (docCursors != null) {
+			for (int i = 0; i < docCursors.length; i++) {
+				if (docCursors[i] != null) {
+					docCursors[i].close();
+					docCursors[i] = null;
+				}
+			}
+		}
 	}
 
 	public Progress[] getProgress() {
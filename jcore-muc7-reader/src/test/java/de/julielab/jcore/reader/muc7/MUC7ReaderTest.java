@@ -16,9 +16,13 @@ import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.CasCreationUtils;
@@ -29,7 +33,10 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 public class MUC7ReaderTest extends TestCase {
 	/**
@@ -145,6 +152,58 @@ public class MUC7ReaderTest extends TestCase {
  		
 	}
 
+	/**
+	 * Test if the streaming mode produces the same CASes as the DOM based mode
+	 */
+	public void testStreamingMode() throws Exception {
+		ResourceSpecifier spec = UIMAFramework.getXMLParser().parseResourceSpecifier(
+						new XMLInputSource(MUC7_READER_DESCRIPTOR));
+		((CollectionReaderDescription) spec).getCollectionReaderMetaData().getConfigurationParameterSettings()
+						.setParameterValue(MUC7Reader.PARAM_STREAMING, true);
+		CollectionReader streamingReader = UIMAFramework.produceCollectionReader(spec);
+		List<JCas> streamingCases = new ArrayList<JCas>();
+		while (streamingReader.hasNext()) {
+			CAS streamingCas = CasCreationUtils.createCas((AnalysisEngineMetaData) streamingReader.getMetaData());
+			streamingReader.getNext(streamingCas);
+			streamingCases.add(streamingCas.getJCas());
+		}
+		streamingReader.close();
+
+		Map<String, String> expected = dumpCases(cases);
+		assertTrue(expected.size() > 1);
+		assertEquals(expected, dumpCases(streamingCases));
+	}
+
+	/**
+	 * Returns the document text and all annotations with their features for each document ID
+	 */
+	private Map<String, String> dumpCases(List<JCas> jcases) {
+		Map<String, String> dumps = new HashMap<String, String>();
+		for (JCas jcas : jcases) {
+			StringBuilder sb = new StringBuilder(jcas.getDocumentText()).append("\n");
+			for (Annotation annotation : jcas.getAnnotationIndex()) {
+				sb.append(annotation.getType().getName()).append(" ").append(annotation.getBegin()).append("-")
+								.append(annotation.getEnd());
+				for (Feature feature : annotation.getType().getFeatures()) {
+					if (feature.getRange().isPrimitive()) {
+						sb.append(" ").append(feature.getShortName()).append("=")
+										.append(annotation.getFeatureValueAsString(feature));
+					} else {
+						FeatureStructure value = annotation.getFeatureValue(feature);
+						if (value instanceof Annotation) {
+							sb.append(" ").append(feature.getShortName()).append("=").append(((Annotation) value)
+											.getBegin()).append("-").append(((Annotation) value).getEnd());
+						}
+					}
+				}
+				sb.append("\n");
+			}
+			Iterator<Header> headerIter = getTypeIterator(jcas, Header.type);
+			dumps.put(headerIter.next().getDocId(), sb.toString());
+		}
+		return dumps;
+	}
+
 	/**
 	 * 
 	 * @param corefChain
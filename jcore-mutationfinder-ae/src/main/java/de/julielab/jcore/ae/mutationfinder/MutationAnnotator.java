@@ -1,12 +1,11 @@
 package de.julielab.jcore.ae.mutationfinder;
 
 import de.julielab.jcore.types.Header;
-import edu.uchsc.ccp.nlp.ei.mutation.Mutation;
-import edu.uchsc.ccp.nlp.ei.mutation.MutationException;
-import edu.uchsc.ccp.nlp.ei.mutation.MutationFinder;
+import edu.uchsc.ccp.nlp.ei.mutation.*;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ResourceMetaData;
 import org.apache.uima.fit.descriptor.TypeCapability;
 import org.apache.uima.fit.util.JCasUtil;
@@ -18,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @ResourceMetaData(name="JCoRe Mutation Annotator", vendor = "JULIE Lab, Germany",description = "An analysis engine to recognize " +
@@ -28,13 +28,20 @@ import java.util.Set;
 @TypeCapability(outputs = {"de.julielab.jcore.types.PointMutation"})
 public class MutationAnnotator extends JCasAnnotator_ImplBase {
 private final static Logger log = LoggerFactory.getLogger(MutationAnnotator.class);
-    private MutationFinder mf;
+    public static final String PARAM_SINGLE_PASS = "SinglePassMatching";
+    @ConfigurationParameter(name = PARAM_SINGLE_PASS, mandatory = false, defaultValue = "false", description = "If set to true, an alternative implementation of MutationFinder is used that finds the same mutations but scans the document text only once instead of once per regular expression. This is considerably faster. Defaults to false.")
+    private boolean singlePass;
+    private MutationExtractor mf;
 
     @Override
     public void initialize(UimaContext aContext) throws ResourceInitializationException {
         super.initialize(aContext);
         try {
-            mf = new MutationFinder(MutationAnnotator.class.getResourceAsStream("/regex.txt"));
+            singlePass = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_SINGLE_PASS)).orElse(false);
+            if (singlePass)
+                mf = new SinglePassMutationFinder(MutationAnnotator.class.getResourceAsStream("/regex.txt"));
+            else
+                mf = new MutationFinder(MutationAnnotator.class.getResourceAsStream("/regex.txt"));
         } catch (IOException e) {
             log.error("Could not create MutationFinder instance", e);
             throw new ResourceInitializationException(e);
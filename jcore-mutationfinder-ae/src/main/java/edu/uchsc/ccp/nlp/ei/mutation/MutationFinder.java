@@ -266,7 +266,7 @@ public class MutationFinder extends MutationExtractor {
      * Perform precision increasing post-processing steps. Remove false positives indicated by: mutant and wild-type residues being identical (e.g.
      * A42A)
      */
-    private void postProcess(Map<Mutation, Set<int[]>> mutations) {
+    static void postProcess(Map<Mutation, Set<int[]>> mutations) {
         List<Mutation> mutationsToDelete = new ArrayList<Mutation>();
         for (Mutation mutation : mutations.keySet()) {
             if (mutation instanceof PointMutation) {
@@ -0,0 +1,291 @@
+package edu.uchsc.ccp.nlp.ei.mutation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * An alternative to {@link MutationFinder} that yields the same mutations but scans the text only once instead of
+ * once per regular expression. <br>
+ * <br>
+ * All MutationFinder regular expressions begin with the same group <tt>(^|[\s\(\[\'"/,\-])</tt>, i.e. a mutation
+ * mention always starts at the beginning of the text or at one of these delimiter characters. The text is scanned
+ * once for such positions. For each position, the regular expressions that are able to match the two characters
+ * following the delimiter are looked up in a cache. Only those are tested at this position. This emulates the
+ * non-overlapping, leftmost matching of each single regular expression exactly, so the output is identical to that of
+ * {@link MutationFinder}. Regular expressions that do not start with the common group are matched on the whole text as
+ * usual. Additionally, texts that do not contain any digit are skipped immediately since the mutation position is
+ * always a number. <br>
+ * <br>
+ * The Jakarta ORO Perl5 regular expressions are translated into <tt>java.util.regex</tt> expressions with identical
+ * semantics: <tt>\s</tt> matches all {@link Character#isWhitespace(char)} characters and case insensitive expressions
+ * are matched in lower case against the lower cased text, just as ORO does it. <br>
+ * <br>
+ * Instances of this class are thread safe.
+ */
+public class SinglePassMutationFinder extends MutationExtractor {
+    private final static Logger log = LoggerFactory.getLogger(SinglePassMutationFinder.class);
+    /**
+     * The group all MutationFinder regular expressions begin with (after the removal of the named group tags).
+     */
+    private final static String COMMON_PREFIX = "(^|[\\s\\(\\[\\'\"/,\\-])";
+    private final static String CASE_SENSITIVE = "[CASE_SENSITIVE]";
+    private final static String JAVA_WHITESPACE = "\\p{javaWhitespace}";
+    /**
+     * The character used as the delimiter when determining which expressions may match after a delimiter.
+     */
+    private final static char PROBE_DELIMITER = ' ';
+    /**
+     * Whether a character is matched by the character class of the {@link #COMMON_PREFIX}.
+     */
+    private final static boolean[] DELIMITER = new boolean[Character.MAX_VALUE + 1];
+
+    static {
+        Pattern delimiterClass = Pattern.compile(CompiledExpression.translate(COMMON_PREFIX.substring(3, COMMON_PREFIX.length() - 1), true));
+        for (int c = 0; c <= Character.MAX_VALUE; c++)
+            DELIMITER[c] = delimiterClass.matcher(String.valueOf((char) c)).matches();
+    }
+
+    private final List<CompiledExpression> expressions = new ArrayList<>();
+    /**
+     * Indexes into {@link #expressions} of those expressions that start with the {@link #COMMON_PREFIX}.
+     */
+    private int[] prefixedExpressions;
+    /**
+     * Indexes into {@link #expressions} of those expressions that do not start with the {@link #COMMON_PREFIX}.
+     */
+    private int[] otherExpressions;
+    /**
+     * The numbers of characters following a delimiter that are used to look up the expressions that might match.
+     */
+    private final static int[] KEY_LENGTHS = {2, 4, 8};
+    /**
+     * The number of candidate expressions up to which the candidates are not refined further.
+     */
+    private final static int REFINEMENT_THRESHOLD = 8;
+    /**
+     * The maximum number of keys cached for each key length.
+     */
+    private final static int MAX_CACHED_KEYS = 100000;
+    /**
+     * For each key length, a cache from the characters following a delimiter to the prefixed expressions that might
+     * match there.
+     */
+    private final List<Map<String, int[]>> candidatesCaches = new ArrayList<>();
+
+    public SinglePassMutationFinder(String fileName) throws IOException {
+        this(new File(fileName));
+    }
+
+    public SinglePassMutationFinder(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public SinglePassMutationFinder(InputStream is) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            init(br.lines().filter(l -> !l.startsWith("#") && !l.isEmpty()).collect(Collectors.toList()));
+        }
+    }
+
+    public SinglePassMutationFinder(Set<String> unprocessed_python_regexes) {
+        init(unprocessed_python_regexes);
+    }
+
+    private void init(Collection<String> pythonRegexes) {
+        List<Integer> prefixed = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+        for (String pythonRegex : pythonRegexes) {
+            Map<String, Integer> groupMappings = MutationFinder.extractMappingsFromPythonRegex(pythonRegex);
+            String regex = MutationFinder.removeTagsFromPythonRegex(pythonRegex);
+            boolean caseSensitive = regex.endsWith(CASE_SENSITIVE);
+            if (caseSensitive)
+                regex = regex.substring(0, regex.lastIndexOf('['));
+            (regex.startsWith(COMMON_PREFIX) ? prefixed : others).add(expressions.size());
+            expressions.add(new CompiledExpression(regex, caseSensitive, groupMappings));
+        }
+        prefixedExpressions = prefixed.stream().mapToInt(Integer::intValue).toArray();
+        otherExpressions = others.stream().mapToInt(Integer::intValue).toArray();
+        for (int i = 0; i < KEY_LENGTHS.length; i++)
+            candidatesCaches.add(new ConcurrentHashMap<>());
+        log.debug("Compiled {} regular expressions of which {} start with the common prefix.", expressions.size(), prefixedExpressions.length);
+    }
+
+    @Override
+    public Map<Mutation, Set<int[]>> extractMutations(String rawText) throws MutationException {
+        Map<Mutation, Set<int[]>> extractedMutations = new HashMap<>();
+        if (!containsDigit(rawText))
+            return extractedMutations;
+
+        String lowerText = toLowerCase(rawText);
+        Matcher[] matchers = new Matcher[expressions.size()];
+        int[] searchFrom = new int[expressions.size()];
+
+        for (int expressionIndex : otherExpressions) {
+            Matcher m = getMatcher(matchers, expressionIndex, rawText, lowerText);
+            while (m.find())
+                addMutation(extractedMutations, expressions.get(expressionIndex), m, rawText);
+        }
+
+        final int length = rawText.length();
+        for (int start = 0; start < length; start++) {
+            int[] candidates;
+            if (start == 0)
+                candidates = prefixedExpressions;
+            else if (DELIMITER[rawText.charAt(start)])
+                candidates = getCandidates(rawText, start);
+            else
+                continue;
+            for (int expressionIndex : candidates) {
+                // emulate the non-overlapping search of each expression
+                if (searchFrom[expressionIndex] > start)
+                    continue;
+                Matcher m = getMatcher(matchers, expressionIndex, rawText, lowerText);
+                m.region(start, length);
+                if (m.lookingAt()) {
+                    addMutation(extractedMutations, expressions.get(expressionIndex), m, rawText);
+                    searchFrom[expressionIndex] = m.end() > start ? m.end() : start + 1;
+                }
+            }
+        }
+
+        MutationFinder.postProcess(extractedMutations);
+
+        return extractedMutations;
+    }
+
+    private Matcher getMatcher(Matcher[] matchers, int expressionIndex, String rawText, String lowerText) {
+        Matcher m = matchers[expressionIndex];
+        if (m == null) {
+            CompiledExpression expression = expressions.get(expressionIndex);
+            m = expression.pattern.matcher(expression.caseSensitive ? rawText : lowerText);
+            // the region is only used to set the start of the match, the expressions must see the whole text for
+            // the beginning-of-input anchor and the lookahead
+            m.useTransparentBounds(true);
+            m.useAnchoringBounds(false);
+            matchers[expressionIndex] = m;
+        }
+        return m;
+    }
+
+    /**
+     * Returns the indexes of those prefixed expressions that might match at the delimiter at position
+     * <tt>start</tt>. The candidates are refined with increasingly long keys of characters following the delimiter as
+     * long as there are many of them.
+     */
+    private int[] getCandidates(String text, int start) {
+        int[] candidates = prefixedExpressions;
+        for (int level = 0; level < KEY_LENGTHS.length && candidates.length > REFINEMENT_THRESHOLD; level++) {
+            int keyEnd = Math.min(start + 1 + KEY_LENGTHS[level], text.length());
+            String key = text.substring(start + 1, keyEnd);
+            Map<String, int[]> cache = candidatesCaches.get(level);
+            int[] refinedCandidates = cache.get(key);
+            if (refinedCandidates == null) {
+                refinedCandidates = filterCandidates(candidates, key);
+                if (cache.size() < MAX_CACHED_KEYS)
+                    cache.put(key, refinedCandidates);
+            }
+            candidates = refinedCandidates;
+            if (keyEnd == text.length())
+                break;
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns those of the given expressions that might match at a delimiter followed by <tt>followingChars</tt>. An
+     * expression is excluded if matching it on the delimiter and the following characters fails without having
+     * reached the end of input, i.e. no continuation of the characters could be matched.
+     */
+    private int[] filterCandidates(int[] candidates, String followingChars) {
+        String probe = PROBE_DELIMITER + followingChars;
+        String lowerProbe = toLowerCase(probe);
+        return Arrays.stream(candidates).filter(i -> {
+            CompiledExpression expression = expressions.get(i);
+            Matcher m = expression.pattern.matcher(expression.caseSensitive ? probe : lowerProbe);
+            return m.lookingAt() || m.hitEnd();
+        }).toArray();
+    }
+
+    private void addMutation(Map<Mutation, Set<int[]>> extractedMutations, CompiledExpression expression, Matcher m, String rawText) throws MutationException {
+        int pos_group = expression.groupMappings.get(MutationFinder.POS);
+        int wtres_group = expression.groupMappings.get(MutationFinder.WT_RES);
+        int mutres_group = expression.groupMappings.get(MutationFinder.MUT_RES);
+        try {
+            // the groups are taken from the original text because case insensitive expressions are matched on the
+            // lower cased text
+            Mutation pm = new PointMutation(Integer.parseInt(group(m, pos_group, rawText)), group(m, wtres_group, rawText), group(m, mutres_group, rawText));
+            int[] span = new int[2];
+            span[0] = Math.min(m.start(pos_group), Math.min(m.start(wtres_group), m.start(mutres_group)));
+            span[1] = Math.max(m.end(pos_group), Math.max(m.end(wtres_group), m.end(mutres_group)));
+            extractedMutations.computeIfAbsent(pm, k -> new HashSet<>()).add(span);
+        } catch (NumberFormatException e) {
+            log.debug("Caught a NumberFormatException when trying to create a new PointMutation instance. This is probably due to trying to parse a number into an integer that is actually larger than an integer. The respective mutation is skipped.", e);
+        }
+    }
+
+    private String group(Matcher m, int group, String rawText) {
+        return m.start(group) < 0 ? null : rawText.substring(m.start(group), m.end(group));
+    }
+
+    /**
+     * A mutation position must be parsed as an integer, thus a text without digits cannot contain a mutation.
+     */
+    private boolean containsDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.digit(text.charAt(i), 10) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lower cases each character separately, thus keeping the character offsets. This is what ORO does for case
+     * insensitive matching.
+     */
+    private static String toLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = Character.toLowerCase(chars[i]);
+        return new String(chars);
+    }
+
+    private static class CompiledExpression {
+        private final Pattern pattern;
+        private final boolean caseSensitive;
+        private final Map<String, Integer> groupMappings;
+
+        private CompiledExpression(String oroRegex, boolean caseSensitive, Map<String, Integer> groupMappings) {
+            this.pattern = Pattern.compile(translate(oroRegex, caseSensitive), Pattern.UNIX_LINES);
+            this.caseSensitive = caseSensitive;
+            this.groupMappings = groupMappings;
+        }
+
+        /**
+         * Replaces <tt>\s</tt> by its ORO meaning and, for case insensitive expressions, lower cases all literal
+         * characters like ORO does.
+         */
+        private static String translate(String oroRegex, boolean caseSensitive) {
+            StringBuilder sb = new StringBuilder(oroRegex.length() + 64);
+            for (int i = 0; i < oroRegex.length(); i++) {
+                char c = oroRegex.charAt(i);
+                if (c == '\\' && i + 1 < oroRegex.length()) {
+                    char escaped = oroRegex.charAt(++i);
+                    if (escaped == 's')
+                        sb.append(JAVA_WHITESPACE);
+                    else
+                        sb.append(c).append(escaped);
+                } else {
+                    sb.append(caseSensitive ? c : Character.toLowerCase(c));
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -25,4 +25,16 @@ public class MutationAnnotatorTest {
         Assert.assertThat(mutations.stream().findAny().get().getCoveredText(), CoreMatchers.equalTo("Thr-89-Val"));
         Assert.assertThat(mutations.stream().findAny().get().getSpecificType(), CoreMatchers.equalTo("T89V"));
     }
+
+    @Test
+    public void testAnnotatorSinglePass() throws Exception {
+        final JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-semantics-biology-types");
+        final AnalysisEngine annotator = AnalysisEngineFactory.createEngine(MutationAnnotator.class, MutationAnnotator.PARAM_SINGLE_PASS, true);
+        jCas.setDocumentText("A covalently bound catalytic intermediate in Escherichia coli asparaginase: crystal structure of a Thr-89-Val mutant.");
+        annotator.process(jCas);
+        final Collection<PointMutation> mutations = JCasUtil.select(jCas, PointMutation.class);
+        Assert.assertThat(mutations.size(), CoreMatchers.is(1));
+        Assert.assertThat(mutations.stream().findAny().get().getCoveredText(), CoreMatchers.equalTo("Thr-89-Val"));
+        Assert.assertThat(mutations.stream().findAny().get().getSpecificType(), CoreMatchers.equalTo("T89V"));
+    }
 }
@@ -0,0 +1,114 @@
+package edu.uchsc.ccp.nlp.ei.mutation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SinglePassMutationFinderTest {
+    private static MutationFinder mutationFinder;
+    private static SinglePassMutationFinder singlePassMutationFinder;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        mutationFinder = new MutationFinder(SinglePassMutationFinderTest.class.getResourceAsStream("/regex.txt"));
+        singlePassMutationFinder = new SinglePassMutationFinder(SinglePassMutationFinderTest.class.getResourceAsStream("/regex.txt"));
+    }
+
+    @Test
+    public void testSameMutationsOnExamples() throws Exception {
+        List<String> texts = Arrays.asList("", "There is not mutation data here.", "T64 is almost a vallid mutation.",
+                "So is 42S.", "W42X is not a valid mutation.", "S42T", "S42T is a mutation.", "S42T and W36Y",
+                "Ser42Thr and Trp36Tyr", "S42T W36Y", "Ser42Thr Trp36Tyr", "S42T, W36Y, and W36Y",
+                "S42T, W36Y, Trp36Tyr, and W36Y", "The A42G mutation was made.", "The Ala42-->Gly mutation was made.",
+                "The Ala42Gly mutation was made.", "The Ala42 to Glycine mutation was made.", "a64t", "A64t", "a64T",
+                "ala64gly", "aLa64gLy", "ALA64GLY", "A64G", "H2A", "E2F", "W460W", "Ala6444444gly", "A6437588G",
+                "ALA64567856GLY", "Ala10Gly", "Ala99999999999999Gly",
+                "crystal structure of a Thr-89-Val mutant.", "alanine for glycine at position 42",
+                "The (A42G) and [L22G] mutants", "İle42Thr and Keeping A42G L22G\u000BW36Y\n");
+        for (String text : texts)
+            assertEquals(text, extract(mutationFinder, text), extract(singlePassMutationFinder, text));
+    }
+
+    @Test
+    public void testSameMutationsOnSyntheticCorpus() throws Exception {
+        List<String> corpus = generateCorpus(new Random(1), 100);
+        int mutations = 0;
+        for (String text : corpus) {
+            Map<String, List<String>> expected = extract(mutationFinder, text);
+            assertEquals(expected, extract(singlePassMutationFinder, text));
+            mutations += expected.size();
+        }
+        assertFalse(mutations == 0);
+    }
+
+    /**
+     * Returns the extracted mutations in comparable form or, if the extraction fails, the exception that occurred.
+     * Some texts cause a MutationException in the original implementation which must then happen in the
+     * alternative implementation, too.
+     */
+    private Map<String, List<String>> extract(MutationExtractor extractor, String text) {
+        try {
+            return toComparable(extractor.extractMutations(text));
+        } catch (MutationException e) {
+            return Collections.singletonMap(e.getClass().getName(), Collections.emptyList());
+        }
+    }
+
+    /**
+     * Converts the extracted mutations into a comparable form. The spans are listed as strings since the original
+     * result stores arrays with identity semantics, thus a span may occur multiple times.
+     */
+    private Map<String, List<String>> toComparable(Map<Mutation, Set<int[]>> mutations) {
+        Map<String, List<String>> comparable = new TreeMap<>();
+        for (Mutation mutation : mutations.keySet()) {
+            List<String> spans = new ArrayList<>();
+            for (int[] span : mutations.get(mutation))
+                spans.add(span[0] + "-" + span[1]);
+            Collections.sort(spans);
+            comparable.put(mutation.toString(), spans);
+        }
+        return comparable;
+    }
+
+    private List<String> generateCorpus(Random random, int documents) {
+        String[] oneLetter = {"A", "G", "L", "M", "F", "W", "K", "Q", "E", "S", "P", "V", "I", "C", "Y", "H", "R", "N", "D", "T", "X"};
+        String[] threeLetter = {"Ala", "Gly", "Leu", "Met", "Phe", "Trp", "Lys", "Gln", "Glu", "Ser", "Pro", "Val", "Ile", "Cys", "Tyr", "His", "Arg", "Asn", "Asp", "Thr"};
+        String[] names = {"alanine", "glycine", "leucine", "methionine", "tryptophan", "glutamic acid", "serine", "proline", "valine", "tyrosine"};
+        String[] formats = {"%1$s%2$d%3$s", "%1$s-%2$d-%3$s", "%1$s%2$d-->%3$s", "%1$s %2$d to %3$s", "%1$s(%2$d)%3$s",
+                "%3$s for %1$s at position %2$d", "%2$d %1$s-->%3$s", "%1$s%2$d by %3$s", "%1$s-%2$d with %3$s",
+                "%1$s to %3$s at position %2$d", "%3$s for %1$s%2$d", "%1$s%2$d----%3$s", "%1$s %2$d %3$s"};
+        String[] words = {"The", "mutation", "of", "was", "shown", "to", "reduce", "binding", "in", "the", "protein",
+                "(", ")", "and", "[", "]", ",", ".", "for", "at", "position", "residue", "42", "by", "with", "-->"};
+        String[] separators = {" ", " ", " ", ", ", "; ", "\n", "\t", "/", " ", "-"};
+        List<String> corpus = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int d = 0; d < documents; d++) {
+            sb.setLength(0);
+            int length = 100 + random.nextInt(300);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(12) == 0) {
+                    String[] residues = random.nextBoolean() ? oneLetter : random.nextInt(3) == 0 ? names : threeLetter;
+                    String wt = residues[random.nextInt(residues.length)];
+                    String mut = residues[random.nextInt(residues.length)];
+                    int position = random.nextInt(5) == 0 ? random.nextInt(Integer.MAX_VALUE) : 1 + random.nextInt(999);
+                    String mention = String.format(formats[random.nextInt(formats.length)], wt, position, mut);
+                    int casing = random.nextInt(4);
+                    if (casing == 1)
+                        mention = mention.toLowerCase();
+                    else if (casing == 2)
+                        mention = mention.toUpperCase();
+                    sb.append(mention);
+                } else {
+                    sb.append(words[random.nextInt(words.length)]);
+                }
+                sb.append(separators[random.nextInt(separators.length)]);
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +52,11 @@ public class ChunkAnnotator extends JCasAnnotator_ImplBase {
 	 * component Id
 	 */
 	private static final String COMPONENT_ID = "de.julielab.jcore.ae.OpenNLPChunker";
+	/**
+	 * Key of the optional external resource of type {@link ChunkerModelProvider}. When given, the model of the
+	 * resource is used instead of loading the model given by the <tt>modelFile</tt> parameter.
+	 */
+	public static final String RESOURCE_MODEL = "ChunkerModel";
 	/**
 	 * instance of the OpenNLP chunker
 	 */
@@ -82,18 +88,6 @@ public class ChunkAnnotator extends JCasAnnotator_ImplBase {
 		LOGGER.info("initializing OpenNLP Chunk Annotator ...");
 		super.initialize(aContext);
 
-		// path to the model (File) - or name of the model (in Classpath)
-		String modelFileName = "";
-
-		final Object o = aContext.getConfigParameterValue("modelFile");
-		if (o != null)
-			modelFileName = (String) o;
-		else
-		{
-			LOGGER.error("[OpenNLP Chunk Annotator] descriptor incomplete, no model file specified!");
-			throw new ResourceInitializationException();
-		}
-
 		// POS Tagset preferred by this Chunker
 		String posTagSetPreference = "";
 		final Object o2 = aContext.getConfigParameterValue("posTagSetPref");
@@ -119,6 +113,35 @@ public class ChunkAnnotator extends JCasAnnotator_ImplBase {
 			LOGGER.info("[OpenNLP Chunk Annotator] Working with default mappings in getChunk()");
 		}
 
+		// Use the shared model, if given, or read the model
+		final Object sharedModel;
+		try {
+			sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+		} catch (ResourceAccessException e) {
+			LOGGER.error("[OpenNLP Chunk Annotator] Could not access the shared chunker model resource", e);
+			throw new ResourceInitializationException(e);
+		}
+		if (sharedModel != null) {
+			LOGGER.debug("[OpenNLP Chunk Annotator] Using the shared chunker model resource");
+			chunker = new ChunkerME(((ChunkerModelProvider) sharedModel).getModel());
+		} else {
+			loadModel(aContext);
+		}
+	}
+
+	private void loadModel(UimaContext aContext) throws ResourceInitializationException {
+		// path to the model (File) - or name of the model (in Classpath)
+		String modelFileName = "";
+
+		final Object o = aContext.getConfigParameterValue("modelFile");
+		if (o != null)
+			modelFileName = (String) o;
+		else
+		{
+			LOGGER.error("[OpenNLP Chunk Annotator] descriptor incomplete, no model file specified!");
+			throw new ResourceInitializationException();
+		}
+
 		// Read the Model
 		LOGGER.debug("[OpenNLP Chunk Annotator] Reading sentence model...");
 		final File modelFile = new File(modelFileName);
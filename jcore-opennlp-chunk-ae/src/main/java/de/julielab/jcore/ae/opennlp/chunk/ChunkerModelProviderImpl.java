@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlp.chunk;
+
+import opennlp.tools.chunker.ChunkerModel;
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+
+/**
+ * Loads an OpenNLP chunker model a single time so that it can be shared by all {@link ChunkAnnotator} instances, e.g. all
+ * processing threads of a CPE. OpenNLP models are immutable; each annotator instance creates its own {@link opennlp.tools.chunker.ChunkerME} from the
+ * shared model.
+ */
+public class ChunkerModelProviderImpl implements ChunkerModelProvider, SharedResourceObject {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChunkerModelProviderImpl.class);
+
+	private ChunkerModel model;
+
+	@Override
+	public void load(DataResource aData) throws ResourceInitializationException {
+		LOGGER.info("Loading shared OpenNLP chunker model from {}", aData.getUri());
+		try (InputStream is = aData.getInputStream()) {
+			model = new ChunkerModel(is);
+		} catch (Exception e) {
+			LOGGER.error("Could not load OpenNLP chunker model from " + aData.getUri(), e);
+			throw new ResourceInitializationException(e);
+		}
+	}
+
+	@Override
+	public ChunkerModel getModel() {
+		return model;
+	}
+}
@@ -24,18 +24,22 @@ import de.julielab.jcore.types.Token;
 import junit.framework.TestCase;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.XMLInputSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -238,4 +242,26 @@ public class ChunkAnnotatorTest extends TestCase {
 		assertTrue(chunks.contains("cell cycle progression ChunkNP"));
 	}
 
+	public void testSharedModelResource() throws Exception {
+		AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(
+				new XMLInputSource("src/test/resources/ChunkAnnotatorTest.xml"));
+		ExternalResourceFactory.bindResource(desc, ChunkAnnotator.RESOURCE_MODEL, ChunkerModelProviderImpl.class,
+				new File("src/test/resources/opennlp-chunk-model-biomed-english.bin").toURI().toString());
+		// all engines created with the same resource manager share the model
+		ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		AnalysisEngine chunkerAnnotator1 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		AnalysisEngine chunkerAnnotator2 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		// the model has been loaded a single time for both engines
+		assertEquals(1, resourceManager.getExternalResources().stream().filter(r -> r instanceof ChunkerModelProvider).count());
+
+		for (AnalysisEngine chunkerAnnotator : new AnalysisEngine[] { chunkerAnnotator1, chunkerAnnotator2 }) {
+			JCas jcas = chunkerAnnotator.newJCas();
+			initCas(jcas);
+			chunkerAnnotator.process(jcas);
+			String predictedChunks = "";
+			for (Chunk t : JCasUtil.select(jcas, Chunk.class))
+				predictedChunks = predictedChunks + t.getType().getShortName() + ",";
+			assertEquals(chunks, predictedChunks);
+		}
+	}
 }
@@ -31,6 +31,7 @@ import org.apache.uima.cas.CASRuntimeException;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,14 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ParseAnnotator extends JCasAnnotator_ImplBase {
 
@@ -55,9 +64,55 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
      */
     private static final String COMPONENT_ID = "de.julielab.jcore.ae.OpenNLPParser";
     /**
-     * Instance of the Opennlp Parser
+     * Key of the optional external resource of type {@link ParserModelProvider}. When given, the model of the
+     * resource is used instead of loading the model given by the <tt>modelDir</tt> parameter.
      */
-    private Parser parser;
+    public static final String RESOURCE_MODEL = "ParserModel";
+    public static final String PARAM_MAX_SENTENCE_LENGTH = "maxSentenceLength";
+    public static final String PARAM_REDUCED_BEAM_SENTENCE_LENGTH = "reducedBeamSentenceLength";
+    public static final String PARAM_REDUCED_BEAM_SIZE = "reducedBeamSize";
+    public static final String PARAM_TIME_BUDGET = "timeBudget";
+    public static final String PARAM_NUM_THREADS = "numThreads";
+    /**
+     * The OpenNLP parser model, shared by the parsers of all parsing threads
+     */
+    private ParserModel parserModel;
+    /**
+     * Parser with the configured beam size for each parsing thread; the OpenNLP parsers are not thread safe
+     */
+    private ThreadLocal<Parser> parsers;
+    /**
+     * Parser with the reduced beam size for long sentences for each parsing thread
+     */
+    private ThreadLocal<Parser> reducedBeamParsers;
+    /**
+     * Sentences with more tokens are not parsed; 0 for no limit
+     */
+    private int maxSentenceLength;
+    /**
+     * Sentences with more tokens are parsed with the reduced beam size; 0 to always use the full beam
+     */
+    private int reducedBeamSentenceLength;
+    /**
+     * Beam size for long sentences
+     */
+    private int reducedBeamSize = 3;
+    /**
+     * Wall-clock time in milliseconds to parse the sentences of a single document; 0 for no limit
+     */
+    private long timeBudget;
+    /**
+     * Pool for parsing the sentences of a document in parallel or with a time budget; null when parsing in the
+     * calling thread
+     */
+    private ExecutorService executor;
+    private int numThreads;
+    private long parsedSentences;
+    private long reducedBeamSentences;
+    private long skippedLongSentences;
+    private long skippedBudgetSentences;
+    private long abandonedParses;
+    private long failedSentences;
     /**
      * Directory containing parser models
      */
@@ -94,10 +149,6 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
      * characters to be escaped
      */
     private Hashtable<String, String> escMap = new Hashtable<String, String>();
-    /**
-     * offset maping between CAS indexes and OpenNLP Parser indexes
-     */
-    private OffsetMapping offsetMap = new OffsetMapping();
     /**
      * mapping table between OpenNLP cons. tags and CAS tags
      */
@@ -128,9 +179,47 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
             advancePercentage = new Double((String) aContext.getConfigParameterValue("advancePercentage"))
                     .doubleValue();
         }
+        if (aContext.getConfigParameterValue(PARAM_MAX_SENTENCE_LENGTH) != null) {
+            maxSentenceLength = (Integer) aContext.getConfigParameterValue(PARAM_MAX_SENTENCE_LENGTH);
+        }
+        if (aContext.getConfigParameterValue(PARAM_REDUCED_BEAM_SENTENCE_LENGTH) != null) {
+            reducedBeamSentenceLength = (Integer) aContext.getConfigParameterValue(PARAM_REDUCED_BEAM_SENTENCE_LENGTH);
+        }
+        if (aContext.getConfigParameterValue(PARAM_REDUCED_BEAM_SIZE) != null) {
+            reducedBeamSize = (Integer) aContext.getConfigParameterValue(PARAM_REDUCED_BEAM_SIZE);
+        }
+        if (aContext.getConfigParameterValue(PARAM_TIME_BUDGET) != null) {
+            timeBudget = (Integer) aContext.getConfigParameterValue(PARAM_TIME_BUDGET);
+        }
+        numThreads = 1;
+        if (aContext.getConfigParameterValue(PARAM_NUM_THREADS) != null) {
+            numThreads = (Integer) aContext.getConfigParameterValue(PARAM_NUM_THREADS);
+        }
+        if (numThreads < 1) {
+            throw new ResourceInitializationException(new IllegalArgumentException(
+                    "The number of parsing threads must be at least 1 but was " + numThreads));
+        }
+        // a time budget requires a separate thread so that the annotator can stop waiting for a parse
+        if (numThreads > 1 || timeBudget > 0) {
+            executor = createExecutor();
+        }
+        parsers = ThreadLocal.withInitial(() -> ParserFactory.create(parserModel, beamSize, advancePercentage));
+        reducedBeamParsers = ThreadLocal.withInitial(() -> ParserFactory.create(parserModel, reducedBeamSize, advancePercentage));
         initBracketMap();
         initFunMap();
-        // Initialize Parser
+        // Initialize Parser with the shared model, if given
+        final Object sharedModel;
+        try {
+            sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+        } catch (ResourceAccessException e) {
+            LOGGER.error("[OpenNLP Parser] Could not access the shared parser model resource", e);
+            throw new ResourceInitializationException(e);
+        }
+        if (sharedModel != null) {
+            LOGGER.debug("[OpenNLP Parser] Using the shared parser model resource");
+            parserModel = ((ParserModelProvider) sharedModel).getModel();
+            return;
+        }
         try {
             File modelFile = new File(model);
             InputStream is;
@@ -146,7 +235,7 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
             }
             else { is = new FileInputStream(modelFile); }
 
-            parser = ParserFactory.create(new ParserModel(is), beamSize, advancePercentage);
+            parserModel = new ParserModel(is);
         } catch (IOException e) {
             LOGGER.error("[OpenNLP Parser] Could not load Parser models: " + e.getMessage());
             e.printStackTrace();
@@ -156,27 +245,25 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
     @Override
     public void process(JCas aJCas) throws AnalysisEngineProcessException {
         LOGGER.info("[OpenNLP Parser]: processing  document...");
-        ArrayList<Token> tokenList = new ArrayList<Token>();
-        ArrayList<String> tokenTextList = new ArrayList();
-        ArrayList<String> tagTextList = new ArrayList<String>();
+        ArrayList<String> tokenTextList = new ArrayList<String>();
         AnnotationIndex sentenceIndex = aJCas.getJFSIndexRepository().getAnnotationIndex(Sentence.type);
         AnnotationIndex tokenIndex = aJCas.getJFSIndexRepository().getAnnotationIndex(Token.type);
         FSIterator sentenceIterator = sentenceIndex.iterator();
         StringBuffer senBuf = new StringBuffer();
+        List<SentenceJob> jobs = new ArrayList<SentenceJob>();
         // Iterate over Sentences
         while (sentenceIterator.hasNext()) {
             senBuf.setLength(0);
-            tokenList.clear();
             tokenTextList.clear();
-            tagTextList.clear();
             Sentence sentence = (Sentence) sentenceIterator.next();
+            // offset maping between CAS indexes and OpenNLP Parser indexes of this sentence
+            OffsetMapping offsetMap = new OffsetMapping();
             // index for mapping of spans
             int mapId = 0;
             // Iterate over Tokens
             FSIterator tokenIterator = tokenIndex.subiterator(sentence);
             while (tokenIterator.hasNext()) {
                 Token token = (Token) tokenIterator.next();
-                tokenList.add(token);
                 String tokenText = escapeToken(token.getCoveredText());
                 // Mapping of offsets
                 int start = senBuf.length();
@@ -191,38 +278,183 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
                 senBuf.append(tokenText + " ");
                 tokenTextList.add(tokenText);
             }
-            // Concatenate CAS-Tokens in line for the Parser-Input
-            StringBuffer line = new StringBuffer();
-            Iterator i = tokenTextList.iterator();
-            if (i.hasNext()) {
-                while (i.hasNext()) {
-                    line.append(i.next() + " ");
-                }
-                String line2parse = line.substring(0, line.length() - 1);
-                // Create new Parse
-                Parse parse = new Parse(line2parse, new Span(0, line2parse.length()), "INC", 1, null);
-                int tokenStart = 0;
-                int tokenEnd = 0;
-                Iterator tokenIt = tokenTextList.iterator();
-                // insert Tokens in Parse
-                while (tokenIt.hasNext()) {
-                    String tok = (String) tokenIt.next();
-                    tokenEnd = tokenStart + tok.length();
-                    parse.insert(new Parse(line2parse, new Span(tokenStart, tokenEnd), AbstractBottomUpParser.TOK_NODE,
-                            parse.getProb(), 0));
-                    tokenStart = tokenEnd + 1;
+            if (tokenTextList.isEmpty()) {
+                LOGGER.warn("process() - No tokens available in sentence");
+                continue;
+            }
+            if (maxSentenceLength > 0 && tokenTextList.size() > maxSentenceLength) {
+                LOGGER.debug("process() - Skipping sentence with {} tokens: {}", tokenTextList.size(),
+                        sentence.getCoveredText());
+                skippedLongSentences++;
+                continue;
+            }
+            boolean reducedBeam = reducedBeamSentenceLength > 0 && tokenTextList.size() > reducedBeamSentenceLength;
+            jobs.add(new SentenceJob(createParse(tokenTextList), offsetMap, reducedBeam));
+        }
+        long deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+        long skippedBudgetSentencesBefore = skippedBudgetSentences;
+        if (executor != null) {
+            for (SentenceJob job : jobs) {
+                job.future = executor.submit(() -> {
+                    // a job cancelled before it was picked up must not be parsed anymore
+                    if (!job.state.compareAndSet(SentenceJob.QUEUED, SentenceJob.RUNNING)) {
+                        return null;
+                    }
+                    try {
+                        return parse(job, deadline);
+                    } finally {
+                        job.state.set(SentenceJob.DONE);
+                    }
+                });
+            }
+        }
+        try {
+            for (SentenceJob job : jobs) {
+                Parse parse = awaitParse(job, deadline);
+                if (parse == null) {
+                    continue;
                 }
                 try {
-                    // start Parsing
-                    parse = parser.parse(parse);
-                    annotate(parse, aJCas, null);
+                    annotate(parse, aJCas, null, job.offsetMap);
                 } catch (Exception e) {
                     LOGGER.error("process()", e);
+                    failedSentences++;
+                    continue;
+                }
+                parsedSentences++;
+                if (job.reducedBeam) {
+                    reducedBeamSentences++;
                 }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisEngineProcessException(e);
+        } finally {
+            int abandoned = 0;
+            for (SentenceJob job : jobs) {
+                if (job.future != null) {
+                    // removes queued parses; running parses do not react to the interrupt
+                    job.future.cancel(true);
+                    // a job that could not be cancelled anymore has been picked up by a parse thread
+                    if (!job.state.compareAndSet(SentenceJob.QUEUED, SentenceJob.CANCELLED)
+                            && job.state.get() == SentenceJob.RUNNING) {
+                        abandoned++;
+                    }
+                }
+            }
+            if (skippedBudgetSentences > skippedBudgetSentencesBefore || abandoned > 0) {
+                LOGGER.warn("process() - Dropped {} sentences of the document because the time budget of {}ms was exceeded. {} parses were still running and are abandoned.",
+                        skippedBudgetSentences - skippedBudgetSentencesBefore, timeBudget, abandoned);
+            }
+            if (abandoned > 0) {
+                // The OpenNLP parser does not check for interruption. The abandoned parses keep their threads
+                // until they finish, so the next documents get fresh threads.
+                abandonedParses += abandoned;
+                executor.shutdownNow();
+                executor = createExecutor();
+            }
+        }
+    }
+
+    /**
+     * Creates the pool of parsing threads. The threads are daemon threads so that abandoned parses do not keep the
+     * JVM alive.
+     */
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "opennlp-parser");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates the parser input from the escaped token texts of a sentence.
+     */
+    private Parse createParse(List<String> tokenTextList) {
+        // Concatenate CAS-Tokens in line for the Parser-Input
+        StringBuffer line = new StringBuffer();
+        Iterator i = tokenTextList.iterator();
+        while (i.hasNext()) {
+            line.append(i.next() + " ");
+        }
+        String line2parse = line.substring(0, line.length() - 1);
+        // Create new Parse
+        Parse parse = new Parse(line2parse, new Span(0, line2parse.length()), "INC", 1, null);
+        int tokenStart = 0;
+        int tokenEnd = 0;
+        Iterator tokenIt = tokenTextList.iterator();
+        // insert Tokens in Parse
+        while (tokenIt.hasNext()) {
+            String tok = (String) tokenIt.next();
+            tokenEnd = tokenStart + tok.length();
+            parse.insert(new Parse(line2parse, new Span(tokenStart, tokenEnd), AbstractBottomUpParser.TOK_NODE,
+                    parse.getProb(), 0));
+            tokenStart = tokenEnd + 1;
+        }
+        return parse;
+    }
+
+    /**
+     * Parses a sentence with the parser of the current thread. Returns <tt>null</tt> without parsing if the time
+     * budget of the document is already used up.
+     */
+    private Parse parse(SentenceJob job, long deadline) {
+        if (System.currentTimeMillis() > deadline) {
+            return null;
+        }
+        Parser parser = job.reducedBeam ? reducedBeamParsers.get() : parsers.get();
+        return parser.parse(job.parse);
+    }
+
+    /**
+     * Returns the parse of the given sentence or <tt>null</tt> if the sentence could not be parsed within the time
+     * budget or the parser failed.
+     */
+    private Parse awaitParse(SentenceJob job, long deadline) throws InterruptedException {
+        Parse parse;
+        try {
+            if (job.future == null) {
+                parse = parse(job, deadline);
+            } else if (deadline == Long.MAX_VALUE) {
+                parse = job.future.get();
             } else {
-                LOGGER.warn("process() - No tokens available in sentence");
+                parse = job.future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
             }
+        } catch (TimeoutException e) {
+            // the parse thread cannot be stopped; its result is discarded and the thread abandoned in process()
+            job.future.cancel(true);
+            parse = null;
+        } catch (ExecutionException e) {
+            LOGGER.error("process()", e.getCause());
+            failedSentences++;
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.error("process()", e);
+            failedSentences++;
+            return null;
+        }
+        if (parse == null) {
+            skippedBudgetSentences++;
+        }
+        return parse;
+    }
+
+    @Override
+    public void collectionProcessComplete() throws AnalysisEngineProcessException {
+        LOGGER.info(
+                "[OpenNLP Parser] Parsed {} sentences, {} of them with the reduced beam size. Skipped {} sentences because of their length and {} sentences because of the time budget, {} of which were abandoned while parsing. {} sentences could not be parsed due to errors.",
+                parsedSentences, reducedBeamSentences, skippedLongSentences, skippedBudgetSentences,
+                abandonedParses, failedSentences);
+        super.collectionProcessComplete();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
         }
+        super.destroy();
     }
 
     /**
@@ -248,7 +480,7 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
     /**
      * provide annotations from Parse result to CAS object
      */
-    private void annotate(Parse parse, JCas cas, Constituent parent)
+    private void annotate(Parse parse, JCas cas, Constituent parent, OffsetMapping offsetMap)
             throws SecurityException, IllegalArgumentException, ClassNotFoundException, NoSuchMethodException,
             InstantiationException, IllegalAccessException, InvocationTargetException {
         Constituent cons = null;
@@ -284,7 +516,7 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
                  * head info
                  */
                 try {
-                    addHeadAnnotation(cons, parse.getHead().getSpan());
+                    addHeadAnnotation(cons, parse.getHead().getSpan(), offsetMap);
                 } catch (CASRuntimeException e) {
                     // TODO Auto-generated catch block
                     e.printStackTrace();
@@ -295,12 +527,12 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
             }
             Parse[] children = parse.getChildren();
             for (int i = 0; i < children.length; i++) {
-                annotate(children[i], cas, cons);
+                annotate(children[i], cas, cons, offsetMap);
             }
         }
     }
 
-    private void addHeadAnnotation(Constituent cons, Span headSpan) throws CASRuntimeException, CASException {
+    private void addHeadAnnotation(Constituent cons, Span headSpan, OffsetMapping offsetMap) throws CASRuntimeException, CASException {
         FSIterator tokens = cons.getCAS().getJCas().getAnnotationIndex(Token.type).subiterator(cons);
         int headStart = offsetMap.getMapping(headSpan.getStart());
         int headEnd = offsetMap.getMapping(headSpan.getEnd());
@@ -429,4 +661,27 @@ public class ParseAnnotator extends JCasAnnotator_ImplBase {
         }
         return newToken;
     }
+
+    /**
+     * The parser input of a sentence together with its offset mapping and, when parsed in the pool, the pending
+     * parse. The state of a pool job only moves from {@link #QUEUED} to either {@link #RUNNING} and {@link #DONE} or
+     * to {@link #CANCELLED}, so a job is either parsed or cancelled, never both.
+     */
+    private static class SentenceJob {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+        private final Parse parse;
+        private final OffsetMapping offsetMap;
+        private final boolean reducedBeam;
+        private Future<Parse> future;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private SentenceJob(Parse parse, OffsetMapping offsetMap, boolean reducedBeam) {
+            this.parse = parse;
+            this.offsetMap = offsetMap;
+            this.reducedBeam = reducedBeam;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlpparser.main;
+
+import opennlp.tools.parser.ParserModel;
+
+/**
+ * Interface for the shared resource that provides a loaded OpenNLP parser model to all ParseAnnotator instances of a
+ * pipeline.
+ */
+public interface ParserModelProvider {
+	ParserModel getModel();
+}
@@ -21,6 +21,8 @@ import de.julielab.jcore.types.*;
 import junit.framework.TestCase;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -134,4 +136,80 @@ public class ParseAnnotatorTest extends TestCase {
 
     }
 
+    public void testParallelParsingWithLengthCap() throws Exception {
+        String[] sentences = { "Rat hepatic microsomes were studied .", text,
+                "The hydroxylation system was inhibited by Prethcamide ." };
+        AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(new XMLInputSource(
+                "src/test/resources/de/julielab/jcore/ae/opennlpparser/desc/jcore-opennlpparser-test.xml"));
+        AnalysisEngine serialParser = UIMAFramework.produceAnalysisEngine(desc);
+        desc.getAnalysisEngineMetaData().getConfigurationParameterSettings()
+                .setParameterValue(ParseAnnotator.PARAM_NUM_THREADS, 2);
+        desc.getAnalysisEngineMetaData().getConfigurationParameterSettings()
+                .setParameterValue(ParseAnnotator.PARAM_MAX_SENTENCE_LENGTH, 8);
+        AnalysisEngine parallelParser = UIMAFramework.produceAnalysisEngine(desc);
+
+        JCas jcas = serialParser.newJCas();
+        initCas(jcas, sentences);
+        serialParser.process(jcas);
+        // the long second sentence is skipped by the parallel parser
+        StringBuilder expected = new StringBuilder();
+        for (Sentence sentence : JCasUtil.select(jcas, Sentence.class)) {
+            if (sentence.getCoveredText().equals(text))
+                continue;
+            for (Constituent cons : JCasUtil.selectCovered(Constituent.class, sentence))
+                expected.append(cons.getCat()).append(" ").append(cons.getBegin()).append("-").append(cons.getEnd()).append("\n");
+        }
+
+        initCas(jcas, sentences);
+        parallelParser.process(jcas);
+        StringBuilder actual = new StringBuilder();
+        for (Constituent cons : JCasUtil.select(jcas, Constituent.class))
+            actual.append(cons.getCat()).append(" ").append(cons.getBegin()).append("-").append(cons.getEnd()).append("\n");
+
+        assertTrue(expected.length() > 0);
+        assertEquals(expected.toString(), actual.toString());
+        parallelParser.destroy();
+    }
+
+    public void testTimeBudgetDoesNotBlockFollowingDocuments() throws Exception {
+        StringBuilder longSentence = new StringBuilder();
+        for (int i = 0; i < 40; i++)
+            longSentence.append("the hydroxylation system in rat hepatic microsomes and ");
+        longSentence.append("Prethcamide .");
+        AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(new XMLInputSource(
+                "src/test/resources/de/julielab/jcore/ae/opennlpparser/desc/jcore-opennlpparser-test.xml"));
+        desc.getAnalysisEngineMetaData().getConfigurationParameterSettings()
+                .setParameterValue(ParseAnnotator.PARAM_NUM_THREADS, 1);
+        desc.getAnalysisEngineMetaData().getConfigurationParameterSettings()
+                .setParameterValue(ParseAnnotator.PARAM_TIME_BUDGET, 200);
+        AnalysisEngine parser = UIMAFramework.produceAnalysisEngine(desc);
+
+        JCas jcas = parser.newJCas();
+        // the parse of the long sentence exceeds the budget and is abandoned
+        initCas(jcas, new String[]{longSentence.toString()});
+        parser.process(jcas);
+        assertTrue(JCasUtil.select(jcas, Constituent.class).isEmpty());
+
+        // the abandoned parse must not occupy the only parsing thread
+        initCas(jcas, new String[]{"Rat hepatic microsomes were studied ."});
+        parser.process(jcas);
+        assertFalse(JCasUtil.select(jcas, Constituent.class).isEmpty());
+        parser.destroy();
+    }
+
+    private void initCas(JCas jcas, String[] sentences) {
+        jcas.reset();
+        StringBuilder sb = new StringBuilder();
+        for (String sentence : sentences) {
+            int j = sb.length();
+            new Sentence(jcas, j, j + sentence.length()).addToIndexes();
+            for (String token : sentence.split(" ")) {
+                new Token(jcas, j, j + token.length()).addToIndexes();
+                j += token.length() + 1;
+            }
+            sb.append(sentence).append(" ");
+        }
+        jcas.setDocumentText(sb.toString());
+    }
+
 }
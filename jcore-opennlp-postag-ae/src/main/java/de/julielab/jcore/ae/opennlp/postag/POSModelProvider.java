@@ -0,0 +1,17 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlp.postag;
+
+import opennlp.tools.postag.POSModel;
+
+/**
+ * Interface for the shared resource that provides a loaded OpenNLP POS tagger model to all PosTagAnnotator instances of a
+ * pipeline.
+ */
+public interface POSModelProvider {
+	POSModel getModel();
+}
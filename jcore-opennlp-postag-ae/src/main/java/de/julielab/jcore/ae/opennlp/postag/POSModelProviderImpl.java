@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlp.postag;
+
+import opennlp.tools.postag.POSModel;
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+
+/**
+ * Loads an OpenNLP POS tagger model a single time so that it can be shared by all {@link PosTagAnnotator} instances, e.g. all
+ * processing threads of a CPE. OpenNLP models are immutable; each annotator instance creates its own {@link opennlp.tools.postag.POSTaggerME} from the
+ * shared model.
+ */
+public class POSModelProviderImpl implements POSModelProvider, SharedResourceObject {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(POSModelProviderImpl.class);
+
+	private POSModel model;
+
+	@Override
+	public void load(DataResource aData) throws ResourceInitializationException {
+		LOGGER.info("Loading shared OpenNLP POS tagger model from {}", aData.getUri());
+		try (InputStream is = aData.getInputStream()) {
+			model = new POSModel(is);
+		} catch (Exception e) {
+			LOGGER.error("Could not load OpenNLP POS tagger model from " + aData.getUri(), e);
+			throw new ResourceInitializationException(e);
+		}
+	}
+
+	@Override
+	public POSModel getModel() {
+		return model;
+	}
+}
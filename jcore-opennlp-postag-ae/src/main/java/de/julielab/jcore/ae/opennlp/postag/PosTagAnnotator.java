@@ -51,6 +51,12 @@ public class PosTagAnnotator extends JCasAnnotator_ImplBase {
 
 	public static final String PARAM_TAGSET = "tagset";
 
+	/**
+	 * Key of the optional external resource of type {@link POSModelProvider}. When given, the model of the resource
+	 * is used instead of loading the model given by the <tt>modelFile</tt> parameter.
+	 */
+	public static final String RESOURCE_MODEL = "POSModel";
+
 	/**
 	 * Logger for this class
 	 */
@@ -73,8 +79,8 @@ public class PosTagAnnotator extends JCasAnnotator_ImplBase {
 
 	@ConfigurationParameter(
 			name = PARAM_MODEL_FILE,
-			description = "The OpenNLP POS model file path. It is expected that a tag dictionary has been included into the model at training time.",
-			mandatory = true)
+			description = "The OpenNLP POS model file path. It is expected that a tag dictionary has been included into the model at training time. Not required if the POSModel external resource is given.",
+			mandatory = false)
 	private String modelFilePath;
 
 	@Override
@@ -89,6 +95,17 @@ public class PosTagAnnotator extends JCasAnnotator_ImplBase {
 			modelFilePath = (String) aContext.getConfigParameterValue(PARAM_MODEL_FILE);
 			postagset = (String) aContext.getConfigParameterValue(PARAM_TAGSET);
 
+			// Use the shared model, if given
+			Object sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+			if (sharedModel != null) {
+				LOGGER.debug("[OpenNLP POSTag Annotator] Using the shared POS model resource");
+				tagger = new POSTaggerME(((POSModelProvider) sharedModel).getModel());
+				return;
+			}
+			if (modelFilePath == null)
+				throw new IllegalArgumentException("Neither the " + PARAM_MODEL_FILE + " parameter nor the "
+						+ RESOURCE_MODEL + " external resource is given.");
+
 			InputStream modelIs;
 			File modelFile = new File(modelFilePath);
 			if (modelFile.exists()) {
@@ -25,18 +25,22 @@ import de.julielab.jcore.types.Token;
 import org.apache.commons.lang.StringUtils;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.XMLInputSource;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -167,4 +171,27 @@ public class PosTagAnnotatorTest {
 				}), " "));
 	}
 
+	@Test
+	public void testSharedModelResource() throws Exception {
+		AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(
+				new XMLInputSource("src/test/resources/PosTagAnnotatorTest.xml"));
+		ExternalResourceFactory.bindResource(desc, PosTagAnnotator.RESOURCE_MODEL, POSModelProviderImpl.class,
+				new File("src/test/resources/POSTagPennBioIE-3.0.bin.gz").toURI().toString());
+		// all engines created with the same resource manager share the model
+		ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		AnalysisEngine posAnnotator1 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		AnalysisEngine posAnnotator2 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		// the model has been loaded a single time for both engines
+		assertEquals(1, resourceManager.getExternalResources().stream().filter(r -> r instanceof POSModelProvider).count());
+
+		for (AnalysisEngine posAnnotator : new AnalysisEngine[] { posAnnotator1, posAnnotator2 }) {
+			JCas jcas = posAnnotator.newJCas();
+			initCas(jcas);
+			posAnnotator.process(jcas);
+			String predictedPOSTags = "";
+			for (Token t : JCasUtil.select(jcas, Token.class))
+				predictedPOSTags = predictedPOSTags + ((PennBioIEPOSTag) t.getPosTag(0)).getValue() + ";";
+			assertEquals(postags, predictedPOSTags);
+		}
+	}
 }
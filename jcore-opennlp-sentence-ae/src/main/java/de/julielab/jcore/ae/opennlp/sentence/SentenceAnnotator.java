@@ -25,6 +25,7 @@ import opennlp.tools.util.Span;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,12 @@ public class SentenceAnnotator extends JCasAnnotator_ImplBase {
 	 */
 	private static final String COMPONENT_ID = "de.julielab.jcore.ae.opennlp.sentence.OpenNLPSentenceDetector";
 
+	/**
+	 * Key of the optional external resource of type {@link SentenceModelProvider}. When given, the model of the
+	 * resource is used instead of loading the model given by the <tt>modelFile</tt> parameter.
+	 */
+	public static final String RESOURCE_MODEL = "SentenceModel";
+
 	/**
 	 * OpenNLP Maximum Entropy SentenceDetector instance
 	 */
@@ -57,6 +64,23 @@ public class SentenceAnnotator extends JCasAnnotator_ImplBase {
 
 		super.initialize(aContext);
 
+		// Use the shared model, if given, or read the model
+		final Object sharedModel;
+		try {
+			sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+		} catch (ResourceAccessException e) {
+			LOGGER.error("[OpenNLP Sentence Annotator] Could not access the shared sentence model resource", e);
+			throw new ResourceInitializationException(e);
+		}
+		if (sharedModel != null) {
+			LOGGER.debug("[OpenNLP Sentence Annotator] Using the shared sentence model resource");
+			sentenceSplitter = new SentenceDetectorME(((SentenceModelProvider) sharedModel).getModel());
+		} else {
+			loadModel(aContext);
+		}
+	}
+
+	private void loadModel(UimaContext aContext) throws ResourceInitializationException {
 		/*
 		 * Get the sentence model
 		 */
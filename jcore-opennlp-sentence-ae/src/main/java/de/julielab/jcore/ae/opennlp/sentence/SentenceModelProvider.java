@@ -0,0 +1,17 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlp.sentence;
+
+import opennlp.tools.sentdetect.SentenceModel;
+
+/**
+ * Interface for the shared resource that provides a loaded OpenNLP sentence detector model to all SentenceAnnotator instances of a
+ * pipeline.
+ */
+public interface SentenceModelProvider {
+	SentenceModel getModel();
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.ae.opennlp.sentence;
+
+import opennlp.tools.sentdetect.SentenceModel;
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+
+/**
+ * Loads an OpenNLP sentence detector model a single time so that it can be shared by all {@link SentenceAnnotator} instances, e.g. all
+ * processing threads of a CPE. OpenNLP models are immutable; each annotator instance creates its own {@link opennlp.tools.sentdetect.SentenceDetectorME} from the
+ * shared model.
+ */
+public class SentenceModelProviderImpl implements SentenceModelProvider, SharedResourceObject {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SentenceModelProviderImpl.class);
+
+	private SentenceModel model;
+
+	@Override
+	public void load(DataResource aData) throws ResourceInitializationException {
+		LOGGER.info("Loading shared OpenNLP sentence detector model from {}", aData.getUri());
+		try (InputStream is = aData.getInputStream()) {
+			model = new SentenceModel(is);
+		} catch (Exception e) {
+			LOGGER.error("Could not load OpenNLP sentence detector model from " + aData.getUri(), e);
+			throw new ResourceInitializationException(e);
+		}
+	}
+
+	@Override
+	public SentenceModel getModel() {
+		return model;
+	}
+}
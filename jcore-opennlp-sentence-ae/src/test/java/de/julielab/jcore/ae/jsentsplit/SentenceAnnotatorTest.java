@@ -17,18 +17,26 @@
 
 package de.julielab.jcore.ae.jsentsplit;
 
+import de.julielab.jcore.ae.opennlp.sentence.SentenceAnnotator;
+import de.julielab.jcore.ae.opennlp.sentence.SentenceModelProvider;
+import de.julielab.jcore.ae.opennlp.sentence.SentenceModelProviderImpl;
 import de.julielab.jcore.types.Sentence;
 import junit.framework.TestCase;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.XMLInputSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.Iterator;
 
 public class SentenceAnnotatorTest extends TestCase {
@@ -99,4 +107,26 @@ public class SentenceAnnotatorTest extends TestCase {
 
 	}
 
+	public void testSharedModelResource() throws Exception {
+		AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(
+				new XMLInputSource("src/test/resources/SentenceAnnotatorTest.xml"));
+		ExternalResourceFactory.bindResource(desc, SentenceAnnotator.RESOURCE_MODEL, SentenceModelProviderImpl.class,
+				new File("src/test/resources/opennlp-sentence-model-biomed-en.bin").toURI().toString());
+		// all engines created with the same resource manager share the model
+		ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		AnalysisEngine sentenceAnnotator1 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		AnalysisEngine sentenceAnnotator2 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		// the model has been loaded a single time for both engines
+		assertEquals(1, resourceManager.getExternalResources().stream().filter(r -> r instanceof SentenceModelProvider).count());
+
+		for (AnalysisEngine sentenceAnnotator : new AnalysisEngine[] { sentenceAnnotator1, sentenceAnnotator2 }) {
+			JCas jcas = sentenceAnnotator.newJCas();
+			jcas.setDocumentText(text);
+			sentenceAnnotator.process(jcas);
+			String predictedOffsets = "";
+			for (Sentence s : JCasUtil.select(jcas, Sentence.class))
+				predictedOffsets += s.getBegin() + "-" + s.getEnd() + ";";
+			assertEquals(offsets, predictedOffsets);
+		}
+	}
 }
@@ -30,6 +30,7 @@ import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,12 @@ public class TokenAnnotator extends JCasAnnotator_ImplBase {
 
 	private static final String PARAM_NAME = "ModelFile";
 
+	/**
+	 * Key of the optional external resource of type {@link TokenizerModelProvider}. When given, the model of the
+	 * resource is used instead of loading the model given by the <tt>ModelFile</tt> parameter.
+	 */
+	public static final String RESOURCE_MODEL = "TokenizerModel";
+
 	/**
 	 * Logger for this class
 	 */
@@ -67,8 +74,22 @@ public class TokenAnnotator extends JCasAnnotator_ImplBase {
 
 		LOGGER.info("Initializing OpenNLP Token Annotator ...");
 		super.initialize(aContext);
-		modelFilePath = (String) aContext.getConfigParameterValue(PARAM_NAME);
 
+		// Use the shared model, if given, or read the model
+		final Object sharedModel;
+		try {
+			sharedModel = aContext.getResourceObject(RESOURCE_MODEL);
+		} catch (ResourceAccessException e) {
+			LOGGER.error("Could not access the shared tokenizer model resource", e);
+			throw new ResourceInitializationException(e);
+		}
+		if (sharedModel != null) {
+			LOGGER.debug("Using the shared tokenizer model resource");
+			tokenizer = new TokenizerME(((TokenizerModelProvider) sharedModel).getModel());
+			return;
+		}
+
+		modelFilePath = (String) aContext.getConfigParameterValue(PARAM_NAME);
 		try {
 			InputStream is;
 			File modelFile = new File(modelFilePath);
@@ -22,14 +22,19 @@ import de.julielab.jcore.types.Token;
 import junit.framework.TestCase;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.util.XMLInputSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.Iterator;
 
 public class TokenAnnotatorTest extends TestCase {
@@ -99,4 +104,29 @@ public class TokenAnnotatorTest extends TestCase {
 		assertTrue(annotationsOK);
 
 	}
+
+	public void testSharedModelResource() throws Exception {
+		AnalysisEngineDescription desc = UIMAFramework.getXMLParser().parseAnalysisEngineDescription(
+				new XMLInputSource("src/test/resources/TokenAnnotatorTest.xml"));
+		ExternalResourceFactory.bindResource(desc, TokenAnnotator.RESOURCE_MODEL, TokenizerModelProviderImpl.class,
+				new File("src/test/resources/PennBioIE-tok-opennlp160.bin.gz").toURI().toString());
+		// all engines created with the same resource manager share the model
+		ResourceManager resourceManager = UIMAFramework.newDefaultResourceManager();
+		AnalysisEngine tokenAnnotator1 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		AnalysisEngine tokenAnnotator2 = UIMAFramework.produceAnalysisEngine(desc, resourceManager, null);
+		// the model has been loaded a single time for both engines
+		assertEquals(1, resourceManager.getExternalResources().stream().filter(r -> r instanceof TokenizerModelProvider).count());
+
+		for (AnalysisEngine tokenAnnotator : new AnalysisEngine[] { tokenAnnotator1, tokenAnnotator2 }) {
+			JCas jcas = tokenAnnotator.newJCas();
+			initCas(jcas);
+			tokenAnnotator.process(jcas);
+			String predictedOffsets = "";
+			for (Token t : JCasUtil.select(jcas, Token.class)) {
+				predictedOffsets += (predictedOffsets.length() > 0) ? ";" : "";
+				predictedOffsets += t.getBegin() + "-" + t.getEnd();
+			}
+			assertEquals(offsets, predictedOffsets);
+		}
+	}
 }
@@ -22,6 +22,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 @ResourceMetaData(name = "JCoRe PPD Writer", description = "This component writes CAS annotation data to the pipe-separated format. For example, writing tokens with their PoS would result in text like 'The|DET tree|NN is|VBZ green|ADJ'. The component can be configured for an arbitrary number of annotations to be added to each token.")
@@ -34,6 +36,18 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 	public static final String PARAM_META_DATA_TYPE_MAPPINGS = "MetaDataTypesMapping";
 	public static final String PARAM_OUTSIDE_LABEL = "OutsideLabel";
 	public static final String PARAM_OUTPUT_FILE = "OutputFile";
+	public static final String PARAM_STREAMING = "Streaming";
+	public static final String PARAM_FLUSH_THRESHOLD = "FlushThreshold";
+	public static final String PARAM_ROTATION_THRESHOLD = "RotationThreshold";
+
+	private static final String IN_PROGRESS_SUFFIX = ".inprogress";
+	/**
+	 * Used to give each writer instance in streaming mode - and thus each pipeline thread - its own output files.
+	 * Holds the numbers of the writer instances currently writing to an output file. A number is released when
+	 * its writer has completed the collection or is destroyed so that a single writer always writes to the
+	 * configured output file, also when multiple pipelines are run one after the other in the same JVM.
+	 */
+	private static final Map<String, BitSet> ACTIVE_WRITER_NUMBERS = new HashMap<>();
 
 	@ConfigurationParameter(name = PARAM_TYPE_LABEL_MAPPINGS, mandatory = true, description = "A parameter to define one or multiple mappings from a UIMA type to token labels/classes. A token that is completely overlapped by one of the UIMA types defined in the mapping will be given the mapped label in the PPD output. The format is [qualified type]=[label string / feature path]. I.e. you may map a type to a simple label string or you can read the actual label value from within the type. Examples: \"de.julielab.jcore.types.Gene=GENE\". This would give all tokens that are complete covered by a Gene annotation the label \"GENE\" in the PPD output. The mapping \"de.julielab.jcore.types.Gene=/specificType\" would use the value of the \"specificType\" feature of a Gene annotation as the label for the covered tokens in the PPD output.")
 	private String[] typeToLabelMappings;
@@ -43,6 +57,12 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 	private String outsideLabel;
 	@ConfigurationParameter(name = PARAM_OUTPUT_FILE, mandatory = true, description = "The path where the output PPD file should be written to.")
 	private String outputFileString;
+	@ConfigurationParameter(name = PARAM_STREAMING, mandatory = false, defaultValue = "false", description = "If set to true, the PPD sentences are not collected until the end of a batch or of the collection but directly written into an output stream that is kept open. The output is first written into a file with the suffix '" + IN_PROGRESS_SUFFIX + "' that is atomically renamed to the final name when it is complete. When multiple instances of this component are run in parallel, the first instance writes to the given output file and each other instance i writes to the output file with the suffix '.i'. Defaults to false.")
+	private boolean streaming;
+	@ConfigurationParameter(name = PARAM_FLUSH_THRESHOLD, mandatory = false, defaultValue = "1000", description = "Only used in streaming mode. The number of PPD sentences after which the output stream is flushed to disk. Defaults to 1000.")
+	private int flushThreshold;
+	@ConfigurationParameter(name = PARAM_ROTATION_THRESHOLD, mandatory = false, defaultValue = "0", description = "Only used in streaming mode. If set to a positive number, the current output file is finalized after this number of PPD sentences and a new file is begun. The files are numbered by an additional suffix '-p' where p is the 0-based file number. Concatenating the files in the order of their numbers yields the complete output. Defaults to 0 which means no rotation.")
+	private int rotationThreshold;
 
 	private Map<Class<? extends Annotation>, String> typeToLabelMap;
 	private Map<Class<? extends Annotation>, JCoReFeaturePath> typeToFeaturePathMap;
@@ -52,6 +72,13 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 
 	private File outputFile;
 
+	private int writerNumber = -1;
+	private int partNumber;
+	private int sentencesInPart;
+	private int unflushedSentences;
+	private File currentPartFile;
+	private BufferedWriter streamingWriter;
+
 	@Override
 	public void initialize(UimaContext aContext) throws ResourceInitializationException {
 		super.initialize(aContext);
@@ -64,6 +91,9 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 			metaDataTypeMappings = (String[]) configValue;
 		outsideLabel = (String) aContext.getConfigParameterValue(PARAM_OUTSIDE_LABEL);
 		outputFileString = (String) aContext.getConfigParameterValue(PARAM_OUTPUT_FILE);
+		streaming = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_STREAMING)).orElse(false);
+		flushThreshold = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_FLUSH_THRESHOLD)).orElse(1000);
+		rotationThreshold = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_ROTATION_THRESHOLD)).orElse(0);
 
 		try {
 			initializeLabelMaps(typeToLabelMappings);
@@ -73,7 +103,10 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 		}
 		ppdSentences = new ArrayList<>();
 		outputFile = new File(outputFileString);
-		if (outputFile.exists()) {
+		if (streaming) {
+			writerNumber = acquireWriterNumber(outputFileString);
+			log.info("Streaming PPD sentences to {}, flushing every {} sentences, rotating after {} sentences.", getPartFile(0), flushThreshold, rotationThreshold > 0 ? rotationThreshold : "infinitely many");
+		} else if (outputFile.exists()) {
 			log.warn("PPD output file {} exists and will be overwritten.", outputFile.getAbsolutePath());
 			outputFile.delete();
 		}
@@ -245,15 +278,122 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 			}
 			// Delete the whitespace we added after the last token.
 			sb.deleteCharAt(sb.length() - 1);
-			ppdSentences.add(sb.toString());
+			if (streaming) {
+				try {
+					writeStreaming(sb);
+				} catch (IOException e) {
+					throw new AnalysisEngineProcessException(e);
+				}
+			} else {
+				ppdSentences.add(sb.toString());
+			}
+		}
+
+	}
+
+	private void writeStreaming(CharSequence sentence) throws IOException {
+		if (streamingWriter == null) {
+			// the number is released at the end of a collection and required again if the writer is reused
+			if (writerNumber < 0)
+				writerNumber = acquireWriterNumber(outputFileString);
+			currentPartFile = getPartFile(partNumber);
+			File inProgressFile = new File(currentPartFile.getPath() + IN_PROGRESS_SUFFIX);
+			if (currentPartFile.exists()) {
+				log.warn("PPD output file {} exists and will be overwritten.", currentPartFile.getAbsolutePath());
+				currentPartFile.delete();
+			}
+			File parentDir = inProgressFile.getAbsoluteFile().getParentFile();
+			if (!parentDir.exists())
+				parentDir.mkdirs();
+			streamingWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(inProgressFile), StandardCharsets.UTF_8));
+		}
+		streamingWriter.append(sentence);
+		streamingWriter.newLine();
+		++sentencesInPart;
+		if (++unflushedSentences >= flushThreshold) {
+			streamingWriter.flush();
+			unflushedSentences = 0;
+		}
+		if (rotationThreshold > 0 && sentencesInPart >= rotationThreshold) {
+			finalizeCurrentPart();
+			++partNumber;
+		}
+	}
+
+	/**
+	 * Closes the current streaming output file and atomically moves it from its in-progress name to its final name.
+	 */
+	private void finalizeCurrentPart() throws IOException {
+		if (streamingWriter == null)
+			return;
+		streamingWriter.close();
+		streamingWriter = null;
+		File inProgressFile = new File(currentPartFile.getPath() + IN_PROGRESS_SUFFIX);
+		Files.move(inProgressFile.toPath(), currentPartFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		log.debug("Finalized PPD output file {} with {} sentences.", currentPartFile, sentencesInPart);
+		sentencesInPart = 0;
+		unflushedSentences = 0;
+	}
+
+	/**
+	 * Returns the lowest number not used by another active writer instance for the given output file.
+	 */
+	private static int acquireWriterNumber(String outputFile) {
+		synchronized (ACTIVE_WRITER_NUMBERS) {
+			BitSet activeNumbers = ACTIVE_WRITER_NUMBERS.computeIfAbsent(outputFile, k -> new BitSet());
+			int number = activeNumbers.nextClearBit(0);
+			activeNumbers.set(number);
+			return number;
 		}
+	}
 
+	private static void releaseWriterNumber(String outputFile, int number) {
+		synchronized (ACTIVE_WRITER_NUMBERS) {
+			BitSet activeNumbers = ACTIVE_WRITER_NUMBERS.get(outputFile);
+			if (activeNumbers == null)
+				return;
+			activeNumbers.clear(number);
+			if (activeNumbers.isEmpty())
+				ACTIVE_WRITER_NUMBERS.remove(outputFile);
+		}
+	}
+
+	/**
+	 * Finalizes the current output file and releases the writer number of this instance.
+	 */
+	private void completeStreaming() throws IOException {
+		finalizeCurrentPart();
+		if (writerNumber >= 0) {
+			releaseWriterNumber(outputFileString, writerNumber);
+			writerNumber = -1;
+		}
+		partNumber = 0;
+	}
+
+	/**
+	 * Returns the file the given part of the streaming output of this writer instance is written to. Without
+	 * rotation, the first writer instance writes to the configured output file, all other instances append their
+	 * number to the file name. With rotation, the part number is appended additionally.
+	 */
+	private File getPartFile(int part) {
+		String path = outputFileString;
+		if (writerNumber > 0 || rotationThreshold > 0)
+			path += "." + writerNumber;
+		if (rotationThreshold > 0)
+			path += "-" + part;
+		return new File(path);
 	}
 
 	@Override
 	public void batchProcessComplete() throws AnalysisEngineProcessException {
 		super.batchProcessComplete();
 		try {
+			if (streaming) {
+				if (streamingWriter != null)
+					streamingWriter.flush();
+				unflushedSentences = 0;
+				return;
+			}
 			log.debug("Batch process complete, writing {} PPD sentences to {}.", ppdSentences.size(),
 					outputFile.getAbsolutePath());
 			writePPDToFile(outputFile);
@@ -266,6 +406,10 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 	public void collectionProcessComplete() throws AnalysisEngineProcessException {
 		super.collectionProcessComplete();
 		try {
+			if (streaming) {
+				completeStreaming();
+				return;
+			}
 			log.debug("Collection process complete, writing {} PPD sentences to {}.", ppdSentences.size(),
 					outputFile.getAbsolutePath());
 			writePPDToFile(outputFile);
@@ -274,6 +418,18 @@ public class PPDWriter extends JCasAnnotator_ImplBase {
 		}
 	}
 
+	@Override
+	public void destroy() {
+		if (streaming) {
+			try {
+				completeStreaming();
+			} catch (IOException e) {
+				log.error("Could not finalize the PPD output file {}", currentPartFile, e);
+			}
+		}
+		super.destroy();
+	}
+
 	private void writePPDToFile(File outputFile) throws IOException {
 		try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile, true), StandardCharsets.UTF_8))) {
 			for (String sentence : ppdSentences) {
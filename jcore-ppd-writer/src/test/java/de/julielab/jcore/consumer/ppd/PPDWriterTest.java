@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.FileInputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -42,4 +43,74 @@ public class PPDWriterTest{
                 FileUtils.readFileToString(outputFile, "UTF-8"));
         outputFile.delete();
     }
+
+    @Test
+    public void testProcessStreaming() throws Exception {
+        File correctOutput = new File("src/test/resources/testoutput-correct.ppd");
+        String outputFileString = "target/streaming-testoutput.ppd";
+        AnalysisEngine ppdConsumer = AnalysisEngineFactory.createEngine(PPDWriter.class,
+                PPDWriter.PARAM_TYPE_LABEL_MAPPINGS, new String[] { "de.julielab.jcore.types.Gene=GENE" },
+                PPDWriter.PARAM_META_DATA_TYPE_MAPPINGS,
+                new String[] { "de.julielab.jcore.types.PennBioIEPOSTag=/value" }, PPDWriter.PARAM_OUTSIDE_LABEL,
+                "O", PPDWriter.PARAM_OUTPUT_FILE, outputFileString, PPDWriter.PARAM_STREAMING, true,
+                PPDWriter.PARAM_FLUSH_THRESHOLD, 2, PPDWriter.PARAM_ROTATION_THRESHOLD, 3);
+        JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+        XmiCasDeserializer.deserialize(new FileInputStream("src/test/resources/10438902.xmi"), jcas.getCas());
+        ppdConsumer.process(jcas.getCas());
+        ppdConsumer.collectionProcessComplete();
+        // concatenating the rotated files must yield the same output as the non-streaming mode
+        StringBuilder output = new StringBuilder();
+        File part;
+        for (int i = 0; (part = new File(outputFileString + ".0-" + i)).exists(); i++) {
+            assertFalse(new File(part.getPath() + ".inprogress").exists());
+            output.append(FileUtils.readFileToString(part, "UTF-8"));
+            part.delete();
+        }
+        assertEquals(FileUtils.readFileToString(correctOutput, "UTF-8"), output.toString());
+    }
+
+    @Test
+    public void testStreamingWriterNumbers() throws Exception {
+        File correctOutput = new File("src/test/resources/testoutput-correct.ppd");
+        String outputFileString = "target/streaming-numbers-testoutput.ppd";
+        File outputFile = new File(outputFileString);
+        File secondWriterFile = new File(outputFileString + ".1");
+        JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+        XmiCasDeserializer.deserialize(new FileInputStream("src/test/resources/10438902.xmi"), jcas.getCas());
+
+        // writers running one after the other each write to the configured file
+        for (int i = 0; i < 2; i++) {
+            AnalysisEngine ppdConsumer = createStreamingWriter(outputFileString);
+            ppdConsumer.process(jcas.getCas());
+            ppdConsumer.collectionProcessComplete();
+            ppdConsumer.destroy();
+            assertEquals(FileUtils.readFileToString(correctOutput, "UTF-8"),
+                    FileUtils.readFileToString(outputFile, "UTF-8"));
+            assertFalse(secondWriterFile.exists());
+        }
+
+        // writers active at the same time write to different files
+        AnalysisEngine firstConsumer = createStreamingWriter(outputFileString);
+        AnalysisEngine secondConsumer = createStreamingWriter(outputFileString);
+        firstConsumer.process(jcas.getCas());
+        secondConsumer.process(jcas.getCas());
+        firstConsumer.collectionProcessComplete();
+        secondConsumer.collectionProcessComplete();
+        firstConsumer.destroy();
+        secondConsumer.destroy();
+        assertEquals(FileUtils.readFileToString(correctOutput, "UTF-8"),
+                FileUtils.readFileToString(outputFile, "UTF-8"));
+        assertEquals(FileUtils.readFileToString(correctOutput, "UTF-8"),
+                FileUtils.readFileToString(secondWriterFile, "UTF-8"));
+        outputFile.delete();
+        secondWriterFile.delete();
+    }
+
+    private AnalysisEngine createStreamingWriter(String outputFileString) throws Exception {
+        return AnalysisEngineFactory.createEngine(PPDWriter.class,
+                PPDWriter.PARAM_TYPE_LABEL_MAPPINGS, new String[] { "de.julielab.jcore.types.Gene=GENE" },
+                PPDWriter.PARAM_META_DATA_TYPE_MAPPINGS,
+                new String[] { "de.julielab.jcore.types.PennBioIEPOSTag=/value" }, PPDWriter.PARAM_OUTSIDE_LABEL,
+                "O", PPDWriter.PARAM_OUTPUT_FILE, outputFileString, PPDWriter.PARAM_STREAMING, true);
+    }
 }
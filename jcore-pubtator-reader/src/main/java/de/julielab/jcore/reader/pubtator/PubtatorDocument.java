@@ -18,24 +18,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class PubtatorDocument {
 	private static final Logger log = LoggerFactory.getLogger(PubtatorDocument.class);
 
 	public final static PubtatorDocument EMPTY_DOCUMENT = new PubtatorDocument();
 
-	// we only describe the beginning of a line
-	// example:
-	// 17317680|t|Delayed expression of apoptotic and cell-cycle control genes
-	// in carcinogen-exposed bladders of mice lacking p53.S389 phosphorylation.
-	private static Pattern pubtatorTextLine = Pattern.compile("[0-9]+\\|[a-z]\\|");
-	// we only describe the beginning of a line
-	// example:
-	// 17317680 134 138 Mice Species 10090
-	private static Pattern pubtatorEntityLine = Pattern.compile("[0-9]+\\t[0-9]+");
-
 	private String documentId;
 	private String title;
 	private String abstractText;
@@ -68,8 +56,6 @@ public class PubtatorDocument {
 	public static PubtatorDocument parseNextDocument(BufferedReader reader) throws IOException {
 		PubtatorDocument ret = EMPTY_DOCUMENT;
 		PubtatorDocument readDocument = new PubtatorDocument();
-		Matcher entityMatchter = pubtatorEntityLine.matcher("");
-		Matcher textMatcher = pubtatorTextLine.matcher("");
 		String line;
 		// read up to the next empty line
 		while ((line = reader.readLine()) != null && (!line.trim().isEmpty() || ret == EMPTY_DOCUMENT)) {
@@ -77,54 +63,86 @@ public class PubtatorDocument {
 			if (line.isEmpty() && ret == EMPTY_DOCUMENT)
 				continue;
 			ret = readDocument;
-			try {
-				entityMatchter.reset(line);
-				if (entityMatchter.find()) {
-					String[] split = line.split("\\t");
-					if (split.length < 5)
-						throw new IllegalArgumentException(
-								"PubTator format error: The given line looks like an entity line but it does not have at least 5 fields: "
-										+ line);
-					PubtatorEntity entity = null;
-					if (split.length == 5)
-						entity = new PubtatorEntity(split[0], split[1], split[2], split[4]);
-					if (split.length == 6)
-						entity = new PubtatorEntity(split[0], split[1], split[2], split[4], split[5]);
-					readDocument.addEntity(entity);
-				} else {
-					textMatcher.reset(line);
-					if (textMatcher.find()) {
-						String[] split = line.split("\\|");
-						// there must be exactly 3 fields
-						if (split.length != 3)
-							throw new IllegalArgumentException(
-									"PubTator format error: The expected text line does not have exactly three fields. The line was "
-											+ line);
-						readDocument.setDocumentId(split[0]);
-						switch (split[1]) {
-						case "t":
-							readDocument.setTitle(split[2]);
-							break;
-						case "a":
-							readDocument.setAbstractText(split[2]);
-							break;
-						default:
-							throw new IllegalArgumentException(
-									"PubTator format error: The given line looks like a text line but does not specify a known text type (|a|bstract or |t|itle): "
-											+ line);
-						}
-					} else {
-						throw new IllegalArgumentException(
-								"Unknown PubTator format: The given line is not recognized as a part of a PubTator document: "
-										+ line);
-					}
+			parseLine(line, readDocument);
+		}
+		return ret;
+	}
+
+	/**
+	 * Adds the contents of a single trimmed, non-empty line to the given document. The line is dissected by
+	 * character search instead of regular expressions and splitting because the bulk PubTator files consist of
+	 * hundreds of millions of such lines.
+	 * 
+	 * @param line
+	 *            A trimmed line of a PubTator document.
+	 * @param document
+	 *            The document the line belongs to.
+	 */
+	static void parseLine(String line, PubtatorDocument document) {
+		try {
+			int idEnd = 0;
+			while (idEnd < line.length() && Character.isDigit(line.charAt(idEnd)))
+				++idEnd;
+			// entity line, example:
+			// 17317680 134 138 Mice Species 10090
+			if (idEnd > 0 && idEnd + 1 < line.length() && line.charAt(idEnd) == '\t'
+					&& Character.isDigit(line.charAt(idEnd + 1))) {
+				int[] tabs = new int[5];
+				int numTabs = 0;
+				for (int i = idEnd; i < line.length() && numTabs < tabs.length; i++) {
+					if (line.charAt(i) == '\t')
+						tabs[numTabs++] = i;
 				}
-			} catch (Exception e) {
-				log.error("Error occurred at line {}", line);
-				throw e;
+				if (numTabs < 4)
+					throw new IllegalArgumentException(
+							"PubTator format error: The given line looks like an entity line but it does not have at least 5 fields: "
+									+ line);
+				String docId = line.substring(0, idEnd);
+				int begin = parseOffset(line, tabs[0] + 1, tabs[1]);
+				int end = parseOffset(line, tabs[1] + 1, tabs[2]);
+				String type = numTabs == 4 ? line.substring(tabs[3] + 1) : line.substring(tabs[3] + 1, tabs[4]);
+				String id = numTabs == 4 ? null : line.substring(tabs[4] + 1);
+				document.addEntity(new PubtatorEntity(docId, begin, end, type, id));
 			}
+			// text line, example:
+			// 17317680|t|Delayed expression of apoptotic and cell-cycle control genes
+			else if (idEnd > 0 && idEnd + 2 < line.length() && line.charAt(idEnd) == '|'
+					&& Character.isLowerCase(line.charAt(idEnd + 1)) && line.charAt(idEnd + 2) == '|') {
+				document.setDocumentId(line.substring(0, idEnd));
+				switch (line.charAt(idEnd + 1)) {
+				case 't':
+					document.setTitle(line.substring(idEnd + 3));
+					break;
+				case 'a':
+					document.setAbstractText(line.substring(idEnd + 3));
+					break;
+				default:
+					throw new IllegalArgumentException(
+							"PubTator format error: The given line looks like a text line but does not specify a known text type (|a|bstract or |t|itle): "
+									+ line);
+				}
+			} else {
+				throw new IllegalArgumentException(
+						"Unknown PubTator format: The given line is not recognized as a part of a PubTator document: "
+								+ line);
+			}
+		} catch (RuntimeException e) {
+			log.error("Error occurred at line {}", line);
+			throw e;
 		}
-		return ret;
+	}
+
+	private static int parseOffset(String line, int begin, int end) {
+		if (begin == end)
+			throw new IllegalArgumentException("The given start and end offsets are no integers: " + line);
+		int offset = 0;
+		for (int i = begin; i < end; i++) {
+			char c = line.charAt(i);
+			if (c < '0' || c > '9')
+				throw new IllegalArgumentException("The given start and end offsets are no integers: " + line);
+			offset = offset * 10 + (c - '0');
+		}
+		return offset;
 	}
 
 	private void addEntity(PubtatorEntity entity) {
@@ -31,6 +31,13 @@ public class PubtatorEntity {
 		this.entityId = id;
 	}
 
+	public PubtatorEntity(String docId, int begin, int end, String type, String id) {
+		this.docId = docId;
+		this.offsets = Range.between(begin, end);
+		this.entityType = type;
+		this.entityId = id;
+	}
+
 	public PubtatorEntity(String docId, String begin, String end, String type) {
 		this(docId, begin, end, type, null);
 	}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ **/
+package de.julielab.jcore.reader.pubtator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static de.julielab.jcore.reader.pubtator.PubtatorDocument.EMPTY_DOCUMENT;
+
+/**
+ * Reads the documents of one slice of a PubTator file. A file is divided into <tt>numSlices</tt> disjoint slices
+ * so that multiple reader instances may read the same large file in parallel, each reading the slice with its own
+ * <tt>sliceIndex</tt>.
+ * <p>
+ * Uncompressed files are divided into byte ranges of equal size. A slice starts reading directly at its byte range
+ * and owns exactly those documents whose first line begins within the range. GZIP files do not allow random access
+ * and are thus read completely by each slice. In this case, the documents are distributed round-robin and documents
+ * belonging to other slices are skipped on the byte level without decoding them.
+ * </p>
+ * <p>
+ * Lines are read into a reused byte buffer and only the lines of owned documents are decoded into strings.
+ * </p>
+ */
+class PubtatorFileSlice implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileInputStream fileStream;
+    private final InputStream in;
+    private final CountingInputStream compressedStream;
+    private final boolean roundRobin;
+    private final int numSlices;
+    private final int sliceIndex;
+    private final long sliceBegin;
+    private final long sliceEnd;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLimit;
+    /**
+     * The position of the next unread byte in the (uncompressed) file.
+     */
+    private long position;
+
+    private byte[] line = new byte[1024];
+    private int lineLength;
+    private long lineStart;
+
+    private boolean previousLineBlank = true;
+    private long documentOrdinal;
+    private boolean finished;
+
+    PubtatorFileSlice(File file, int numSlices, int sliceIndex) throws IOException {
+        if (numSlices < 1 || sliceIndex < 0 || sliceIndex >= numSlices)
+            throw new IllegalArgumentException("Invalid slice " + sliceIndex + " of " + numSlices + " slices.");
+        this.numSlices = numSlices;
+        this.sliceIndex = sliceIndex;
+        fileStream = new FileInputStream(file);
+        String name = file.getName();
+        roundRobin = name.endsWith(".gz") || name.endsWith(".gzip");
+        if (roundRobin) {
+            compressedStream = new CountingInputStream(fileStream);
+            in = new GZIPInputStream(compressedStream, BUFFER_SIZE);
+            sliceBegin = 0;
+            sliceEnd = file.length();
+        } else {
+            compressedStream = null;
+            in = fileStream;
+            long length = file.length();
+            sliceBegin = length * sliceIndex / numSlices;
+            sliceEnd = length * (sliceIndex + 1) / numSlices;
+            if (sliceBegin > 0) {
+                // Position the stream on the line that contains the byte before the slice. Whether this line is
+                // blank tells if the first line of the slice starts a new document.
+                position = findLineStart(fileStream.getChannel(), sliceBegin - 1);
+                fileStream.getChannel().position(position);
+                if (readLine())
+                    previousLineBlank = isBlankLine();
+            }
+        }
+    }
+
+    /**
+     * Returns the next document of this slice or {@link PubtatorDocument#EMPTY_DOCUMENT} if there are no more
+     * documents.
+     *
+     * @return The next document or {@link PubtatorDocument#EMPTY_DOCUMENT}.
+     */
+    PubtatorDocument nextDocument() throws IOException {
+        while (!finished && readLine()) {
+            if (isBlankLine()) {
+                previousLineBlank = true;
+                continue;
+            }
+            // the remainder of a document that started before this slice
+            if (!previousLineBlank)
+                continue;
+            previousLineBlank = false;
+            if (!roundRobin && lineStart >= sliceEnd)
+                break;
+            boolean owned = !roundRobin || documentOrdinal++ % numSlices == sliceIndex;
+            PubtatorDocument document = owned ? new PubtatorDocument() : null;
+            if (owned)
+                PubtatorDocument.parseLine(decodeLine(), document);
+            while (readLine() && !isBlankLine()) {
+                if (owned)
+                    PubtatorDocument.parseLine(decodeLine(), document);
+            }
+            previousLineBlank = true;
+            if (owned)
+                return document;
+        }
+        finished = true;
+        return EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return The number of bytes of the file this slice is responsible for. For GZIP files, this is the compressed
+     * file size.
+     */
+    long getLength() {
+        return sliceEnd - sliceBegin;
+    }
+
+    /**
+     * @return The number of bytes of {@link #getLength()} that have already been read.
+     */
+    long getCompleted() {
+        if (finished)
+            return getLength();
+        if (roundRobin)
+            return compressedStream.count;
+        return Math.max(0, Math.min(position, sliceEnd) - sliceBegin);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads the next line without its line break into {@link #line}.
+     *
+     * @return Whether there was another line.
+     */
+    private boolean readLine() throws IOException {
+        lineStart = position;
+        lineLength = 0;
+        while (true) {
+            if (bufferPos == bufferLimit) {
+                bufferLimit = in.read(buffer, 0, buffer.length);
+                bufferPos = 0;
+                if (bufferLimit <= 0) {
+                    bufferLimit = 0;
+                    return position > lineStart;
+                }
+            }
+            int i = bufferPos;
+            while (i < bufferLimit && buffer[i] != '\n')
+                ++i;
+            int length = i - bufferPos;
+            if (lineLength + length > line.length)
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+            System.arraycopy(buffer, bufferPos, line, lineLength, length);
+            lineLength += length;
+            position += length;
+            bufferPos = i;
+            if (i < bufferLimit) {
+                ++bufferPos;
+                ++position;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the current line only consists of whitespace, in the sense of {@link String#trim()}.
+     */
+    private boolean isBlankLine() {
+        for (int i = 0; i < lineLength; i++) {
+            if ((line[i] & 0xff) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    private String decodeLine() {
+        return new String(line, 0, lineLength, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Scans backwards from <tt>offset</tt> to the beginning of the line containing the byte at <tt>offset</tt>.
+     */
+    private static long findLineStart(FileChannel channel, long offset) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(8192);
+        long end = offset;
+        while (end > 0) {
+            long begin = Math.max(0, end - bb.capacity());
+            bb.clear();
+            bb.limit((int) (end - begin));
+            while (bb.hasRemaining() && channel.read(bb, begin + bb.position()) >= 0)
+                ;
+            for (int i = bb.position() - 1; i >= 0; i--) {
+                if (bb.get(i) == '\n')
+                    return begin + i + 1;
+            }
+            end = begin;
+        }
+        return 0;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                ++count;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -9,7 +9,6 @@
  **/
 package de.julielab.jcore.reader.pubtator;
 
-import de.julielab.java.utilities.FileUtilities;
 import de.julielab.jcore.types.*;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASException;
@@ -21,7 +20,6 @@ import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.Progress;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.Optional;
@@ -32,18 +30,26 @@ public class PubtatorReader extends CollectionReader_ImplBase {
 
     public static final String PARAM_INPUT = "Input";
     public static final String PARAM_ADD_ENTITIES = "AddEntities";
+    public static final String PARAM_NUM_SLICES = "NumSlices";
+    public static final String PARAM_SLICE_INDEX = "SliceIndex";
     private static final String COMPONENT_NAME = PubtatorReader.class.getCanonicalName();
     @ConfigurationParameter(name = PARAM_INPUT, mandatory = true)
     private File input;
     @ConfigurationParameter(name = PARAM_ADD_ENTITIES, mandatory = false)
     private boolean addEntities;
+    @ConfigurationParameter(name = PARAM_NUM_SLICES, mandatory = false)
+    private int numSlices;
+    @ConfigurationParameter(name = PARAM_SLICE_INDEX, mandatory = false)
+    private int sliceIndex;
 
     private File[] inputFiles;
-    private BufferedReader currentReader;
+    private PubtatorFileSlice currentSlice;
     private PubtatorDocument currentDocument = EMPTY_DOCUMENT;
 
     private int index;
     private long completed = 0;
+    private long completedBytes = 0;
+    private long totalBytes = 0;
 
     @Override
     public void initialize() throws ResourceInitializationException {
@@ -51,6 +57,12 @@ public class PubtatorReader extends CollectionReader_ImplBase {
         String inputDirectoryPath = (String) getConfigParameterValue(PARAM_INPUT);
         input = new File(inputDirectoryPath);
         addEntities = (boolean) Optional.ofNullable(getConfigParameterValue(PARAM_ADD_ENTITIES)).orElseGet(() -> true);
+        numSlices = (int) Optional.ofNullable(getConfigParameterValue(PARAM_NUM_SLICES)).orElse(1);
+        sliceIndex = (int) Optional.ofNullable(getConfigParameterValue(PARAM_SLICE_INDEX)).orElse(0);
+        if (numSlices < 1 || sliceIndex < 0 || sliceIndex >= numSlices)
+            throw new ResourceInitializationException(new IllegalArgumentException(
+                    "The slice index must be in [0, " + PARAM_NUM_SLICES + ") but was " + sliceIndex + " with "
+                            + numSlices + " slices."));
         if (!input.exists())
             throw new ResourceInitializationException(
                     new IllegalArgumentException("The path " + input.getAbsolutePath() + " does not exist."));
@@ -60,6 +72,12 @@ public class PubtatorReader extends CollectionReader_ImplBase {
         else
             inputFiles = new File[]{input};
         index = 0;
+        for (File inputFile : inputFiles) {
+            if (inputFile.getName().endsWith(".gz") || inputFile.getName().endsWith(".gzip"))
+                totalBytes += inputFile.length();
+            else
+                totalBytes += inputFile.length() * (sliceIndex + 1) / numSlices - inputFile.length() * sliceIndex / numSlices;
+        }
     }
 
     @Override
@@ -143,17 +161,17 @@ public class PubtatorReader extends CollectionReader_ImplBase {
 
     @Override
     public boolean hasNext() throws IOException, CollectionException {
-        if (currentReader == null && index < inputFiles.length)
-            currentReader = FileUtilities.getReaderFromFile(inputFiles[index]);
-        if (currentDocument == EMPTY_DOCUMENT)
-            currentDocument = PubtatorDocument.parseNextDocument(currentReader);
-        // if the document was empty it means the current file is at its end,
-        // continue to the next
+        // if the document was empty it means the current file slice is at its end,
+        // continue to the next file
         while (currentDocument == EMPTY_DOCUMENT && index < inputFiles.length) {
-            ++index;
-            if (index < inputFiles.length) {
-                currentReader = FileUtilities.getReaderFromFile(inputFiles[index]);
-                currentDocument = PubtatorDocument.parseNextDocument(currentReader);
+            if (currentSlice == null)
+                currentSlice = new PubtatorFileSlice(inputFiles[index], numSlices, sliceIndex);
+            currentDocument = currentSlice.nextDocument();
+            if (currentDocument == EMPTY_DOCUMENT) {
+                completedBytes += currentSlice.getLength();
+                currentSlice.close();
+                currentSlice = null;
+                ++index;
             }
         }
 
@@ -184,12 +202,37 @@ public class PubtatorReader extends CollectionReader_ImplBase {
             public boolean isApproximate() {
                 return true;
             }
+        }, new Progress() {
+
+            @Override
+            public long getCompleted() {
+                PubtatorFileSlice slice = currentSlice;
+                return completedBytes + (slice != null ? slice.getCompleted() : 0);
+            }
+
+            @Override
+            public long getTotal() {
+                return totalBytes;
+            }
+
+            @Override
+            public String getUnit() {
+                return Progress.BYTES;
+            }
+
+            @Override
+            public boolean isApproximate() {
+                return false;
+            }
         }};
     }
 
     @Override
     public void close() throws IOException {
-        // nothing to do
+        if (currentSlice != null) {
+            currentSlice.close();
+            currentSlice = null;
+        }
     }
 
 }
@@ -16,16 +16,27 @@ import org.apache.uima.fit.factory.CollectionReaderFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.*;
 
 public class PubtatorReaderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testDocumentDirectory() throws Exception {
 		JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-semantics-mention-types",
@@ -75,4 +86,66 @@ public class PubtatorReaderTest {
 		}
 		assertTrue("The following IDs have not been read: " + expectedDocIds, expectedDocIds.isEmpty());
 	}
+
+	@Test
+	public void testSlices() throws Exception {
+		File plain = folder.newFile("slices.txt");
+		File gzip = folder.newFile("slices.txt.gz");
+		List<String> docIds = writeSyntheticDocuments(plain, false);
+		writeSyntheticDocuments(gzip, true);
+		for (File file : Arrays.asList(plain, gzip)) {
+			JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-semantics-mention-types",
+					"de.julielab.jcore.types.jcore-semantics-biology-types",
+					"de.julielab.jcore.types.jcore-document-structure-types",
+					"de.julielab.jcore.types.jcore-document-meta-types");
+			List<String> readDocIds = new ArrayList<>();
+			int numSlices = 3;
+			for (int i = 0; i < numSlices; i++) {
+				CollectionReader reader = CollectionReaderFactory.createReader(PubtatorReader.class,
+						PubtatorReader.PARAM_INPUT, file.getAbsolutePath(), PubtatorReader.PARAM_NUM_SLICES, numSlices,
+						PubtatorReader.PARAM_SLICE_INDEX, i);
+				int sliceDocs = 0;
+				while (reader.hasNext()) {
+					reader.getNext(jcas.getCas());
+					String docId = JCasUtil.selectSingle(jcas, Header.class).getDocId();
+					assertEquals("Title of " + docId, JCasUtil.selectSingle(jcas, Title.class).getCoveredText());
+					assertEquals(docId, JCasUtil.selectSingle(jcas, Disease.class).getCoveredText().substring(9));
+					readDocIds.add(docId);
+					++sliceDocs;
+					jcas.reset();
+				}
+				assertTrue(sliceDocs > 0);
+				Progress bytes = reader.getProgress()[1];
+				assertEquals(Progress.BYTES, bytes.getUnit());
+				assertEquals(bytes.getTotal(), bytes.getCompleted());
+				reader.close();
+			}
+			Collections.sort(readDocIds);
+			assertEquals(file.getName(), docIds, readDocIds);
+		}
+	}
+
+	/**
+	 * Writes PubTator documents of varying length so that the slice borders fall into all parts of the documents.
+	 */
+	private List<String> writeSyntheticDocuments(File file, boolean gzip) throws Exception {
+		List<String> docIds = new ArrayList<>();
+		Random random = new Random(1);
+		try (OutputStream os = gzip ? new GZIPOutputStream(new FileOutputStream(file)) : new FileOutputStream(file);
+				Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < 100; i++) {
+				String docId = String.valueOf(1000000 + i);
+				docIds.add(docId);
+				String title = "Title of " + docId;
+				StringBuilder abstractText = new StringBuilder();
+				for (int j = random.nextInt(50); j >= 0; j--)
+					abstractText.append("Ab\u00dftract ");
+				w.write(docId + "|t|" + title + "\n");
+				w.write(docId + "|a|" + abstractText.toString().trim() + "\n");
+				w.write(docId + "\t0\t" + title.length() + "\t" + title + "\tDisease\tD" + i + "\n");
+				w.write(i % 7 == 0 ? " \r\n\n" : "\n");
+			}
+		}
+		return docIds;
+	}
 }
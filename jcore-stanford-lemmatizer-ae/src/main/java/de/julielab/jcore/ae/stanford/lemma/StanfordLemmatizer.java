@@ -13,20 +13,36 @@ package de.julielab.jcore.ae.stanford.lemma;
 import de.julielab.jcore.types.Lemma;
 import de.julielab.jcore.types.POSTag;
 import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReLemmaCache;
 import edu.stanford.nlp.process.Morphology;
+import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+
 public class StanfordLemmatizer extends JCasAnnotator_ImplBase {
 
 	private static final Logger LOGGER = LoggerFactory
 			.getLogger(StanfordLemmatizer.class);
 
+	public static final String PARAM_CACHE_SIZE = "CacheSize";
+
+	/**
+	 * The (word, POS tag) to lemma cache shared by all lemmatizer instances in
+	 * the JVM. This is safe because the rule-based {@link Morphology} has no
+	 * configurable lexicon and assigns the same lemmas in all instances.
+	 */
+	private static final JCoReLemmaCache CACHE = new JCoReLemmaCache();
+
+	private int cacheSize;
+
 	/**
 	 * The Stanford CoreNLP lemmatizer component. Note that the actual class
 	 * MorphaAnnotator requires the whole CoreNLP pipeline (sentence splitting,
@@ -35,6 +51,13 @@ public class StanfordLemmatizer extends JCasAnnotator_ImplBase {
 	 */
 	private Morphology lemmatizer = new Morphology();
 
+	@Override
+	public void initialize(UimaContext aContext) throws ResourceInitializationException {
+		super.initialize(aContext);
+		cacheSize = (Integer) Optional.ofNullable(aContext.getConfigParameterValue(PARAM_CACHE_SIZE)).orElse(100000);
+		CACHE.ensureMaxSize(cacheSize);
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void process(JCas aJCas) throws AnalysisEngineProcessException {
@@ -58,7 +81,7 @@ public class StanfordLemmatizer extends JCasAnnotator_ImplBase {
 						posTagStr = posTag.getValue();
 					}
 				}
-				String lemmaStr = lemmatizer.lemma(tokenStr, posTagStr);
+				String lemmaStr = lemmatize(tokenStr, posTagStr);
 				Lemma lemma = new Lemma(aJCas);
 				lemma.setBegin(start);
 				lemma.setEnd(end);
@@ -68,4 +91,26 @@ public class StanfordLemmatizer extends JCasAnnotator_ImplBase {
 			}
 		}
 	}
+
+	private String lemmatize(String word, String posTag) {
+		if (cacheSize <= 0 || posTag == null)
+			return lemmatizer.lemma(word, posTag);
+		String lemma = CACHE.get(word, posTag);
+		if (lemma == null) {
+			lemma = lemmatizer.lemma(word, posTag);
+			CACHE.put(word, posTag, lemma);
+		}
+		return lemma;
+	}
+
+	@Override
+	public void collectionProcessComplete() throws AnalysisEngineProcessException {
+		super.collectionProcessComplete();
+		if (cacheSize > 0)
+			LOGGER.info("Lemma cache: {}", CACHE);
+	}
+
+	static JCoReLemmaCache getCache() {
+		return CACHE;
+	}
 }
@@ -13,6 +13,7 @@ package de.julielab.jcore.ae.stanford.lemma;
 import de.julielab.jcore.types.PennBioIEPOSTag;
 import de.julielab.jcore.types.Sentence;
 import de.julielab.jcore.types.Token;
+import de.julielab.jcore.utility.JCoReLemmaCache;
 import junit.framework.TestCase;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
@@ -102,6 +103,27 @@ public class StanfordLemmatizerTest extends TestCase {
 		assertEquals(TEST_LEMMAS, predictedLemmas);
 	}
 
+	@SuppressWarnings("rawtypes")
+	public void testCache() throws Exception {
+		XMLInputSource lemmaXML = new XMLInputSource(DESCRIPTOR);
+		ResourceSpecifier lemmaSpec = UIMAFramework.getXMLParser().parseResourceSpecifier(lemmaXML);
+		AnalysisEngine lemmaAnnotator = UIMAFramework.produceAnalysisEngine(lemmaSpec);
+		JCas aJCas = lemmaAnnotator.newJCas();
+		JCoReLemmaCache cache = StanfordLemmatizer.getCache();
+		for (int i = 0; i < 2; i++) {
+			initCas(aJCas);
+			lemmaAnnotator.process(aJCas);
+			Iterator tokIter = aJCas.getJFSIndexRepository().getAnnotationIndex(Token.type).iterator();
+			assertEquals(TEST_LEMMAS, getPredictedLemmas(tokIter));
+		}
+		// all (word, POS tag) pairs of the document have been cached by now
+		long hits = cache.getHits();
+		initCas(aJCas);
+		lemmaAnnotator.process(aJCas);
+		assertEquals(hits + tokenBegins.length, cache.getHits());
+		assertTrue(cache.size() > 0);
+	}
+
 	@SuppressWarnings("rawtypes")
 	public String getPredictedLemmas(Iterator tokIter) {
 		String predictedLemmas = "";
@@ -17,6 +17,19 @@ public interface ITopicModelProvider extends SharedResourceObject {
 
     void saveModel() throws IOException;
 
+    /**
+     * Causes the model to be saved in the background each time the given number of further documents have been
+     * added to the index. The final {@link #saveModel()} is still required to save the complete index.
+     *
+     * @param numDocuments The number of indexed documents between two background saves, 0 to save only on
+     *                     {@link #saveModel()}.
+     */
+    void setSaveInterval(int numDocuments);
+
+    /**
+     * Adds the topics of a document to the index. This method may be called concurrently by multiple threads
+     * without blocking each other.
+     */
     void addToIndex(String docId, List<Topic> topicList);
 
     /**
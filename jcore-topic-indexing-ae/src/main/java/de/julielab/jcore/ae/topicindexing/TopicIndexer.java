@@ -51,6 +51,10 @@ public class TopicIndexer extends JCasAnnotator_ImplBase {
      * Whether or not to store the processed labels in the index of the model object
      */
     public static final String PARAM_STORE_IN_MODEL_INDEX = "StoreInModelIndex";
+    /**
+     * The number of indexed documents after which the model is saved in the background
+     */
+    public static final String PARAM_MODEL_SAVE_INTERVAL = "ModelSaveInterval";
     private final static Logger log = LoggerFactory.getLogger(TopicIndexer.class);
     MalletTopicModeling tm;
     Model savedModel;
@@ -61,6 +65,8 @@ public class TopicIndexer extends JCasAnnotator_ImplBase {
     private int displayedTopicWords;
     @ConfigurationParameter(name = PARAM_STORE_IN_MODEL_INDEX, description = "Whether or not to store the inferred labels back into the model. This will cause copies of the model to be written next to the original model file. For each run pipeline there will be one such copy that contains the inferred topic for all documents that this pipeline has processed. In case of a single pipeline, all documents will end up in one model copy.")
     private boolean toModelIndex;
+    @ConfigurationParameter(name = PARAM_MODEL_SAVE_INTERVAL, mandatory = false, defaultValue = "0", description = "Only effective if StoreInModelIndex is set to true. The number of indexed documents after which the model copy with the index is saved in the background while the processing continues. The complete index is always saved at the end of the processing. Defaults to 0 which means that the model is only saved at the end.")
+    private int saveInterval;
     @ExternalResource(key = RESOURCE_KEY_MODEL_FILE_NAME, description = "The topic model pretrained by the julielab-topic-modeling software.")
     private ITopicModelProvider topicModelProvider;
     private Object[][] topWords;
@@ -75,15 +81,18 @@ public class TopicIndexer extends JCasAnnotator_ImplBase {
             model_config = (String) aContext.getConfigParameterValue(PARAM_TOPIC_MODEL_CONFIG);
             toModelIndex = (boolean) aContext.getConfigParameterValue(PARAM_STORE_IN_MODEL_INDEX);
             displayedTopicWords = (Integer) aContext.getConfigParameterValue(PARAM_NUM_DISPLAYED_TOPIC_WORDS);
+            saveInterval = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_MODEL_SAVE_INTERVAL)).orElse(0);
             tm = new MalletTopicModeling();
             xmlConfig = tm.loadConfig(model_config);
 
             topicModelProvider = (ITopicModelProvider) aContext.getResourceObject(RESOURCE_KEY_MODEL_FILE_NAME);
             savedModel = topicModelProvider.getModel();
+            if (toModelIndex && saveInterval > 0)
+                topicModelProvider.setSaveInterval(saveInterval);
             if (displayedTopicWords > 0) {
                 topWords = topicModelProvider.getTopWords(displayedTopicWords);
             }
-            System.out.println(savedModel.pubmedIdModelId);
+            log.debug("The topic model contains {} documents", savedModel.pubmedIdModelId.size());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -13,9 +13,24 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Provides the topic model to all {@link TopicIndexer} instances of a pipeline. The inferred document topics are
+ * collected in a concurrent map so that the indexer threads do not block each other. The model is written with
+ * a snapshot of this map as its index, either at the end by {@link #saveModel()} or, if a save interval is set,
+ * additionally in the background while the indexing is still running. Each save replaces the previous file
+ * atomically, so the written model is always complete.
+ */
 public class TopicModelProvider implements ITopicModelProvider {
 
     private final static Logger log = LoggerFactory.getLogger(TopicModelProvider.class);
@@ -25,8 +40,15 @@ public class TopicModelProvider implements ITopicModelProvider {
     private String modelSavePath;
     private boolean saveAllowed;
     private MalletTopicModeling tm;
-    private int numTopicWords;
-    private Object[][] topicWords;
+    // numTopicWords is written after topicWords and read before it, so a reader never gets too few words
+    private volatile int numTopicWords;
+    private volatile Object[][] topicWords;
+    private final ConcurrentHashMap<String, List<Topic>> index = new ConcurrentHashMap<>();
+    private final AtomicInteger numIndexed = new AtomicInteger();
+    private final AtomicBoolean backgroundSavePending = new AtomicBoolean();
+    private final Object saveLock = new Object();
+    private volatile int saveInterval;
+    private ExecutorService saveExecutor;
 
     @Override
     public void load(DataResource dataResource) throws ResourceInitializationException {
@@ -44,12 +66,18 @@ public class TopicModelProvider implements ITopicModelProvider {
     }
 
     @Override
-    public synchronized Object[][] getTopWords(int numwords){
-        if (numwords > numTopicWords) {
-            topicWords = model.malletModel.getTopWords(numwords);
-            numTopicWords = numwords;
+    public Object[][] getTopWords(int numwords) {
+        int numTopicWords = this.numTopicWords;
+        Object[][] topicWords = this.topicWords;
+        if (topicWords != null && numwords <= numTopicWords)
+            return topicWords;
+        synchronized (this) {
+            if (numwords > this.numTopicWords) {
+                this.topicWords = model.malletModel.getTopWords(numwords);
+                this.numTopicWords = numwords;
+            }
+            return this.topicWords;
         }
-        return topicWords;
     }
 
     @Override
@@ -72,20 +100,83 @@ public class TopicModelProvider implements ITopicModelProvider {
     @Override
     public synchronized void saveModel() throws IOException {
         if (saveAllowed) {
+            shutdownSaveExecutor();
+            writeModel();
+            saveAllowed = false;
+        }
+    }
+
+    @Override
+    public void setSaveInterval(int numDocuments) {
+        saveInterval = numDocuments;
+    }
+
+    @Override
+    public void addToIndex(String docId, List<Topic> topicList) {
+        if (index.put(docId, topicList) == null) {
+            int interval = saveInterval;
+            if (interval > 0 && numIndexed.incrementAndGet() % interval == 0)
+                saveInBackground();
+        }
+    }
+
+    /**
+     * Schedules a save of the model with the current index unless a background save is already pending.
+     */
+    private synchronized void saveInBackground() {
+        if (!backgroundSavePending.compareAndSet(false, true))
+            return;
+        if (saveExecutor == null) {
+            saveExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "TopicModelProvider-save");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        saveExecutor.submit(() -> {
+            backgroundSavePending.set(false);
+            try {
+                writeModel();
+            } catch (IOException e) {
+                log.error("Could not save the model in the background", e);
+            }
+        });
+    }
+
+    private void shutdownSaveExecutor() throws IOException {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = saveExecutor;
+            saveExecutor = null;
+        }
+        if (executor == null)
+            return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a background save of the model", e);
+        }
+    }
+
+    /**
+     * Writes the model with a snapshot of the index to a temporary file which then replaces the model file.
+     * While writing, documents can still be added to the index.
+     */
+    private void writeModel() throws IOException {
+        synchronized (saveLock) {
             try {
                 String filename = modelFile.getAbsolutePath() + "-" + InetAddress.getLocalHost().getHostName() + "-"
                         + ManagementFactory.getRuntimeMXBean().getName();
-                tm.saveModel(model, filename);
+                File tmpFile = new File(filename + ".tmp");
+                model.index = new HashMap<>(index);
+                tm.saveModel(model, tmpFile.getAbsolutePath());
+                Files.move(tmpFile.toPath(), new File(filename).toPath(), StandardCopyOption.REPLACE_EXISTING);
                 log.info("Model with index of size {} is written to: {}", model.index.size(), filename);
             } catch (UnknownHostException e) {
                 throw new IOException(e);
             }
-            saveAllowed = false;
         }
     }
-
-    @Override
-    public synchronized void addToIndex(String docId, List<Topic> topicList) {
-        model.index.put(docId, topicList);
-    }
 }
@@ -204,4 +204,40 @@ public class TopicIndexingTest {
         }
     }
 
+    @Test
+    public void testIndexingWithSaveInterval() throws Exception {
+        CollectionReader xmiReader = CollectionReaderFactory.createReader(
+                "de.julielab.jcore.reader.xmi.desc.jcore-xmi-reader",
+                XmiCollectionReader.PARAM_INPUTDIR, "src/test/resources/xmi_data"
+        );
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-document-meta-pubmed-types",
+                "de.julielab.jcore.types.extensions.jcore-document-meta-extension-types",
+                "de.julielab.jcore.types.jcore-document-structure-pubmed-types",
+                "de.julielab.jcore.types.jcore-morpho-syntax-types");
+        CAS aCAS = jCas.getCas();
+
+        AnalysisEngineDescription desc = AnalysisEngineFactory.createEngineDescriptionFromPath(
+                "src/main/resources/de/julielab/jcore/ae/topicindexing/desc/jcore-topic-indexing-ae.xml",
+                TopicIndexer.PARAM_TOPIC_MODEL_CONFIG, "src/test/resources/config_template.xml",
+                TopicIndexer.PARAM_NUM_DISPLAYED_TOPIC_WORDS, 5,
+                TopicIndexer.PARAM_STORE_IN_MODEL_INDEX, true,
+                TopicIndexer.PARAM_MODEL_SAVE_INTERVAL, 1
+        );
+        ExternalResourceFactory.createDependencyAndBind(desc, TopicIndexer.RESOURCE_KEY_MODEL_FILE_NAME, TopicModelProvider.class, new File("src/test/resources/test_topic_model.ser").toURI().toURL().toString());
+        AnalysisEngine topicIndexer = AnalysisEngineFactory.createEngine(desc);
+        while (xmiReader.hasNext()) {
+            xmiReader.getNext(aCAS);
+            topicIndexer.process(aCAS.getJCas());
+            aCAS.reset();
+        }
+        topicIndexer.collectionProcessComplete();
+
+        String filename = "src/test/resources/test_topic_model.ser"
+                + "-" + InetAddress.getLocalHost().getHostName()
+                + "-" + ManagementFactory.getRuntimeMXBean().getName();
+        assertThat(new File(filename + ".tmp")).doesNotExist();
+        Model savedIndexedModel = new MalletTopicModeling().readModel(filename);
+        assertThat(savedIndexedModel.index).containsKeys("11442408", "12390745").hasSize(2);
+    }
+
 }
@@ -15,21 +15,27 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @ResourceMetaData(name = "JCoRe Topics Writer", description = "Writes the topic weights, given the jcore-topic-indexing-ae running before, into a simple text file. Thus, the output consists of a sequency of double numbers encodes as strings, separated by tab characters. The topic ID is just the 0-based index of each number, from left to right in the written file. The first entry of each file is the document ID.")
 @TypeCapability(inputs = {"de.julielab.jcore.types.DocumentTopics"})
 public class TopicsWriter extends JCasAnnotator_ImplBase {
 
     public static final String PARAM_OUTPUT_DIR = "OutputDirectory";
+    public static final String PARAM_STREAMING = "Streaming";
+    public static final String PARAM_FLUSH_THRESHOLD = "FlushThreshold";
+    public static final String PARAM_ROTATION_THRESHOLD = "RotationThreshold";
+    private static final String IN_PROGRESS_SUFFIX = ".inprogress";
     private final static Logger log = LoggerFactory.getLogger(TopicsWriter.class);
     private static int currentConsumerNumber = 0;
     @ConfigurationParameter(name = PARAM_OUTPUT_DIR, description = "The directory to place the files into that contain " +
@@ -37,10 +43,26 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
             "multiple files will be written, each containing a batch of document weights. At the end of processing, " +
             "all these files can just be concatenated to get one large file with the topic weights of all documents.")
     private File outputDirectory;
+    @ConfigurationParameter(name = PARAM_STREAMING, mandatory = false, defaultValue = "false", description = "If set to " +
+            "true, the topic weights are not cached in memory but directly written into a GZIP stream per topic model " +
+            "that is kept open. The output is first written into a file with the suffix '" + IN_PROGRESS_SUFFIX + "' " +
+            "that is atomically renamed to its final name when complete. Defaults to false.")
+    private boolean streaming;
+    @ConfigurationParameter(name = PARAM_FLUSH_THRESHOLD, mandatory = false, defaultValue = "1000", description = "Only " +
+            "used in streaming mode. The number of documents per topic model after which the output stream is flushed " +
+            "to disk. Defaults to 1000.")
+    private int flushThreshold;
+    @ConfigurationParameter(name = PARAM_ROTATION_THRESHOLD, mandatory = false, defaultValue = "0", description = "Only " +
+            "used in streaming mode. If set to a positive number, the current output file of a topic model is " +
+            "finalized after this number of documents and a new file is begun. The files are numbered by an " +
+            "additional suffix '-p' where p is the 0-based file number. Defaults to 0 which means no rotation.")
+    private int rotationThreshold;
     private String pid;
     private String hostName;
     private int consumerNumber;
     private Map<String, List<String>> outputCache = new HashMap<>();
+    private Map<String, StreamingOutput> streamingOutputs = new HashMap<>();
+    private StringBuilder lineBuilder = new StringBuilder();
     private int docNum;
 
     /**
@@ -50,6 +72,9 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
     @Override
     public void initialize(final UimaContext aContext) throws ResourceInitializationException {
         outputDirectory = new File((String) aContext.getConfigParameterValue(PARAM_OUTPUT_DIR));
+        streaming = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_STREAMING)).orElse(false);
+        flushThreshold = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_FLUSH_THRESHOLD)).orElse(1000);
+        rotationThreshold = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_ROTATION_THRESHOLD)).orElse(0);
         pid = getPID();
         hostName = getHostName();
         synchronized (PARAM_OUTPUT_DIR) {
@@ -63,7 +88,7 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
      * is where the actual work happens.
      */
     @Override
-    public void process(final JCas aJCas)  {
+    public void process(final JCas aJCas) throws AnalysisEngineProcessException {
         Collection<DocumentTopics> documentTopicAnnotations = JCasUtil.select(aJCas, DocumentTopics.class);
         String docId;
         try {
@@ -76,6 +101,14 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
             String modelID = topics.getModelID();
             String modelVersion = topics.getModelVersion();
             String mapKey = modelID + "-" + modelVersion;
+            if (streaming) {
+                try {
+                    writeStreaming(mapKey, docId, topics);
+                } catch (IOException e) {
+                    throw new AnalysisEngineProcessException(e);
+                }
+                continue;
+            }
             List<String> cacheForModel = outputCache.compute(mapKey, (key, list) -> list != null ? list : new ArrayList<>());
             String cacheLine = Stream.concat(Stream.of(docId), Arrays.stream(topics.getWeights().toArray()).mapToObj(String::valueOf)).collect(Collectors.joining("\t"));
             cacheForModel.add(cacheLine);
@@ -88,6 +121,11 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
     public void batchProcessComplete() throws AnalysisEngineProcessException {
         super.batchProcessComplete();
         try {
+            if (streaming) {
+                for (StreamingOutput output : streamingOutputs.values())
+                    output.flush();
+                return;
+            }
             writeCache();
         } catch (IOException e) {
             throw new AnalysisEngineProcessException(e);
@@ -98,6 +136,11 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
     public void collectionProcessComplete() throws AnalysisEngineProcessException {
         super.collectionProcessComplete();
         try {
+            if (streaming) {
+                for (StreamingOutput output : streamingOutputs.values())
+                    output.finalizePart();
+                return;
+            }
             writeCache();
         } catch (IOException e) {
             throw new AnalysisEngineProcessException(e);
@@ -108,7 +151,7 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
         if (!outputDirectory.exists())
             outputDirectory.mkdirs();
         for (String mapKey : outputCache.keySet()) {
-            File file = new File(outputDirectory.getAbsolutePath() + File.separator + mapKey + "-" + hostName + "-" + pid + "-writer" + currentConsumerNumber + ".gz");
+            File file = getOutputFile(mapKey, -1);
             try (BufferedWriter bw = FileUtilities.getWriterToFile(file)) {
                 List<String> lines = outputCache.get(mapKey);
                 for (String line : lines) {
@@ -120,6 +163,22 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
         }
     }
 
+    private void writeStreaming(String mapKey, String docId, DocumentTopics topics) throws IOException {
+        StreamingOutput output = streamingOutputs.computeIfAbsent(mapKey, StreamingOutput::new);
+        lineBuilder.setLength(0);
+        lineBuilder.append(docId);
+        for (int i = 0; i < topics.getWeights().size(); i++)
+            lineBuilder.append('\t').append(topics.getWeights().get(i));
+        output.write(lineBuilder);
+    }
+
+    /**
+     * Returns the output file for the given model key. A part number &lt; 0 denotes an unrotated file.
+     */
+    private File getOutputFile(String mapKey, int part) {
+        return new File(outputDirectory.getAbsolutePath() + File.separator + mapKey + "-" + hostName + "-" + pid + "-writer" + consumerNumber + (part >= 0 ? "-" + part : "") + ".gz");
+    }
+
     private String getPID() {
         String id = ManagementFactory.getRuntimeMXBean().getName();
         return id.substring(0, id.indexOf('@'));
@@ -136,4 +195,58 @@ public class TopicsWriter extends JCasAnnotator_ImplBase {
         }
         return hostName;
     }
+
+    /**
+     * The open GZIP output of one topic model in streaming mode. The data is written into an in-progress file that is
+     * moved to its final name when the part is finalized.
+     */
+    private class StreamingOutput {
+        private final String mapKey;
+        private BufferedWriter writer;
+        private File currentFile;
+        private int partNumber;
+        private int linesInPart;
+        private int unflushedLines;
+
+        private StreamingOutput(String mapKey) {
+            this.mapKey = mapKey;
+        }
+
+        private void write(CharSequence line) throws IOException {
+            if (writer == null) {
+                if (!outputDirectory.exists())
+                    outputDirectory.mkdirs();
+                currentFile = getOutputFile(mapKey, rotationThreshold > 0 ? partNumber : -1);
+                File inProgressFile = new File(currentFile.getPath() + IN_PROGRESS_SUFFIX);
+                // syncFlush makes flushing write out all data compressed so far
+                writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(inProgressFile), true), StandardCharsets.UTF_8));
+            }
+            writer.append(line);
+            writer.newLine();
+            ++linesInPart;
+            if (++unflushedLines >= flushThreshold)
+                flush();
+            if (rotationThreshold > 0 && linesInPart >= rotationThreshold) {
+                finalizePart();
+                ++partNumber;
+            }
+        }
+
+        private void flush() throws IOException {
+            if (writer != null)
+                writer.flush();
+            unflushedLines = 0;
+        }
+
+        private void finalizePart() throws IOException {
+            if (writer == null)
+                return;
+            writer.close();
+            writer = null;
+            Files.move(new File(currentFile.getPath() + IN_PROGRESS_SUFFIX).toPath(), currentFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Finalized topics output file {} with {} documents.", currentFile, linesInPart);
+            linesInPart = 0;
+            unflushedLines = 0;
+        }
+    }
 }
@@ -30,6 +30,7 @@ public class TopicsWriterTest {
     @AfterClass
     public static void setup() {
         FileUtils.deleteQuietly(new File("src/test/resources/output"));
+        FileUtils.deleteQuietly(new File("src/test/resources/output-streaming"));
     }
 
     @Test
@@ -83,4 +84,34 @@ public class TopicsWriterTest {
         assertThat(lines.size()).isEqualTo(1);
         assertThat(lines.get(0)).isEqualTo("doc0	0.8	0.9");
     }
+
+    @Test
+    public void testWriteTopicsStreaming() throws Exception {
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-document-meta-types");
+        AnalysisEngine engine = AnalysisEngineFactory.createEngine("de.julielab.jcore.consumer.topics.desc.jcore-topics-writer", TopicsWriter.PARAM_OUTPUT_DIR, "src/test/resources/output-streaming", TopicsWriter.PARAM_STREAMING, true, TopicsWriter.PARAM_ROTATION_THRESHOLD, 2);
+        File outputDir = new File("src/test/resources/output-streaming");
+        for (int i = 0; i < 3; i++) {
+            jCas.reset();
+            DocumentTopics documentTopics = new DocumentTopics(jCas);
+            DoubleArray doubles = new DoubleArray(jCas, 2);
+            doubles.set(0, i);
+            doubles.set(1, 0.5);
+            documentTopics.setWeights(doubles);
+            documentTopics.setModelID("mod1");
+            documentTopics.setModelVersion("1.0");
+            documentTopics.addToIndexes();
+            engine.process(jCas);
+        }
+        // the first part has been finalized after two documents, the second part is still in progress
+        assertThat(outputDir.listFiles((f) -> f.getName().endsWith("-0.gz")).length).isEqualTo(1);
+        assertThat(outputDir.listFiles((f) -> f.getName().endsWith(".inprogress")).length).isEqualTo(1);
+        engine.collectionProcessComplete();
+        assertThat(outputDir.listFiles((f) -> f.getName().endsWith(".inprogress")).length).isEqualTo(0);
+        final File part0 = outputDir.listFiles((f) -> f.getName().endsWith("-0.gz"))[0];
+        final File part1 = outputDir.listFiles((f) -> f.getName().endsWith("-1.gz"))[0];
+        List<String> lines = FileUtilities.getReaderFromFile(part0).lines().collect(Collectors.toList());
+        assertThat(lines).containsExactly("doc0\t0.0\t0.5", "doc1\t1.0\t0.5");
+        lines = FileUtilities.getReaderFromFile(part1).lines().collect(Collectors.toList());
+        assertThat(lines).containsExactly("doc2\t2.0\t0.5");
+    }
 }
@@ -0,0 +1,78 @@
+package de.julielab.jcore.utility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe cache from (word, POS tag) pairs to lemmas for lemmatizer components. At most the largest size
+ * requested via {@link #ensureMaxSize(int)} entries are stored. A full cache is emptied and filled anew which is cheap
+ * because the frequent words of the Zipf-distributed vocabulary are seen again right away.
+ * <p>
+ * A cache must only be shared by lemmatizers that assign the same lemmas, e.g. lemmatizers using the same lexicon.
+ * </p>
+ */
+public class JCoReLemmaCache {
+
+    private final Map<String, Map<String, String>> lemmasByPos = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile int maxSize;
+
+    /**
+     * Raises the maximum number of cached entries to <tt>maxSize</tt>, if it is lower than that.
+     *
+     * @param maxSize The number of entries the cache should be able to hold.
+     */
+    public synchronized void ensureMaxSize(int maxSize) {
+        this.maxSize = Math.max(this.maxSize, maxSize);
+    }
+
+    /**
+     * @return The cached lemma or <tt>null</tt> if the pair has not been cached.
+     */
+    public String get(String word, String pos) {
+        Map<String, String> lemmas = lemmasByPos.get(pos);
+        String lemma = lemmas != null ? lemmas.get(word) : null;
+        if (lemma != null)
+            hits.increment();
+        else
+            misses.increment();
+        return lemma;
+    }
+
+    public void put(String word, String pos, String lemma) {
+        if (size.get() >= maxSize) {
+            synchronized (this) {
+                if (size.get() >= maxSize) {
+                    lemmasByPos.clear();
+                    size.set(0);
+                }
+            }
+        }
+        if (lemmasByPos.computeIfAbsent(pos, p -> new ConcurrentHashMap<>()).putIfAbsent(word, lemma) == null)
+            size.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public String toString() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return String.format("%d entries, %d lookups, hit rate %.1f%%", size(), lookups,
+                lookups > 0 ? 100d * hits / lookups : 0d);
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ *
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ *
+ * Author:
+ *
+ * Description:
+ **/
+package de.julielab.jcore.utility.index;
+
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Use when: You need the annotations beginning within given offset ranges,
+ * e.g. the annotations of each sentence, many times per document and the
+ * index should be reused for multiple documents.
+ * </p>
+ *
+ * Stores the annotations sorted by begin offset, together with their begin and
+ * end offsets in primitive arrays. Annotations with the same begin keep the
+ * order in which they were added, which is the CAS annotation index order when
+ * using {@link #index(JCas, Type)}. Searching is a binary search on the begin
+ * offsets that returns positions in the index, so no objects are created for
+ * queries. Calling {@link #clear()} empties the index but keeps the allocated
+ * arrays for the next document.
+ *
+ * @param <E>
+ *            The annotation type being indexed.
+ */
+public class JCoReOffsetIndex<E extends Annotation> implements JCoReAnnotationIndex<E> {
+	private Annotation[] annotations = new Annotation[16];
+	private int[] begins = new int[16];
+	private int[] ends = new int[16];
+	private long[] sortBuffer;
+	private int size;
+	private boolean frozen;
+
+	public JCoReOffsetIndex() {
+	}
+
+	public JCoReOffsetIndex(JCas jcas, int type) {
+		this(jcas, jcas.getCasType(type));
+	}
+
+	public JCoReOffsetIndex(JCas jcas, Type type) {
+		index(jcas, type);
+		freeze();
+	}
+
+	/**
+	 * Freeze the index to allow searching it. The index can only be searched if
+	 * frozen.
+	 */
+	public void freeze() {
+		frozen = true;
+		for (int i = 1; i < size; i++) {
+			if (begins[i] < begins[i - 1]) {
+				sort();
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Un-freeze the index to allow new elements to be added.
+	 */
+	public void melt() {
+		frozen = false;
+	}
+
+	/**
+	 * Removes all annotations and un-freezes the index. The internal arrays are
+	 * kept for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(annotations, 0, size, null);
+		size = 0;
+		frozen = false;
+	}
+
+	/**
+	 * Adds the whole contents of the CAS annotation index of type <tt>type</tt>
+	 * into the index data structure.
+	 *
+	 * @param jCas
+	 *            A CAS instance.
+	 * @param type
+	 *            The annotation type to index.
+	 */
+	public void index(JCas jCas, int type) {
+		index(jCas, jCas.getCasType(type));
+	}
+
+	/**
+	 * Adds the whole contents of the CAS annotation index of type <tt>type</tt>
+	 * into the index data structure.
+	 *
+	 * @param jCas
+	 *            A CAS instance.
+	 * @param type
+	 *            The annotation type to index.
+	 */
+	@SuppressWarnings("unchecked")
+	public void index(JCas jCas, Type type) {
+		FSIterator<Annotation> it = jCas.getAnnotationIndex(type).iterator();
+		while (it.hasNext())
+			index((E) it.next());
+	}
+
+	/**
+	 * Adds <tt>annotation</tt> into the index data structure.
+	 *
+	 * @param annotation
+	 *            The annotation to add.
+	 */
+	public void index(E annotation) {
+		if (frozen)
+			throw new IllegalStateException("This index is frozen and cannot except further items.");
+		if (size == begins.length) {
+			int newLength = 2 * size;
+			annotations = Arrays.copyOf(annotations, newLength);
+			begins = Arrays.copyOf(begins, newLength);
+			ends = Arrays.copyOf(ends, newLength);
+		}
+		annotations[size] = annotation;
+		begins[size] = annotation.getBegin();
+		ends[size] = annotation.getEnd();
+		++size;
+	}
+
+	@Override
+	public void add(E a) {
+		index(a);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The annotation at position <tt>i</tt> in begin offset order.
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(int i) {
+		return (E) annotations[i];
+	}
+
+	public int getBegin(int i) {
+		return begins[i];
+	}
+
+	public int getEnd(int i) {
+		return ends[i];
+	}
+
+	/**
+	 * @return The position of the first annotation beginning at or after
+	 *         <tt>offset</tt> or {@link #size()} if there is none.
+	 */
+	public int firstBeginningAtOrAfter(int offset) {
+		checkFrozen();
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (begins[mid] < offset)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @return The position of the first annotation beginning after
+	 *         <tt>offset</tt> or {@link #size()} if there is none.
+	 */
+	public int firstBeginningAfter(int offset) {
+		return offset == Integer.MAX_VALUE ? size : firstBeginningAtOrAfter(offset + 1);
+	}
+
+	private void checkFrozen() {
+		if (!frozen)
+			throw new IllegalStateException(
+					"This index is not frozen and cannot be used yet. Freeze the index before searching.");
+	}
+
+	/**
+	 * Stable sort by begin offset. The begin offset and the original position
+	 * are packed into one long so that a primitive sort suffices.
+	 */
+	private void sort() {
+		if (sortBuffer == null || sortBuffer.length < size)
+			sortBuffer = new long[begins.length];
+		for (int i = 0; i < size; i++)
+			sortBuffer[i] = ((long) begins[i] << 32) | i;
+		Arrays.sort(sortBuffer, 0, size);
+		Annotation[] sortedAnnotations = new Annotation[annotations.length];
+		int[] sortedBegins = new int[begins.length];
+		int[] sortedEnds = new int[ends.length];
+		for (int i = 0; i < size; i++) {
+			int position = (int) sortBuffer[i];
+			sortedAnnotations[i] = annotations[position];
+			sortedBegins[i] = begins[position];
+			sortedEnds[i] = ends[position];
+		}
+		annotations = sortedAnnotations;
+		begins = sortedBegins;
+		ends = sortedEnds;
+	}
+}
@@ -0,0 +1,90 @@
+package de.julielab.jcore.utility.instrumentation;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.resource.metadata.OperationalProperties;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.resource.metadata.ResourceMetaData;
+import org.apache.uima.util.CasCreationUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single-threaded pipeline in the style of uimaFIT's <tt>SimplePipeline.runPipeline</tt> that records the time of
+ * the reader and each analysis engine for each document in a {@link PipelineMetrics} object.
+ */
+public class InstrumentedPipeline {
+
+	private InstrumentedPipeline() {
+	}
+
+	/**
+	 * Reads all documents from <tt>reader</tt>, processes them with the given engines in order and calls
+	 * <tt>collectionProcessComplete()</tt> on the engines afterwards. Engines that do not modify the CAS are recorded
+	 * as consumers. The metrics are closed at the end which causes a final report if reporting has been started.
+	 * Like <tt>SimplePipeline</tt>, the engines are destroyed and the reader is closed at the end, also when
+	 * processing fails.
+	 *
+	 * @param reader  The collection reader.
+	 * @param metrics The metrics to record the timings to.
+	 * @param engines The analysis engines.
+	 * @throws UIMAException If reading or processing fails.
+	 * @throws IOException   If reading fails.
+	 */
+	public static void runPipeline(CollectionReader reader, PipelineMetrics metrics, AnalysisEngine... engines)
+			throws UIMAException, IOException {
+		List<ResourceMetaData> metaData = new ArrayList<>();
+		metaData.add(reader.getMetaData());
+		for (AnalysisEngine engine : engines)
+			metaData.add(engine.getMetaData());
+		CAS cas = CasCreationUtils.createCas(metaData);
+
+		String readerName = getName(reader.getMetaData(), reader);
+		metrics.getComponent(readerName, PipelineMetrics.Category.READER);
+		PipelineMetrics.ComponentMetrics[] engineMetrics = new PipelineMetrics.ComponentMetrics[engines.length];
+		for (int i = 0; i < engines.length; i++) {
+			ProcessingResourceMetaData md = engines[i].getProcessingResourceMetaData();
+			OperationalProperties properties = md.getOperationalProperties();
+			PipelineMetrics.Category category = properties != null && !properties.getModifiesCas()
+					? PipelineMetrics.Category.CONSUMER : PipelineMetrics.Category.ANALYSIS;
+			engineMetrics[i] = metrics.getComponent(getName(md, engines[i]), category);
+		}
+
+		try {
+			while (true) {
+				long start = System.nanoTime();
+				if (!reader.hasNext())
+					break;
+				reader.getNext(cas);
+				metrics.record(readerName, PipelineMetrics.Category.READER, System.nanoTime() - start);
+				for (int i = 0; i < engines.length; i++) {
+					start = System.nanoTime();
+					engines[i].process(cas);
+					engineMetrics[i].getLatencies().record(System.nanoTime() - start);
+				}
+				metrics.documentCompleted();
+				cas.reset();
+			}
+			for (AnalysisEngine engine : engines)
+				engine.collectionProcessComplete();
+		} finally {
+			try {
+				metrics.close();
+			} finally {
+				for (AnalysisEngine engine : engines)
+					engine.destroy();
+				reader.close();
+			}
+		}
+	}
+
+	private static String getName(ResourceMetaData metaData, Object component) {
+		if (metaData != null && metaData.getName() != null)
+			return metaData.getName();
+		return component.getClass().getSimpleName();
+	}
+}
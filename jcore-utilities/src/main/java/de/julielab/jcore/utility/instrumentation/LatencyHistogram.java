@@ -0,0 +1,75 @@
+package de.julielab.jcore.utility.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of latencies in nanoseconds with logarithmic buckets. Bucket <tt>i</tt> counts the
+ * latencies in <tt>[2^(i-1), 2^i)</tt>. Thus, percentiles are approximations that are exact up to a factor of two,
+ * which is sufficient to tell fast from slow components, while recording a value costs only a few atomic increments.
+ */
+public class LatencyHistogram {
+
+	private static final int NUM_BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos The latency in nanoseconds. Negative values are counted as 0.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		buckets.incrementAndGet(Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+		count.increment();
+		sum.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return The sum of all recorded latencies in nanoseconds.
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long count = getCount();
+		return count > 0 ? (double) getSum() / count : 0;
+	}
+
+	/**
+	 * Returns an approximation of the given percentile, i.e. the upper bound of the bucket containing the percentile,
+	 * but at most the maximum recorded latency.
+	 *
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The approximated percentile in nanoseconds.
+	 */
+	public long getPercentile(double percentile) {
+		long count = getCount();
+		if (count == 0)
+			return 0;
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		long cumulated = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			cumulated += buckets.get(i);
+			if (cumulated >= rank)
+				return Math.min(getMax(), i == 0 ? 0 : (1L << i) - 1);
+		}
+		return getMax();
+	}
+}
@@ -0,0 +1,102 @@
+package de.julielab.jcore.utility.instrumentation;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CasConsumer;
+import org.apache.uima.collection.CollectionProcessingEngine;
+import org.apache.uima.collection.EntityProcessStatus;
+import org.apache.uima.collection.StatusCallbackListener;
+import org.apache.uima.collection.base_cpm.CasProcessor;
+import org.apache.uima.resource.metadata.OperationalProperties;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.ProcessTrace;
+import org.apache.uima.util.ProcessTraceEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills {@link PipelineMetrics} from the process traces the CPE reports for each document. Register this listener
+ * with {@link CollectionProcessingEngine#addStatusCallbackListener(StatusCallbackListener)} before any listener that
+ * might end the JVM on completion so that the final report is not lost.
+ * <p>
+ * The CPE measures the CAS processors in milliseconds only, so very fast components show up with a latency of 0. The
+ * time the processing threads spend waiting for the reader or the CAS pool is not part of the traces and is thus
+ * reported as waiting time.
+ * </p>
+ */
+public class MetricsStatusCallbackListener implements StatusCallbackListener {
+
+	private final CollectionProcessingEngine cpe;
+	private final PipelineMetrics metrics;
+	private final Map<String, PipelineMetrics.Category> categories = new HashMap<>();
+
+	/**
+	 * @param cpe     The CPE to observe, used to determine which CAS processors are consumers.
+	 * @param metrics The metrics to fill.
+	 * @param threads The number of processing unit threads of the CPE.
+	 */
+	public MetricsStatusCallbackListener(CollectionProcessingEngine cpe, PipelineMetrics metrics, int threads) {
+		this.cpe = cpe;
+		this.metrics = metrics;
+		metrics.setThreads(threads);
+	}
+
+	public PipelineMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void initializationComplete() {
+		if (cpe == null)
+			return;
+		for (CasProcessor processor : cpe.getCasProcessors()) {
+			ProcessingResourceMetaData metaData = processor.getProcessingResourceMetaData();
+			if (metaData == null)
+				continue;
+			OperationalProperties properties = metaData.getOperationalProperties();
+			boolean consumer = processor instanceof CasConsumer || (properties != null && !properties.getModifiesCas());
+			PipelineMetrics.Category category = consumer ? PipelineMetrics.Category.CONSUMER : PipelineMetrics.Category.ANALYSIS;
+			categories.put(metaData.getName(), category);
+			// registers the component so that the table shows the pipeline order
+			metrics.getComponent(metaData.getName(), category);
+		}
+	}
+
+	@Override
+	public void entityProcessComplete(CAS aCas, EntityProcessStatus aStatus) {
+		metrics.documentCompleted();
+		ProcessTrace trace = aStatus.getProcessTrace();
+		if (trace == null)
+			return;
+		for (ProcessTraceEvent event : trace.getEvents()) {
+			String name = event.getComponentName();
+			metrics.record(name, categories.getOrDefault(name, PipelineMetrics.Category.ANALYSIS),
+					event.getDuration() * 1000000L);
+		}
+	}
+
+	@Override
+	public void batchProcessComplete() {
+		// nothing to do
+	}
+
+	@Override
+	public void collectionProcessComplete() {
+		metrics.close();
+	}
+
+	@Override
+	public void paused() {
+		// nothing to do
+	}
+
+	@Override
+	public void resumed() {
+		// nothing to do
+	}
+
+	@Override
+	public void aborted() {
+		metrics.close();
+	}
+}
@@ -0,0 +1,277 @@
+package de.julielab.jcore.utility.instrumentation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the timings of the components of a pipeline and the document throughput. For each component, the
+ * latencies are recorded in a {@link LatencyHistogram}. The time of the processing threads that is not accounted for
+ * by any component is reported as waiting time, e.g. for CAS pool, queues or the reader, depending on what is
+ * measured directly.
+ * <p>
+ * The metrics may be dumped periodically as a compact table to the log and, optionally, exported as JSON or CSV.
+ * They are filled by {@link MetricsStatusCallbackListener} for CPEs and by {@link InstrumentedPipeline} for uimaFIT
+ * style pipelines, or directly by {@link #record(String, Category, long)}.
+ * </p>
+ */
+public class PipelineMetrics implements Closeable {
+
+	/**
+	 * The role of a component in the pipeline.
+	 */
+	public enum Category {
+		READER, ANALYSIS, CONSUMER, WAIT
+	}
+
+	/**
+	 * The metrics of a single component.
+	 */
+	public static class ComponentMetrics {
+		private final String name;
+		private final Category category;
+		private final LatencyHistogram latencies = new LatencyHistogram();
+
+		private ComponentMetrics(String name, Category category) {
+			this.name = name;
+			this.category = category;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Category getCategory() {
+			return category;
+		}
+
+		public LatencyHistogram getLatencies() {
+			return latencies;
+		}
+	}
+
+	private static final Logger log = LoggerFactory.getLogger(PipelineMetrics.class);
+	private static final String WAIT_NAME = "<wait>";
+
+	private final Map<String, ComponentMetrics> componentsByName = new ConcurrentHashMap<>();
+	private final List<ComponentMetrics> components = new CopyOnWriteArrayList<>();
+	private final LongAdder documents = new LongAdder();
+	private final long startTime = System.nanoTime();
+	private volatile int threads = 1;
+	private long lastReportTime = startTime;
+	private long lastReportDocuments;
+	private double lastThroughput;
+	private ScheduledExecutorService reporter;
+	private File exportFile;
+
+	/**
+	 * @param threads The number of threads processing documents in parallel. This is required to determine the
+	 *                waiting time of the threads.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Returns the metrics of the given component, creating them if necessary.
+	 */
+	public ComponentMetrics getComponent(String name, Category category) {
+		ComponentMetrics metrics = componentsByName.get(name);
+		if (metrics == null) {
+			synchronized (components) {
+				metrics = componentsByName.get(name);
+				if (metrics == null) {
+					metrics = new ComponentMetrics(name, category);
+					components.add(metrics);
+					componentsByName.put(name, metrics);
+				}
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Records the time a component took for one document.
+	 */
+	public void record(String component, Category category, long nanos) {
+		getComponent(component, category).latencies.record(nanos);
+	}
+
+	/**
+	 * Counts a document that has passed the complete pipeline.
+	 */
+	public void documentCompleted() {
+		documents.increment();
+	}
+
+	public long getDocuments() {
+		return documents.sum();
+	}
+
+	/**
+	 * @return The components in the order of their first occurrence.
+	 */
+	public List<ComponentMetrics> getComponents() {
+		return new ArrayList<>(components);
+	}
+
+	/**
+	 * @return The time in nanoseconds the processing threads spent outside of the recorded components since the
+	 * creation of these metrics.
+	 */
+	public long getWaitTime() {
+		long recorded = 0;
+		for (ComponentMetrics component : components)
+			recorded += component.latencies.getSum();
+		return Math.max(0, threads * (System.nanoTime() - startTime) - recorded);
+	}
+
+	/**
+	 * Dumps the metrics every <tt>intervalSeconds</tt> to the log and, if <tt>exportFile</tt> is not null, exports
+	 * them to the file, as CSV if the file name ends with <tt>.csv</tt> and as JSON otherwise. The reporting ends with
+	 * {@link #close()}.
+	 */
+	public synchronized void startReporting(long intervalSeconds, File exportFile) {
+		this.exportFile = exportFile;
+		if (reporter != null)
+			return;
+		reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "PipelineMetrics reporter");
+			t.setDaemon(true);
+			return t;
+		});
+		reporter.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Logs the metrics table and exports the metrics if an export file was given.
+	 */
+	public synchronized void report() {
+		long now = System.nanoTime();
+		long docs = getDocuments();
+		if (now > lastReportTime)
+			lastThroughput = (docs - lastReportDocuments) / ((now - lastReportTime) / 1e9);
+		lastReportTime = now;
+		lastReportDocuments = docs;
+		log.info("Pipeline metrics:\n{}", formatTable());
+		if (exportFile != null) {
+			try {
+				export(exportFile);
+			} catch (IOException e) {
+				log.warn("Could not export the pipeline metrics to {}", exportFile, e);
+			}
+		}
+	}
+
+	/**
+	 * Stops the periodic reporting and does a final report.
+	 */
+	@Override
+	public synchronized void close() {
+		if (reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+			report();
+		}
+	}
+
+	/**
+	 * Exports the metrics to the given file, as CSV if the file name ends with <tt>.csv</tt> and as JSON otherwise.
+	 * The file is replaced atomically so that readers never see a partially written file.
+	 */
+	public void export(File file) throws IOException {
+		File tmpFile = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8))) {
+			if (file.getName().endsWith(".csv"))
+				writeCsv(w);
+			else
+				writeJson(w);
+		}
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * @return The metrics as a table with one row per component, a row for the waiting time and a summary line.
+	 */
+	public String formatTable() {
+		long elapsed = System.nanoTime() - startTime;
+		double threadTime = (double) threads * elapsed;
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "%-40s %-9s %10s %10s %6s %9s %9s %9s %9s %9s%n", "component", "category",
+				"count", "total s", "share", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+		for (ComponentMetrics component : components) {
+			LatencyHistogram l = component.latencies;
+			sb.append(String.format(Locale.ROOT, "%-40s %-9s %10d %10.1f %5.1f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+					abbreviate(component.name), component.category, l.getCount(), l.getSum() / 1e9,
+					100 * l.getSum() / threadTime, l.getMean() / 1e6, l.getPercentile(50) / 1e6,
+					l.getPercentile(95) / 1e6, l.getPercentile(99) / 1e6, l.getMax() / 1e6));
+		}
+		long wait = getWaitTime();
+		sb.append(String.format(Locale.ROOT, "%-40s %-9s %10s %10.1f %5.1f%%%n", WAIT_NAME, Category.WAIT, "",
+				wait / 1e9, 100 * wait / threadTime));
+		sb.append(String.format(Locale.ROOT, "%d documents in %.1f s with %d threads: %.1f documents/s overall, %.1f documents/s in the last interval",
+				getDocuments(), elapsed / 1e9, threads, getDocuments() / (elapsed / 1e9), lastThroughput));
+		return sb.toString();
+	}
+
+	public void writeCsv(Writer w) throws IOException {
+		w.write("component,category,count,total_ms,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+		for (ComponentMetrics component : components) {
+			LatencyHistogram l = component.latencies;
+			w.write(String.format(Locale.ROOT, "\"%s\",%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+					component.name.replace("\"", "\"\""), component.category, l.getCount(), l.getSum() / 1e6,
+					l.getMean() / 1e6, l.getPercentile(50) / 1e6, l.getPercentile(95) / 1e6,
+					l.getPercentile(99) / 1e6, l.getMax() / 1e6));
+		}
+		w.write(String.format(Locale.ROOT, "\"%s\",%s,,%.3f,,,,,%n", WAIT_NAME, Category.WAIT, getWaitTime() / 1e6));
+	}
+
+	public void writeJson(Writer w) throws IOException {
+		long elapsed = System.nanoTime() - startTime;
+		w.write(String.format(Locale.ROOT, "{\"documents\":%d,\"elapsed_ms\":%.3f,\"threads\":%d,\"documents_per_second\":%.3f,\"wait_ms\":%.3f,\"components\":[",
+				getDocuments(), elapsed / 1e6, threads, getDocuments() / (elapsed / 1e9), getWaitTime() / 1e6));
+		boolean first = true;
+		for (ComponentMetrics component : components) {
+			LatencyHistogram l = component.latencies;
+			if (!first)
+				w.write(',');
+			first = false;
+			w.write(String.format(Locale.ROOT, "{\"component\":\"%s\",\"category\":\"%s\",\"count\":%d,\"total_ms\":%.3f,\"mean_ms\":%.3f,\"p50_ms\":%.3f,\"p95_ms\":%.3f,\"p99_ms\":%.3f,\"max_ms\":%.3f}",
+					escapeJson(component.name), component.category, l.getCount(), l.getSum() / 1e6, l.getMean() / 1e6,
+					l.getPercentile(50) / 1e6, l.getPercentile(95) / 1e6, l.getPercentile(99) / 1e6, l.getMax() / 1e6));
+		}
+		w.write("]}\n");
+	}
+
+	private static String abbreviate(String name) {
+		return name.length() <= 40 ? name : "..." + name.substring(name.length() - 37);
+	}
+
+	private static String escapeJson(String s) {
+		StringBuilder sb = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < 0x20)
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		return sb.toString();
+	}
+}
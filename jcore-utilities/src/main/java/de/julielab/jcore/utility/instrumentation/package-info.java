@@ -0,0 +1,8 @@
+/**
+ * Timing and throughput instrumentation for UIMA pipelines. {@link de.julielab.jcore.utility.instrumentation.PipelineMetrics}
+ * collects per-component latency histograms and the document throughput, dumps them periodically as a table to the
+ * log and exports them as JSON or CSV. It is filled by
+ * {@link de.julielab.jcore.utility.instrumentation.MetricsStatusCallbackListener} for CPEs and by
+ * {@link de.julielab.jcore.utility.instrumentation.InstrumentedPipeline} for uimaFIT style pipelines.
+ */
+package de.julielab.jcore.utility.instrumentation;
@@ -0,0 +1,42 @@
+package de.julielab.jcore.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JCoReLemmaCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        JCoReLemmaCache cache = new JCoReLemmaCache();
+        cache.ensureMaxSize(10);
+        assertNull(cache.get("horses", "NNS"));
+        cache.put("horses", "NNS", "horse");
+        cache.put("saw", "VBD", "see");
+        cache.put("saw", "NN", "saw");
+        assertEquals("horse", cache.get("horses", "NNS"));
+        assertEquals("see", cache.get("saw", "VBD"));
+        assertEquals("saw", cache.get("saw", "NN"));
+        assertNull(cache.get("horses", "VBZ"));
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testMaxSize() {
+        JCoReLemmaCache cache = new JCoReLemmaCache();
+        cache.ensureMaxSize(2);
+        // a smaller size does not shrink the cache
+        cache.ensureMaxSize(1);
+        cache.put("horses", "NNS", "horse");
+        cache.put("bushes", "NNS", "bush");
+        assertEquals(2, cache.size());
+        // the full cache is emptied before the new entry is added
+        cache.put("were", "VBD", "be");
+        assertEquals(1, cache.size());
+        assertNull(cache.get("horses", "NNS"));
+        assertEquals("be", cache.get("were", "VBD"));
+    }
+}
@@ -0,0 +1,64 @@
+/** 
+ * 
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials 
+ * are made available under the terms of the BSD-2-Clause License
+ *
+ * Author: 
+ * 
+ * Description:
+ **/
+package de.julielab.jcore.utility.index;
+
+import de.julielab.jcore.types.Token;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class JCoReOffsetIndexTest {
+	@Test
+	public void testSearch() throws Exception {
+		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		cas.setDocumentText("token1 token2 token3 token4");
+		new Token(cas, 0, 6).addToIndexes();
+		new Token(cas, 7, 13).addToIndexes();
+		new Token(cas, 14, 20).addToIndexes();
+		new Token(cas, 21, 27).addToIndexes();
+
+		JCoReOffsetIndex<Token> index = new JCoReOffsetIndex<>(cas, Token.type);
+		assertEquals(4, index.size());
+		assertEquals(1, index.firstBeginningAtOrAfter(7));
+		assertEquals(2, index.firstBeginningAfter(7));
+		assertEquals(1, index.firstBeginningAtOrAfter(1));
+		assertEquals(0, index.firstBeginningAtOrAfter(0));
+		assertEquals(4, index.firstBeginningAtOrAfter(22));
+		assertEquals("token3", index.get(2).getCoveredText());
+		assertEquals(14, index.getBegin(2));
+		assertEquals(20, index.getEnd(2));
+	}
+
+	@Test
+	public void testSortAndReuse() throws Exception {
+		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		cas.setDocumentText("token1 token2 token3 token4");
+		Token t1 = new Token(cas, 7, 13);
+		Token t2 = new Token(cas, 0, 6);
+		Token t3 = new Token(cas, 7, 10);
+		JCoReOffsetIndex<Token> index = new JCoReOffsetIndex<>();
+		for (int i = 0; i < 20; i++) {
+			index.clear();
+			index.index(t1);
+			index.index(t2);
+			index.index(t3);
+			index.freeze();
+			// sorted by begin, equal begins in insertion order
+			assertSame(t2, index.get(0));
+			assertSame(t1, index.get(1));
+			assertSame(t3, index.get(2));
+			assertEquals(3, index.firstBeginningAfter(7));
+		}
+	}
+}
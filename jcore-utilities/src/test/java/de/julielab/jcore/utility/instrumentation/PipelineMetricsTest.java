@@ -0,0 +1,123 @@
+package de.julielab.jcore.utility.instrumentation;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineMetricsTest {
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++)
+			histogram.record(i * 1000);
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050000, histogram.getSum());
+		assertEquals(100000, histogram.getMax());
+		// the percentiles are exact up to a factor of two
+		long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= 50000 && p50 < 100000);
+		assertEquals(100000, histogram.getPercentile(99));
+		assertEquals(0, new LatencyHistogram().getPercentile(50));
+	}
+
+	@Test
+	public void testOutput() throws Exception {
+		PipelineMetrics metrics = new PipelineMetrics();
+		metrics.setThreads(2);
+		metrics.record("reader", PipelineMetrics.Category.READER, 1000000);
+		metrics.record("an \"engine\"", PipelineMetrics.Category.ANALYSIS, 2000000);
+		metrics.documentCompleted();
+
+		String table = metrics.formatTable();
+		assertTrue(table.contains("reader"));
+		assertTrue(table.contains("<wait>"));
+		assertTrue(table.contains("1 documents"));
+
+		StringWriter csv = new StringWriter();
+		metrics.writeCsv(csv);
+		String[] lines = csv.toString().split("\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[2].startsWith("\"an \"\"engine\"\"\",ANALYSIS,1,2.000"));
+
+		StringWriter json = new StringWriter();
+		metrics.writeJson(json);
+		assertTrue(json.toString().startsWith("{\"documents\":1,"));
+		assertTrue(json.toString().contains("{\"component\":\"an \\\"engine\\\"\",\"category\":\"ANALYSIS\",\"count\":1,\"total_ms\":2.000"));
+	}
+
+	@Test
+	public void testInstrumentedPipeline() throws Exception {
+		PipelineMetrics metrics = new PipelineMetrics();
+		AnalysisEngine engine = AnalysisEngineFactory.createEngine(TestAnnotator.class);
+		InstrumentedPipeline.runPipeline(CollectionReaderFactory.createReader(TestReader.class), metrics, engine);
+		assertEquals(3, metrics.getDocuments());
+		List<PipelineMetrics.ComponentMetrics> components = metrics.getComponents();
+		assertEquals(2, components.size());
+		assertEquals(PipelineMetrics.Category.READER, components.get(0).getCategory());
+		assertEquals(3, components.get(0).getLatencies().getCount());
+		assertEquals(PipelineMetrics.Category.ANALYSIS, components.get(1).getCategory());
+		assertEquals(3, components.get(1).getLatencies().getCount());
+	}
+
+	@Test
+	public void testInstrumentedPipelineReleasesComponents() throws Exception {
+		TestReader.closed = false;
+		TestAnnotator.destroyed = false;
+		InstrumentedPipeline.runPipeline(CollectionReaderFactory.createReader(TestReader.class), new PipelineMetrics(),
+				AnalysisEngineFactory.createEngine(TestAnnotator.class));
+		assertTrue(TestReader.closed);
+		assertTrue(TestAnnotator.destroyed);
+	}
+
+	public static class TestReader extends JCasCollectionReader_ImplBase {
+		private static boolean closed;
+		private int documents;
+
+		@Override
+		public void getNext(JCas jCas) throws CollectionException {
+			jCas.setDocumentText("document " + documents++);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return documents < 3;
+		}
+
+		@Override
+		public Progress[] getProgress() {
+			return new Progress[0];
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	public static class TestAnnotator extends JCasAnnotator_ImplBase {
+		private static boolean destroyed;
+
+		@Override
+		public void process(JCas jCas) {
+			jCas.getDocumentText();
+		}
+
+		@Override
+		public void destroy() {
+			destroyed = true;
+			super.destroy();
+		}
+	}
+}
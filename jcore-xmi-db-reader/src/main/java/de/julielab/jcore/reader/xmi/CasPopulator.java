@@ -16,6 +16,7 @@ import de.julielab.xml.binary.BinaryXmiBuilder;
 import org.apache.commons.lang.StringUtils;
 import org.apache.uima.cas.CASException;
 import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.fit.util.JCasUtil;
@@ -45,7 +46,7 @@ public class CasPopulator {
     private final int numDataRetrievedDataFields;
     private final String dataTable;
     private final String[] additionalTableNames;
-    private final XmiBuilder builder;
+    private final ThreadLocal<XmiBuilder> builders;
     private final Boolean logFinalXmi;
     private final int xercesAttributeBufferSize;
     private final Boolean storeMaxXmiId;
@@ -53,9 +54,9 @@ public class CasPopulator {
     private final String tableName;
     private final Map<Integer, String> reverseBinaryMapping;
     private final Map<String, Boolean> featuresToMapBinary;
-    private final BinaryXmiBuilder binaryBuilder;
+    private final ThreadLocal<BinaryXmiBuilder> binaryBuilders;
     private final boolean useBinaryFormat;
-    private final BinaryJeDISNodeDecoder binaryJeDISNodeDecoder;
+    private final ThreadLocal<BinaryJeDISNodeDecoder> binaryJeDISNodeDecoders;
     private boolean joinTables;
 
     /**
@@ -77,18 +78,24 @@ public class CasPopulator {
         this.numDataRetrievedDataFields = initializer.getNumDataRetrievedDataFields();
         this.dataTable = dataTable;
         this.additionalTableNames = initializer.getUnqualifiedAnnotationModuleNames();
-        this.builder = initializer.getXmiBuilder();
-        binaryBuilder = initializer.getBinaryBuilder();
         useBinaryFormat = initializer.isUseBinaryFormat();
         this.logFinalXmi = initializer.getLogFinalXmi();
         this.xercesAttributeBufferSize = initializer.getXercesAttributeBufferSize();
         this.storeMaxXmiId = initializer.getStoreMaxXmiId();
         reverseBinaryMapping = initializer.getReverseBinaryMapping();
         featuresToMapBinary = initializer.getFeaturesToMapBinary();
+        // The builders and decoders keep state while building a document. Each thread preparing documents gets
+        // its own instances, the thread of the component itself uses those of the initializer.
+        Thread initializingThread = Thread.currentThread();
         if (useBinaryFormat) {
-            binaryJeDISNodeDecoder = new BinaryJeDISNodeDecoder(Stream.of(additionalTableNames).collect(Collectors.toSet()), true);
-        } else
-            binaryJeDISNodeDecoder = null;
+            builders = null;
+            binaryBuilders = ThreadLocal.withInitial(() -> Thread.currentThread() == initializingThread ? initializer.getBinaryBuilder() : initializer.newBinaryXmiBuilder());
+            binaryJeDISNodeDecoders = ThreadLocal.withInitial(() -> new BinaryJeDISNodeDecoder(Stream.of(additionalTableNames).collect(Collectors.toSet()), true));
+        } else {
+            builders = ThreadLocal.withInitial(() -> Thread.currentThread() == initializingThread ? initializer.getXmiBuilder() : initializer.newXmiBuilder());
+            binaryBuilders = null;
+            binaryJeDISNodeDecoders = null;
+        }
     }
 
     /**
@@ -100,12 +107,35 @@ public class CasPopulator {
      * @throws CasPopulationException If deserialization fails.
      */
     public void populateCas(byte[][] data, JCas jCas) throws CasPopulationException {
+        apply(prepare(data, jCas.getTypeSystem()), jCas);
+    }
 
+    /**
+     * <p>
+     * Performs the first part of {@link #populateCas(byte[][], JCas)} that does not require a CAS: decoding the binary
+     * format, if used, and assembling the complete XMI document from the base document and annotation data.
+     * </p>
+     * <p>
+     * This method may be called concurrently from multiple threads. Each thread uses its own XMI builder.
+     * Errors that occur while building the XMI are recorded in the returned object and are reported by
+     * {@link #apply(PreparedDocument, JCas)}.
+     * </p>
+     *
+     * @param data       The XMI data that was read from one or more database tables.
+     * @param typeSystem The type system of the CASes to populate.
+     * @return The prepared document to pass to {@link #apply(PreparedDocument, JCas)}.
+     * @throws CasPopulationException If the base document data is missing.
+     */
+    public PreparedDocument prepare(byte[][] data, TypeSystem typeSystem) throws CasPopulationException {
         String docId = getPkStringFromData(data);
         log.debug("Reading document with ID {} as delivered from database.", docId);
         byte[] documentXmi = data[1];
         if (documentXmi == null)
             throw new CasPopulationException("The base document XMI data for document with ID " + docId + " is null.");
+        PreparedDocument prepared = new PreparedDocument(data);
+        // Don't join tables, assume a complete XMI document that is deserialized as is.
+        if (!joinTables && !readsBaseDocument)
+            return prepared;
         // In this variable we record the total size of the retrieved data. We
         // use this information for the XMIBuilder to avoid resizing buffers and
         // even OutOfMemory errors
@@ -129,36 +159,60 @@ public class CasPopulator {
                     xmiData.put(columnName, new ByteArrayInputStream(data[i]));
                 }
             }
-            if (joinTables || readsBaseDocument) {
-                if (data.length != numDataRetrievedDataFields) {
-                    throw new CollectionException(new IllegalStateException(
-                            "The number of retrieved fields does not match the expected number (expected: "
-                                    + numDataRetrievedDataFields + ", actual: " + data.length + "). Make sure"
-                                    + " to set the primary key fields in the annotation schema to false, since this"
-                                    + " should be retrieved only once from the document table."));
-                }
+            if (data.length != numDataRetrievedDataFields) {
+                throw new CollectionException(new IllegalStateException(
+                        "The number of retrieved fields does not match the expected number (expected: "
+                                + numDataRetrievedDataFields + ", actual: " + data.length + "). Make sure"
+                                + " to set the primary key fields in the annotation schema to false, since this"
+                                + " should be retrieved only once from the document table."));
+            }
 
-                log.trace("Received {} bytes of XMI data, taking base document and annotation XMI together", dataSize);
-                if (!useBinaryFormat)
+            log.trace("Received {} bytes of XMI data, taking base document and annotation XMI together", dataSize);
+            log.trace(
+                    "Building complete XMI data from separate XMI base document and annotation data retrieved from the database.");
+            ByteArrayOutputStream baos;
+            try {
+                if (!useBinaryFormat) {
+                    XmiBuilder builder = builders.get();
                     builder.setInputSize((int) dataSize);
-
-                log.trace(
-                        "Building complete XMI data from separate XMI base document and annotation data retrieved from the database.");
-                ByteArrayOutputStream baos;
-                try {
-                    if (!useBinaryFormat)
-                        baos = builder.buildXmi(xmiData, jCas.getTypeSystem());
-                    else {
-                        final BinaryDecodingResult decodingResult = binaryJeDISNodeDecoder.decode(xmiData, jCas.getTypeSystem(), reverseBinaryMapping, featuresToMapBinary, binaryBuilder.getNamespaces());
-                        baos = binaryBuilder.buildXmi(decodingResult);
-                    }
-                } catch (OutOfMemoryError e) {
-                    log.error("Document with ID {} could not be built from XMI: {}", new String(data[0]), e);
-                    log.error("Full error:", e);
-                    setPrimaryKeyAsDocId(data, true, jCas);
-                    return;
+                    baos = builder.buildXmi(xmiData, typeSystem);
+                } else {
+                    BinaryXmiBuilder binaryBuilder = binaryBuilders.get();
+                    final BinaryDecodingResult decodingResult = binaryJeDISNodeDecoders.get().decode(xmiData, typeSystem, reverseBinaryMapping, featuresToMapBinary, binaryBuilder.getNamespaces());
+                    baos = binaryBuilder.buildXmi(decodingResult);
                 }
-                byte[] xmiByteData = baos.toByteArray();
+            } catch (OutOfMemoryError e) {
+                log.error("Document with ID {} could not be built from XMI: {}", new String(data[0]), e);
+                log.error("Full error:", e);
+                prepared.outOfMemory = true;
+                return prepared;
+            }
+            prepared.xmi = baos.toByteArray();
+        } catch (Exception e) {
+            prepared.exception = e;
+        }
+        return prepared;
+    }
+
+    /**
+     * Performs the second part of {@link #populateCas(byte[][], JCas)}: deserializes the XMI document created by
+     * {@link #prepare(byte[][], TypeSystem)} into <code>jCas</code> and sets the document meta data.
+     *
+     * @param prepared The document data returned by {@link #prepare(byte[][], TypeSystem)}.
+     * @param jCas     The CAS to populate.
+     * @throws CasPopulationException If the preparation or the deserialization failed.
+     */
+    public void apply(PreparedDocument prepared, JCas jCas) throws CasPopulationException {
+        byte[][] data = prepared.data;
+        if (prepared.outOfMemory) {
+            setPrimaryKeyAsDocId(data, true, jCas);
+            return;
+        }
+        try {
+            if (prepared.exception != null)
+                throw prepared.exception;
+            if (prepared.xmi != null) {
+                byte[] xmiByteData = prepared.xmi;
                 if (logFinalXmi)
                     log.info(new String(xmiByteData, StandardCharsets.UTF_8));
                 try {
@@ -180,7 +234,7 @@ public class CasPopulator {
                 try {
                     XmiCasDeserializer.deserialize(new ByteArrayInputStream(data[1]), jCas.getCas());
                 } catch (SAXException e) {
-                    String docData = new String(documentXmi, StandardCharsets.UTF_8);
+                    String docData = new String(data[1], StandardCharsets.UTF_8);
                     if (!docData.contains("xmi:XMI xmlns:xmi=\"http://www.omg.org/XMI\""))
                         throw new CollectionException(new IllegalArgumentException("The document that has been received from the database does not " +
                                 "appear to contain valid XMI data. The beginning of the document data is: " +
@@ -275,4 +329,19 @@ public class CasPopulator {
             xmiMetaData.addToIndexes();
         }
     }
+
+    /**
+     * The intermediate result of {@link #prepare(byte[][], TypeSystem)}: the database row, the assembled XMI document,
+     * if the data is not read as complete XMI documents, and the error that occurred while assembling, if any.
+     */
+    public static class PreparedDocument {
+        private final byte[][] data;
+        private byte[] xmi;
+        private Exception exception;
+        private boolean outOfMemory;
+
+        private PreparedDocument(byte[][] data) {
+            this.data = data;
+        }
+    }
 }
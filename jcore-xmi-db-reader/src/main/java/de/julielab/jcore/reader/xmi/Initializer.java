@@ -46,6 +46,7 @@ public class Initializer {
     private int numDataRetrievedDataFields;
     private XmiBuilder builder;
     private BinaryXmiBuilder binaryBuilder;
+    private Map<String, String> nsAndXmiVersion;
     private Boolean logFinalXmi;
     private DataBaseConnector dbc;
     private Initializable initializable;
@@ -104,6 +105,26 @@ public class Initializer {
         return binaryBuilder;
     }
 
+    /**
+     * The XMI builders are not thread safe. This method creates an additional builder configured like
+     * {@link #getXmiBuilder()} for the use in another thread.
+     *
+     * @return A new XMI builder.
+     */
+    public XmiBuilder newXmiBuilder() {
+        // if the maxXmlAttributeSize is 0, the default is used
+        return new XmiBuilder(nsAndXmiVersion, unqualifiedAnnotationModuleNames, maxXmlAttributeSize);
+    }
+
+    /**
+     * Creates an additional binary XMI builder configured like {@link #getBinaryBuilder()} for the use in another thread.
+     *
+     * @return A new binary XMI builder.
+     */
+    public BinaryXmiBuilder newBinaryXmiBuilder() {
+        return new BinaryXmiBuilder(nsAndXmiVersion);
+    }
+
     private void initAfterParameterReading() {
         initializationComplete = true;
         numAdditionalTables = unqualifiedAnnotationModuleNames == null ? 0 : unqualifiedAnnotationModuleNames.length;
@@ -118,7 +139,7 @@ public class Initializer {
             }
         // If we don't join tables, we assume that the read documents are
         // complete and valid. Thus, ignore the namespace table.
-        Map<String, String> nsAndXmiVersion = null;
+        nsAndXmiVersion = null;
         if (joinTables || readsBaseDocument) {
             try (CoStoSysConnection ignored = dbc.obtainOrReserveConnection()) {
                 nsAndXmiVersion = getNamespaceMap();
@@ -129,10 +150,9 @@ public class Initializer {
             }
         }
         if (!useBinaryFormat) {
-            // if the maxXmlAttributeSize is 0, the default is used
-            builder = new XmiBuilder(nsAndXmiVersion, unqualifiedAnnotationModuleNames, maxXmlAttributeSize);
+            builder = newXmiBuilder();
         } else {
-            binaryBuilder = new BinaryXmiBuilder(nsAndXmiVersion);
+            binaryBuilder = newBinaryXmiBuilder();
         }
 
         numDataRetrievedDataFields = dbc.getFieldConfiguration().getColumnsToRetrieve().length;
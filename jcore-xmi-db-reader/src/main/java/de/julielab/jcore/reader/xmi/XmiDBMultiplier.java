@@ -11,6 +11,7 @@ import de.julielab.xml.binary.BinaryJeDISNodeEncoder;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.AbstractCas;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
@@ -24,24 +25,45 @@ import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
 public class XmiDBMultiplier extends DBMultiplier implements Initializable {
     public static final String PARAM_LOG_FINAL_XMI = Initializer.PARAM_LOG_FINAL_XMI;
+    public static final String PARAM_PREPARATION_THREADS = "PreparationThreads";
     private final static Logger log = LoggerFactory.getLogger(XmiDBMultiplier.class);
     @ConfigurationParameter(name = PARAM_LOG_FINAL_XMI, mandatory = false, defaultValue = "false", description = "For debugging purposes. If set to true, before parsing the final XMI data assembled from the annotation modules, it is printed to console.")
     private boolean logFinalXmi;
+    @ConfigurationParameter(name = PARAM_PREPARATION_THREADS, mandatory = false, defaultValue = "0", description = "The number of threads that decode the database rows and assemble the XMI documents ahead of time while the CASes are populated with previously prepared documents. This moves the decoding of the JeDIS binary format and the XMI building out of the pipeline thread. At most twice this number of documents are prepared ahead. The default of 0 prepares each document in the pipeline thread when its CAS is populated.")
+    private int preparationThreads;
     private Initializer initializer;
     private CasPopulator casPopulator;
     private String[] xmiModuleAnnotationNames;
     private boolean doGzip;
     private boolean useBinaryFormat;
+    private ExecutorService preparationExecutor;
+    /**
+     * The documents being prepared by the {@link #preparationExecutor} in the order they were read from the database.
+     */
+    private Deque<Future<CasPopulator.PreparedDocument>> preparedDocuments;
+    private TypeSystem typeSystem;
 
     @Override
     public void initialize(UimaContext aContext) throws ResourceInitializationException {
         super.initialize(aContext);
         logFinalXmi = Optional.ofNullable((Boolean) aContext.getConfigParameterValue(PARAM_LOG_FINAL_XMI)).orElse(false);
+        preparationThreads = Optional.ofNullable((Integer) aContext.getConfigParameterValue(PARAM_PREPARATION_THREADS)).orElse(0);
+        if (preparationThreads > 0) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            preparationExecutor = Executors.newFixedThreadPool(preparationThreads, r -> {
+                Thread t = new Thread(r, "XmiDBMultiplier-preparation-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            preparedDocuments = new ArrayDeque<>(2 * preparationThreads);
+        }
     }
 
     @Override
@@ -80,14 +102,17 @@ public class XmiDBMultiplier extends DBMultiplier implements Initializable {
     public AbstractCas next() throws AnalysisEngineProcessException {
         JCas jCas = getEmptyJCas();
         try {
-            if (documentDataIterator.hasNext()) {
+            if (hasNext()) {
                 log.trace("Returning next CAS");
                 try {
                     initializer.initializeAnnotationTableNames(jCas);
                 } catch (ResourceInitializationException e) {
                     throw new AnalysisEngineProcessException(e);
                 }
-                populateCas(jCas);
+                if (preparationExecutor != null)
+                    populateCasFromPreparedDocument(jCas);
+                else
+                    populateCas(jCas);
             }
         } catch (Throwable throwable) {
             log.error("Error while reading document from the database: ", throwable);
@@ -109,6 +134,44 @@ public class XmiDBMultiplier extends DBMultiplier implements Initializable {
         }
     }
 
+    /**
+     * Fills the queue of documents in preparation from the database rows, takes the oldest document from the queue
+     * and populates the CAS with it.
+     *
+     * @param jCas The CAS to populate.
+     * @throws AnalysisEngineProcessException If preparing or populating the CAS fails.
+     */
+    private void populateCasFromPreparedDocument(JCas jCas) throws AnalysisEngineProcessException {
+        if (casPopulator == null)
+            throw new AnalysisEngineProcessException(new IllegalStateException("Initialization of the component was not finished. See previous errors to learn the reason. Cannot continue."));
+        if (typeSystem == null)
+            typeSystem = jCas.getTypeSystem();
+        while (preparedDocuments.size() < 2 * preparationThreads && documentDataIterator.hasNext()) {
+            final byte[][] data = documentDataIterator.next();
+            if (data != null)
+                preparedDocuments.add(preparationExecutor.submit(() -> casPopulator.prepare(data, typeSystem)));
+            else
+                preparedDocuments.add(CompletableFuture.completedFuture(null));
+        }
+        try {
+            final CasPopulator.PreparedDocument prepared = preparedDocuments.poll().get();
+            log.trace("Populating CAS with {}", casPopulator);
+            if (prepared != null)
+                casPopulator.apply(prepared, jCas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisEngineProcessException(e);
+        } catch (ExecutionException e) {
+            throw new AnalysisEngineProcessException(e.getCause());
+        } catch (CasPopulationException e) {
+            throw new AnalysisEngineProcessException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return (preparedDocuments != null && !preparedDocuments.isEmpty()) || super.hasNext();
+    }
 
     @Override
     public String[] getAdditionalTableNames() {
@@ -214,5 +277,14 @@ public class XmiDBMultiplier extends DBMultiplier implements Initializable {
     public void collectionProcessComplete() throws AnalysisEngineProcessException {
         log.info("Closing database connector.");
         dbc.close();
+        if (preparationExecutor != null)
+            preparationExecutor.shutdown();
+    }
+
+    @Override
+    public void destroy() {
+        if (preparationExecutor != null)
+            preparationExecutor.shutdownNow();
+        super.destroy();
     }
 }
@@ -56,6 +56,15 @@ public class XmiDBMultiplierTest {
 
     @Test(threadPoolSize = 3, invocationCount = 10, timeOut = 500000)
     public void testXmiDBMultiplierReader() throws Exception {
+        readAndCheckDocuments();
+    }
+
+    @Test
+    public void testXmiDBMultiplierWithPreparationThreads() throws Exception {
+        readAndCheckDocuments(XmiDBMultiplier.PARAM_PREPARATION_THREADS, 2);
+    }
+
+    private void readAndCheckDocuments(Object... multiplierParameters) throws Exception {
         DataBaseConnector dbc = DBTestUtils.getDataBaseConnector(postgres);
         String xmisubset;
         synchronized (XmiDBMultiplierDifferentNsSchemaTest.class) {
@@ -75,7 +84,7 @@ public class XmiDBMultiplierTest {
                 XmiDBReader.PARAM_TABLE, xmisubset,
                 XmiDBReader.PARAM_RESET_TABLE, true
         );
-        final AnalysisEngine multiplier = AnalysisEngineFactory.createEngine(XmiDBMultiplier.class);
+        final AnalysisEngine multiplier = AnalysisEngineFactory.createEngine(XmiDBMultiplier.class, multiplierParameters);
         JCas jCas = XmiDBSetupHelper.getJCasWithRequiredTypes();
         List<String> tokenText = new ArrayList<>();
         List<String> sentenceText = new ArrayList<>();
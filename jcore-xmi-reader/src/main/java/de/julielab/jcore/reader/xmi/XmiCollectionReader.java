@@ -11,17 +11,17 @@
 package de.julielab.jcore.reader.xmi;
 
 import org.apache.uima.cas.CAS;
-import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.collection.CollectionReader_ImplBase;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.resource.ResourceConfigurationException;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.CasIOUtils;
 import org.apache.uima.util.Progress;
 import org.apache.uima.util.ProgressImpl;
-import org.xml.sax.SAXException;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -29,7 +29,9 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
 /**
- * A simple collection reader that reads CASes in XMI format from a directory in the filesystem.
+ * A simple collection reader that reads CASes in XMI format from a directory in the filesystem. Files in one of
+ * UIMA's binary serialization formats, as written by the JCoRe XMI writer, are recognized by their header and read
+ * as well.
  */
 public class XmiCollectionReader extends CollectionReader_ImplBase {
 
@@ -44,8 +46,15 @@ public class XmiCollectionReader extends CollectionReader_ImplBase {
 	 */
 	public static final String PARAM_RECURSIVE = "SearchRecursively";
 
+	/**
+	 * The name of the file in the input directory that holds the type system of binary CAS files that do not embed
+	 * their type system, as written by the JCoRe XMI writer.
+	 */
+	public static final String TYPE_SYSTEM_FILE = "typesystem.tsi";
+
 	private ArrayList<File> mFiles;
 	private int mCurrentIndex;
+	private byte[] typeSystem;
 
 	@ConfigurationParameter(
 			name = PARAM_RECURSIVE,
@@ -57,7 +66,7 @@ public class XmiCollectionReader extends CollectionReader_ImplBase {
 	@ConfigurationParameter(
 			name = PARAM_INPUTDIR,
 			mandatory = true,
-			description = "File path to the directory to read XMI files from.")
+			description = "File path to the directory to read the CAS files from. Files with the extensions .xmi, .xcas, .bcas and .bins are read, also when compressed with GZIP (.gz, .gzip) or ZIP (.zip).")
 	private String file;
 
 	/**
@@ -88,6 +97,14 @@ public class XmiCollectionReader extends CollectionReader_ImplBase {
 			}
 		});
 		readXmiFilesInDir(mFiles, directory);
+		File typeSystemFile = new File(directory, TYPE_SYSTEM_FILE);
+		if (typeSystemFile.exists()) {
+			try {
+				typeSystem = Files.readAllBytes(typeSystemFile.toPath());
+			} catch (IOException e) {
+				throw new ResourceInitializationException(e);
+			}
+		}
 		if (searchRecursively) {
 			for (File subDir : mDirectories)
 				readXmiFilesInDir(mFiles, subDir);
@@ -98,7 +115,8 @@ public class XmiCollectionReader extends CollectionReader_ImplBase {
 		File[] xmiFiles = directory.listFiles(new FileFilter() {
 			public boolean accept(File pathname) {
 				String fileName = pathname.getName();
-				return fileName.endsWith("xmi") || fileName.endsWith("gz")
+				return fileName.endsWith("xmi") || fileName.endsWith("bcas") || fileName.endsWith("bins")
+						|| fileName.endsWith("xcas") || fileName.endsWith("gz")
 						|| fileName.endsWith("gzip")
 						|| fileName.endsWith("zip");
 			}
@@ -128,11 +146,15 @@ public class XmiCollectionReader extends CollectionReader_ImplBase {
 			is = new ZipInputStream(is);
 			((ZipInputStream) is).getNextEntry();
 		} // else: do nothing, the original FileInputStream suffices.
+		// the format is detected from the header of the data
+		if (!is.markSupported())
+			is = new BufferedInputStream(is);
 
 		try {
-			XmiCasDeserializer.deserialize(is, aCAS);
-		} catch (SAXException e) {
-			throw new CollectionException(e);
+			if (typeSystem != null)
+				CasIOUtils.load(is, new ByteArrayInputStream(typeSystem), aCAS);
+			else
+				CasIOUtils.load(is, aCAS);
 		} finally {
 			is.close();
 		}
@@ -12,15 +12,29 @@ package de.julielab.jcore.reader.xmi;
 
 import de.julielab.jcore.types.EventMention;
 import de.julielab.jcore.types.Gene;
+import org.apache.uima.cas.SerialFormat;
 import org.apache.uima.collection.CollectionReader;
 import org.apache.uima.fit.factory.CollectionReaderFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.CasIOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class XmiCollectionReaderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testUimaFitIntegration() throws Exception {
 		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
@@ -35,4 +49,92 @@ public class XmiCollectionReaderTest {
 		assertTrue(cas.getAnnotationIndex(Gene.type).iterator().hasNext());
 		assertTrue(cas.getAnnotationIndex(EventMention.type).iterator().hasNext());
 	}
+
+	@Test
+	public void testBinaryFormat() throws Exception {
+		JCas xmiCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		CollectionReader reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, "src/test/resources/input");
+		reader.getNext(xmiCas.getCas());
+
+		// write the document in compressed binary format 6 with embedded type system, as plain and as gzipped file
+		File binaryDir = folder.newFolder("binary");
+		try (OutputStream os = new FileOutputStream(new File(binaryDir, "1335418.bcas"))) {
+			CasIOUtils.save(xmiCas.getCas(), os, SerialFormat.COMPRESSED_FILTERED_TSI);
+		}
+		try (OutputStream os = new GZIPOutputStream(new FileOutputStream(new File(binaryDir, "1335418.bcas.gz")))) {
+			CasIOUtils.save(xmiCas.getCas(), os, SerialFormat.COMPRESSED_FILTERED_TSI);
+		}
+		System.out.println("Size of the XMI file: " + new File("src/test/resources/input/1335418.xmi").length()
+				+ " bytes, binary: " + new File(binaryDir, "1335418.bcas").length() + " bytes, gzipped binary: "
+				+ new File(binaryDir, "1335418.bcas.gz").length() + " bytes");
+
+		reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, binaryDir.getAbsolutePath());
+		int numDocuments = 0;
+		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		while (reader.hasNext()) {
+			cas.reset();
+			reader.getNext(cas.getCas());
+			assertEquals(xmiCas.getDocumentText(), cas.getDocumentText());
+			assertEquals(xmiCas.getAnnotationIndex().size(), cas.getAnnotationIndex().size());
+			assertEquals(xmiCas.getAnnotationIndex(Gene.type).size(), cas.getAnnotationIndex(Gene.type).size());
+			assertEquals(xmiCas.getAnnotationIndex(EventMention.type).size(), cas.getAnnotationIndex(EventMention.type).size());
+			++numDocuments;
+		}
+		assertEquals(2, numDocuments);
+	}
+
+	@Test
+	public void testBinaryFormatWithSeparateTypeSystem() throws Exception {
+		JCas xmiCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		CollectionReader reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, "src/test/resources/input");
+		reader.getNext(xmiCas.getCas());
+
+		// format 6 without the type system which is written once into the directory instead
+		File binaryDir = folder.newFolder("binary");
+		try (OutputStream os = new FileOutputStream(new File(binaryDir, "1335418.bcas"))) {
+			CasIOUtils.save(xmiCas.getCas(), os, SerialFormat.COMPRESSED_FILTERED);
+		}
+		try (OutputStream os = new FileOutputStream(new File(binaryDir, XmiCollectionReader.TYPE_SYSTEM_FILE))) {
+			CasIOUtils.writeTypeSystem(xmiCas.getCas(), os, true);
+		}
+		System.out.println("Size of the XMI file: " + new File("src/test/resources/input/1335418.xmi").length()
+				+ " bytes, binary without type system: " + new File(binaryDir, "1335418.bcas").length() + " bytes");
+
+		reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, binaryDir.getAbsolutePath());
+		assertTrue(reader.hasNext());
+		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		reader.getNext(cas.getCas());
+		assertEquals(xmiCas.getDocumentText(), cas.getDocumentText());
+		assertEquals(xmiCas.getAnnotationIndex().size(), cas.getAnnotationIndex().size());
+		assertEquals(xmiCas.getAnnotationIndex(Gene.type).size(), cas.getAnnotationIndex(Gene.type).size());
+		assertFalse(reader.hasNext());
+	}
+
+	@Test
+	public void testSerializedAndXcasFormats() throws Exception {
+		JCas xmiCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		CollectionReader reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, "src/test/resources/input");
+		reader.getNext(xmiCas.getCas());
+
+		// the default file extensions of the respective formats, as used by the JCoRe XMI writer
+		File dir = folder.newFolder("serialized");
+		try (OutputStream os = new FileOutputStream(new File(dir, "1335418.bins"))) {
+			CasIOUtils.save(xmiCas.getCas(), os, SerialFormat.SERIALIZED_TSI);
+		}
+		try (OutputStream os = new FileOutputStream(new File(dir, "1335418.xcas"))) {
+			CasIOUtils.save(xmiCas.getCas(), os, SerialFormat.XCAS);
+		}
+
+		reader = CollectionReaderFactory.createReader(XmiCollectionReader.class, XmiCollectionReader.PARAM_INPUTDIR, dir.getAbsolutePath());
+		int numDocuments = 0;
+		JCas cas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		while (reader.hasNext()) {
+			cas.reset();
+			reader.getNext(cas.getCas());
+			assertEquals(xmiCas.getDocumentText(), cas.getDocumentText());
+			assertEquals(xmiCas.getAnnotationIndex(Gene.type).size(), cas.getAnnotationIndex(Gene.type).size());
+			++numDocuments;
+		}
+		assertEquals(2, numDocuments);
+	}
 }
@@ -37,6 +37,7 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JFSIndexRepository;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceProcessException;
+import org.apache.uima.util.CasIOUtils;
 import org.apache.uima.util.ProcessTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,9 @@ import java.io.*;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
@@ -67,14 +71,33 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 	public static final String PARAM_COMPRESS_SINGLE = "CompressSingle";
 	public static final String PARAM_FILE_NAME_TYPE = "FileNameType";
 	public static final String PARAM_FILE_NAME_FEATURE = "FileNameFeature";
-	private static final String XMI_EXTENSION = ".xmi";
+	public static final String PARAM_FORMAT = "Format";
+	public static final String PARAM_WRITER_THREADS = "WriterThreads";
+	public static final String PARAM_MAX_ARCHIVE_SIZE = "MaxArchiveSize";
+	public static final String PARAM_MAX_ARCHIVE_ENTRIES = "MaxArchiveEntries";
+	public static final String PARAM_MAX_ARCHIVE_AGE = "MaxArchiveAge";
 	private static final String GZIP_EXTENSION = ".gz";
+	/**
+	 * The file in the output directory where the type system is stored for binary formats that do not embed it. The
+	 * JCoRe XMI reader picks this file up automatically.
+	 */
+	public static final String TYPE_SYSTEM_FILE = "typesystem.tsi";
+	/**
+	 * The binary formats whose documents do not contain their type system.
+	 */
+	private static final Set<SerialFormat> FORMATS_WITHOUT_TYPE_SYSTEM = EnumSet.of(SerialFormat.BINARY,
+			SerialFormat.COMPRESSED, SerialFormat.COMPRESSED_FILTERED, SerialFormat.SERIALIZED);
 
 	private final static String DEFAULT_FILE_NAME_TYPE = "de.julielab.jcore.types.Header";
 	private final static String DEFAULT_FILE_NAME_FEATURE = "docId";
 	private final static boolean DEFAULT_COMPRESS = false;
 	private final static boolean DEFAULT_COMPRESS_SINGLE = false;
 	private final static boolean DEFAULT_CREATE_BATCH_SUBDIRS = false;
+	private final static SerialFormat DEFAULT_FORMAT = SerialFormat.XMI;
+	private final static int DEFAULT_WRITER_THREADS = 0;
+	private final static int DEFAULT_MAX_ARCHIVE_SIZE = 0;
+	private final static int DEFAULT_MAX_ARCHIVE_ENTRIES = 0;
+	private final static int DEFAULT_MAX_ARCHIVE_AGE = 300;
 
 	private static Set<Integer> randomNumbers = new HashSet<Integer>();
 
@@ -90,6 +113,19 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 	private String fileNameTypeName;
 	@ConfigurationParameter(name = PARAM_FILE_NAME_FEATURE, mandatory = false)
 	private String fileNameFeatureName;
+	@ConfigurationParameter(name = PARAM_FORMAT, mandatory = false, defaultValue = "XMI")
+	private SerialFormat format;
+	@ConfigurationParameter(name = PARAM_WRITER_THREADS, mandatory = false)
+	private int writerThreads;
+	@ConfigurationParameter(name = PARAM_MAX_ARCHIVE_SIZE, mandatory = false)
+	private int maxArchiveSize;
+	@ConfigurationParameter(name = PARAM_MAX_ARCHIVE_ENTRIES, mandatory = false)
+	private int maxArchiveEntries;
+	@ConfigurationParameter(name = PARAM_MAX_ARCHIVE_AGE, mandatory = false)
+	private int maxArchiveAge;
+	private String fileExtension;
+	private boolean typeSystemWritten;
+	private ParallelCasWriter parallelWriter;
 	
 	private File currentSubDir;
 	private static AtomicInteger doc = new AtomicInteger();
@@ -136,6 +172,26 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 		LOGGER.info("trying to read file name from " + fileNameTypeName + "."
 				+ fileNameFeatureName);
 
+		String formatName = (String) aContext.getConfigParameterValue(PARAM_FORMAT);
+		if (formatName != null) {
+			try {
+				format = SerialFormat.valueOf(formatName.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new ResourceInitializationException(e);
+			}
+		} else {
+			format = DEFAULT_FORMAT;
+		}
+		// a projection requires a target type system and unknown is no format at all
+		if (format == SerialFormat.UNKNOWN || format == SerialFormat.COMPRESSED_PROJECTION) {
+			LOGGER.error("The serialization format " + format + " is not supported.");
+			throw new ResourceInitializationException(
+					new IllegalArgumentException("Unsupported serialization format " + format + " given for parameter " + PARAM_FORMAT));
+		}
+		fileExtension = "." + format.getDefaultFileExtension();
+		typeSystemWritten = !FORMATS_WITHOUT_TYPE_SYSTEM.contains(format);
+		LOGGER.info("writing CASes in format " + format);
+
 		if (aContext.getConfigParameterValue(PARAM_COMPRESS_SINGLE) != null) {
 			compressSingle = (Boolean) aContext.getConfigParameterValue(PARAM_COMPRESS_SINGLE);
 		} else {
@@ -172,9 +228,28 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 				LOGGER.info("writing XMIs to subdir " + currentSubDir.getPath());
 			}
 		}
+		writerThreads = getIntParameter(aContext, PARAM_WRITER_THREADS, DEFAULT_WRITER_THREADS);
+		maxArchiveSize = getIntParameter(aContext, PARAM_MAX_ARCHIVE_SIZE, DEFAULT_MAX_ARCHIVE_SIZE);
+		maxArchiveEntries = getIntParameter(aContext, PARAM_MAX_ARCHIVE_ENTRIES, DEFAULT_MAX_ARCHIVE_ENTRIES);
+		maxArchiveAge = getIntParameter(aContext, PARAM_MAX_ARCHIVE_AGE, DEFAULT_MAX_ARCHIVE_AGE);
+		if (writerThreads > 0) {
+			// serialization stays on the calling thread, compression and writing is done by the writer threads
+			ParallelCasWriter.Mode mode = compressSingle ? ParallelCasWriter.Mode.ZIP
+					: compress ? ParallelCasWriter.Mode.GZIP : ParallelCasWriter.Mode.PLAIN;
+			parallelWriter = new ParallelCasWriter(mode, outputDir, writerThreads, maxArchiveSize * 1024L * 1024L,
+					maxArchiveEntries, maxArchiveAge * 1000L, this::getNewUniqueFileName);
+			LOGGER.info("compressing and writing with " + writerThreads + " threads, each with its own zip file of at most "
+					+ maxArchiveSize + " MB, " + maxArchiveEntries + " entries and " + maxArchiveAge
+					+ " seconds (0 = unlimited) if CompressSingle is true");
+		}
 		doc.set(0); // counter for documents
 	}
 
+	private int getIntParameter(UimaContext aContext, String name, int defaultValue) {
+		Integer value = (Integer) aContext.getConfigParameterValue(name);
+		return value != null ? value : defaultValue;
+	}
+
 	private String getNewUniqueFileName() throws ResourceProcessException {
 		// create unique index path
 		String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
@@ -286,8 +361,8 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 		if (outFileName.length() == 0) {
 			outFileName.append(doc);
 		}
-		// add xmi extension
-		outFileName.append(XMI_EXTENSION);
+		// add xmi extension or the extension of the chosen binary format
+		outFileName.append(fileExtension);
 		// if compress is true, add gzip extension
 		if (compress) {
 			outFileName.append(GZIP_EXTENSION);
@@ -317,9 +392,9 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 	}
 
 	/**
-	 * Serialize a CAS to a file in XMI format. If parameter compress is true,
-	 * gzip the XMI. if parameter compressSingel is true, add CAS to giant zip
-	 * file.
+	 * Serialize a CAS to a file in XMI format or the configured binary format.
+	 * If parameter compress is true, gzip the XMI. if parameter compressSingel
+	 * is true, add CAS to giant zip file.
 	 * 
 	 * @param aCas
 	 *            CAS to serialize
@@ -333,14 +408,22 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 	private void writeXmi(CAS aCas, String fileName) throws IOException,
 			SAXException, ResourceProcessException {
 
-		// write one big compressed file
-		if (compressSingle) {
+		if (!typeSystemWritten) {
+			writeTypeSystem(aCas);
+			typeSystemWritten = true;
+		}
+		if (parallelWriter != null) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(aCas.getDocumentText() != null ? 8 * aCas.getDocumentText().length() : 8192);
+			serialize(aCas, out);
+			parallelWriter.write(createBatchSubdirs ? currentSubDir : outputDir, fileName, out.toByteArray());
+		} else if (compressSingle) {
+			// write one big compressed file
 			if (!zipReady) {
 				setUpNewGiantZipFile();
 				zipReady = true;
 			}
 			zipOutStream.putNextEntry(new ZipEntry(fileName));
-			XmiCasSerializer.serialize(aCas, outStream);
+			serialize(aCas, outStream);
 			outStream.flush();
 		} else {
 			File outFile;
@@ -352,22 +435,74 @@ public class CasToXmiConsumer extends JCasAnnotator_ImplBase {
 			if (compress) {
 				GZIPOutputStream out = new GZIPOutputStream(
 						new FileOutputStream(outFile));
-				XmiCasSerializer.serialize(aCas, out);
+				serialize(aCas, out);
 				out.finish();
 				out.close();
 			} else {
-				FileOutputStream out = new FileOutputStream(outFile);
-				XmiCasSerializer.serialize(aCas, out);
+				OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile));
+				serialize(aCas, out);
 				out.close();
 			}
 		}
 
 	}
 
+	/**
+	 * Writes the type system of the CAS to {@link #TYPE_SYSTEM_FILE} in the output directory. The file is written to
+	 * a temporary file first and then moved to its destination so that concurrent writers do not corrupt it.
+	 */
+	private void writeTypeSystem(CAS aCas) throws IOException {
+		File tmpFile = File.createTempFile(TYPE_SYSTEM_FILE, ".tmp", outputDir);
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+			CasIOUtils.writeTypeSystem(aCas, out, true);
+		}
+		Files.move(tmpFile.toPath(), new File(outputDir, TYPE_SYSTEM_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		LOGGER.info("Wrote type system file " + TYPE_SYSTEM_FILE + " for format " + format);
+	}
+
+	private void serialize(CAS aCas, OutputStream out) throws IOException, SAXException {
+		if (format == SerialFormat.XMI)
+			XmiCasSerializer.serialize(aCas, out);
+		else
+			CasIOUtils.save(aCas, out, format);
+	}
+
+	@Override
+	public void collectionProcessComplete() throws AnalysisEngineProcessException {
+		super.collectionProcessComplete();
+		closeParallelWriter();
+	}
+
+	@Override
+	public void destroy() {
+		try {
+			closeParallelWriter();
+		} catch (AnalysisEngineProcessException e) {
+			LOGGER.error("Could not write all CASes", e);
+		}
+		super.destroy();
+	}
+
+	/**
+	 * Waits for the writer threads to write all outstanding CASes and to finish their zip files.
+	 */
+	private void closeParallelWriter() throws AnalysisEngineProcessException {
+		if (parallelWriter != null) {
+			try {
+				parallelWriter.close();
+			} catch (IOException e) {
+				throw new AnalysisEngineProcessException(e);
+			}
+		}
+	}
+
 	public void batchProcessComplete(ProcessTrace processTrace)
 			throws IOException, ResourceProcessException {
 		if (createBatchSubdirs) {
-			if (compressSingle) {
+			if (compressSingle && parallelWriter != null) {
+				// the writer threads finish their zip files and start new ones for the next batch
+				parallelWriter.rollOver();
+			} else if (compressSingle) {
 				// close stream
 				try {
 					outStream.close();
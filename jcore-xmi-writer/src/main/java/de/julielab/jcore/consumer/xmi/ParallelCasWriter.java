@@ -0,0 +1,322 @@
+/**
+ *
+ * Copyright (c) 2017, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD-2-Clause License
+ *
+ * Author:
+ *
+ * Description:
+ **/
+package de.julielab.jcore.consumer.xmi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compresses and writes already serialized CASes on a fixed number of writer threads. The serialized documents are
+ * handed over via a bounded queue; when all writers are busy and the queue is full, {@link #write(File, String, byte[])}
+ * blocks the caller until there is space again.
+ * <p>
+ * In the zip mode, each writer thread owns its own archive, so there is no contention on a shared output stream. The
+ * archive is rolled over to a new one as soon as it exceeds the configured size, number of entries or age, or when
+ * {@link #rollOver()} is called. In all modes, output is first written to a file with the suffix <tt>.tmp</tt> which
+ * is moved to its final name only after it has been completely written. Thus, after a crash, all files without the
+ * <tt>.tmp</tt> suffix are complete and valid. The age limit bounds the number of documents lost by a crash.
+ * </p>
+ */
+class ParallelCasWriter implements Closeable {
+
+	enum Mode {
+		PLAIN, GZIP, ZIP
+	}
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelCasWriter.class);
+	private static final String TMP_EXTENSION = ".tmp";
+	private static final Document END = new Document(null, null, null, 0);
+	/**
+	 * The maximum time in milliseconds an idle writer waits for a document before it checks whether its archive is
+	 * due to be finished.
+	 */
+	private static final long POLL_INTERVAL = 1000;
+
+	private final Mode mode;
+	private final File outputDir;
+	private final long maxArchiveSize;
+	private final int maxArchiveEntries;
+	private final long maxArchiveAge;
+	private final Callable<String> archiveNameSupplier;
+	private final BlockingQueue<Document> queue;
+	private final List<Thread> writers = new ArrayList<>();
+	private volatile Exception failure;
+	/**
+	 * Incremented by {@link #rollOver()}. Documents of a new generation are not written into archives containing
+	 * documents of an earlier generation.
+	 */
+	private volatile int archiveGeneration;
+	private volatile boolean closed;
+
+	/**
+	 * @param mode
+	 *            How to write the documents.
+	 * @param outputDir
+	 *            The directory for the zip archives.
+	 * @param numThreads
+	 *            The number of writer threads.
+	 * @param maxArchiveSize
+	 *            The number of compressed bytes after which a zip archive is finished and a new one started, 0 for no
+	 *            limit.
+	 * @param maxArchiveEntries
+	 *            The number of entries after which a zip archive is finished and a new one started, 0 for no limit.
+	 * @param maxArchiveAge
+	 *            The number of milliseconds after which a zip archive is finished and a new one started, 0 for no
+	 *            limit.
+	 * @param archiveNameSupplier
+	 *            Delivers unique names for the zip archives, without extension.
+	 */
+	ParallelCasWriter(Mode mode, File outputDir, int numThreads, long maxArchiveSize, int maxArchiveEntries,
+			long maxArchiveAge, Callable<String> archiveNameSupplier) {
+		this.mode = mode;
+		this.outputDir = outputDir;
+		this.maxArchiveSize = maxArchiveSize;
+		this.maxArchiveEntries = maxArchiveEntries;
+		this.maxArchiveAge = maxArchiveAge;
+		this.archiveNameSupplier = archiveNameSupplier;
+		this.queue = new ArrayBlockingQueue<>(2 * numThreads);
+		for (int i = 0; i < numThreads; i++) {
+			Thread writer = new Thread(new Writer(), "CasToXmiConsumer-writer-" + i);
+			writer.setDaemon(true);
+			writer.start();
+			writers.add(writer);
+		}
+	}
+
+	/**
+	 * Schedules a serialized document for writing. Blocks while the queue of the writer threads is full.
+	 *
+	 * @param directory
+	 *            The directory for the document in the plain and gzip modes. Ignored in the zip mode.
+	 * @param fileName
+	 *            The file or zip entry name of the document.
+	 * @param data
+	 *            The serialized document.
+	 * @throws IOException
+	 *             If a writer thread has failed before.
+	 * @throws IllegalStateException
+	 *             If this writer has already been closed.
+	 */
+	void write(File directory, String fileName, byte[] data) throws IOException {
+		checkFailure();
+		Document document = new Document(directory, fileName, data, archiveGeneration);
+		try {
+			// the writer threads are gone after closing, so a full queue must not block forever
+			do {
+				if (closed)
+					throw new IllegalStateException("The CAS writer has already been closed, cannot write " + fileName);
+			} while (!queue.offer(document, POLL_INTERVAL, TimeUnit.MILLISECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a CAS writer thread.");
+		}
+	}
+
+	/**
+	 * Lets all writers finish their current zip archive before they write the next document or when they are idle.
+	 * Documents scheduled after this call go into new archives.
+	 */
+	void rollOver() {
+		++archiveGeneration;
+	}
+
+	/**
+	 * Writes all outstanding documents, finishes all archives and stops the writer threads.
+	 *
+	 * @throws IOException
+	 *             If a writer thread has failed.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			for (int i = 0; i < writers.size(); i++)
+				queue.put(END);
+			for (Thread writer : writers)
+				writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the CAS writer threads to finish.");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException {
+		Exception e = failure;
+		if (e != null)
+			throw new IOException("Writing a CAS failed", e);
+	}
+
+	private static void commit(File tmpFile, File file) throws IOException {
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static class Document {
+		private final File directory;
+		private final String fileName;
+		private final byte[] data;
+		private final int generation;
+
+		private Document(File directory, String fileName, byte[] data, int generation) {
+			this.directory = directory;
+			this.fileName = fileName;
+			this.data = data;
+			this.generation = generation;
+		}
+	}
+
+	private class Writer implements Runnable {
+		private ZipOutputStream zipOutStream;
+		private CountingOutputStream archiveBytes;
+		private File archive;
+		private File tmpArchive;
+		private int archiveEntries;
+		private long archiveStart;
+		private int generation;
+
+		@Override
+		public void run() {
+			try {
+				Document document;
+				while ((document = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS)) != END) {
+					// after a failure, the queue is still drained to not block the callers
+					if (failure != null)
+						continue;
+					try {
+						if (isArchiveDue(document))
+							finishArchive();
+						if (document == null)
+							continue;
+						if (mode == Mode.ZIP)
+							writeToArchive(document);
+						else
+							writeToFile(document);
+					} catch (Exception e) {
+						LOGGER.error("Could not write " + (document != null ? document.fileName : "the zip archive " + archive), e);
+						failure = e;
+						abandonArchive();
+					}
+				}
+				finishArchive();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				LOGGER.error("Could not finish the zip archive " + archive, e);
+				failure = e;
+			}
+		}
+
+		private void writeToFile(Document document) throws IOException {
+			File file = new File(document.directory, document.fileName);
+			File tmpFile = new File(document.directory, document.fileName + TMP_EXTENSION);
+			OutputStream os = new FileOutputStream(tmpFile);
+			if (mode == Mode.GZIP)
+				os = new GZIPOutputStream(os, 1 << 16);
+			try (OutputStream out = os) {
+				out.write(document.data);
+			}
+			commit(tmpFile, file);
+		}
+
+		/**
+		 * @param document
+		 *            The next document to write or <tt>null</tt> if the writer is idle.
+		 * @return Whether the current zip archive has reached one of its limits or has been rolled over.
+		 */
+		private boolean isArchiveDue(Document document) {
+			return zipOutStream != null && ((maxArchiveEntries > 0 && archiveEntries >= maxArchiveEntries)
+					|| (maxArchiveSize > 0 && archiveBytes.count >= maxArchiveSize)
+					|| (maxArchiveAge > 0 && System.currentTimeMillis() - archiveStart >= maxArchiveAge)
+					|| generation != (document != null ? document.generation : archiveGeneration));
+		}
+
+		private void writeToArchive(Document document) throws Exception {
+			if (zipOutStream == null) {
+				String name = archiveNameSupplier.call() + ".zip";
+				archive = new File(outputDir, name);
+				tmpArchive = new File(outputDir, name + TMP_EXTENSION);
+				archiveBytes = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(tmpArchive), 1 << 16));
+				zipOutStream = new ZipOutputStream(archiveBytes);
+				archiveEntries = 0;
+				archiveStart = System.currentTimeMillis();
+				generation = document.generation;
+				LOGGER.debug("Started zip archive {}", tmpArchive);
+			}
+			zipOutStream.putNextEntry(new ZipEntry(document.fileName));
+			zipOutStream.write(document.data);
+			zipOutStream.closeEntry();
+			++archiveEntries;
+		}
+
+		/**
+		 * Closes a broken archive without moving it to its final name.
+		 */
+		private void abandonArchive() {
+			if (zipOutStream == null)
+				return;
+			try {
+				zipOutStream.close();
+			} catch (IOException e) {
+				LOGGER.debug("Could not close the broken zip archive {}", tmpArchive, e);
+			}
+			zipOutStream = null;
+		}
+
+		private void finishArchive() throws IOException {
+			if (zipOutStream == null)
+				return;
+			zipOutStream.close();
+			zipOutStream = null;
+			commit(tmpArchive, archive);
+			LOGGER.info("Finished zip archive {} with {} entries", archive, archiveEntries);
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -18,18 +18,27 @@ import de.julielab.jcore.types.Header;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasIOUtils;
 import org.apache.uima.util.InvalidXMLException;
 import org.apache.uima.util.XMLInputSource;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.io.File;
-import java.io.FilenameFilter;
-import java.io.IOException;
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -72,6 +81,12 @@ public class CasToXmiConsumerTest {
 		}
 	}
 	
+	private final class BinaryFilter implements FilenameFilter {
+		public boolean accept(File file, String name) {
+			return name.endsWith(".bcas") || name.equals(CasToXmiConsumer.TYPE_SYSTEM_FILE);
+		}
+	}
+
 	private final class XMIZipFilter implements FilenameFilter {
 		public boolean accept(File file, String name) {
 			if (name.endsWith(".zip")) {
@@ -116,6 +131,9 @@ public class CasToXmiConsumerTest {
 		for (File file : xmiZipFiles) {
 			file.delete();
 		}
+		for (File file : dir.listFiles(new BinaryFilter())) {
+			file.delete();
+		}
 	}
 
 	/**
@@ -192,6 +210,83 @@ public class CasToXmiConsumerTest {
 //		assertEquals(NUM_EXPECTED_FILES, dirList.get(1).list(new XMIFilter()).length);
 	}
 
+	/**
+	 * Writes the CASes in the compressed binary format 6 and checks that they can be read back with the separately
+	 * written type system.
+	 * @throws Exception
+	 */
+	@Test
+	public void testProcessCasWithBinaryFormat() throws Exception {
+		consumer = AnalysisEngineFactory.createEngine(CasToXmiConsumer.class,
+				CasToXmiConsumer.PARAM_OUTPUTDIR, OUTPUT_FOLDER_XMI, CasToXmiConsumer.PARAM_FORMAT, "COMPRESSED_FILTERED");
+		CAS cas = createCas();
+		JCas jcas = cas.getJCas();
+		jcas.setDocumentText(TEST_TEXT);
+		Header header = new Header(jcas);
+		header.setDocId("binary");
+		header.addToIndexes();
+		consumer.process(jcas);
+		File outputDir = new File(OUTPUT_FOLDER_XMI);
+		assertEquals(0, outputDir.list(new XMIFilter()).length);
+		File binaryFile = new File(outputDir, "binary.bcas");
+		File typeSystemFile = new File(outputDir, CasToXmiConsumer.TYPE_SYSTEM_FILE);
+		assertTrue(binaryFile.exists());
+		assertTrue(typeSystemFile.exists());
+
+		CAS readCas = createCas();
+		try (InputStream is = new BufferedInputStream(new FileInputStream(binaryFile));
+			 InputStream tsi = new FileInputStream(typeSystemFile)) {
+			assertEquals(SerialFormat.COMPRESSED_FILTERED, CasIOUtils.load(is, tsi, readCas));
+		}
+		assertEquals(TEST_TEXT, readCas.getDocumentText());
+		assertEquals("binary", JCasUtil.selectSingle(readCas.getJCas(), Header.class).getDocId());
+	}
+
+	/**
+	 * Writes the CASes into rolling zip files on multiple writer threads and checks that all archives are complete.
+	 * @throws Exception
+	 */
+	@Test
+	public void testProcessCasWithWriterThreads() throws Exception {
+		consumer = AnalysisEngineFactory.createEngine(CasToXmiConsumer.class,
+				CasToXmiConsumer.PARAM_OUTPUTDIR, OUTPUT_FOLDER_XMI, CasToXmiConsumer.PARAM_COMPRESS_SINGLE, true,
+				CasToXmiConsumer.PARAM_WRITER_THREADS, 2, CasToXmiConsumer.PARAM_MAX_ARCHIVE_ENTRIES, 2);
+		CAS cas = createCas();
+		cas.setDocumentText(TEST_TEXT);
+		JCas jcas = cas.getJCas();
+		for (int i = 0; i < 5; i++) {
+			consumer.process(jcas);
+		}
+		consumer.collectionProcessComplete();
+		File outputDir = new File(OUTPUT_FOLDER_XMI);
+		// each of the two writers rolls its archive after two entries
+		File[] archives = outputDir.listFiles(new XMIZipFilter());
+		assertEquals(3, archives.length);
+		Set<String> entries = new HashSet<>();
+		for (File archive : archives) {
+			try (ZipFile zipFile = new ZipFile(archive)) {
+				for (ZipEntry entry : Collections.list(zipFile.entries()))
+					assertTrue(entries.add(entry.getName()));
+			}
+		}
+		assertEquals(new HashSet<>(Arrays.asList("1.xmi", "2.xmi", "3.xmi", "4.xmi", "5.xmi")), entries);
+		assertEquals(0, outputDir.list((dir, name) -> name.endsWith(".tmp")).length);
+
+		consumer = AnalysisEngineFactory.createEngine(CasToXmiConsumer.class,
+				CasToXmiConsumer.PARAM_OUTPUTDIR, OUTPUT_FOLDER_XMI, CasToXmiConsumer.PARAM_COMPRESS, true,
+				CasToXmiConsumer.PARAM_WRITER_THREADS, 2);
+		for (int i = 0; i < NUM_EXPECTED_FILES; i++) {
+			consumer.process(jcas);
+		}
+		consumer.collectionProcessComplete();
+		assertEquals(NUM_EXPECTED_FILES, outputDir.list(new XMIGzipFilter()).length);
+		try (InputStream is = new GZIPInputStream(new FileInputStream(new File(outputDir, "1" + XMI_EXTENSION + GZIP_EXTENSION)))) {
+			CAS readCas = createCas();
+			XmiCasDeserializer.deserialize(is, readCas);
+			assertEquals(TEST_TEXT, readCas.getDocumentText());
+		}
+	}
+
 	/**
 	 * Sets configuration parameter Compress to true and checks if file with correct ending
 	 * is written by the {@link CasToXmiConsumer}
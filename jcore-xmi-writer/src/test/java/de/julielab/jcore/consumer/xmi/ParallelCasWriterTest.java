@@ -0,0 +1,63 @@
+package de.julielab.jcore.consumer.xmi;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelCasWriterTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private final AtomicInteger archiveCounter = new AtomicInteger();
+
+	private ParallelCasWriter createZipWriter(File outputDir, long maxArchiveAge) {
+		return new ParallelCasWriter(ParallelCasWriter.Mode.ZIP, outputDir, 1, 0, 0, maxArchiveAge,
+				() -> "archive" + archiveCounter.incrementAndGet());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWriteAfterClose() throws Exception {
+		File outputDir = tmp.newFolder();
+		ParallelCasWriter writer = new ParallelCasWriter(ParallelCasWriter.Mode.PLAIN, outputDir, 1, 0, 0, 0,
+				() -> "unused");
+		writer.write(outputDir, "1.xmi", new byte[] { 1 });
+		writer.close();
+		writer.write(outputDir, "2.xmi", new byte[] { 2 });
+	}
+
+	@Test
+	public void testRollOver() throws Exception {
+		File outputDir = tmp.newFolder();
+		ParallelCasWriter writer = createZipWriter(outputDir, 0);
+		writer.write(outputDir, "1.xmi", new byte[] { 1 });
+		writer.rollOver();
+		writer.write(outputDir, "2.xmi", new byte[] { 2 });
+		writer.close();
+		assertEquals(2, outputDir.list((dir, name) -> name.endsWith(".zip")).length);
+	}
+
+	@Test
+	public void testMaxArchiveAge() throws Exception {
+		File outputDir = tmp.newFolder();
+		ParallelCasWriter writer = createZipWriter(outputDir, 100);
+		writer.write(outputDir, "1.xmi", new byte[] { 1 });
+		// the idle writer finishes the archive without further documents or closing
+		long timeout = System.currentTimeMillis() + 10000;
+		while (outputDir.list((dir, name) -> name.endsWith(".zip")).length == 0
+				&& System.currentTimeMillis() < timeout)
+			Thread.sleep(50);
+		assertEquals(1, outputDir.list((dir, name) -> name.endsWith(".zip")).length);
+		assertEquals(0, outputDir.list((dir, name) -> name.endsWith(".tmp")).length);
+		writer.write(outputDir, "2.xmi", new byte[] { 2 });
+		writer.close();
+		assertEquals(2, outputDir.list((dir, name) -> name.endsWith(".zip")).length);
+		assertTrue(new File(outputDir, "archive1.zip").exists());
+	}
+}
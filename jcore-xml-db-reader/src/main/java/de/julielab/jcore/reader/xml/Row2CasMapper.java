@@ -5,36 +5,50 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.TOP;
-import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.ClassUtils;
 
+import java.lang.invoke.*;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.function.Supplier;
+import java.util.function.*;
 
+/**
+ * <p>
+ * Maps additional columns retrieved from the database to UIMA types and features according to the
+ * <tt>RowMapping</tt> parameter.
+ * </p>
+ * <p>
+ * The mapping is compiled when the mapper is created: each mapped column gets a setter function that converts the
+ * column bytes directly into the feature value and calls the feature setter through a lambda generated with
+ * {@link LambdaMetafactory}. The type objects are created through a generated constructor lambda as well. Thus, the
+ * rows are mapped without reflection and, for numeric features, without intermediate strings.
+ * </p>
+ */
 public class Row2CasMapper {
 
     protected static final int TYPE = 0;
     protected static final int FEATURE_AND_DATATYPE = 1;
     private final static Logger LOGGER = LoggerFactory.getLogger(Row2CasMapper.class);
     protected LinkedHashMap<Integer, RowMapElement> rowMapping;
-    protected Method addToIndexes;
+    /**
+     * The values of {@link #rowMapping} in iteration order, for mapping rows without iterator allocation.
+     */
+    private RowMapElement[] compiledRowMapping;
+    /**
+     * The number of distinct type classes in the row mapping. Each type object is created at most once per row.
+     */
+    private int numTypes;
     private Supplier<List<Map<String, Object>>> columnsToRetrieveSupplier;
 
 
     public Row2CasMapper(String[] rowMappingArray, Supplier<List<Map<String, Object>>> columnsToRetrieveSupplier) throws ResourceInitializationException {
         this.columnsToRetrieveSupplier = columnsToRetrieveSupplier;
-        buildRowMapping(rowMappingArray);
-        try {
-            addToIndexes = TOP.class.getDeclaredMethod("addToIndexes");
-        } catch (NoSuchMethodException e) {
-            throw new ResourceInitializationException(e);
-        }
+        rowMapping = buildRowMapping(rowMappingArray);
+        compiledRowMapping = rowMapping != null ? rowMapping.values().toArray(new RowMapElement[0]) : new RowMapElement[0];
     }
 
     public LinkedHashMap<Integer, RowMapElement> getRowMapping() {
@@ -43,22 +57,19 @@ public class Row2CasMapper {
 
     public void mapRowToType(byte[][] arrayArray, JCas jcas) throws CollectionException {
 
-        // Temporary map to cache already created UIMA type objects which could
-        // be referenced multiple times (for multiple features of the same type,
-        // for example).
-        Map<String, TOP> typeObjects = new HashMap<>();
-        Set<Annotation> typesToAddToIndexes = new HashSet<Annotation>();
+        // The UIMA type objects of this row which could be referenced multiple
+        // times (for multiple features of the same type, for example).
+        TOP[] typeObjects = new TOP[numTypes];
 
-        for (Map.Entry<Integer, RowMapElement> entry : rowMapping.entrySet()) {
-            Integer index = entry.getKey();
+        for (RowMapElement rowMapElement : compiledRowMapping) {
+            int index = rowMapElement.index;
 
             if (index >= arrayArray.length) {
                 LOGGER.warn(
-                        "There is a mapping definition for column {}. However, only {} columns were retrieved from the database.",
+                        "There is a mapping definition for column {}. However, only {} columns were retrieved from the database.",
                         index, arrayArray.length);
             }
 
-            RowMapElement rowMapElement = entry.getValue();
             byte[] data = arrayArray[index];
             if (null == data) {
                 if (null == rowMapElement.defaultValue) {
@@ -73,34 +84,21 @@ public class Row2CasMapper {
             }
 
             try {
-                String typeClassName = rowMapElement.typeConstructor.getDeclaringClass().getName();
-                TOP typeObject = typeObjects.get(typeClassName);
+                TOP typeObject = typeObjects[rowMapElement.typeIndex];
                 if (typeObject == null) {
-                    typeObject = (TOP) rowMapElement.typeConstructor.newInstance(jcas);
-                    typeObjects.put(typeClassName, typeObject);
-                }
-                Method setter = rowMapElement.setter;
-                if (data != null) {
-                    FeatureValueCreator valueCreator = rowMapElement.featureValueCreator;
-                    Object featureValue = valueCreator.getFeatureValue(data);
-                    setter.invoke(typeObject, featureValue);
-                    addToIndexes.invoke(typeObject);
+                    typeObject = rowMapElement.typeFactory.apply(jcas);
+                    typeObjects[rowMapElement.typeIndex] = typeObject;
                 }
-            } catch (InstantiationException e) {
-                LOGGER.error("Instantiation of the type class \"" + rowMapElement.typeConstructor.getName()
-                        + "\" specified in the DBMedlineReader descriptor failed.");
-                throw new CollectionException(e);
-            } catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException e) {
+                rowMapElement.columnSetter.set(typeObject, data);
+            } catch (IllegalArgumentException e) {
                 throw new CollectionException(e);
             }
         }
-        try {
-            for (Annotation typeObject : typesToAddToIndexes)
-                addToIndexes.invoke(typeObject, jcas);
-        } catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException e) {
-            throw new CollectionException(e);
+        // Add the type objects once all their features have been set.
+        for (TOP typeObject : typeObjects) {
+            if (typeObject != null)
+                typeObject.addToIndexes();
         }
-
     }
 
     /**
@@ -114,6 +112,7 @@ public class Row2CasMapper {
             return null;
 
         LinkedHashMap<Integer, RowMapElement> rowMapping = new LinkedHashMap<>();
+        Map<Class<?>, Integer> typeIndices = new HashMap<>();
 
         for (String mapping : rowMappingArray) {
             // A mapping item has the following form:
@@ -148,7 +147,14 @@ public class Row2CasMapper {
                     // fit dependency. If this should be removed some day (we
                     // don't rely further on Spring, AFAIK), the respective
                     // method could just be copied from the Spring source.
-                    featureDataTypeClass = ClassUtils.forName(datatype, null);
+                    // "Integer" denotes int features, other unqualified names
+                    // like "String" are resolved against java.lang.
+                    if (datatype.equals("Integer"))
+                        featureDataTypeClass = int.class;
+                    else if (ClassUtils.isPresent(datatype, null) || datatype.contains("."))
+                        featureDataTypeClass = ClassUtils.forName(datatype, null);
+                    else
+                        featureDataTypeClass = ClassUtils.forName("java.lang." + datatype, null);
                 } catch (ClassNotFoundException e) {
                     LOGGER.error("Feature datatype class \"" + datatype
                             + "\" has not been found. Please deliver the fully qualified Java name.");
@@ -167,8 +173,9 @@ public class Row2CasMapper {
                     throw new ResourceInitializationException(e);
                 }
 
-                RowMapElement mapElement = new RowMapElement(featureSetter, constructor,
-                        new FeatureValueCreator(datatype), defaultValue);
+                Integer typeIndex = typeIndices.computeIfAbsent(typeClass, c -> typeIndices.size());
+                RowMapElement mapElement = new RowMapElement(index, featureSetter, constructor, typeIndex,
+                        compileTypeFactory(constructor), compileColumnSetter(featureSetter), defaultValue);
                 rowMapping.put(index, mapElement);
             } catch (ClassNotFoundException e) {
                 LOGGER.error("The type class \"" + type
@@ -178,59 +185,199 @@ public class Row2CasMapper {
                 throw new ResourceInitializationException(e);
             }
         }
+        numTypes = typeIndices.size();
         return rowMapping;
     }
 
+    /**
+     * Creates a function that calls the given constructor of a UIMA type class. The function is generated with the
+     * {@link LambdaMetafactory} if possible which makes it as fast as a direct constructor call.
+     */
+    @SuppressWarnings("unchecked")
+    private Function<JCas, TOP> compileTypeFactory(Constructor<?> constructor) throws ResourceInitializationException {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new ResourceInitializationException(e);
+        }
+        try {
+            return (Function<JCas, TOP>) createLambda(constructor.getDeclaringClass(), Function.class, "apply", MethodType.methodType(Object.class, Object.class), handle);
+        } catch (Throwable t) {
+            LOGGER.debug("Could not generate a lambda for {}, invoking the constructor through a method handle", constructor, t);
+            MethodHandle genericHandle = handle.asType(MethodType.methodType(TOP.class, JCas.class));
+            return jcas -> {
+                try {
+                    return (TOP) genericHandle.invokeExact(jcas);
+                } catch (Throwable e) {
+                    throw new IllegalArgumentException(e);
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates a function that converts the bytes of a database column into the parameter type of
+     * <tt>featureSetter</tt> and sets the value to the feature. Numbers are parsed directly from the bytes.
+     */
+    @SuppressWarnings("unchecked")
+    private ColumnSetter compileColumnSetter(Method featureSetter) throws ResourceInitializationException {
+        Class<?> datatype = featureSetter.getParameterTypes()[0];
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(featureSetter);
+        } catch (IllegalAccessException e) {
+            throw new ResourceInitializationException(e);
+        }
+        if (datatype == int.class) {
+            ObjIntConsumer<TOP> setter;
+            try {
+                setter = (ObjIntConsumer<TOP>) createLambda(featureSetter.getDeclaringClass(), ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class), handle);
+            } catch (Throwable t) {
+                LOGGER.debug("Could not generate a lambda for {}, invoking the setter through a method handle", featureSetter, t);
+                MethodHandle genericHandle = handle.asType(MethodType.methodType(void.class, TOP.class, int.class));
+                setter = (typeObject, value) -> invokeExact(genericHandle, typeObject, value);
+            }
+            ObjIntConsumer<TOP> intSetter = setter;
+            return (typeObject, data) -> intSetter.accept(typeObject, parseInt(data));
+        } else if (datatype == long.class) {
+            ObjLongConsumer<TOP> setter;
+            try {
+                setter = (ObjLongConsumer<TOP>) createLambda(featureSetter.getDeclaringClass(), ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class), handle);
+            } catch (Throwable t) {
+                LOGGER.debug("Could not generate a lambda for {}, invoking the setter through a method handle", featureSetter, t);
+                MethodHandle genericHandle = handle.asType(MethodType.methodType(void.class, TOP.class, long.class));
+                setter = (typeObject, value) -> invokeExact(genericHandle, typeObject, value);
+            }
+            ObjLongConsumer<TOP> longSetter = setter;
+            return (typeObject, data) -> longSetter.accept(typeObject, parseLong(data));
+        } else if (datatype == String.class) {
+            BiConsumer<TOP, Object> setter;
+            try {
+                setter = (BiConsumer<TOP, Object>) createLambda(featureSetter.getDeclaringClass(), BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class), handle);
+            } catch (Throwable t) {
+                LOGGER.debug("Could not generate a lambda for {}, invoking the setter through a method handle", featureSetter, t);
+                MethodHandle genericHandle = handle.asType(MethodType.methodType(void.class, TOP.class, Object.class));
+                setter = (typeObject, value) -> invokeExact(genericHandle, typeObject, value);
+            }
+            BiConsumer<TOP, Object> stringSetter = setter;
+            return (typeObject, data) -> stringSetter.accept(typeObject, new String(data));
+        }
+        throw new ResourceInitializationException(new IllegalArgumentException("Type \"" + datatype
+                + "\" of the setter " + featureSetter + " is currently not supported. You  may however just add it to the "
+                + getClass().getCanonicalName() + " class, if you have access to it."));
+    }
+
+    /**
+     * Generates an implementation of the functional interface <tt>samType</tt> that calls <tt>implementation</tt>, a
+     * constructor or method of <tt>typeClass</tt>.
+     */
+    private Object createLambda(Class<?> typeClass, Class<?> samType, String samMethodName, MethodType samMethodType, MethodHandle implementation) throws Throwable {
+        // The lambda is defined in the class loader of the UIMA type class to be able to link against it.
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(typeClass, MethodHandles.lookup());
+        CallSite site = LambdaMetafactory.metafactory(lookup, samMethodName, MethodType.methodType(samType),
+                samMethodType, implementation, implementation.type());
+        return site.getTarget().invoke();
+    }
+
+    private static void invokeExact(MethodHandle handle, TOP typeObject, int value) {
+        try {
+            handle.invokeExact(typeObject, value);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void invokeExact(MethodHandle handle, TOP typeObject, long value) {
+        try {
+            handle.invokeExact(typeObject, value);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void invokeExact(MethodHandle handle, TOP typeObject, Object value) {
+        try {
+            handle.invokeExact(typeObject, value);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Parses a decimal integer from its ASCII bytes. Equivalent to <tt>Integer.parseInt(new String(data))</tt> but
+     * without creating the string.
+     */
+    static int parseInt(byte[] data) {
+        // Nine digits always fit into an int, fall back to the JDK for longer input and its overflow handling.
+        if (data.length > 10)
+            return Integer.parseInt(new String(data));
+        long value = parseLong(data);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new NumberFormatException("For input string: \"" + new String(data) + "\"");
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal long from its ASCII bytes. Equivalent to <tt>Long.parseLong(new String(data))</tt> but
+     * without creating the string.
+     */
+    static long parseLong(byte[] data) {
+        int length = data.length;
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (data[0] == '-' || data[0] == '+')) {
+            negative = data[0] == '-';
+            i = 1;
+        }
+        // 18 digits always fit into a long, fall back to the JDK for longer input and its overflow handling.
+        if (i == length || length - i > 18)
+            return Long.parseLong(new String(data));
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new NumberFormatException("For input string: \"" + new String(data) + "\"");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts the bytes of a database column and sets them as a feature value of a type object.
+     */
+    @FunctionalInterface
+    private interface ColumnSetter {
+        void set(TOP typeObject, byte[] data);
+    }
+
     private class RowMapElement {
 
+        int index;
         Method setter;
         Constructor<?> typeConstructor;
-        FeatureValueCreator featureValueCreator;
+        int typeIndex;
+        Function<JCas, TOP> typeFactory;
+        ColumnSetter columnSetter;
         byte[] defaultValue;
 
-        public RowMapElement(Method setter, Constructor<?> typeConstructor, FeatureValueCreator featureValueCreator,
-                             byte[] defaultValue) {
+        public RowMapElement(int index, Method setter, Constructor<?> typeConstructor, int typeIndex,
+                             Function<JCas, TOP> typeFactory, ColumnSetter columnSetter, byte[] defaultValue) {
+            this.index = index;
             this.setter = setter;
             this.typeConstructor = typeConstructor;
-            this.featureValueCreator = featureValueCreator;
+            this.typeIndex = typeIndex;
+            this.typeFactory = typeFactory;
+            this.columnSetter = columnSetter;
             this.defaultValue = defaultValue;
 
         }
 
         @Override
         public String toString() {
-            return "RowMapElement [setter=" + setter + ", typeConstructor=" + typeConstructor + ", featureValueCreator="
-                    + featureValueCreator + ", defaultValue=" + (defaultValue != null ? new String(defaultValue) : null)
+            return "RowMapElement [setter=" + setter + ", typeConstructor=" + typeConstructor
+                    + ", defaultValue=" + (defaultValue != null ? new String(defaultValue) : null)
                     + "]";
         }
     }
-
-    private class FeatureValueCreator {
-        private String featureDatatype;
-
-        public FeatureValueCreator(String featureDatatype) {
-            this.featureDatatype = featureDatatype;
-        }
-
-        Object getFeatureValue(byte[] data) {
-            Object ret;
-            if (null == data)
-                throw new IllegalArgumentException(
-                        "The data to be converted to a feature value must not be null, but it is.");
-            switch (featureDatatype) {
-                case "Integer":
-                case "int":
-                    ret = Integer.parseInt(new String(data));
-                    break;
-                case "String":
-                    ret = new String(data);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Type \"" + featureDatatype
-                            + "\" is currently not supported. You  may however just add it to the "
-                            + getClass().getCanonicalName() + " class, if you have access to it.");
-            }
-            return ret;
-        }
-    }
 }
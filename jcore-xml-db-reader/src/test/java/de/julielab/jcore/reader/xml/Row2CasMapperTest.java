@@ -0,0 +1,111 @@
+package de.julielab.jcore.reader.xml;
+
+import de.julielab.jcore.types.Date;
+import de.julielab.jcore.types.Header;
+import de.julielab.xml.JulieXMLConstants;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Row2CasMapperTest {
+
+    private static final String[] ROW_MAPPING = {
+            "0=de.julielab.jcore.types.Header#docId:String",
+            "1=de.julielab.jcore.types.Date#year:Integer",
+            "2=de.julielab.jcore.types.Date#month:int:7",
+            "3=de.julielab.jcore.types.Header#source:String:medline"};
+
+    private static List<Map<String, Object>> getColumns() {
+        return Arrays.asList(Collections.singletonMap(JulieXMLConstants.NAME, "pmid"),
+                Collections.singletonMap(JulieXMLConstants.NAME, "year"),
+                Collections.singletonMap(JulieXMLConstants.NAME, "month"),
+                Collections.singletonMap(JulieXMLConstants.NAME, "source"));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes();
+    }
+
+    @Test
+    public void testMapRowToType() throws Exception {
+        Row2CasMapper mapper = new Row2CasMapper(ROW_MAPPING, Row2CasMapperTest::getColumns);
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+        mapper.mapRowToType(new byte[][]{bytes("12345"), bytes("2019"), bytes("3"), bytes("pmc")}, jCas);
+
+        // the features of the same type are set on a single type object
+        Header header = JCasUtil.selectSingle(jCas, Header.class);
+        assertEquals("12345", header.getDocId());
+        assertEquals("pmc", header.getSource());
+        Date date = JCasUtil.selectSingle(jCas, Date.class);
+        assertEquals(2019, date.getYear());
+        assertEquals(3, date.getMonth());
+    }
+
+    @Test
+    public void testDefaultValues() throws Exception {
+        Row2CasMapper mapper = new Row2CasMapper(ROW_MAPPING, Row2CasMapperTest::getColumns);
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+        mapper.mapRowToType(new byte[][]{bytes("12345"), bytes("2019"), null, null}, jCas);
+
+        assertEquals("medline", JCasUtil.selectSingle(jCas, Header.class).getSource());
+        assertEquals(7, JCasUtil.selectSingle(jCas, Date.class).getMonth());
+    }
+
+    @Test
+    public void testMissingValueWithoutDefault() throws Exception {
+        Row2CasMapper mapper = new Row2CasMapper(ROW_MAPPING, Row2CasMapperTest::getColumns);
+        JCas jCas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+        try {
+            mapper.mapRowToType(new byte[][]{bytes("12345"), null, null, null}, jCas);
+            fail("A missing value without a default value should not be accepted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("\"year\""));
+        }
+    }
+
+    @Test
+    public void testParseInt() {
+        for (String number : new String[]{"0", "7", "+42", "-42", "007", "2147483647", "-2147483648", "+2147483647"})
+            assertEquals(number, Integer.parseInt(number), Row2CasMapper.parseInt(bytes(number)));
+    }
+
+    @Test
+    public void testParseLong() {
+        for (String number : new String[]{"0", "-7", "+42", "2147483648", "999999999999999999",
+                "-999999999999999999", "9223372036854775807", "-9223372036854775808", "0000000000000000000001"})
+            assertEquals(number, Long.parseLong(number), Row2CasMapper.parseLong(bytes(number)));
+    }
+
+    @Test
+    public void testParseInvalidNumbers() {
+        // the same input is rejected as by the JDK
+        for (String number : new String[]{"", "-", "+", "4a2", " 42", "42 ", "1.5", "--1", "2147483648",
+                "-2147483649", "9999999999", "99999999999"})
+            assertInvalid(number, true);
+        for (String number : new String[]{"", "-", "+", "4a2", " 42", "1.5", "--1", "9223372036854775808",
+                "-9223372036854775809", "99999999999999999999"})
+            assertInvalid(number, false);
+    }
+
+    private static void assertInvalid(String number, boolean asInt) {
+        try {
+            if (asInt)
+                Row2CasMapper.parseInt(bytes(number));
+            else
+                Row2CasMapper.parseLong(bytes(number));
+            fail("\"" + number + "\" should not have been parsed as " + (asInt ? "int" : "long"));
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+}
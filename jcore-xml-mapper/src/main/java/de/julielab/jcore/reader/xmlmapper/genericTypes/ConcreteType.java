@@ -34,15 +34,26 @@ public class ConcreteType {
 	 */
 	private int begin;
 	private int end;
+	/**
+	 * Whether this type stands for multiple instances or an inline annotation.
+	 * Initialized from the template and changed by the type parsers for this
+	 * concrete type only.
+	 */
+	private boolean multipleInstances;
+	private boolean inlineAnnotation;
 	
 	/**
-	 * Creates a new Instance of a ConcreteType on the base of a TypeTemplate
+	 * Creates a new Instance of a ConcreteType on the base of a TypeTemplate.
+	 * The template is shared between all its concrete types and must not be
+	 * changed by them.
 	 * 
 	 * @param typeTemplate
 	 */
 	public ConcreteType(TypeTemplate typeTemplate) {
-		this.setTypeTemplate(typeTemplate.clone());
+		this.setTypeTemplate(typeTemplate);
 		this.features = new ArrayList<ConcreteFeature>();
+		this.multipleInstances = typeTemplate.isMultipleInstances();
+		this.inlineAnnotation = typeTemplate.isInlineAnnotation();
 	}
 	
 
@@ -125,4 +136,20 @@ public class ConcreteType {
 	public int getEnd() {
 		return end;
 	}
+
+	public boolean isMultipleInstances() {
+		return multipleInstances;
+	}
+
+	public void setMultipleInstances(boolean multipleInstances) {
+		this.multipleInstances = multipleInstances;
+	}
+
+	public boolean isInlineAnnotation() {
+		return inlineAnnotation;
+	}
+
+	public void setInlineAnnotation(boolean inlineAnnotation) {
+		this.inlineAnnotation = inlineAnnotation;
+	}
 }
@@ -162,6 +162,7 @@ public class FeatureTemplate extends TypeTemplate {
 		}
 		template.multipleInstances=this.multipleInstances;
 		template.inlineAnnotation=this.inlineAnnotation;
+		template.compiledXPaths=this.compiledXPaths;
 		return template;
 	}
 
@@ -14,6 +14,10 @@
  **/
 package de.julielab.jcore.reader.xmlmapper.genericTypes;
 
+import com.ximpleware.AutoPilot;
+import com.ximpleware.VTDNav;
+import com.ximpleware.XPathParseException;
+import de.julielab.jcore.reader.xmlmapper.mapper.MapperUtils;
 import de.julielab.jcore.reader.xmlmapper.typeParser.FSArrayParser;
 import de.julielab.jcore.reader.xmlmapper.typeParser.StandardTypeParser;
 import de.julielab.jcore.reader.xmlmapper.typeParser.StringArrayParser;
@@ -44,7 +48,11 @@ public class TypeTemplate {
 	protected List<Integer> partOfDocuments; 
 	protected boolean multipleInstances;
 	protected boolean inlineAnnotation;
-
+	/**
+	 * The XPaths of this template, compiled on first use and reused for all
+	 * documents. Shared with the clones of this template.
+	 */
+	protected Map<String, AutoPilot> compiledXPaths;
 
 	/**
 	 * adds a FeatureTemplate to the List 
@@ -79,6 +87,7 @@ public class TypeTemplate {
 		this.xPaths= new ArrayList<String>();
 		this.partOfDocuments = new ArrayList<Integer>();
 		this.additionalData = new HashMap<Integer, String>();
+		this.compiledXPaths = new HashMap<String, AutoPilot>();
 	}
 
 	public String toString() {
@@ -181,6 +190,23 @@ public class TypeTemplate {
 	public void addXPath(String xpath) {
 		this.xPaths.add(xpath);
 	}
+
+	/**
+	 * Returns an AutoPilot evaluating <tt>xpath</tt> on <tt>vn</tt>. The XPath
+	 * is compiled only once per template, see
+	 * {@link MapperUtils#getXPathPilot(Map, String, VTDNav)} for the
+	 * restrictions this implies.
+	 * 
+	 * @param xpath
+	 *            One of the XPaths of this template.
+	 * @param vn
+	 *            The navigator to evaluate the XPath on.
+	 * @return An AutoPilot evaluating <tt>xpath</tt> on <tt>vn</tt>.
+	 * @throws XPathParseException
+	 */
+	public AutoPilot getXPathPilot(String xpath, VTDNav vn) throws XPathParseException {
+		return MapperUtils.getXPathPilot(compiledXPaths, xpath, vn);
+	}
 	
 	protected TypeTemplate clone() {
 		TypeTemplate typeTemplate = new TypeTemplate();
@@ -206,6 +232,7 @@ public class TypeTemplate {
 		}
 		typeTemplate.multipleInstances=this.multipleInstances;
 		typeTemplate.inlineAnnotation=this.inlineAnnotation;
+		typeTemplate.compiledXPaths=this.compiledXPaths;
 		return typeTemplate;
 	}
 
@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +40,10 @@ public class DocumentTextHandler {
     private static Map<String, Integer> numNoDocTextFound = new ConcurrentHashMap<>();
     Logger LOGGER = LoggerFactory.getLogger(DocumentTextHandler.class);
     private DocumentTextData docTextData;
+    /**
+     * The XPaths of the document text parts, compiled on first use.
+     */
+    private Map<String, AutoPilot> compiledXPaths = new HashMap<>();
 
     public DocumentTextHandler() {
         docTextData = new DocumentTextData();
@@ -99,12 +104,10 @@ public class DocumentTextHandler {
 
     private List<String> getTextPart(VTDNav vn, PartOfDocument part, byte[] identifier) throws XPathParseException, XPathEvalException, NavException {
         List<String> textParts = new ArrayList<>();
-        vn.cloneNav();
-        AutoPilot ap = new AutoPilot(vn);
         String textPart;
         if (StringUtils.isBlank(part.getXPath()))
             throw new IllegalStateException("Document text part with ID " + part.getId() + " has no XPath specified.");
-        ap.selectXPath(part.getXPath());
+        AutoPilot ap = MapperUtils.getXPathPilot(compiledXPaths, part.getXPath(), vn);
 
         int i = ap.evalXPath();
         if (i < 0 && numNoDocTextFound.compute(part.getXPath(), (k, v) -> v != null ? v + 1 : 1) < 10)
@@ -15,10 +15,14 @@
 
 package de.julielab.jcore.reader.xmlmapper.mapper;
 
+import com.ximpleware.AutoPilot;
 import com.ximpleware.NavException;
 import com.ximpleware.VTDNav;
+import com.ximpleware.XPathParseException;
 import de.julielab.xml.JulieXMLTools;
 
+import java.util.Map;
+
 /**
  * Some utility methods like string transformations.
  * 
@@ -26,6 +30,43 @@ import de.julielab.xml.JulieXMLTools;
  */
 public class MapperUtils {
 
+	/**
+	 * Returns an {@link AutoPilot} for <code>xpath</code> that is bound to
+	 * <code>vn</code> and ready for evaluation. The XPath expression is only
+	 * compiled the first time it is requested; afterwards, the compiled
+	 * <code>AutoPilot</code> is taken from <code>compiledXPaths</code> and
+	 * re-bound to <code>vn</code>. Thus, an <code>AutoPilot</code> returned by
+	 * this method must not be used any more after the same XPath has been
+	 * requested again from the same map.<br>
+	 * Re-binding resets the XPath evaluation state of <code>vn</code>, so
+	 * <code>vn</code> must not be used by another XPath evaluation at the same
+	 * time. This holds for the navigators cloned by the type parsers.
+	 * 
+	 * @param compiledXPaths
+	 *            The cache of compiled XPaths, mapping from the XPath
+	 *            expression to its <code>AutoPilot</code>.
+	 * @param xpath
+	 *            The XPath expression to evaluate.
+	 * @param vn
+	 *            The navigator to evaluate the XPath on.
+	 * @return An <code>AutoPilot</code> evaluating <code>xpath</code> on
+	 *         <code>vn</code>.
+	 * @throws XPathParseException
+	 *             If <code>xpath</code> is not a valid XPath expression.
+	 */
+	public static AutoPilot getXPathPilot(Map<String, AutoPilot> compiledXPaths, String xpath, VTDNav vn)
+			throws XPathParseException {
+		AutoPilot ap = compiledXPaths.get(xpath);
+		if (ap == null) {
+			ap = new AutoPilot();
+			ap.selectXPath(xpath);
+			compiledXPaths.put(xpath, ap);
+		}
+		ap.bind(vn);
+		ap.resetXPath();
+		return ap;
+	}
+
 
 	/**
 	 * Returns XML fragment corresponding to the XML element <code>vn</code>
@@ -25,33 +25,59 @@ import org.apache.uima.jcas.tcas.Annotation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.HashMap;
-
-import static org.fest.reflect.core.Reflection.constructor;
-import static org.fest.reflect.core.Reflection.method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In this class, the actual UIMA types are built from the templates which have
  * been filled with values by the type parsers before. The standard type builder
- * uses reflection to build a Type of the typesystem from a ConcreteType
+ * uses reflection to build a Type of the typesystem from a ConcreteType. The
+ * type classes, their constructors and feature setters are resolved once and
+ * then reused for all type instances.
  * 
  * @author weigel
  */
 public class StandardTypeBuilder implements TypeBuilder {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(StandardTypeBuilder.class);
-	private HashMap<String, Class<?>> standardJavaTypesMap;
-
+	private static final Map<String, Class<?>> standardJavaTypesMap = new HashMap<String, Class<?>>();
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, JCas.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
 	/**
-	 * creates an new instance of the StandardTypeBuilder
+	 * The type classes by their fully qualified names.
 	 */
-	public StandardTypeBuilder() {
-		initStandardTypes();
-	}
+	private static final Map<String, Class<?>> typeClasses = new ConcurrentHashMap<>();
+	/**
+	 * The <code>(JCas)</code> constructors of the type classes.
+	 */
+	private static final ClassValue<MethodHandle> constructors = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue(Class<?> typeClass) {
+			try {
+				return MethodHandles.publicLookup().findConstructor(typeClass, MethodType.methodType(void.class, JCas.class))
+						.asType(CONSTRUCTOR_TYPE);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new IllegalArgumentException("The type class " + typeClass.getName() + " has no public constructor taking a JCas.", e);
+			}
+		}
+	};
+	/**
+	 * The feature setters of the type classes by the setter name and the
+	 * parameter type, e.g. <code>setSpecificType(java.lang.String)</code>.
+	 */
+	private static final ClassValue<Map<String, MethodHandle>> setters = new ClassValue<Map<String, MethodHandle>>() {
+		@Override
+		protected Map<String, MethodHandle> computeValue(Class<?> typeClass) {
+			return new ConcurrentHashMap<>();
+		}
+	};
 
-	private void initStandardTypes() {
+	static {
 		// TODO liste einfacher Typen vervollständigen
-		standardJavaTypesMap = new HashMap<String, Class<?>>();
 		standardJavaTypesMap.put("char", char.class);
 		standardJavaTypesMap.put("int", int.class);
 		standardJavaTypesMap.put("boolean", boolean.class);
@@ -61,6 +87,12 @@ public class StandardTypeBuilder implements TypeBuilder {
 		standardJavaTypesMap.put("byte", byte.class);
 	}
 
+	/**
+	 * creates an new instance of the StandardTypeBuilder
+	 */
+	public StandardTypeBuilder() {
+	}
+
 	/**
 	 * Instantiates a UIMA type object belonging to the class given by
 	 * {@link ConcreteType#getFullClassName()}.
@@ -80,7 +112,7 @@ public class StandardTypeBuilder implements TypeBuilder {
 	 *         their values given by {@link ConcreteType#getConcreteFeatures()}.
 	 */
 	public Annotation buildType(ConcreteType concreteType, JCas jcas) throws CollectionException {
-		if (concreteType.getTypeTemplate().isMultipleInstances() || concreteType.getTypeTemplate().isInlineAnnotation()) {
+		if (concreteType.isMultipleInstances() || concreteType.isInlineAnnotation()) {
 			for (ConcreteFeature concreteFeature : concreteType.getConcreteFeatures()) {
 				this.buildType(concreteFeature, jcas);
 			}
@@ -112,7 +144,7 @@ public class StandardTypeBuilder implements TypeBuilder {
 		Class<?> typeClass = null;
 		Annotation type = null;
 		try {
-			typeClass = Class.forName(concreteType.getFullClassName());
+			typeClass = getClass(concreteType.getFullClassName());
 		} catch (ClassNotFoundException e) {
             throw new CollectionException(e);
 		}
@@ -120,7 +152,14 @@ public class StandardTypeBuilder implements TypeBuilder {
 		if (concreteType.getConcreteFeatures() != null) {
 			// Create the UIMA type corresponding to the type description in
 			// concreteType.
-			type = (Annotation) constructor().withParameterTypes(JCas.class).in(typeClass).newInstance(jcas);
+			try {
+				// invokeExact requires the call site to match the handle type
+				// (JCas)Object exactly, so the result must not be cast inline
+				Object instance = constructors.get(typeClass).invokeExact(jcas);
+				type = (Annotation) instance;
+			} catch (Throwable e) {
+				throw new CollectionException(e);
+			}
 
 			// For each feature this type has, set the corret feature value.
 			for (ConcreteFeature concreteFeature : concreteType.getConcreteFeatures()) {
@@ -147,20 +186,20 @@ public class StandardTypeBuilder implements TypeBuilder {
 					// itself.
 					if (standardJavaTypesMap.get(concreteFeature.getFullClassName()) != null) {
 						featureClass = standardJavaTypesMap.get(concreteFeature.getFullClassName());
-						method(methodName).withParameterTypes(featureClass).in(type)
-								.invoke(parseValueStringToValueType(concreteFeature.getValue(), concreteFeature.getFullClassName()));
+						getSetter(typeClass, methodName, featureClass)
+								.invokeExact((Object) type, parseValueStringToValueType(concreteFeature.getValue(), concreteFeature.getFullClassName()));
 					} else if (concreteFeature.getFullClassName().equals("String") || concreteFeature.getFullClassName().equals("java.lang.String")) {
-						featureClass = Class.forName(concreteFeature.getFullClassName());
-						method(methodName).withParameterTypes(featureClass).in(type).invoke(concreteFeature.getValue());
+						featureClass = String.class;
+						getSetter(typeClass, methodName, featureClass).invokeExact((Object) type, (Object) concreteFeature.getValue());
 					} else {
 						String featureClassName = concreteFeature.getFullClassName();
 						if (StringUtils.isBlank(featureClassName))
 							throw new IllegalStateException("For the feature \"" + concreteFeature.getTsName() + "\" of the type \""
 									+ concreteType.getFullClassName()
 									+ "\" the feature value class (e.g. String, Integer, another type...) was not defined in the mapping file.");
-						featureClass = Class.forName(featureClassName);
+						featureClass = getClass(featureClassName);
 						TOP top = concreteFeature.getTypeTemplate().getParser().getTypeBuilder().buildType(concreteFeature, jcas);
-						method(methodName).withParameterTypes(featureClass).in(type).invoke(top);
+						getSetter(typeClass, methodName, featureClass).invokeExact((Object) type, (Object) top);
 					}
 				} catch (Throwable e) {
 					LOGGER.error("Wrong Feature Type: " + concreteFeature.getFullClassName(), e);
@@ -175,6 +214,38 @@ public class StandardTypeBuilder implements TypeBuilder {
 		return type;
 	}
 
+	/**
+	 * Returns the class with the given name. The lookup is cached because
+	 * {@link Class#forName(String)} is comparably expensive and is required
+	 * for every feature of every type instance.
+	 */
+	private static Class<?> getClass(String className) throws ClassNotFoundException {
+		Class<?> cls = typeClasses.get(className);
+		if (cls == null) {
+			cls = Class.forName(className);
+			typeClasses.put(className, cls);
+		}
+		return cls;
+	}
+
+	/**
+	 * Returns the public setter <code>methodName(featureClass)</code> of
+	 * <code>typeClass</code> with the receiver and the parameter adapted to
+	 * <code>Object</code>; primitive parameters are unboxed.
+	 */
+	private static MethodHandle getSetter(Class<?> typeClass, String methodName, Class<?> featureClass)
+			throws NoSuchMethodException, IllegalAccessException {
+		Map<String, MethodHandle> typeSetters = setters.get(typeClass);
+		String key = methodName + "(" + featureClass.getName() + ")";
+		MethodHandle setter = typeSetters.get(key);
+		if (setter == null) {
+			setter = MethodHandles.publicLookup()
+					.findVirtual(typeClass, methodName, MethodType.methodType(void.class, featureClass)).asType(SETTER_TYPE);
+			typeSetters.put(key, setter);
+		}
+		return setter;
+	}
+
 	private Object parseValueStringToValueType(String value, String type) {
 		if (type.equals("boolean")) {
 			return Boolean.parseBoolean(value);
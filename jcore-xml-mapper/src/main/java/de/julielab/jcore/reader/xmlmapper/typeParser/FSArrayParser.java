@@ -37,8 +37,7 @@ public class FSArrayParser extends StandardTypeParser {
 		VTDNav vn = nav.cloneNav();
 		for (FeatureTemplate featureTemplate : concreteType.getTypeTemplate().getFeatures()) {
 			for (String xPath : featureTemplate.getXPaths()) {
-				AutoPilot ap = new AutoPilot(vn);
-				ap.selectXPath(xPath);
+				AutoPilot ap = featureTemplate.getXPathPilot(xPath, vn);
 				while (ap.evalXPath() != -1) {
 					ConcreteFeature concreteFeature = new ConcreteFeature(featureTemplate);
 					parseSingleType(concreteFeature, vn, jcas, identifier, docText);
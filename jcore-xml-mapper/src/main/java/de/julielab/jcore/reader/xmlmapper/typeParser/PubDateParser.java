@@ -88,8 +88,7 @@ public class PubDateParser implements TypeParser {
 		VTDNav vn = nav.cloneNav();
 
 		for (String xPath : concreteType.getTypeTemplate().getXPaths()) {
-			AutoPilot ap = new AutoPilot(vn);
-			ap.selectXPath(xPath);
+			AutoPilot ap = concreteType.getTypeTemplate().getXPathPilot(xPath, vn);
 			while (ap.evalXPath() != -1) {
 				// ap.selectAttr("*");
 				if (vn.toElement(VTDNav.FIRST_CHILD, "*")) {
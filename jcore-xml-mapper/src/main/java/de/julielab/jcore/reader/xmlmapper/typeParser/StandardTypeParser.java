@@ -41,15 +41,14 @@ public class StandardTypeParser implements TypeParser {
 		// System.out.println(this.getClass().getSimpleName() + ".parseType:" +
 		// concreteType.getTypeTemplate().getFullClassName());
 
-		boolean inline = concreteType.getTypeTemplate().isInlineAnnotation();
-		if (concreteType.getTypeTemplate().isMultipleInstances() || inline) {
+		boolean inline = concreteType.isInlineAnnotation();
+		if (concreteType.isMultipleInstances() || inline) {
 			if (concreteType.getTypeTemplate().getXPaths().size() > 0) {
 				int inlinePosition = 0;
 				String text = docText.getText();
 				for (String xPath : concreteType.getTypeTemplate().getXPaths()) {
 					// xpath auswerten
-					AutoPilot ap = new AutoPilot(vn);
-					ap.selectXPath(xPath);
+					AutoPilot ap = concreteType.getTypeTemplate().getXPathPilot(xPath, vn);
 					while (ap.evalXPath() != -1) {
 						int begin = 0;
 						int end = 0;
@@ -65,8 +64,8 @@ public class StandardTypeParser implements TypeParser {
 						}
 						if (begin >= 0) {
 							ConcreteFeature realType = new ConcreteFeature(concreteType.getTypeTemplate());
-							realType.getTypeTemplate().setMultipleInstances(false);
-							realType.getTypeTemplate().setInlineAnnotation(false);
+							realType.setMultipleInstances(false);
+							realType.setInlineAnnotation(false);
 							realType.setBegin(begin);
 							realType.setEnd(end);
 							parseSingleType(realType, vn, jcas, identifier, docText);
@@ -78,7 +77,7 @@ public class StandardTypeParser implements TypeParser {
 				}
 			} else {
 				LOGGER.warn("type is marked as Multiple Instance withoutxPath. parsing only one Instance insted");
-				concreteType.getTypeTemplate().setMultipleInstances(false);
+				concreteType.setMultipleInstances(false);
 				parseSingleType(concreteType, vn, jcas, identifier, docText);
 			}
 		} else {
@@ -131,8 +130,7 @@ public class StandardTypeParser implements TypeParser {
 			throws XPathParseException, XPathEvalException, NavException {
 		VTDNav vn = nav.cloneNav();
 		for (String xpath : featureTemplate.getXPaths()) {
-			AutoPilot ap = new AutoPilot(vn);
-			ap.selectXPath(xpath);
+			AutoPilot ap = featureTemplate.getXPathPilot(xpath, vn);
 			int i = ap.evalXPath();
 			while (i != -1) {
 				String value;
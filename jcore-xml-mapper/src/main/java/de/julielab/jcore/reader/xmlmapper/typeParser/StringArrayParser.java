@@ -45,9 +45,8 @@ public class StringArrayParser implements TypeParser {
                           byte[] identifier, DocumentTextData docText) throws Exception {
         VTDNav vn = nav.cloneNav();
         for (String xPath : concreteType.getTypeTemplate().getXPaths()) {
-            AutoPilot ap = new AutoPilot(vn);
+            AutoPilot ap = concreteType.getTypeTemplate().getXPathPilot(xPath, vn);
             Matcher m = p.matcher("");
-            ap.selectXPath(xPath);
             while (ap.evalXPath() != -1) {
                 if (vn.toElement(VTDNav.FIRST_CHILD, "*")) {
                     do {
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2015, JULIE Lab.
+ * All rights reserved. This program and the accompanying materials 
+ * are made available under the terms of the BSD-2-Clause License
+ */
+
+package de.julielab.jcore.reader.xmlmapper.typeBuilder;
+
+import de.julielab.jcore.reader.xmlmapper.genericTypes.ConcreteFeature;
+import de.julielab.jcore.reader.xmlmapper.genericTypes.ConcreteType;
+import de.julielab.jcore.reader.xmlmapper.genericTypes.FeatureTemplate;
+import de.julielab.jcore.reader.xmlmapper.genericTypes.TypeTemplate;
+import de.julielab.jcore.types.Abbreviation;
+import de.julielab.jcore.types.AbbreviationLongform;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StandardTypeBuilderTest {
+
+	@Test
+	public void testBuildType() throws Exception {
+		JCas jcas = JCasFactory.createJCas("de.julielab.jcore.types.jcore-all-types");
+		jcas.setDocumentText("Interleukin-2 (IL-2) is a cytokine.");
+
+		TypeTemplate abbreviationTemplate = new TypeTemplate();
+		abbreviationTemplate.setFullClassName(Abbreviation.class.getName());
+		ConcreteType abbreviation = new ConcreteType(abbreviationTemplate);
+		abbreviation.setBegin(15);
+		abbreviation.setEnd(19);
+		// a String feature
+		abbreviation.addFeature(createValueFeature("expan", "String", "Interleukin-2"));
+		// a primitive feature
+		abbreviation.addFeature(createValueFeature("definedHere", "boolean", "true"));
+		// a type-valued feature
+		FeatureTemplate longformTemplate = new FeatureTemplate();
+		longformTemplate.setFullClassName(AbbreviationLongform.class.getName());
+		longformTemplate.setTsName("textReference");
+		longformTemplate.setType(true);
+		ConcreteFeature longform = new ConcreteFeature(longformTemplate);
+		longform.setBegin(0);
+		longform.setEnd(13);
+		abbreviation.addFeature(longform);
+
+		Annotation built = new StandardTypeBuilder().buildType(abbreviation, jcas);
+
+		assertTrue(built instanceof Abbreviation);
+		Abbreviation abbr = JCasUtil.selectSingle(jcas, Abbreviation.class);
+		assertSame(built, abbr);
+		assertEquals("IL-2", abbr.getCoveredText());
+		assertEquals("Interleukin-2", abbr.getExpan());
+		assertTrue(abbr.getDefinedHere());
+		assertNotNull(abbr.getTextReference());
+		assertEquals("Interleukin-2", abbr.getTextReference().getCoveredText());
+		assertEquals(1, JCasUtil.select(jcas, AbbreviationLongform.class).size());
+
+		// a second instance of the same type uses the cached constructor and setters
+		abbreviation.setBegin(0);
+		abbreviation.setEnd(13);
+		new StandardTypeBuilder().buildType(abbreviation, jcas);
+		assertEquals(2, JCasUtil.select(jcas, Abbreviation.class).size());
+	}
+
+	private ConcreteFeature createValueFeature(String tsName, String valueClass, String value) {
+		FeatureTemplate template = new FeatureTemplate();
+		template.setFullClassName(valueClass);
+		template.setTsName(tsName);
+		ConcreteFeature feature = new ConcreteFeature(template);
+		feature.setValue(value);
+		return feature;
+	}
+}